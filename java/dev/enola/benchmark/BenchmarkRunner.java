@@ -0,0 +1,93 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.benchmark;
+
+import dev.enola.common.yamljson.JSON;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BenchmarkRunner runs the <a href="https://github.com/openjdk/jmh">JMH</a> benchmarks of this
+ * package.
+ *
+ * <p>All arguments are JMH's (e.g. {@code -rf json -rff results.json} to write the results, or
+ * {@code -f 0 -wi 1 -i 1 RdfBenchmarks} for a quick run of some of them), except for {@code
+ * --baseline=results.json}, which prints how much each score changed compared to the JSON results
+ * of a previous run. See {@code tools/benchmark/benchmark.bash} for how to run this.
+ */
+public final class BenchmarkRunner {
+
+    private static final String BASELINE = "--baseline=";
+
+    /** Prints the change of each score, compared to a previous run's JMH JSON. */
+    @SuppressWarnings("unchecked")
+    static void compare(Map<String, Double> scores, String baselineJSON) {
+        var baseline = new HashMap<String, Double>();
+        for (var object : (List<Map<String, Object>>) JSON.readObject(baselineJSON)) {
+            var metric = (Map<String, Object>) object.get("primaryMetric");
+            var score = ((Number) metric.get("score")).doubleValue();
+            baseline.put((String) object.get("benchmark"), score);
+        }
+        System.out.println();
+        for (var entry : scores.entrySet()) {
+            var previous = baseline.get(entry.getKey());
+            if (previous == null || previous == 0) continue;
+            var change = (entry.getValue() - previous) / previous * 100;
+            System.out.printf("%-70s %+8.1f%%%n", entry.getKey(), change);
+        }
+    }
+
+    static Map<String, Double> scores(Collection<RunResult> results) {
+        var scores = new HashMap<String, Double>();
+        for (var result : results)
+            scores.put(
+                    result.getParams().getBenchmark(), result.getPrimaryResult().getScore());
+        return scores;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path baseline = null;
+        var jmhArgs = new ArrayList<String>(args.length);
+        for (var arg : args) {
+            if (arg.startsWith(BASELINE)) baseline = path(arg.substring(BASELINE.length()));
+            else jmhArgs.add(arg);
+        }
+
+        var results = new Runner(new CommandLineOptions(jmhArgs.toArray(String[]::new))).run();
+        if (baseline != null) compare(scores(results), Files.readString(baseline));
+    }
+
+    /** Resolves relative paths against where "bazel run" was invoked, not its runfiles. */
+    private static Path path(String path) {
+        var workingDirectory = System.getenv("BUILD_WORKING_DIRECTORY");
+        if (workingDirectory == null) return Path.of(path);
+        return Path.of(workingDirectory).resolve(path);
+    }
+
+    private BenchmarkRunner() {}
+}
@@ -0,0 +1,58 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.benchmark;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Map;
+
+public class BenchmarkRunnerTest {
+
+    @Test
+    public void benchmarks() throws Exception {
+        // Just make sure that all fixtures can be set up, and that all benchmarks work
+        var options =
+                new OptionsBuilder()
+                        .include(getClass().getPackageName())
+                        .forks(0)
+                        .warmupIterations(0)
+                        .measurementIterations(1)
+                        .measurementTime(TimeValue.milliseconds(10))
+                        // The 1M triples of the default would make this test slow
+                        .param("subjects", "1000")
+                        .build();
+        var scores = BenchmarkRunner.scores(new Runner(options).run());
+        assertThat(scores).containsKey(RdfBenchmarks.class.getName() + ".convertPicasso");
+        assertThat(scores.values()).doesNotContain(0.0);
+    }
+
+    @Test
+    public void compare() {
+        var json =
+                """
+                [{"benchmark": "a", "mode": "thrpt", "primaryMetric": {"score": 100.0}},
+                 {"benchmark": "b", "mode": "thrpt", "primaryMetric": {"score": 0}}]
+                """;
+        BenchmarkRunner.compare(Map.of("a", 110.0, "b", 1.0, "c", 1.0), json);
+    }
+}
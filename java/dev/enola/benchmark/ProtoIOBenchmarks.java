@@ -0,0 +1,78 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.benchmark;
+
+import com.google.common.net.MediaType;
+import com.google.protobuf.Message;
+
+import dev.enola.common.io.resource.MemoryResource;
+import dev.enola.common.protobuf.ProtoIO;
+import dev.enola.common.protobuf.ProtobufMediaTypes;
+import dev.enola.thing.proto.Things;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+
+/** Benchmarks of {@link ProtoIO#write(Message, dev.enola.common.io.resource.WritableResource)}. */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProtoIOBenchmarks {
+
+    private final ProtoIO protoIO = new ProtoIO();
+    private Things things;
+
+    @Setup
+    public void setUp() {
+        things = RdfBenchmarks.things("enola.dev/enola.ttl");
+    }
+
+    @Benchmark
+    public MemoryResource writeBinary() throws IOException {
+        return write(ProtobufMediaTypes.PROTOBUF_BINARY);
+    }
+
+    @Benchmark
+    public MemoryResource writeTextproto() throws IOException {
+        return write(ProtobufMediaTypes.PROTOBUF_TEXTPROTO_UTF_8);
+    }
+
+    @Benchmark
+    public MemoryResource writeJSON() throws IOException {
+        return write(ProtobufMediaTypes.PROTOBUF_JSON_UTF_8);
+    }
+
+    @Benchmark
+    public MemoryResource writeYAML() throws IOException {
+        return write(ProtobufMediaTypes.PROTOBUF_YAML_UTF_8);
+    }
+
+    private MemoryResource write(MediaType mediaType) throws IOException {
+        var resource = new MemoryResource(mediaType);
+        protoIO.write(things, resource);
+        return resource;
+    }
+}
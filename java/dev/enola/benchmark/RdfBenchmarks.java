@@ -0,0 +1,130 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.benchmark;
+
+import dev.enola.common.io.mediatype.MediaTypeProviders;
+import dev.enola.common.io.resource.ClasspathResource;
+import dev.enola.rdf.io.RdfMediaTypes;
+import dev.enola.rdf.io.RdfReaderConverter;
+import dev.enola.rdf.proto.RdfProtoThingsConverter;
+import dev.enola.thing.proto.Thing;
+import dev.enola.thing.proto.Things;
+
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.impl.DynamicModel;
+import org.eclipse.rdf4j.model.impl.LinkedHashModelFactory;
+import org.eclipse.rdf4j.model.util.Values;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+
+/** Benchmarks of {@link RdfProtoThingsConverter#convert(Model)}. */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RdfBenchmarks {
+
+    private static final int PREDICATES = 5;
+    private static final int VALUES_PER_MULTI_VALUED_PREDICATE = 5;
+
+    /** Subjects of the synthetic Model; 100k subjects are 1M triples, see {@link #model(int)}. */
+    @Param("100000")
+    int subjects;
+
+    private final RdfProtoThingsConverter converter = new RdfProtoThingsConverter();
+    private Model picasso;
+    private Model enola;
+    private Model synthetic;
+
+    @Setup
+    public void setUp() {
+        picasso = model("picasso.ttl");
+        enola = model("enola.dev/enola.ttl");
+        synthetic = model(subjects);
+    }
+
+    @Benchmark
+    public List<Thing.Builder> convertPicasso() {
+        return converter.convertToList(picasso);
+    }
+
+    @Benchmark
+    public List<Thing.Builder> convertEnolaModel() {
+        return converter.convertToList(enola);
+    }
+
+    @Benchmark
+    public List<Thing.Builder> convertSynthetic() {
+        return converter.convertToList(synthetic);
+    }
+
+    /** Reads a Turtle file from the classpath, such as from //test or //models. */
+    static Model model(String path) {
+        setMediaTypes();
+        var resource = new ClasspathResource(path, RdfMediaTypes.TURTLE);
+        return new RdfReaderConverter(iri -> null).convert(resource).orElseThrow();
+    }
+
+    /**
+     * Sets the {@link MediaTypeProviders} which reading RDF needs, unless they are already set. JMH
+     * runs benchmarks in forked JVMs, where nothing else (like BenchmarkRunner#main) sets them up.
+     */
+    private static synchronized void setMediaTypes() {
+        try {
+            MediaTypeProviders.SINGLETON.get();
+        } catch (IllegalStateException e) {
+            MediaTypeProviders.set(new RdfMediaTypes());
+        }
+    }
+
+    static Things things(String path) {
+        var things = Things.newBuilder();
+        new RdfProtoThingsConverter().convert(model(path)).forEach(things::addThings);
+        return things.build();
+    }
+
+    /**
+     * Synthetic Model, of subjects x (5 single-valued + 1 multi-valued x 5 values) triples.
+     *
+     * <p>Half of the triples are values of multi-valued predicates, because that is what used to
+     * make the conversion super-linear.
+     */
+    static Model model(int subjects) {
+        var model = new DynamicModel(new LinkedHashModelFactory());
+        var multi = Values.iri("https://example.org/multi");
+        for (int s = 0; s < subjects; s++) {
+            var subject = Values.iri("https://example.org/thing/" + s);
+            for (int p = 0; p < PREDICATES; p++) {
+                var predicate = Values.iri("https://example.org/p" + p);
+                model.add(subject, predicate, Values.literal("value " + s + "/" + p));
+            }
+            for (int v = 0; v < VALUES_PER_MULTI_VALUED_PREDICATE; v++) {
+                model.add(subject, multi, Values.iri("https://example.org/thing/" + (s + v)));
+            }
+        }
+        return model;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.benchmark;
+
+import dev.enola.common.io.iri.namespace.NamespaceConverterWithRepository;
+import dev.enola.common.io.iri.namespace.NamespaceRepositoryEnolaDefaults;
+import dev.enola.datatype.DatatypeRepositoryBuilder;
+import dev.enola.thing.KIRI;
+import dev.enola.thing.Link;
+import dev.enola.thing.Thing;
+import dev.enola.thing.impl.ImmutableThing;
+import dev.enola.thing.message.ProtoThingIntoJavaThingBuilderConverter;
+import dev.enola.thing.metadata.ThingMetadataProvider;
+import dev.enola.thing.repo.ThingMemoryRepositoryRW;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks of {@link ImmutableThing#builder()}, ThingMerger (via {@link
+ * ThingMemoryRepositoryRW#merge(Thing)}) and {@link ThingMetadataProvider#get(String)}.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ThingBenchmarks {
+
+    private static final String NS = "https://example.org/";
+    private static final int PREDICATES = 10;
+
+    private ThingMemoryRepositoryRW mergeRepository;
+    private Thing update;
+    private ThingMetadataProvider metadataProvider;
+    private final List<String> iris = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws IOException {
+        // Merging an update with other values for the same predicates creates Sets of values
+        mergeRepository = new ThingMemoryRepositoryRW();
+        mergeRepository.store(thing(0, "existing"));
+        update = thing(0, "update");
+
+        var repository = new ThingMemoryRepositoryRW();
+        var converter =
+                new ProtoThingIntoJavaThingBuilderConverter(
+                        new DatatypeRepositoryBuilder().build());
+        for (var protoThing : RdfBenchmarks.things("picasso.ttl").getThingsList()) {
+            var builder = ImmutableThing.builder();
+            converter.convertInto(protoThing, builder);
+            repository.store(builder.build());
+            iris.add(protoThing.getIri());
+        }
+        iris.add(NS + "unknown"); // This is common e.g. for the IRIs of predicates
+        var namespaceConverter =
+                new NamespaceConverterWithRepository(NamespaceRepositoryEnolaDefaults.INSTANCE);
+        metadataProvider = new ThingMetadataProvider(repository, namespaceConverter);
+    }
+
+    @Benchmark
+    public Thing builder() {
+        return thing(42, "value");
+    }
+
+    @Benchmark
+    public void merge() {
+        mergeRepository.merge(update);
+    }
+
+    @Benchmark
+    public void metadata(Blackhole blackhole) {
+        for (var iri : iris) blackhole.consume(metadataProvider.get(iri).label());
+    }
+
+    private static Thing thing(int i, String value) {
+        var builder = ImmutableThing.builderWithExpectedSize(PREDICATES + 2);
+        builder.iri(NS + "thing/" + i);
+        builder.set(KIRI.RDF.TYPE, new Link(NS + "Thing"));
+        builder.set(KIRI.RDFS.LABEL, "Thing #" + i);
+        for (int p = 0; p < PREDICATES; p++) {
+            builder.set(NS + "p" + p, value + " " + p);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.benchmark;
+
+import dev.enola.common.io.iri.template.URITemplateMatcherChain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks of {@link URITemplateMatcherChain#match(String)}. */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class URITemplateBenchmarks {
+
+    private static final int TEMPLATES = 100;
+
+    private URITemplateMatcherChain<Integer> chain;
+
+    @Setup
+    public void setUp() {
+        // Like EnolaServiceRegistry, which adds the IRIs of all Things, and some real templates
+        var builder = URITemplateMatcherChain.<Integer>builder();
+        int i = 0;
+        for (var thing : RdfBenchmarks.things("enola.dev/enola.ttl").getThingsList()) {
+            builder.add(thing.getIri(), i++);
+        }
+        for (int t = 0; t < TEMPLATES; t++) {
+            builder.add("https://example.org/type" + t + "/{name}", i++);
+        }
+        chain = builder.build();
+    }
+
+    @Benchmark
+    public Object matchIRI() {
+        return chain.match("https://enola.dev/emoji");
+    }
+
+    @Benchmark
+    public Object matchTemplate() {
+        return chain.match("https://example.org/type42/hello");
+    }
+
+    @Benchmark
+    public Object matchNothing() {
+        return chain.match("https://example.org/unknown/hello");
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.benchmark;
+
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+
+import dev.enola.common.io.resource.StringResource;
+import dev.enola.web.WebHandler;
+import dev.enola.web.WebHandlers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link WebHandlers#match(String)}, with few and with many registered handlers;
+ * the cost of routing a request should be (about) the same for both.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class WebHandlersBenchmarks {
+
+    private static final String PATH = "/ui/https://example.org/greeting2";
+
+    private final WebHandlers few = handlers(5);
+    private final WebHandlers many = handlers(1000);
+
+    @Benchmark
+    public Object match5() {
+        return few.match(PATH);
+    }
+
+    @Benchmark
+    public Object match1000() {
+        return many.match(PATH);
+    }
+
+    @Benchmark
+    public Object matchParameter1000() {
+        return many.match("/things/abc/parts/xyz");
+    }
+
+    private static WebHandlers handlers(int n) {
+        WebHandler handler = uri -> immediateFuture(StringResource.of("hello"));
+        var handlers = new WebHandlers();
+        // Like in UI and ServerCommand
+        handlers.register("", handler);
+        handlers.register("/ui", handler);
+        handlers.register("/ui/static/", handler);
+        handlers.register("/api", handler);
+        handlers.register("/things/{id}/parts/{part}", handler);
+        for (int i = 5; i < n; i++) handlers.register("/handler" + i + "/", handler);
+        return handlers;
+    }
+}
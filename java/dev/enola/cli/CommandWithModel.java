@@ -31,8 +31,12 @@ import dev.enola.data.ProviderFromIRI;
 import dev.enola.datatype.DatatypeRepository;
 import dev.enola.thing.message.AlwaysThingProviderAdapter;
 import dev.enola.thing.metadata.ThingMetadataProvider;
+import dev.enola.thing.io.IncrementalLoader;
 import dev.enola.thing.proto.Thing;
+import dev.enola.thing.repo.IndexedThingMemoryRepositoryRW;
+import dev.enola.thing.repo.ThingDiskRepositoryRW;
 import dev.enola.thing.repo.ThingMemoryRepositoryROBuilder;
+import dev.enola.thing.repo.ThingRepository;
 import dev.enola.thing.repo.ThingsProvider;
 import dev.enola.thing.template.TemplateThingRepository;
 import dev.enola.thing.validation.LoggingCollector;
@@ -47,6 +51,7 @@ import picocli.CommandLine.Option;
 import picocli.CommandLine.Spec;
 
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.stream.Stream;
 
 public abstract class CommandWithModel extends CommandWithResourceProviderAndLoader {
@@ -67,8 +72,60 @@ public abstract class CommandWithModel extends CommandWithResourceProviderAndLoa
             description = "Whether validation errors in loaded models should stop & exit")
     boolean validate;
 
+    @CommandLine.Option(
+            names = {"--load-parallelism"},
+            required = true,
+            defaultValue = "1",
+            showDefaultValue = CommandLine.Help.Visibility.ALWAYS,
+            description = "How many --load resources are converted concurrently (1 = sequentially)")
+    int loadParallelism;
+
+    @CommandLine.Option(
+            names = {"--load-cache"},
+            negatable = true,
+            required = true,
+            defaultValue = "false",
+            showDefaultValue = CommandLine.Help.Visibility.ALWAYS,
+            description =
+                    "Whether Things loaded from each --load resource are cached (in the user's"
+                            + " cache directory), so that only changed resources are parsed again")
+    boolean loadCache;
+
+    @CommandLine.Option(
+            names = {"--load-disk"},
+            description =
+                    "Directory where Things loaded from --load resources are stored (instead of in"
+                            + " memory), e.g. for models which do not fit into the heap; any"
+                            + " Things already in it (e.g. from a previous run) are removed first")
+    @Nullable Path loadDisk;
+
     private EnolaServiceBlockingStub gRPCService;
 
+    /** Whether blocking work (such as loading) should run on virtual threads; see ServerCommand. */
+    protected boolean virtualThreads() {
+        return false;
+    }
+
+    /** Whether the loaded Things are all eagerly converted to protos; see ServerCommand. */
+    protected boolean warmThingCache() {
+        return false;
+    }
+
+    /** Whether loaded files are watched, and changed ones reloaded; see ServerCommand. */
+    protected boolean watch() {
+        return false;
+    }
+
+    private @Nullable IncrementalLoader incrementalLoader;
+
+    /**
+     * Adds a listener which is called after (watched) models changed, e.g. to invalidate caches.
+     * This does nothing unless {@link #watch()}.
+     */
+    protected void addModelChangeListener(Runnable listener) {
+        if (incrementalLoader != null) incrementalLoader.addListener(iris -> listener.run());
+    }
+
     // TODO Turn remote service encapsulation upside down (as-is this "exception" is strange)
     protected TemplateThingRepository templateService;
 
@@ -80,16 +137,48 @@ public abstract class CommandWithModel extends CommandWithResourceProviderAndLoa
 
             // TODO Move elsewhere for continuous ("shell") mode, as this is "expensive".
             ServiceProvider grpc = null;
+            ThingDiskRepositoryRW diskRepository = null;
             if (group.load != null) {
-                ThingMemoryRepositoryROBuilder store = new ThingMemoryRepositoryROBuilder();
-                var loader = loader();
+                var loader = loader(loadParallelism, loadCache, virtualThreads());
                 var fgrp = new GlobResolvers();
-                for (var globIRI : group.load) {
-                    try (var stream = fgrp.get(globIRI)) {
-                        loader.convertIntoOrThrow(stream, store);
+                ThingRepository repo;
+                if (watch() && loadDisk != null) {
+                    throw new CommandLine.ParameterException(
+                            spec.commandLine(), "--load-disk cannot be combined with --watch");
+                } else if (watch()) {
+                    // The loadParallelism is not used here, because IncrementalLoader has to keep
+                    // the Things of each resource separately
+                    var store = new IndexedThingMemoryRepositoryRW();
+                    incrementalLoader = new IncrementalLoader(loader, store);
+                    for (var globIRI : group.load) {
+                        // Watch before loading, so that no change in the meantime is missed
+                        incrementalLoader.watch(globIRI);
+                        try (var stream = fgrp.get(globIRI)) {
+                            incrementalLoader.load(stream);
+                        }
+                    }
+                    repo = store;
+                } else if (loadDisk != null) {
+                    diskRepository = new ThingDiskRepositoryRW(loadDisk);
+                    // Merging into a previous run's Things would keep values (and Things) which
+                    // were since changed (or deleted) in the resources; so it's loaded afresh
+                    diskRepository.clear();
+                    for (var globIRI : group.load) {
+                        try (var stream = fgrp.get(globIRI)) {
+                            loader.convertIntoOrThrow(stream, diskRepository);
+                        }
+                    }
+                    diskRepository.flush();
+                    repo = diskRepository;
+                } else {
+                    ThingMemoryRepositoryROBuilder store = new ThingMemoryRepositoryROBuilder();
+                    for (var globIRI : group.load) {
+                        try (var stream = fgrp.get(globIRI)) {
+                            loader.convertIntoOrThrow(stream, store);
+                        }
                     }
+                    repo = store.build();
                 }
-                var repo = store.build();
 
                 if (validate) {
                     var c = new LoggingCollector();
@@ -112,7 +201,13 @@ public abstract class CommandWithModel extends CommandWithResourceProviderAndLoa
                                 throw new UnsupportedOperationException("TODO");
                             }
                         };
-                esp = new EnolaServiceProvider(thingsProvider, templateThingRepository, rp);
+                esp =
+                        new EnolaServiceProvider(
+                                thingsProvider,
+                                templateThingRepository,
+                                rp,
+                                warmThingCache(),
+                                watch());
                 var enolaService = esp.getEnolaService();
                 grpc = new EnolaGrpcInProcess(esp, enolaService, false); // direct, single-threaded!
                 gRPCService = grpc.get();
@@ -126,6 +221,8 @@ public abstract class CommandWithModel extends CommandWithResourceProviderAndLoa
                 run(gRPCService);
             } finally {
                 grpc.close();
+                if (incrementalLoader != null) incrementalLoader.close();
+                if (diskRepository != null) diskRepository.close();
             }
         }
     }
@@ -26,12 +26,14 @@ import dev.enola.common.io.iri.namespace.NamespaceConverter;
 import dev.enola.common.io.iri.namespace.NamespaceConverterWithRepository;
 import dev.enola.common.io.iri.namespace.NamespaceRepositoryEnolaDefaults;
 import dev.enola.common.io.resource.*;
+import dev.enola.common.io.resource.cache.ContentCachingResourceProvider;
 import dev.enola.datatype.DatatypeRepository;
 import dev.enola.model.Datatypes;
 
 import picocli.CommandLine;
 
 import java.nio.file.Paths;
+import java.time.Duration;
 
 public abstract class CommandWithResourceProvider implements CheckedRunnable {
 
@@ -77,6 +79,26 @@ public abstract class CommandWithResourceProvider implements CheckedRunnable {
             description = "Whether test:/ resource scheme is allowed")
     boolean test;
 
+    @CommandLine.Option(
+            names = {"--resource-cache-mb"},
+            required = true,
+            defaultValue = "64",
+            showDefaultValue = CommandLine.Help.Visibility.ALWAYS,
+            description =
+                    "Megabytes of resource content (e.g. ontologies and JSON-LD contexts) which are"
+                            + " kept in memory, instead of being read again; 0 disables this")
+    int resourceCacheMB;
+
+    @CommandLine.Option(
+            names = {"--resource-cache-ttl"},
+            required = true,
+            defaultValue = "PT10M",
+            showDefaultValue = CommandLine.Help.Visibility.ALWAYS,
+            description =
+                    "How long resource content is kept in memory at most (ISO-8601 duration);"
+                            + " files are anyway read again as soon as they are modified")
+    Duration resourceCacheTTL;
+
     protected ResourceProvider rp;
 
     @Override
@@ -92,6 +114,10 @@ public abstract class CommandWithResourceProvider implements CheckedRunnable {
         if (test) builder.add(new TestResource.Provider());
         if (classpath) builder.add(new ClasspathResource.Provider());
         rp = new ResourceProviders(builder.build());
+        if (resourceCacheMB > 0) {
+            var maximumBytes = resourceCacheMB * 1024L * 1024L;
+            rp = new ContentCachingResourceProvider(rp, maximumBytes, resourceCacheTTL);
+        }
     }
 
     protected void setup(Context ctx) {
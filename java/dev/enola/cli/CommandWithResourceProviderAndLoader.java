@@ -17,22 +17,33 @@
  */
 package dev.enola.cli;
 
+import dev.enola.common.FreedesktopDirectories;
 import dev.enola.common.context.Context;
+import dev.enola.common.context.TLC;
+import dev.enola.common.io.resource.cache.ContentCachingResourceProvider;
+import dev.enola.datatype.DatatypeRepository;
 import dev.enola.format.tika.TikaThingConverter;
 import dev.enola.format.xml.XmlThingConverter;
 import dev.enola.model.enola.files.FileThingConverter;
 import dev.enola.model.enola.mediatype.TikaMediaTypesThingConverter;
 import dev.enola.rdf.io.RdfResourceIntoThingConverter;
+import dev.enola.thing.io.CachingUriIntoThingConverters;
+import dev.enola.thing.io.CompactThingsThingConverter;
 import dev.enola.thing.io.Loader;
 import dev.enola.thing.io.TypedUriIntoThingConverter;
 import dev.enola.thing.io.UriIntoThingConverters;
 
 import picocli.CommandLine;
 
+import java.io.File;
+import java.time.Duration;
 import java.util.ArrayList;
 
 public abstract class CommandWithResourceProviderAndLoader extends CommandWithResourceProvider {
 
+    /** Snapshots of resources which were not loaded for this long are deleted from the cache. */
+    private static final Duration LOAD_CACHE_MAX_UNUSED = Duration.ofDays(30);
+
     @CommandLine.Option(
             names = {"--file-loader"},
             negatable = true,
@@ -54,16 +65,54 @@ public abstract class CommandWithResourceProviderAndLoader extends CommandWithRe
     boolean tikaLoader;
 
     protected Loader loader() {
+        return loader(1);
+    }
+
+    protected Loader loader(int parallelism) {
+        return loader(parallelism, false);
+    }
+
+    /**
+     * Creates a Loader.
+     *
+     * @param cache whether the Things converted from each resource are cached in snapshot files,
+     *     see {@link CachingUriIntoThingConverters}.
+     */
+    protected Loader loader(int parallelism, boolean cache) {
+        return loader(parallelism, cache, false);
+    }
+
+    /**
+     * Creates a Loader.
+     *
+     * @param cache see {@link #loader(int, boolean)}
+     * @param virtualThreads whether resources are converted on virtual threads, see {@link
+     *     Loader#Loader(UriIntoThingConverters, int, boolean)}.
+     */
+    protected Loader loader(int parallelism, boolean cache, boolean virtualThreads) {
         // TODO Move this (and other) initialization out of CLI, to a dev.enola.Enola...
-        var uriIntoThingConverters = new ArrayList<TypedUriIntoThingConverter<?, ?>>(7);
+        var uriIntoThingConverters = new ArrayList<TypedUriIntoThingConverter<?, ?>>(8);
         uriIntoThingConverters.add(new RdfResourceIntoThingConverter<>());
+        uriIntoThingConverters.add(new CompactThingsThingConverter());
         uriIntoThingConverters.add(new XmlThingConverter(rp));
         if (fileLoader) uriIntoThingConverters.add(new FileThingConverter());
         if (tikaLoader) uriIntoThingConverters.add(new TikaThingConverter(rp));
         uriIntoThingConverters.add(new TikaMediaTypesThingConverter());
 
-        var ritc = new UriIntoThingConverters(uriIntoThingConverters);
-        return new Loader(ritc);
+        UriIntoThingConverters ritc;
+        if (cache) {
+            var directory = new File(FreedesktopDirectories.CACHE_FILE, "loader").toPath();
+            var salt = "fileLoader=" + fileLoader + ";tikaLoader=" + tikaLoader;
+            var dtr = TLC.get(DatatypeRepository.class);
+            var caching =
+                    new CachingUriIntoThingConverters(
+                            uriIntoThingConverters, directory, salt, rp, dtr);
+            caching.evictUnused(LOAD_CACHE_MAX_UNUSED);
+            ritc = caching;
+        } else ritc = new UriIntoThingConverters(uriIntoThingConverters);
+        // With a content cache, sequential loads read the next resources ahead, asynchronously
+        var readAheadProvider = rp instanceof ContentCachingResourceProvider ccrp ? ccrp : null;
+        return new Loader(ritc, parallelism, virtualThreads, readAheadProvider);
     }
 
     @Override
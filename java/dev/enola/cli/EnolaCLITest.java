@@ -192,6 +192,23 @@ public class EnolaCLITest {
         subject.hasExitCode(0);
     }
 
+    @Test
+    public void getLoadedThingFromDisk() throws IOException {
+        Path dir = Files.createTempDirectory("EnolaTest");
+        var exec =
+                cli(
+                        "-vvv",
+                        "get",
+                        "--load",
+                        MODEL,
+                        "--load-disk",
+                        dir.toString(),
+                        "https://enola.dev/emoji");
+        var subject = assertThat(exec);
+        subject.err().isEmpty();
+        subject.hasExitCode(0);
+    }
+
     @Test
     public void getNonExistentThing() {
         var exec = cli("-vvv", "get", "--load", MODEL, "https://docs.enola.dev/non-existent");
@@ -26,6 +26,7 @@ import picocli.CommandLine.Command;
             ExtensionsInfoCommand.class,
             MediaTypeInfoCommand.class,
             DetectCommand.class,
-            MetadataCommand.class
+            MetadataCommand.class,
+            MetricsInfoCommand.class
         })
 public class InfoCommand {}
@@ -0,0 +1,59 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.cli;
+
+import dev.enola.common.function.CheckedRunnable;
+import dev.enola.common.metrics.MetricsRegistry;
+import dev.enola.common.metrics.PrometheusText;
+import dev.enola.core.grpc.EnolaGrpcClientProvider;
+import dev.enola.core.proto.GetMetricsRequest;
+
+import org.jspecify.annotations.Nullable;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+@Command(
+        name = "metrics",
+        description =
+                "Prints metrics (in the Prometheus text format) of an Enola gRPC server, or of"
+                        + " this CLI itself")
+public class MetricsInfoCommand implements CheckedRunnable {
+
+    @Spec CommandSpec spec;
+
+    @Option(
+            names = {"--server", "-s"},
+            description = "Target of an Enola gRPC Server (e.g. localhost:7070)")
+    @Nullable String server;
+
+    @Override
+    public void run() throws Exception {
+        var pw = spec.commandLine().getOut();
+        if (server == null) {
+            pw.print(PrometheusText.toString(MetricsRegistry.GLOBAL));
+        } else {
+            try (var grpc = new EnolaGrpcClientProvider(server, false)) {
+                var request = GetMetricsRequest.newBuilder().build();
+                pw.print(grpc.get().getMetrics(request).getPrometheusText());
+            }
+        }
+    }
+}
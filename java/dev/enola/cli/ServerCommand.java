@@ -18,6 +18,7 @@
 package dev.enola.cli;
 
 import dev.enola.common.context.TLC;
+import dev.enola.common.metrics.MetricsRegistry;
 import dev.enola.core.grpc.EnolaGrpcServer;
 import dev.enola.core.proto.EnolaServiceGrpc;
 import dev.enola.web.*;
@@ -37,9 +38,57 @@ public class ServerCommand extends CommandWithModel {
             hidden = true)
     boolean immediateExitOnlyForTest;
 
+    @CommandLine.Option(
+            names = {"--virtual-threads"},
+            negatable = true,
+            required = true,
+            defaultValue = "false",
+            showDefaultValue = CommandLine.Help.Visibility.ALWAYS,
+            description =
+                    "Whether gRPC calls, HTTP requests and --load resources are handled on virtual"
+                            + " threads, instead of on pools of platform threads")
+    boolean virtualThreads;
+
+    @CommandLine.Option(
+            names = {"--warm-cache"},
+            negatable = true,
+            required = true,
+            defaultValue = "false",
+            showDefaultValue = CommandLine.Help.Visibility.ALWAYS,
+            description =
+                    "Whether all loaded Things are converted for the API at startup, instead of on"
+                            + " their first request")
+    boolean warmCache;
+
+    @CommandLine.Option(
+            names = {"--watch"},
+            negatable = true,
+            required = true,
+            defaultValue = "false",
+            showDefaultValue = CommandLine.Help.Visibility.ALWAYS,
+            description =
+                    "Whether --load files are watched, and the Things of changed files reloaded"
+                            + " (without restarting)")
+    boolean watch;
+
     private EnolaGrpcServer grpcServer;
     private WebServer httpServer;
 
+    @Override
+    protected boolean virtualThreads() {
+        return virtualThreads;
+    }
+
+    @Override
+    protected boolean warmThingCache() {
+        return warmCache;
+    }
+
+    @Override
+    protected boolean watch() {
+        return watch;
+    }
+
     @Override
     protected void run(EnolaServiceGrpc.EnolaServiceBlockingStub service) throws Exception {
         try (var ctx = TLC.open()) {
@@ -53,7 +102,7 @@ public class ServerCommand extends CommandWithModel {
 
         // gRPC API
         if (ports.grpcPort != null) {
-            grpcServer = new EnolaGrpcServer(esp, esp.getEnolaService());
+            grpcServer = new EnolaGrpcServer(esp, esp.getEnolaService(), virtualThreads);
             grpcServer.start(ports.grpcPort);
             out.println("gRPC API server now available on port " + grpcServer.getPort());
         }
@@ -61,10 +110,17 @@ public class ServerCommand extends CommandWithModel {
         // HTML UI + JSON REST API
         if (ports.httpPort != null) {
             var handlers = new WebHandlers();
-            new UI(service, getMetadataProvider(new EnolaThingProvider(service)))
-                    .register(handlers);
-            handlers.register("/api", new RestAPI(service));
-            httpServer = new NettyHttpServer(ports.httpPort, handlers);
+            handlers.register("/metrics", new MetricsWebHandler(MetricsRegistry.GLOBAL));
+            var api = new CachingWebHandler(new RestAPI(service));
+            handlers.register("/api", api);
+            var ui = new UI(service, getMetadataProvider(new EnolaThingProvider(service)));
+            ui.register(handlers);
+            addModelChangeListener(
+                    () -> {
+                        api.invalidateAll();
+                        ui.invalidateCache();
+                    });
+            httpServer = new NettyHttpServer(ports.httpPort, handlers, virtualThreads);
             httpServer.start();
             out.println(
                     "HTTP JSON REST API + HTML UI server started; open http:/"
@@ -114,6 +114,30 @@ public final class Executors {
                 createThreadFactory(namePrefix, logger));
     }
 
+    /**
+     * Creates an executor which starts a new virtual thread for each task. This is intended for
+     * tasks which spend most of their time blocked on I/O (such as remote calls), where a cached
+     * pool of platform threads would grow unbounded under load.
+     *
+     * <p>The {@link dev.enola.common.context.TLC} of the thread which submits a task is propagated
+     * into the new virtual thread that runs it.
+     *
+     * @param namePrefix Prefix for threads from this executor, as for the other factory methods.
+     * @param logger Logger used to log uncaught exceptions from new threads created from this.
+     * @see java.util.concurrent.Executors#newVirtualThreadPerTaskExecutor()
+     */
+    public static ListeningExecutorService newListeningVirtualThreadPerTaskExecutor(
+            String namePrefix, Logger logger) {
+        return MoreExecutors.listeningDecorator(
+                newVirtualThreadPerTaskExecutor(namePrefix, logger));
+    }
+
+    public static ExecutorService newVirtualThreadPerTaskExecutor(
+            String namePrefix, Logger logger) {
+        return java.util.concurrent.Executors.newThreadPerTaskExecutor(
+                createVirtualThreadFactory(namePrefix, logger));
+    }
+
     /**
      * @see java.util.concurrent.Executors#newSingleThreadScheduledExecutor()
      */
@@ -154,5 +178,16 @@ public final class Executors {
         return guavaBuilder.build();
     }
 
+    private static ThreadFactory createVirtualThreadFactory(String namePrefix, Logger logger) {
+        var factory =
+                Thread.ofVirtual()
+                        .name(namePrefix + "-", 0)
+                        .uncaughtExceptionHandler(
+                                LoggingThreadUncaughtExceptionHandler.toLogger(logger))
+                        .factory();
+        logger.info("Virtual ThreadFactory created: {}", namePrefix);
+        return new ContextAwareThreadFactory(factory);
+    }
+
     private Executors() {}
 }
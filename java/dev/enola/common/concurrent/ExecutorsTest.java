@@ -28,6 +28,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class ExecutorsTest {
 
@@ -49,6 +50,29 @@ public class ExecutorsTest {
         }
     }
 
+    @Test
+    public void tlcVirtual() throws ExecutionException, InterruptedException {
+        try (var executor = Executors.newListeningVirtualThreadPerTaskExecutor("Virtual", LOG)) {
+            try (var ctx = TLC.open()) {
+                ctx.push(TestCtxKey.MAGIC, 456);
+
+                var atomic = new AtomicInteger();
+                var thread = new AtomicReference<Thread>();
+                Runnable runnable =
+                        () -> {
+                            atomic.set(TLC.get(TestCtxKey.MAGIC));
+                            thread.set(Thread.currentThread());
+                        };
+
+                executor.submit(runnable).get();
+
+                assertThat(atomic.get()).isEqualTo(456);
+                assertThat(thread.get().isVirtual()).isTrue();
+                assertThat(thread.get().getName()).startsWith("Virtual-");
+            }
+        }
+    }
+
     private enum TestCtxKey implements Context.Key<Integer> {
         MAGIC
     }
@@ -36,7 +36,9 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
@@ -153,7 +155,26 @@ public final class URIs {
 
     public static Map<String, String> getQueryMap(URI uri) {
         if (uri == null) return emptyMap();
+        return getQueryMapGivenQueryString(getQuery(uri));
+    }
+
+    /**
+     * Values of all query parameters with the given (case-insensitive) key, in their order; e.g.
+     * [a, b] for ?q=a&amp;q=b. Unlike {@link #getQueryMap(URI)}, this allows repeated keys.
+     */
+    public static List<String> getQueryParameters(URI uri, String key) {
+        var values = new ArrayList<String>();
+        var query = getQuery(uri);
+        if (Strings.isNullOrEmpty(query)) return values;
+        for (var queryParameter : AMPERSAND_SPLITTER.split(query)) {
+            var p = queryParameter.indexOf('=');
+            if (p != -1 && queryParameter.substring(0, p).equalsIgnoreCase(key))
+                values.add(queryParameter.substring(p + 1));
+        }
+        return values;
+    }
 
+    private static String getQuery(URI uri) {
         String query = uri.getQuery();
         if (Strings.isNullOrEmpty(query)) {
             var part = uri.getSchemeSpecificPart();
@@ -163,7 +184,7 @@ public final class URIs {
                 throw new IllegalStateException(uri.toString(), e);
             }
         }
-        return getQueryMapGivenQueryString(query);
+        return query;
     }
 
     private static void put(String queryParameter, Map<String, String> map) {
@@ -66,6 +66,17 @@ public class URIsTest {
         // TODO assertThat(URIs.getQueryMap(URI.create("file:/tmp//?.txt"))).isEmpty();
     }
 
+    @Test
+    public void testGetQueryParameters() {
+        var uri = URI.create("http://example.org/x?q=a&limit=1&Q=b,c&q=#fragment");
+        assertThat(URIs.getQueryParameters(uri, "q")).containsExactly("a", "b,c", "").inOrder();
+        assertThat(URIs.getQueryParameters(uri, "limit")).containsExactly("1");
+        assertThat(URIs.getQueryParameters(uri, "type")).isEmpty();
+        assertThat(URIs.getQueryParameters(URI.create("fd:1?q=a&q=b"), "q"))
+                .containsExactly("a", "b");
+        assertThat(URIs.getQueryParameters(URI.create("http://example.org"), "q")).isEmpty();
+    }
+
     @Test
     public void testHasNoMediaType() throws URISyntaxException {
         assertThat(URIs.getMediaTypeAndCharset(URI.create("scheme:something")))
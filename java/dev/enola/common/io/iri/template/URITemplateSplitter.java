@@ -37,10 +37,10 @@ import java.util.regex.Pattern;
  */
 public class URITemplateSplitter {
 
-    // TODO Must escape certain characters that are reserved in RegExp! TDD.
-
     private static final Pattern URI_TEMPLATE_PATTERN = Pattern.compile("\\{([^{}]+)\\}");
 
+    private static final String REGEXP_METACHARACTERS = "\\.[]{}()*+?^$|";
+
     private final String template;
     private final List<String> keys;
     private final Pattern pattern;
@@ -51,26 +51,31 @@ public class URITemplateSplitter {
         var lengther = new StringBuilder();
         var pattern = new StringBuilder("^");
         var pmatcher = URI_TEMPLATE_PATTERN.matcher(template);
-        var lmatcher = URI_TEMPLATE_PATTERN.matcher(template);
         var keysBuilder = ImmutableList.<String>builder();
+        int literalStart = 0;
         while (pmatcher.find()) {
-            lmatcher.find();
             var name = pmatcher.group(1);
             keysBuilder.add(name);
 
-            String group;
+            // Literal parts, e.g. '.' or '?', must not be interpreted as RegExp
+            var literal = template.substring(literalStart, pmatcher.start());
+            escape(literal, pattern);
+            lengther.append(literal);
+
             var p = pmatcher.end();
             if (p < template.length()) {
-                var nextCharacter = template.subSequence(p, p + 1).charAt(0);
-                group = "(?<" + name + ">[^" + nextCharacter + "]+)";
+                var nextCharacter = template.charAt(p);
+                var escape = "\\[]&".indexOf(nextCharacter) >= 0 ? "\\" : "";
+                pattern.append("(?<" + name + ">[^" + escape + nextCharacter + "]+)");
             } else {
-                group = "(?<" + name + ">.+)";
+                pattern.append("(?<" + name + ">.+)");
             }
-            pmatcher.appendReplacement(pattern, group);
-            lmatcher.appendReplacement(lengther, "*");
+            lengther.append('*');
+            literalStart = p;
         }
-        pmatcher.appendTail(pattern);
-        lmatcher.appendTail(lengther);
+        var literal = template.substring(literalStart);
+        escape(literal, pattern);
+        lengther.append(literal);
         pattern.append('$');
 
         this.template = template;
@@ -79,6 +84,14 @@ public class URITemplateSplitter {
         this.length = lengther.length();
     }
 
+    private static void escape(String literal, StringBuilder pattern) {
+        for (int i = 0; i < literal.length(); i++) {
+            var c = literal.charAt(i);
+            if (REGEXP_METACHARACTERS.indexOf(c) >= 0) pattern.append('\\');
+            pattern.append(c);
+        }
+    }
+
     public Optional<Map<String, String>> fromString(String uri) {
         var map = ImmutableMap.<String, String>builder();
         var matcher = pattern.matcher(uri);
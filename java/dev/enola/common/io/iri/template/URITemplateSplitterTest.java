@@ -20,6 +20,8 @@ package dev.enola.common.io.iri.template;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.truth.Truth.assertThat;
 
+import com.google.common.collect.ImmutableMap;
+
 import org.junit.Test;
 
 public class URITemplateSplitterTest {
@@ -28,13 +30,23 @@ public class URITemplateSplitterTest {
     public void example() throws Exception {
         check(
                 "http://example.com/people/{firstName}-{lastName}/SSN",
-                "^http://example.com/people/(?<firstName>[^-]+)-(?<lastName>[^/]+)/SSN$",
+                "^http://example\\.com/people/(?<firstName>[^-]+)-(?<lastName>[^/]+)/SSN$",
                 "firstName",
                 "lastName");
 
         check("thing/{name}", "^thing/(?<name>.+)$", "name");
     }
 
+    @Test
+    public void literalsAreNotRegExp() throws Exception {
+        var splitter = new URITemplateSplitter("enola:/inline?{query}");
+        assertThat(splitter.getPattern().toString()).isEqualTo("^enola:/inline\\?(?<query>.+)$");
+        assertThat(splitter.fromString("enola:/inline?limit=7"))
+                .hasValue(ImmutableMap.of("query", "limit=7"));
+        assertThat(splitter.fromString("enola:/inlinelimit=7")).isEmpty();
+        assertThat(new URITemplateSplitter("a.b/{x}").fromString("aXb/c")).isEmpty();
+    }
+
     private void check(String template, String regexp, String... names) {
         var namesAndPattern = new URITemplateSplitter(template);
 
@@ -21,6 +21,9 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 
+import dev.enola.common.metrics.Counter;
+import dev.enola.common.metrics.MetricsRegistry;
+
 import org.jspecify.annotations.Nullable;
 
 public abstract class CachingMetadataProvider<T> implements MetadataProvider<T> {
@@ -32,6 +35,14 @@ public abstract class CachingMetadataProvider<T> implements MetadataProvider<T>
 
     // TODO Make Guava Cache configurable...
 
+    private static final Counter HITS =
+            MetricsRegistry.GLOBAL.counter(
+                    "enola_metadata_cache_hits_total", "Metadata found in the cache");
+
+    private static final Counter MISSES =
+            MetricsRegistry.GLOBAL.counter(
+                    "enola_metadata_cache_misses_total", "Metadata not found in the cache");
+
     private final MetadataProvider<T> delegate;
 
     private final LoadingCache<String, Metadata> getIRICache =
@@ -62,12 +73,22 @@ public abstract class CachingMetadataProvider<T> implements MetadataProvider<T>
 
     @Override
     public Metadata get(String iri) {
-        return getIRICache.getUnchecked(iri);
+        return getCached(getIRICache, iri);
     }
 
     @Override
     public Metadata get(@Nullable T object, String iri) {
-        return getObjectIRICache.getUnchecked(new ObjectIRI<T>(object, iri));
+        return getCached(getObjectIRICache, new ObjectIRI<T>(object, iri));
+    }
+
+    private static <K> Metadata getCached(LoadingCache<K, Metadata> cache, K key) {
+        var cached = cache.getIfPresent(key);
+        if (cached != null) {
+            HITS.inc();
+            return cached;
+        }
+        MISSES.inc();
+        return cache.getUnchecked(key);
     }
 
     private record ObjectIRI<T>(@Nullable T object, String iri) {}
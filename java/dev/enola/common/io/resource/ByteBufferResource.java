@@ -0,0 +1,39 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.common.io.resource;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * ReadableResource whose content is also available as a {@link ByteBuffer}, which (for large
+ * content) may be a {@link java.nio.MappedByteBuffer}. Consumers which can work with a buffer, such
+ * as protobuf's {@code CodedInputStream} or Netty, should prefer this over {@link #byteSource()},
+ * to avoid copying all of the content onto the heap.
+ */
+public interface ByteBufferResource extends ReadableResource {
+
+    /**
+     * Returns a new read-only buffer of all of the content, positioned at its start; or null if the
+     * content is not available as a single buffer (e.g. because it is 2 GiB or larger), in which
+     * case callers must stream it from {@link #byteSource()} instead.
+     */
+    @Nullable ByteBuffer byteBuffer() throws IOException;
+}
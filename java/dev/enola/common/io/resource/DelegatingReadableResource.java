@@ -19,6 +19,7 @@ package dev.enola.common.io.resource;
 
 import com.google.common.io.ByteSource;
 import com.google.common.io.CharSource;
+import com.google.common.util.concurrent.ListenableFuture;
 
 public abstract class DelegatingReadableResource extends BaseResource implements ReadableResource {
 
@@ -38,4 +39,9 @@ public abstract class DelegatingReadableResource extends BaseResource implements
     public CharSource charSource() {
         return delegate.charSource();
     }
+
+    @Override
+    public ListenableFuture<byte[]> readAsync() {
+        return delegate.readAsync();
+    }
 }
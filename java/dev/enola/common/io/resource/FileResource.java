@@ -17,16 +17,26 @@
  */
 package dev.enola.common.io.resource;
 
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
+
 import com.google.common.io.ByteSink;
 import com.google.common.io.ByteSource;
 import com.google.common.io.MoreFiles;
 import com.google.common.net.MediaType;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 
 import dev.enola.common.io.MoreFileSystems;
 import dev.enola.common.io.iri.URIs;
 
+import org.jspecify.annotations.Nullable;
+
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.time.Instant;
 import java.util.Arrays;
@@ -44,10 +54,18 @@ import java.util.Optional;
  * common one, the JVM actually can and does support others, notably the "jar:file:" one. To avoid
  * related confusions, this class intentionally only offers constructors which take {@link URI}
  * instead of {@link Path} arguments.
+ *
+ * <p>The {@link #byteBuffer()} of files of at least {@value #MAP_THRESHOLD} bytes is memory-mapped
+ * (if their FileSystem supports that), so that reading them does not copy them onto the heap; files
+ * of 2 GiB or more, which cannot be mapped into a single buffer, have none, and are streamed. And
+ * {@link #readAsync()} does not block the calling thread.
  */
-public class FileResource extends BaseResource implements Resource {
+public class FileResource extends BaseResource implements Resource, ByteBufferResource {
     // TODO Rename FileResource to FileSystemPathResource!
 
+    /** Files smaller than this are read into the heap, because mapping them costs more. */
+    public static final long MAP_THRESHOLD = 1024 * 1024;
+
     public static class Provider implements ResourceProvider {
 
         @Override
@@ -114,6 +132,77 @@ public class FileResource extends BaseResource implements Resource {
         return MoreFiles.asByteSource(path, openOptions);
     }
 
+    @Override
+    public @Nullable ByteBuffer byteBuffer() throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var size = channel.size();
+            if (size > Integer.MAX_VALUE) return null;
+            if (size >= MAP_THRESHOLD) {
+                try {
+                    return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                } catch (UnsupportedOperationException e) {
+                    // Fall through; e.g. in-memory FileSystems cannot map files
+                }
+            }
+        }
+        return ByteBuffer.wrap(byteSource().read()).asReadOnlyBuffer();
+    }
+
+    /** Reads with an {@link AsynchronousFileChannel}, if the file's FileSystem supports that. */
+    @Override
+    public ListenableFuture<byte[]> readAsync() {
+        AsynchronousFileChannel channel;
+        ByteBuffer buffer;
+        try {
+            channel = AsynchronousFileChannel.open(path, StandardOpenOption.READ);
+        } catch (UnsupportedOperationException e) {
+            return Resource.super.readAsync();
+        } catch (IOException e) {
+            return immediateFailedFuture(e);
+        }
+        try {
+            var size = channel.size();
+            if (size > Integer.MAX_VALUE - 8) throw new IOException("Too large: " + path);
+            buffer = ByteBuffer.allocate((int) size);
+        } catch (IOException e) {
+            close(channel);
+            return immediateFailedFuture(e);
+        }
+
+        var future = SettableFuture.<byte[]>create();
+        channel.read(
+                buffer,
+                0,
+                buffer,
+                new CompletionHandler<>() {
+                    @Override
+                    public void completed(Integer read, ByteBuffer buffer) {
+                        if (read >= 0 && buffer.hasRemaining()) {
+                            channel.read(buffer, buffer.position(), buffer, this);
+                            return;
+                        }
+                        close(channel);
+                        // If the file was truncated while reading, this returns what's left
+                        future.set(Arrays.copyOf(buffer.array(), buffer.position()));
+                    }
+
+                    @Override
+                    public void failed(Throwable e, ByteBuffer buffer) {
+                        close(channel);
+                        future.setException(e);
+                    }
+                });
+        return future;
+    }
+
+    private static void close(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Ignore, because everything was already read (or failed) anyway
+        }
+    }
+
     @Override
     public Optional<Instant> lastModifiedIfKnown() {
         try {
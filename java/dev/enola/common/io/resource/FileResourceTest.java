@@ -41,11 +41,13 @@ import org.junit.Test;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.MappedByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
 
 public class FileResourceTest {
 
@@ -69,6 +71,46 @@ public class FileResourceTest {
         check(r);
     }
 
+    @Test
+    public void testByteBuffer() throws IOException {
+        var small = Files.createTempFile("FileResourceTest", ".txt");
+        var large = Files.createTempFile("FileResourceTest", ".bin");
+        try {
+            Files.writeString(small, "hello, world");
+            var smallBuffer = new FileResource(small.toUri()).byteBuffer();
+            assertThat(smallBuffer.isReadOnly()).isTrue();
+            assertThat(StandardCharsets.UTF_8.decode(smallBuffer).toString())
+                    .isEqualTo("hello, world");
+
+            var bytes = new byte[(int) FileResource.MAP_THRESHOLD + 1];
+            bytes[bytes.length - 1] = 42;
+            Files.write(large, bytes);
+            var largeBuffer = new FileResource(large.toUri()).byteBuffer();
+            assertThat(largeBuffer).isInstanceOf(MappedByteBuffer.class);
+            assertThat(largeBuffer.remaining()).isEqualTo(bytes.length);
+            assertThat(largeBuffer.get(bytes.length - 1)).isEqualTo((byte) 42);
+        } finally {
+            Files.delete(small);
+            Files.delete(large);
+        }
+    }
+
+    @Test
+    public void testReadAsync() throws Exception {
+        var path = Files.createTempFile("FileResourceTest", ".txt");
+        try {
+            Files.writeString(path, "hello, world");
+            var bytes = new FileResource(path.toUri()).readAsync().get();
+            assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo("hello, world");
+        } finally {
+            Files.delete(path);
+        }
+
+        var future = new FileResource(path.toUri()).readAsync();
+        var e = assertThrows(ExecutionException.class, future::get);
+        assertThat(e).hasCauseThat().isInstanceOf(NoSuchFileException.class);
+    }
+
     @Test
     public void testWriteFileInNonExistingDirectory() throws IOException {
         var tmp = System.getProperty("java.io.tmpdir");
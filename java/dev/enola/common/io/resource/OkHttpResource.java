@@ -17,8 +17,18 @@
  */
 package dev.enola.common.io.resource;
 
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static com.google.common.util.concurrent.Uninterruptibles.getUninterruptibly;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.google.common.io.ByteSource;
 import com.google.common.net.MediaType;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 
 import dev.enola.common.FreedesktopDirectories;
 
@@ -30,22 +40,35 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.nio.file.Files;
 import java.time.Duration;
-import java.util.function.Supplier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Resource implemented with <a href="https://square.github.io/okhttp/">OkHttp</a>.
  *
  * <p>Prefer this over {@link UrlResource} (in general).
+ *
+ * <p>The constructor GETs the URL once, to learn its media type, and keeps the body in memory; the
+ * first read of the {@link #byteSource()} returns that body, without another request, and then
+ * drops it, keeping only its validators. Later reads revalidate with a conditional GET
+ * (<tt>If-None-Match</tt> with the <tt>ETag</tt>, or <tt>If-Modified-Since</tt> with the
+ * <tt>Last-Modified</tt> of the previous response); for an unchanged resource, the server answers
+ * <tt>304 Not Modified</tt>, and the body is read from the OkHttp (disk) cache; or fetched again,
+ * if it was not stored there (e.g. due to <tt>Cache-Control: no-store</tt>). Responses which have
+ * neither validator are fetched again, possibly from that cache as well.
+ *
+ * <p>Use {@link #fetchAll(Iterable)}, or {@link Provider#getResourceAsync(URI)} and {@link
+ * #readAsync()}, to fetch many URLs concurrently. All requests share one {@link Dispatcher}, which
+ * limits how many run at the same time, in total and per host.
  */
 public class OkHttpResource extends BaseResource implements ReadableResource {
 
-    // TODO Fix potential resource leaks! See details in #byteSource().
-
-    // TODO Re-design to open 1 instead 2 separate connections for mediaType & byteSource - how?!
-
     // TODO Better cache failed URLs instead of keep retrying! (If it is? Test...)
 
     // TODO java.net.http <https://openjdk.org/groups/net/httpclient/intro.html> alternative!
@@ -54,6 +77,11 @@ public class OkHttpResource extends BaseResource implements ReadableResource {
 
     private static final Logger LOG = LoggerFactory.getLogger(OkHttpResource.class);
 
+    /** Maximum number of concurrent requests to the same host, see {@link #fetchAll(Iterable)}. */
+    public static final int MAX_REQUESTS_PER_HOST = 8;
+
+    private static final int MAX_REQUESTS = 64;
+
     // This must be increased if there are test failures on slow CI servers :(
     private static final Duration t = Duration.ofMillis(7500);
 
@@ -62,9 +90,11 @@ public class OkHttpResource extends BaseResource implements ReadableResource {
             new File(FreedesktopDirectories.CACHE_FILE, OkHttpResource.class.getSimpleName());
     private static final Cache cache = new Cache(cacheDir, 50L * 1024L * 1024L /* 50 MiB */);
     private static final HttpLoggingInterceptor httpLog = new HttpLoggingInterceptor();
+    private static final Dispatcher dispatcher = new Dispatcher();
     private static final OkHttpClient client =
             new OkHttpClient.Builder()
                     .cache(cache)
+                    .dispatcher(dispatcher)
                     .addInterceptor(httpLog)
                     .callTimeout(t)
                     .connectTimeout(t)
@@ -77,6 +107,9 @@ public class OkHttpResource extends BaseResource implements ReadableResource {
         httpLog.redactHeader("Cookie");
         httpLog.setLevel(HttpLoggingInterceptor.Level.BASIC);
 
+        dispatcher.setMaxRequests(MAX_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
         try {
             Files.createDirectories(cacheDir.toPath());
         } catch (IOException e) {
@@ -93,178 +126,243 @@ public class OkHttpResource extends BaseResource implements ReadableResource {
                 return new ReadableButNotWritableDelegatingResource(new OkHttpResource(uri));
             } else return null;
         }
+
+        @Override
+        public ListenableFuture<@Nullable Resource> getResourceAsync(URI uri) {
+            if (!uri.getScheme().startsWith("http")) return immediateFuture(null);
+            return Futures.transform(
+                    fetch(uri),
+                    fetched ->
+                            new ReadableButNotWritableDelegatingResource(
+                                    new OkHttpResource(uri, fetched)),
+                    directExecutor());
+        }
     }
 
+    /**
+     * Fetches all of the given http(s) URIs concurrently, through the shared {@link Dispatcher}.
+     *
+     * <p>This waits until all requests have completed, so that one failure does not cancel the
+     * others, and then throws the first failure (if any), just like the constructor would have.
+     *
+     * @return resources in the same order as the URIs; reading them does not cause any further
+     *     requests.
+     */
+    public static List<OkHttpResource> fetchAll(Iterable<URI> uris) {
+        var uriList = ImmutableList.copyOf(uris);
+        var futures = new ArrayList<ListenableFuture<Fetched>>(uriList.size());
+        for (var uri : uriList) futures.add(fetch(uri));
+
+        var resources = new ArrayList<OkHttpResource>(uriList.size());
+        Throwable failure = null;
+        URI failedURI = null;
+        for (int i = 0; i < uriList.size(); i++) {
+            var uri = uriList.get(i);
+            try {
+                resources.add(new OkHttpResource(uri, getUninterruptibly(futures.get(i))));
+            } catch (ExecutionException | RuntimeException e) {
+                if (failure == null) {
+                    failure = e instanceof ExecutionException ? e.getCause() : e;
+                    failedURI = uri;
+                }
+            }
+        }
+        if (failure != null) {
+            Throwables.throwIfUnchecked(failure);
+            if (failure instanceof IOException e)
+                throw new UncheckedIOException("IOException on " + failedURI, e);
+            throw new IllegalStateException("Failed to fetch " + failedURI, failure);
+        }
+        return resources;
+    }
+
+    private volatile Fetched fetched;
+    private final AtomicBoolean unread = new AtomicBoolean(true);
+
     public OkHttpResource(String url) {
-        super(URI.create(url), mediaType(url));
+        this(URI.create(url));
     }
 
     public OkHttpResource(URI uri) {
-        super(uri, mediaType(uri.toString()));
+        this(uri, get(uri));
     }
 
-    private static MediaType mediaType(String url) {
-        Request request = new Request.Builder().url(url).build();
+    private OkHttpResource(URI uri, Fetched fetched) {
+        super(uri, fetched.mediaType(uri));
+        this.fetched = fetched;
+    }
 
+    private static Fetched get(URI uri) {
+        var request = new Request.Builder().url(uri.toString()).build();
         try (var response = client.newCall(request).execute()) {
-            if (!response.isSuccessful())
-                throw new IllegalArgumentException(unsuccessfulMessage(url, response));
-            var mt = response.body().contentType();
-            if (mt != null) {
-                return mtd.overwrite(URI.create(url), okToGuavaMediaType(mt));
-            } else {
-                throw new IllegalStateException("Success, but no Content-Type header: " + url);
-            }
-
+            return handle(request, response, null);
         } catch (IOException e) {
-            throw new UncheckedIOException("IOException on " + url, e);
+            throw new UncheckedIOException("IOException on " + uri, e);
         }
     }
 
-    private static MediaType okToGuavaMediaType(okhttp3.MediaType okMediaType) {
-        // TODO Optimize?
-        return MediaType.parse(okMediaType.toString());
+    private static ListenableFuture<Fetched> fetch(URI uri) {
+        return enqueue(new Request.Builder().url(uri.toString()).build(), null);
     }
 
-    @Override
-    // TODO Re-design to fix resource leak... as-is, if you call this but then never call
-    // the returned ByteSource's openStream(), then the OkHttp Response will never be closed! :(
-    // This could be fixed by postponing actually opening the connection "down" into openStream().
-    public ByteSource byteSource() {
-        String url = uri().toString();
-        var request = new Request.Builder().url(url).build();
-        try {
-            // Intentional not try-with-resource (but that's leaky & NOK; see above)
-            var response = client.newCall(request).execute();
+    private static ListenableFuture<Fetched> enqueue(Request request, @Nullable Fetched previous) {
+        var future = SettableFuture.<Fetched>create();
+        var call = client.newCall(request);
+        call.enqueue(
+                new Callback() {
+                    @Override
+                    public void onResponse(Call call, Response response) {
+                        try (response) {
+                            future.set(handle(request, response, previous));
+                        } catch (IOException | RuntimeException e) {
+                            future.setException(e);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Call call, IOException e) {
+                        future.setException(e);
+                    }
+                });
+        future.addListener(
+                () -> {
+                    if (future.isCancelled()) call.cancel();
+                },
+                directExecutor());
+        return future;
+    }
 
+    /**
+     * Handles the response to the initial request (if previous is null), or to a revalidation.
+     * Unsuccessful initial requests fail with an IllegalArgumentException (just like the
+     * constructor always did), but failing revalidations are IOExceptions, like other reads.
+     */
+    private static Fetched handle(Request request, Response response, @Nullable Fetched previous)
+            throws IOException {
+        if (previous != null && response.code() == HttpURLConnection.HTTP_NOT_MODIFIED)
+            return unmodified(request);
+        if (!response.isSuccessful()) {
             // TODO How can this propagate connection errors and timeouts more clearly?
-            if (response.isSuccessful())
-                return new InputStreamByteSource(
-                        () -> response.body().byteStream(), response::close);
-            else return new ErrorByteSource(new IOException(unsuccessfulMessage(url, response)));
-        } catch (IOException e) {
-            return new ErrorByteSource(e);
+            var message = response.code() + " " + request.url() + " : " + response.message();
+            if (previous == null) throw new IllegalArgumentException(message);
+            else throw new IOException(message);
         }
+        return Fetched.from(response);
     }
 
-    private static String unsuccessfulMessage(String url, Response response) {
-        return response.code() + " " + url + " : " + response.message();
-    }
-
-    private static class InputStreamByteSource extends ByteSource {
-        private final Supplier<InputStream> inputStreamSupplier;
-        private final Runnable closer;
-
-        InputStreamByteSource(Supplier<InputStream> inputStreamSupplier, Runnable closer) {
-            this.inputStreamSupplier = inputStreamSupplier;
-            this.closer = closer;
+    /**
+     * Reads the body of a resource which was just revalidated from the OkHttp (disk) cache, because
+     * it is not kept in memory; or, if it is not there, GETs it again.
+     */
+    private static Fetched unmodified(Request revalidation) throws IOException {
+        var unconditional =
+                revalidation
+                        .newBuilder()
+                        .removeHeader("If-None-Match")
+                        .removeHeader("If-Modified-Since");
+        var cached = unconditional.cacheControl(CacheControl.FORCE_CACHE).build();
+        try (var response = client.newCall(cached).execute()) {
+            if (response.isSuccessful()) return Fetched.from(response);
         }
-
-        @Override
-        public InputStream openStream() throws IOException {
-            return new DelegatingClosingInputStream(inputStreamSupplier.get(), closer);
+        var request = unconditional.removeHeader("Cache-Control").build();
+        try (var response = client.newCall(request).execute()) {
+            if (response.isSuccessful()) return Fetched.from(response);
+            var message = response.code() + " " + request.url() + " : " + response.message();
+            throw new IOException(message);
         }
     }
 
-    private static class DelegatingClosingInputStream extends DelegatingInputStream {
-        private final Runnable closer;
-
-        protected DelegatingClosingInputStream(InputStream delegate, Runnable closer) {
-            super(delegate);
-            this.closer = closer;
-        }
-
-        @Override
-        public void close() throws IOException {
-            super.close();
-            closer.run();
-        }
+    private static MediaType okToGuavaMediaType(okhttp3.MediaType okMediaType) {
+        // TODO Optimize?
+        return MediaType.parse(okMediaType.toString());
     }
 
-    private static class DelegatingInputStream extends InputStream {
-
-        private final InputStream delegate;
-
-        protected DelegatingInputStream(InputStream delegate) {
-            this.delegate = delegate;
-        }
-
-        @Override
-        public int available() throws IOException {
-            return delegate.available();
-        }
-
-        @Override
-        public void close() throws IOException {
-            delegate.close();
-        }
-
-        @Override
-        public void mark(int readlimit) {
-            delegate.mark(readlimit);
-        }
-
-        @Override
-        public boolean markSupported() {
-            return delegate.markSupported();
-        }
-
-        public static InputStream nullInputStream() {
-            return InputStream.nullInputStream();
-        }
-
-        public int read() throws IOException {
-            return delegate.read();
-        }
-
-        @Override
-        public int read(byte[] b) throws IOException {
-            return delegate.read(b);
-        }
+    @Override
+    public ByteSource byteSource() {
+        return new ByteSource() {
+            @Override
+            public InputStream openStream() throws IOException {
+                return new ByteArrayInputStream(current().body());
+            }
 
-        @Override
-        public int read(byte[] b, int off, int len) throws IOException {
-            return delegate.read(b, off, len);
-        }
+            @Override
+            public Optional<Long> sizeIfKnown() {
+                var body = fetched.body();
+                return unread.get() && body != null
+                        ? Optional.of((long) body.length)
+                        : Optional.absent();
+            }
+        };
+    }
 
-        @Override
-        public byte[] readAllBytes() throws IOException {
-            return delegate.readAllBytes();
-        }
+    /**
+     * Reads asynchronously, without blocking the calling thread. The first read (just like that of
+     * {@link #byteSource()}) completes immediately, and later ones revalidate.
+     */
+    @Override
+    public ListenableFuture<byte[]> readAsync() {
+        if (unread.getAndSet(false)) return immediateFuture(first().body());
+        var previous = fetched;
+        return Futures.transform(
+                enqueue(revalidation(previous), previous),
+                next -> {
+                    fetched = next.withoutBody();
+                    return next.body();
+                },
+                directExecutor());
+    }
 
-        @Override
-        public int readNBytes(byte[] b, int off, int len) throws IOException {
-            return delegate.readNBytes(b, off, len);
-        }
+    private Fetched current() throws IOException {
+        if (unread.getAndSet(false)) return first();
 
-        @Override
-        public byte[] readNBytes(int len) throws IOException {
-            return delegate.readNBytes(len);
+        var previous = fetched;
+        var request = revalidation(previous);
+        try (var response = client.newCall(request).execute()) {
+            var next = handle(request, response, previous);
+            fetched = next.withoutBody();
+            return next;
         }
+    }
 
-        @Override
-        public void reset() throws IOException {
-            delegate.reset();
-        }
+    /** Returns what the constructor fetched, and drops its body; to be called only once. */
+    private Fetched first() {
+        var first = fetched;
+        fetched = first.withoutBody();
+        return first;
+    }
 
-        @Override
-        public long skip(long n) throws IOException {
-            return delegate.skip(n);
-        }
+    /** Conditional GET request, with the validators of the previous response (if any). */
+    private Request revalidation(Fetched previous) {
+        var request = new Request.Builder().url(uri().toString());
+        if (previous.etag() != null) request.header("If-None-Match", previous.etag());
+        else if (previous.lastModified() != null)
+            request.header("If-Modified-Since", previous.lastModified());
+        return request.build();
+    }
 
-        @Override
-        public void skipNBytes(long n) throws IOException {
-            delegate.skipNBytes(n);
+    /** Response; its body is null once it was read, and only the validators are kept. */
+    private record Fetched(
+            byte @Nullable [] body,
+            okhttp3.@Nullable MediaType contentType,
+            @Nullable String etag,
+            @Nullable String lastModified) {
+
+        static Fetched from(Response response) throws IOException {
+            var body = response.body();
+            return new Fetched(
+                    body.bytes(),
+                    body.contentType(),
+                    response.header("ETag"),
+                    response.header("Last-Modified"));
         }
 
-        @Override
-        public long transferTo(OutputStream out) throws IOException {
-            return delegate.transferTo(out);
+        Fetched withoutBody() {
+            return new Fetched(null, contentType, etag, lastModified);
         }
 
-        @Override
-        public String toString() {
-            return "DelegatingInputStream{" + "delegate=" + delegate + '}';
+        MediaType mediaType(URI uri) {
+            if (contentType != null) return mtd.overwrite(uri, okToGuavaMediaType(contentType));
+            throw new IllegalStateException("Success, but no Content-Type header: " + uri);
         }
     }
 }
@@ -22,8 +22,11 @@ import static com.google.common.truth.Truth.assertThat;
 import static dev.enola.common.context.testlib.SingletonRule.$;
 
 import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 import com.google.common.net.MediaType;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
 
 import dev.enola.common.context.testlib.SingletonRule;
 import dev.enola.common.io.mediatype.MediaTypeProviders;
@@ -33,12 +36,78 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class OkHttpResourceTest {
 
     public @Rule SingletonRule r = $(MediaTypeProviders.set(new MediaTypeProviders()));
 
-    // TODO Use https://square.github.io/okhttp/#mockwebserver
+    @Test
+    public void fetchOnceThenRevalidate() throws IOException {
+        try (var server = new TestServer()) {
+            var r = new OkHttpResource(server.uri("/hello"));
+            assertThat(r.mediaType()).isEqualTo(MediaType.PLAIN_TEXT_UTF_8);
+            assertThat(server.requests).hasSize(1);
+
+            // The first read uses the body of the response which the constructor already has
+            assertThat(r.charSource().read()).isEqualTo("hello, /hello");
+            assertThat(server.requests).hasSize(1);
+
+            // Later reads revalidate, and the server answers 304 Not Modified
+            assertThat(r.charSource().read()).isEqualTo("hello, /hello");
+            assertThat(server.requests).hasSize(2);
+            assertThat(server.requests.get(1)).isEqualTo("/hello If-None-Match: \"v1\"");
+        }
+    }
+
+    @Test
+    public void revalidateNotStored() throws IOException {
+        try (var server = new TestServer()) {
+            var r = new OkHttpResource(server.uri("/no-store"));
+            assertThat(r.charSource().read()).isEqualTo("hello, /no-store");
+
+            // The body was dropped after the first read, and (due to no-store) is not in the
+            // OkHttp cache either; so after the 304 Not Modified, it is fetched again
+            assertThat(r.charSource().read()).isEqualTo("hello, /no-store");
+            assertThat(server.requests)
+                    .containsExactly("/no-store", "/no-store If-None-Match: \"v1\"", "/no-store")
+                    .inOrder();
+        }
+    }
+
+    @Test
+    public void async() throws Exception {
+        try (var server = new TestServer()) {
+            var r = new OkHttpResource.Provider().getResourceAsync(server.uri("/hello")).get();
+            assertThat(r.readAsync().get()).isEqualTo("hello, /hello".getBytes(UTF_8));
+            assertThat(server.requests).hasSize(1);
+
+            assertThat(r.readAsync().get()).isEqualTo("hello, /hello".getBytes(UTF_8));
+            assertThat(server.requests).hasSize(2);
+        }
+    }
+
+    @Test
+    public void fetchAll() throws IOException {
+        try (var server = new TestServer()) {
+            var uris = List.of(server.uri("/a"), server.uri("/b"), server.uri("/c"));
+            var resources = OkHttpResource.fetchAll(uris);
+            assertThat(resources).hasSize(3);
+            assertThat(resources.get(0).uri()).isEqualTo(uris.get(0));
+            assertThat(resources.get(2).charSource().read()).isEqualTo("hello, /c");
+            assertThat(server.requests).hasSize(3);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fetchAll404() throws IOException {
+        try (var server = new TestServer()) {
+            OkHttpResource.fetchAll(List.of(server.uri("/a"), server.uri("/404")));
+        }
+    }
 
     @Test
     public void google() throws IOException {
@@ -58,4 +127,46 @@ public class OkHttpResourceTest {
         // NB: 203.0.113.1 is a non-routable IPv4 address; the cause includes Timeout
         new OkHttpResource("http://203.0.113.1").charSource().read();
     }
+
+    /** Local HTTP server, which records requests and supports <tt>If-None-Match</tt>. */
+    private static class TestServer implements AutoCloseable {
+        final List<String> requests = new CopyOnWriteArrayList<>();
+        private final HttpServer server;
+
+        TestServer() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", this::handle);
+            server.start();
+        }
+
+        URI uri(String path) {
+            return URI.create("http://localhost:" + server.getAddress().getPort() + path);
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            var path = exchange.getRequestURI().getPath();
+            var ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            requests.add(ifNoneMatch == null ? path : path + " If-None-Match: " + ifNoneMatch);
+
+            var headers = exchange.getResponseHeaders();
+            headers.set("Cache-Control", path.equals("/no-store") ? "no-store" : "max-age=0");
+            if (path.equals("/404")) {
+                exchange.sendResponseHeaders(404, -1);
+            } else if ("\"v1\"".equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                var body = ("hello, " + path).getBytes(UTF_8);
+                headers.set("Content-Type", "text/plain; charset=utf-8");
+                headers.set("ETag", "\"v1\"");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        }
+
+        @Override
+        public void close() {
+            server.stop(0);
+        }
+    }
 }
@@ -17,10 +17,14 @@
  */
 package dev.enola.common.io.resource;
 
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
 import static dev.enola.common.io.resource.SPI.missingCharsetExceptionSupplier;
 
 import com.google.common.io.ByteSource;
 import com.google.common.io.CharSource;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import java.time.Instant;
 import java.util.Optional;
@@ -39,6 +43,15 @@ public interface ReadableResource extends AbstractResource {
                                 .orElseThrow(missingCharsetExceptionSupplier(this)));
     }
 
+    /**
+     * Reads all bytes, like {@code byteSource().read()}, but asynchronously. Implementations which
+     * do I/O, such as {@link FileResource} and {@link OkHttpResource}, do not block the calling
+     * thread; this default does, and returns an already completed future.
+     */
+    default ListenableFuture<byte[]> readAsync() {
+        return Futures.submit(() -> byteSource().read(), directExecutor());
+    }
+
     // NO contentLength() because ByteSource already has a size() + sizeIfKnown()
 
     /**
@@ -17,6 +17,11 @@
  */
 package dev.enola.common.io.resource;
 
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
 import dev.enola.common.context.TLC;
 import dev.enola.data.ProviderFromIRI;
 
@@ -51,6 +56,15 @@ public interface ResourceProvider extends ProviderFromIRI<Resource> {
     // TODO Rename getResource to get for consistency
     @Nullable Resource getResource(URI uri);
 
+    /**
+     * Gets a Resource asynchronously. Providers which do I/O to get one, such as {@link
+     * OkHttpResource.Provider}, override this; the default calls {@link #getResource(URI)} on the
+     * calling thread, and returns an already completed future.
+     */
+    default ListenableFuture<@Nullable Resource> getResourceAsync(URI uri) {
+        return Futures.submit(() -> getResource(uri), directExecutor());
+    }
+
     default @Nullable ReadableResource getReadableResource(URI uri) {
         return getResource(uri);
     }
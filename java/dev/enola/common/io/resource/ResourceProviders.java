@@ -17,7 +17,12 @@
  */
 package dev.enola.common.io.resource;
 
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import dev.enola.common.io.iri.URIs;
 
@@ -26,6 +31,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URI;
+import java.util.Iterator;
 
 public class ResourceProviders implements ResourceProvider {
 
@@ -84,6 +90,27 @@ public class ResourceProviders implements ResourceProvider {
         return null;
     }
 
+    @Override
+    public ListenableFuture<@Nullable Resource> getResourceAsync(URI uri) {
+        var resolvedURI = URIs.absolutify(uri);
+        return getResourceAsync(resolvedURI, resourceProviders.iterator());
+    }
+
+    private ListenableFuture<@Nullable Resource> getResourceAsync(
+            URI uri, Iterator<ResourceProvider> remaining) {
+        if (!remaining.hasNext()) {
+            LOG.debug("Unsupported URI: {}", uri);
+            return immediateFuture(null);
+        }
+        return Futures.transformAsync(
+                remaining.next().getResourceAsync(uri),
+                resource ->
+                        resource != null
+                                ? immediateFuture(resource)
+                                : getResourceAsync(uri, remaining),
+                directExecutor());
+    }
+
     @Override
     public String toString() {
         return "ResourceProviders{" + "resourceProviders=" + resourceProviders + '}';
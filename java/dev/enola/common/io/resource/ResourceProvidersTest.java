@@ -76,6 +76,14 @@ public class ResourceProvidersTest {
         assertThat(r.mediaType()).isEqualTo(MediaType.JSON_UTF_8);
     }
 
+    @Test
+    public void testGetResourceAsync() throws Exception {
+        var rp = new ResourceProviders(new EmptyResource.Provider(), new StringResource.Provider());
+        var r = rp.getResourceAsync(URI.create("string:hello")).get();
+        assertThat(r.readAsync().get()).isEqualTo("hello".getBytes(StandardCharsets.UTF_8));
+        assertThat(rp.getResourceAsync(URI.create("unknown:hello")).get()).isNull();
+    }
+
     @Test
     public void testFileMediaType() {
         Resource r;
@@ -98,7 +98,8 @@ public class StringResource extends BaseResource implements ReadableButNotWritab
 
     @Override
     public ByteSource byteSource() {
-        return charSource().asByteSource(mediaType().charset().get());
+        // Not charSource().asByteSource(), because (only) this knows its size, e.g. for HTTP HEAD
+        return ByteSource.wrap(string.getBytes(mediaType().charset().get()));
     }
 
     @Override
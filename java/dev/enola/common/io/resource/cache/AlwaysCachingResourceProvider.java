@@ -17,12 +17,19 @@
  */
 package dev.enola.common.io.resource.cache;
 
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import dev.enola.common.io.resource.Resource;
 import dev.enola.common.io.resource.ResourceProvider;
+import dev.enola.common.metrics.Counter;
+import dev.enola.common.metrics.MetricsRegistry;
 
 import org.jspecify.annotations.Nullable;
 
@@ -40,7 +47,13 @@ public class AlwaysCachingResourceProvider implements ResourceProvider {
 
     // TODO Make Guava Cache configurable...
 
-    // TODO Expose OpenTelemetry metrics: requests, hits, ...
+    private static final Counter HITS =
+            MetricsRegistry.GLOBAL.counter(
+                    "enola_resource_cache_hits_total", "Resources found in the cache");
+
+    private static final Counter MISSES =
+            MetricsRegistry.GLOBAL.counter(
+                    "enola_resource_cache_misses_total", "Resources not found in the cache");
 
     private final LoadingCache<URI, Optional<Resource>> cache =
             CacheBuilder.newBuilder()
@@ -61,6 +74,29 @@ public class AlwaysCachingResourceProvider implements ResourceProvider {
 
     @Override
     public @Nullable Resource getResource(URI uri) {
+        var cached = cache.getIfPresent(uri);
+        if (cached != null) {
+            HITS.inc();
+            return cached.orElse(null);
+        }
+        MISSES.inc();
         return cache.getUnchecked(uri).orElse(null);
     }
+
+    @Override
+    public ListenableFuture<@Nullable Resource> getResourceAsync(URI uri) {
+        var cached = cache.getIfPresent(uri);
+        if (cached != null) {
+            HITS.inc();
+            return immediateFuture(cached.orElse(null));
+        }
+        MISSES.inc();
+        return Futures.transform(
+                delegate.getResourceAsync(uri),
+                resource -> {
+                    cache.put(uri, Optional.ofNullable(resource));
+                    return resource;
+                },
+                directExecutor());
+    }
 }
@@ -17,15 +17,20 @@
  */
 package dev.enola.common.io.resource.cache;
 
+import static com.google.common.net.MediaType.PLAIN_TEXT_UTF_8;
 import static com.google.common.truth.Truth.assertThat;
 
 import static dev.enola.common.context.testlib.SingletonRule.$;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteSource;
 import com.google.common.net.MediaType;
 
 import dev.enola.common.context.testlib.SingletonRule;
 import dev.enola.common.io.mediatype.MediaTypeProviders;
+import dev.enola.common.io.resource.ByteBufferResource;
+import dev.enola.common.io.resource.DelegatingResource;
+import dev.enola.common.io.resource.FileResource;
 import dev.enola.common.io.resource.Resource;
 import dev.enola.common.io.resource.ResourceProvider;
 import dev.enola.common.io.resource.StringResource;
@@ -37,7 +42,12 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.MappedByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CachingResourceProviderTest {
 
@@ -74,6 +84,85 @@ public class CachingResourceProviderTest {
         assertThat(rp.get("test:nada")).isNull();
     }
 
+    @Test
+    public void content() throws IOException {
+        var reads = new AtomicInteger();
+        ResourceProvider counting =
+                uri ->
+                        new DelegatingResource(StringResource.of("hello", PLAIN_TEXT_UTF_8)) {
+                            @Override
+                            public ByteSource byteSource() {
+                                reads.incrementAndGet();
+                                return super.byteSource();
+                            }
+                        };
+        var rp = new ContentCachingResourceProvider(counting);
+
+        assertThat(rp.getResource(TEST_URI).charSource().read()).isEqualTo("hello");
+        assertThat(rp.getResource(TEST_URI).charSource().read()).isEqualTo("hello");
+        assertThat(reads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void contentAsync() throws Exception {
+        var rp = new ContentCachingResourceProvider(trp);
+        var resource = rp.getResourceAsync(TEST_URI).get();
+        assertThat(resource.readAsync().get()).isEqualTo("hello".getBytes(StandardCharsets.UTF_8));
+
+        // Content read asynchronously is cached for later (synchronous) reads
+        trp.wasCalled = false;
+        assertThat(rp.getResource(TEST_URI).charSource().read()).isEqualTo("hello");
+        assertThat(trp.wasCalled).isFalse();
+    }
+
+    @Test
+    public void contentRevalidatesModifiedFiles() throws IOException {
+        var path = Files.createTempFile("CachingResourceProviderTest", ".txt");
+        // Without any MediaTypeProviders, the charset of *.txt is not known; so specify it
+        var uri = URI.create(path.toUri() + "?charset=UTF-8");
+        try {
+            var rp = new ContentCachingResourceProvider(new FileResource.Provider());
+            Files.writeString(path, "hello");
+            assertThat(rp.getResource(uri).charSource().read()).isEqualTo("hello");
+
+            Files.writeString(path, "world");
+            var later = Files.getLastModifiedTime(path).toInstant().plusSeconds(7);
+            Files.setLastModifiedTime(path, FileTime.from(later));
+            assertThat(rp.getResource(uri).charSource().read()).isEqualTo("world");
+
+            rp.getResource(uri).charSink().write("again");
+            assertThat(rp.getResource(uri).charSource().read()).isEqualTo("again");
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void contentByteBuffer() throws IOException {
+        var small = Files.createTempFile("CachingResourceProviderTest", ".txt");
+        var large = Files.createTempFile("CachingResourceProviderTest", ".bin");
+        try {
+            // Entries larger than 1/8 of 8 MiB are not cached, but come from the delegate
+            var rp =
+                    new ContentCachingResourceProvider(
+                            new FileResource.Provider(), 8 * 1024 * 1024, Duration.ofMinutes(1));
+            Files.writeString(small, "hello");
+            var smallResource = (ByteBufferResource) rp.getResource(small.toUri());
+            assertThat(StandardCharsets.UTF_8.decode(smallResource.byteBuffer()).toString())
+                    .isEqualTo("hello");
+
+            var bytes = new byte[2 * 1024 * 1024];
+            bytes[bytes.length - 1] = 42;
+            Files.write(large, bytes);
+            var largeBuffer = ((ByteBufferResource) rp.getResource(large.toUri())).byteBuffer();
+            assertThat(largeBuffer).isInstanceOf(MappedByteBuffer.class);
+            assertThat(largeBuffer.get(bytes.length - 1)).isEqualTo((byte) 42);
+        } finally {
+            Files.delete(small);
+            Files.delete(large);
+        }
+    }
+
     @Test
     public void classpath() throws IOException {
         var uri = "http://some.where/testX"; // /test uses MediaTypesTest's application/test!
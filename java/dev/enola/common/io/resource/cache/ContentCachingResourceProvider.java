@@ -0,0 +1,281 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.common.io.resource.cache;
+
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.io.ByteSink;
+import com.google.common.io.ByteSource;
+import com.google.common.net.MediaType;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import dev.enola.common.io.resource.BaseResource;
+import dev.enola.common.io.resource.ByteBufferResource;
+import dev.enola.common.io.resource.Resource;
+import dev.enola.common.io.resource.ResourceProvider;
+import dev.enola.common.metrics.Counter;
+import dev.enola.common.metrics.MetricsRegistry;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * ContentCachingResourceProvider is a {@link ResourceProvider} which keeps the bytes read from the
+ * resources of its delegate in memory; unlike {@link AlwaysCachingResourceProvider}, which only
+ * keeps the Resource "handles", and so still reads them again each time.
+ *
+ * <p>The cache is bounded by the total number of bytes; resources larger than 1/8 of that are not
+ * cached at all, but streamed from the delegate as usual. Content is evicted after a time-to-live.
+ * Resources which know when they were last modified (such as files) are revalidated on every
+ * {@link #getResource(URI)} against their {@link Resource#lastModifiedIfKnown()}, and read again if
+ * that changed. Others (such as remote HTTP resources) are instead served from memory, without
+ * even asking the delegate, until they expire. Writing to a resource evicts its content.
+ *
+ * <p>Content read with {@link Resource#readAsync()} is cached as well; so reading resources
+ * asynchronously ahead of time (see {@link #getResourceAsync(URI)}) makes later synchronous reads
+ * hits.
+ *
+ * <p>Its resources are {@link ByteBufferResource}s: cached content is wrapped without copying it,
+ * and content too large to cache uses the delegate's buffer (e.g. a memory-mapped file), if any.
+ */
+public class ContentCachingResourceProvider implements ResourceProvider {
+
+    public static final long DEFAULT_MAXIMUM_BYTES = 64 * 1024 * 1024;
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+
+    private static final Counter HITS =
+            MetricsRegistry.GLOBAL.counter(
+                    "enola_resource_content_cache_hits_total", "Resource content read from memory");
+
+    private static final Counter MISSES =
+            MetricsRegistry.GLOBAL.counter(
+                    "enola_resource_content_cache_misses_total",
+                    "Resource content read from the delegate");
+
+    private record Content(byte[] bytes, MediaType mediaType, Optional<Instant> lastModified) {}
+
+    private final ResourceProvider delegate;
+    private final Cache<URI, Content> cache;
+    private final long maximumBytes;
+    private final long maximumEntryBytes;
+
+    public ContentCachingResourceProvider(ResourceProvider delegate) {
+        this(delegate, DEFAULT_MAXIMUM_BYTES, DEFAULT_TTL);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maximumBytes total size of all cached content
+     * @param ttl how long content is kept, at most
+     */
+    public ContentCachingResourceProvider(
+            ResourceProvider delegate, long maximumBytes, Duration ttl) {
+        if (maximumBytes <= 0) throw new IllegalArgumentException("maximumBytes: " + maximumBytes);
+        this.delegate = delegate;
+        this.maximumBytes = maximumBytes;
+        this.maximumEntryBytes = maximumBytes / 8;
+        this.cache =
+                CacheBuilder.newBuilder()
+                        .maximumWeight(maximumBytes)
+                        .weigher((URI uri, Content content) -> content.bytes.length)
+                        .expireAfterWrite(ttl)
+                        .build();
+    }
+
+    /** Total size of all cached content. */
+    public long maximumBytes() {
+        return maximumBytes;
+    }
+
+    /** Size of the largest content which is cached; larger content is streamed instead. */
+    public long maximumEntryBytes() {
+        return maximumEntryBytes;
+    }
+
+    @Override
+    public @Nullable Resource getResource(URI uri) {
+        var content = cache.getIfPresent(uri);
+        if (content != null && content.lastModified.isEmpty())
+            return new ContentCachingResource(uri, content.mediaType, null);
+
+        return wrap(uri, delegate.getResource(uri));
+    }
+
+    @Override
+    public ListenableFuture<@Nullable Resource> getResourceAsync(URI uri) {
+        var content = cache.getIfPresent(uri);
+        if (content != null && content.lastModified.isEmpty())
+            return immediateFuture(new ContentCachingResource(uri, content.mediaType, null));
+
+        return Futures.transform(
+                delegate.getResourceAsync(uri), resource -> wrap(uri, resource), directExecutor());
+    }
+
+    private @Nullable Resource wrap(URI uri, @Nullable Resource resource) {
+        if (resource == null) {
+            cache.invalidate(uri);
+            return null;
+        }
+        return new ContentCachingResource(uri, resource.mediaType(), resource);
+    }
+
+    private class ContentCachingResource extends BaseResource
+            implements Resource, ByteBufferResource {
+
+        /** The delegate's resource; null if not (yet) needed, because content was cached. */
+        private @Nullable Resource resource;
+
+        ContentCachingResource(URI uri, MediaType mediaType, @Nullable Resource resource) {
+            super(uri, mediaType, true);
+            this.resource = resource;
+        }
+
+        private Resource resource() {
+            if (resource == null) resource = delegate.getResource(uri);
+            if (resource == null) throw new IllegalStateException("Resource gone: " + uri);
+            return resource;
+        }
+
+        /** Returns the cached content, or null if there is none, or it is outdated. */
+        private @Nullable Content cached() {
+            var content = cache.getIfPresent(uri);
+            if (content == null) return null;
+            if (resource != null && !content.lastModified.equals(resource.lastModifiedIfKnown()))
+                return null;
+            return content;
+        }
+
+        @Override
+        public Optional<Instant> lastModifiedIfKnown() {
+            if (resource != null) return resource.lastModifiedIfKnown();
+            var content = cache.getIfPresent(uri);
+            return content != null ? content.lastModified : Optional.empty();
+        }
+
+        @Override
+        public ByteSource byteSource() {
+            return new ByteSource() {
+                @Override
+                public InputStream openStream() throws IOException {
+                    var content = cached();
+                    if (content != null) {
+                        HITS.inc();
+                        return new ByteArrayInputStream(content.bytes);
+                    }
+                    MISSES.inc();
+                    var source = resource().byteSource();
+                    var size = source.sizeIfKnown();
+                    if (size.isPresent() && size.get() > maximumEntryBytes)
+                        return source.openStream();
+
+                    var lastModified = resource().lastModifiedIfKnown();
+                    var bytes = source.read();
+                    if (bytes.length <= maximumEntryBytes)
+                        cache.put(uri, new Content(bytes, mediaType, lastModified));
+                    return new ByteArrayInputStream(bytes);
+                }
+
+                @Override
+                public com.google.common.base.Optional<Long> sizeIfKnown() {
+                    var content = cached();
+                    if (content == null) return resource().byteSource().sizeIfKnown();
+                    return com.google.common.base.Optional.of((long) content.bytes.length);
+                }
+            };
+        }
+
+        @Override
+        public @Nullable ByteBuffer byteBuffer() throws IOException {
+            var content = cached();
+            if (content != null) {
+                HITS.inc();
+                return ByteBuffer.wrap(content.bytes).asReadOnlyBuffer();
+            }
+            var size = resource().byteSource().sizeIfKnown();
+            if (size.isPresent() && size.get() > maximumEntryBytes) {
+                // Too large to cache; so e.g. a file is mapped by the delegate, or else streamed
+                MISSES.inc();
+                if (resource() instanceof ByteBufferResource buffered) return buffered.byteBuffer();
+                return null;
+            }
+            // Reads (and caches) it, just like byteSource() does
+            return ByteBuffer.wrap(byteSource().read()).asReadOnlyBuffer();
+        }
+
+        @Override
+        public ListenableFuture<byte[]> readAsync() {
+            var content = cached();
+            if (content != null) {
+                HITS.inc();
+                return immediateFuture(content.bytes.clone());
+            }
+            MISSES.inc();
+            var lastModified = resource().lastModifiedIfKnown();
+            return Futures.transform(
+                    resource().readAsync(),
+                    bytes -> {
+                        if (bytes.length <= maximumEntryBytes)
+                            cache.put(uri, new Content(bytes.clone(), mediaType, lastModified));
+                        return bytes;
+                    },
+                    directExecutor());
+        }
+
+        @Override
+        public ByteSink byteSink() {
+            var sink = resource().byteSink();
+            return new ByteSink() {
+                @Override
+                public OutputStream openStream() throws IOException {
+                    cache.invalidate(uri);
+                    return new FilterOutputStream(sink.openStream()) {
+                        @Override
+                        public void write(byte[] b, int off, int len) throws IOException {
+                            out.write(b, off, len);
+                        }
+
+                        @Override
+                        public void close() throws IOException {
+                            try {
+                                super.close();
+                            } finally {
+                                // Again, in case it was read (and so cached) while being written
+                                cache.invalidate(uri);
+                            }
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
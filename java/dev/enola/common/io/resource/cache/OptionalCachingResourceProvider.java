@@ -17,6 +17,8 @@
  */
 package dev.enola.common.io.resource.cache;
 
+import com.google.common.util.concurrent.ListenableFuture;
+
 import dev.enola.common.io.iri.URIs;
 import dev.enola.common.io.resource.Resource;
 import dev.enola.common.io.resource.ResourceProvider;
@@ -42,4 +44,10 @@ public class OptionalCachingResourceProvider extends AlwaysCachingResourceProvid
         if (URIs.hasQueryParameter(uri, CACHE)) return super.getResource(uri);
         else return delegate.getResource(uri);
     }
+
+    @Override
+    public ListenableFuture<@Nullable Resource> getResourceAsync(URI uri) {
+        if (URIs.hasQueryParameter(uri, CACHE)) return super.getResourceAsync(uri);
+        else return delegate.getResourceAsync(uri);
+    }
 }
@@ -17,11 +17,14 @@
  */
 package dev.enola.common.io.resource.stream;
 
+import org.jspecify.annotations.Nullable;
+
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.util.stream.Stream;
 
 /** FileGlobPathWalker is a utility to enumerate files matching a glob pattern. */
@@ -29,6 +32,24 @@ final class FileGlobPathWalker {
 
     /** See the {@link FileGlobResolver} documentation for glob path description. */
     static Stream<Path> walk(Path globPath) throws IOException {
+        var basePath = basePath(globPath);
+        if (basePath != null) {
+            var matcher = matcher(globPath);
+            var stream =
+                    Files.walk(basePath, FileVisitOption.FOLLOW_LINKS)
+                            .filter(path -> matches(matcher, path));
+            // Add basePath, useful as "root dir", used e.g. in models/** DocGen FileThingConverter
+            return Stream.concat(Stream.of(basePath), stream);
+        } else {
+            return Stream.of(globPath);
+        }
+    }
+
+    /**
+     * Returns the directory (without any glob) which contains all paths that could match the glob,
+     * or null if the path is not a glob at all, but just a single file (or directory).
+     */
+    static @Nullable Path basePath(Path globPath) {
         var globString = globPath.toString();
         var starPos = globString.indexOf('*');
 
@@ -37,24 +58,19 @@ final class FileGlobPathWalker {
         if (starPos == -1) starPos = globString.indexOf('[');
 
         if (starPos > -1) {
-            Path basePath;
-            if (starPos > 0) basePath = Path.of(globString.substring(0, starPos - 1));
-            else basePath = new File(".").toPath();
+            if (starPos > 0) return Path.of(globString.substring(0, starPos - 1));
+            else return new File(".").toPath();
+        } else return null;
+    }
 
-            // Inspired by File.newDirectoryStream(), but matching full path, not just getFileName()
-            var fs = basePath.getFileSystem();
-            var matcher = fs.getPathMatcher("glob:" + globString);
-            var stream =
-                    Files.walk(basePath, FileVisitOption.FOLLOW_LINKS)
-                            .filter(path -> matcher.matches(path))
-                            // .git/ contains weird files which have "standard" extensions but not
-                            // content
-                            .filter(path -> !path.toString().contains("/.git/"));
-            // Add basePath, useful as "root dir", used e.g. in models/** DocGen FileThingConverter
-            return Stream.concat(Stream.of(basePath), stream);
-        } else {
-            return Stream.of(globPath);
-        }
+    static PathMatcher matcher(Path globPath) {
+        // Inspired by File.newDirectoryStream(), but matching full path, not just getFileName()
+        return globPath.getFileSystem().getPathMatcher("glob:" + globPath);
+    }
+
+    static boolean matches(PathMatcher matcher, Path path) {
+        // .git/ contains weird files which have "standard" extensions but not content
+        return matcher.matches(path) && !path.toString().contains("/.git/");
     }
 
     private FileGlobPathWalker() {}
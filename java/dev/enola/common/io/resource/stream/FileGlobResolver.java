@@ -25,6 +25,10 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -45,11 +49,7 @@ public class FileGlobResolver implements GlobResolver {
     @Override
     @MustBeClosed
     public Stream<URI> get(String globReference) {
-        var globIRI = URIs.absolutify(globReference);
-
-        if (!globIRI.startsWith("file:")) {
-            throw new IllegalArgumentException("Not a file: IRI: " + globIRI);
-        }
+        var globIRI = checkFileIRI(globReference);
 
         // NB: We cannot convert globIRI to an java.net.URI, because it may contain invalid
         // characters (such as {}) which cause an URISyntaxException. We therefore only use String
@@ -63,16 +63,37 @@ public class FileGlobResolver implements GlobResolver {
         var globPath = URIs.getFilePath(globIRI);
 
         try {
-            return FileGlobPathWalker.walk(globPath)
-                    .map(
-                            path -> {
-                                var pathString = path.toUri().toString();
-                                var pathWithQuery = URIs.addQuery(pathString, queryParameters);
-                                return URI.create(pathWithQuery);
-                            });
+            return FileGlobPathWalker.walk(globPath).map(path -> toURI(path, queryParameters));
 
         } catch (IOException e) {
             throw new UncheckedIOException("Failed to process 'globbed' IRI: " + globIRI, e);
         }
     }
+
+    /**
+     * Watches the files matching a "globbed" file: IRI for changes. The listener is invoked (on
+     * another thread) with URIs as {@link #get(String)} returns them, until the returned watcher is
+     * closed.
+     */
+    public FileGlobWatcher watch(String globReference, Consumer<Set<URI>> listener)
+            throws IOException {
+        var globIRI = checkFileIRI(globReference);
+        var queryParameters = URIs.getQueryMap(globIRI);
+        var globPath = URIs.getFilePath(globIRI);
+        return new FileGlobWatcher(globPath, path -> toURI(path, queryParameters), listener);
+    }
+
+    private static String checkFileIRI(String globReference) {
+        var globIRI = URIs.absolutify(globReference);
+        if (!globIRI.startsWith("file:")) {
+            throw new IllegalArgumentException("Not a file: IRI: " + globIRI);
+        }
+        return globIRI;
+    }
+
+    private static URI toURI(Path path, Map<String, String> queryParameters) {
+        var pathString = path.toUri().toString();
+        var pathWithQuery = URIs.addQuery(pathString, queryParameters);
+        return URI.create(pathWithQuery);
+    }
 }
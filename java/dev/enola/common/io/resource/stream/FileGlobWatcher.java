@@ -0,0 +1,196 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.common.io.resource.stream;
+
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import dev.enola.common.concurrent.Executors;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * FileGlobWatcher notifies a listener about files matching a glob which were created, modified or
+ * deleted. Obtain one from {@link FileGlobResolver#watch(String, Consumer)}.
+ *
+ * <p>Changes are batched: The listener is invoked (on a background thread) with all changed URIs
+ * once no further change was seen for a short {@link #QUIET_PERIOD}; this is so that e.g. an editor
+ * saving a file, or a <tt>git checkout</tt> touching many files, leads to only one notification.
+ * The URIs passed to the listener may no longer exist, if they were deleted. Deleted directories
+ * are reported as well (but not the files which were in them, because those are unknown).
+ */
+public final class FileGlobWatcher implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileGlobWatcher.class);
+
+    static final Duration QUIET_PERIOD = Duration.ofMillis(200);
+
+    private final Path globPath;
+    private final @Nullable PathMatcher matcher;
+    private final Function<Path, URI> toURI;
+    private final Consumer<Set<URI>> listener;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    FileGlobWatcher(Path globPath, Function<Path, URI> toURI, Consumer<Set<URI>> listener)
+            throws IOException {
+        this.globPath = globPath;
+        this.toURI = toURI;
+        this.listener = listener;
+
+        var basePath = FileGlobPathWalker.basePath(globPath);
+        this.watchService = globPath.getFileSystem().newWatchService();
+        if (basePath != null) {
+            this.matcher = FileGlobPathWalker.matcher(globPath);
+            registerAll(basePath);
+        } else {
+            // Not a glob, but a single file; so only its directory needs to be watched
+            this.matcher = null;
+            register(globPath.toAbsolutePath().getParent());
+        }
+
+        this.executor = Executors.newSingleThreadExecutor("FileGlobWatcher", LOG);
+        executor.execute(this::run);
+    }
+
+    private void register(Path directory) throws IOException {
+        var key = directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        directories.put(key, directory);
+    }
+
+    private void registerAll(Path directory) throws IOException {
+        try (var stream = Files.walk(directory, FileVisitOption.FOLLOW_LINKS)) {
+            var iterator = stream.filter(Files::isDirectory).iterator();
+            while (iterator.hasNext()) register(iterator.next());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private boolean matches(Path path) {
+        if (matcher == null) return path.equals(globPath);
+        else return FileGlobPathWalker.matches(matcher, path);
+    }
+
+    private void run() {
+        var changed = new LinkedHashSet<Path>();
+        try {
+            while (true) {
+                var key =
+                        changed.isEmpty()
+                                ? watchService.take()
+                                : watchService.poll(QUIET_PERIOD.toMillis(), TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    notify(changed);
+                    changed = new LinkedHashSet<>();
+                } else {
+                    poll(key, changed);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            LOG.debug("Closed, no longer watching {}", globPath);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void poll(WatchKey key, Set<Path> changed) {
+        var directory = directories.get(key);
+        for (var event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW || directory == null) {
+                LOG.warn("Missed events, re-scanning {}", globPath);
+                rescan(FileGlobPathWalker.basePath(globPath), changed);
+                continue;
+            }
+
+            var path = directory.resolve((Path) event.context());
+            if (event.kind() == ENTRY_DELETE) {
+                if (matches(path) || directories.containsValue(path)) changed.add(path);
+                continue;
+            }
+            if (matches(path)) changed.add(path);
+            if (event.kind() == ENTRY_CREATE
+                    && matcher != null
+                    && Files.isDirectory(path, NOFOLLOW_LINKS)) {
+                // Files may have been created in the new directory before it was registered
+                rescan(path, changed);
+            }
+        }
+        if (!key.reset()) directories.remove(key);
+    }
+
+    private void rescan(@Nullable Path directory, Set<Path> changed) {
+        if (directory == null) {
+            changed.add(globPath);
+            return;
+        }
+        try {
+            registerAll(directory);
+            try (Stream<Path> stream = Files.walk(directory, FileVisitOption.FOLLOW_LINKS)) {
+                stream.filter(this::matches).forEach(changed::add);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            // The directory may well have been deleted again in the meantime
+            LOG.debug("Failed to re-scan {}", directory, e);
+        }
+    }
+
+    private void notify(Set<Path> changed) {
+        var uris = new LinkedHashSet<URI>(changed.size());
+        for (var path : changed) uris.add(toURI.apply(path));
+        try {
+            listener.accept(uris);
+        } catch (RuntimeException e) {
+            LOG.error("Listener failed for changes to {}", uris, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        Executors.shutdownAndAwaitTermination(executor);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.common.io.resource.stream;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class FileGlobWatcherTest {
+
+    @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final BlockingQueue<Set<URI>> changes = new LinkedBlockingQueue<>();
+
+    private FileGlobWatcher watch(String suffix) throws IOException {
+        var globIRI = tempFolder.getRoot().toPath().toUri() + suffix;
+        return new FileGlobResolver().watch(globIRI, changes::add);
+    }
+
+    /** Waits until the given paths were all seen, ignoring any other unrelated changes. */
+    private void awaitChanged(Path... paths) throws InterruptedException {
+        var expected = new HashSet<URI>();
+        for (var path : paths) expected.add(path.toUri());
+        while (!expected.isEmpty()) {
+            var changed = changes.poll(30, TimeUnit.SECONDS);
+            assertThat(changed).isNotNull();
+            expected.removeAll(changed);
+        }
+    }
+
+    @Test
+    public void createModifyDelete() throws Exception {
+        var root = tempFolder.getRoot().toPath();
+        try (var watcher = watch("*.txt")) {
+            var txt = Files.writeString(root.resolve("a.txt"), "hello");
+            Files.writeString(root.resolve("b.json"), "{}");
+            awaitChanged(txt);
+
+            Files.writeString(txt, "world");
+            awaitChanged(txt);
+
+            Files.delete(txt);
+            awaitChanged(txt);
+        }
+        assertThat(changes.stream().flatMap(Set::stream).map(URI::getPath))
+                .doesNotContain(root.resolve("b.json").toString());
+    }
+
+    @Test
+    public void newSubDirectory() throws Exception {
+        var root = tempFolder.getRoot().toPath();
+        try (var watcher = watch("**.txt")) {
+            var subdir = Files.createDirectory(root.resolve("subdir"));
+            var txt = Files.writeString(subdir.resolve("c.txt"), "hello");
+            awaitChanged(txt);
+
+            var later = Files.writeString(subdir.resolve("d.txt"), "hello");
+            awaitChanged(later);
+        }
+    }
+
+    @Test
+    public void singleFile() throws Exception {
+        var txt = Files.writeString(tempFolder.getRoot().toPath().resolve("a.txt"), "hello");
+        try (var watcher = watch("a.txt")) {
+            Files.writeString(txt, "world");
+            awaitChanged(txt);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.common.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Counter is a monotonically increasing count, such as of requests or cache hits. */
+public final class Counter {
+
+    private final LongAdder adder = new LongAdder();
+
+    Counter() {}
+
+    public void inc() {
+        adder.increment();
+    }
+
+    public void add(long n) {
+        if (n < 0) throw new IllegalArgumentException("Counters cannot decrease: " + n);
+        adder.add(n);
+    }
+
+    public long get() {
+        return adder.sum();
+    }
+}
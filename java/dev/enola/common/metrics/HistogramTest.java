@@ -0,0 +1,59 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.common.metrics;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+
+public class HistogramTest {
+
+    @Test
+    public void empty() {
+        var histogram = new Histogram();
+        assertThat(histogram.count()).isEqualTo(0);
+        assertThat(histogram.quantile(0.99)).isEqualTo(0);
+    }
+
+    @Test
+    public void buckets() {
+        for (long value : new long[] {0, 1, 7, 8, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE}) {
+            var index = Histogram.index(value);
+            assertThat(Histogram.highestEquivalentValue(index)).isAtLeast(value);
+            if (index > 0)
+                assertThat(Histogram.highestEquivalentValue(index - 1)).isLessThan(value);
+        }
+    }
+
+    @Test
+    public void quantiles() {
+        var histogram = new Histogram();
+        for (long i = 1; i <= 1000; i++) histogram.record(i * 1000);
+
+        assertThat(histogram.count()).isEqualTo(1000);
+        assertThat(histogram.sumNanos()).isEqualTo(500_500_000);
+        assertThat(histogram.maxNanos()).isEqualTo(1_000_000);
+        assertWithin(histogram.quantile(0.5), 500_000);
+        assertWithin(histogram.quantile(0.99), 990_000);
+        assertThat(histogram.quantile(1)).isEqualTo(1_000_000);
+    }
+
+    private static void assertWithin(long actual, long expected) {
+        assertThat((double) actual).isWithin(expected * 0.125).of(expected);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.common.metrics;
+
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * MetricsRegistry holds named {@link Counter}s, gauges and {@link Histogram}s.
+ *
+ * <p>Metric names follow the <a href="https://prometheus.io/docs/practices/naming/">Prometheus
+ * naming conventions</a>, e.g. <code>enola_loader_resources_total</code>. Metrics can optionally
+ * have labels, given as alternating name and value arguments, e.g. <code>"method", "GetThing"
+ * </code>. Getting a metric which already exists returns that same instance, so callers can either
+ * hold on to it in a field, or get it each time, as is convenient.
+ */
+public class MetricsRegistry {
+
+    /** The registry which all of Enola's built-in instrumentation uses. */
+    public static final MetricsRegistry GLOBAL = new MetricsRegistry();
+
+    enum Type {
+        COUNTER,
+        GAUGE,
+        HISTOGRAM
+    }
+
+    record Family(String name, String help, Type type, NavigableMap<String, Object> metrics) {}
+
+    private final NavigableMap<String, Family> families = new ConcurrentSkipListMap<>();
+
+    public Counter counter(String name, String help, String... labels) {
+        return (Counter) get(name, help, Type.COUNTER, labels, Counter::new);
+    }
+
+    public Histogram histogram(String name, String help, String... labels) {
+        return (Histogram) get(name, help, Type.HISTOGRAM, labels, Histogram::new);
+    }
+
+    /** Registers a gauge; a gauge which was already registered under the same name is replaced. */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.GAUGE).metrics.put(labels(labels), value);
+    }
+
+    /** Returns all Families, in the order of their names. */
+    Iterable<Family> families() {
+        return families.values();
+    }
+
+    private Object get(
+            String name, String help, Type type, String[] labels, Supplier<Object> supplier) {
+        var metrics = family(name, help, type).metrics;
+        return metrics.computeIfAbsent(labels(labels), k -> supplier.get());
+    }
+
+    private Family family(String name, String help, Type type) {
+        var family =
+                families.computeIfAbsent(
+                        name, k -> new Family(name, help, type, new ConcurrentSkipListMap<>()));
+        if (family.type != type)
+            throw new IllegalArgumentException(
+                    name + " is already registered as " + family.type + ", not " + type);
+        return family;
+    }
+
+    /** Returns the labels in the Prometheus text format, e.g. {@code method="GetThing"}. */
+    private static String labels(String[] labels) {
+        if (labels.length % 2 != 0)
+            throw new IllegalArgumentException("Labels must be name & value pairs");
+        var sb = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) sb.append(',');
+            sb.append(labels[i]).append("=\"");
+            escape(labels[i + 1], sb);
+            sb.append('"');
+        }
+        return sb.toString();
+    }
+
+    private static void escape(String value, StringBuilder sb) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '"' -> sb.append("\\\"");
+                case '\n' -> sb.append("\\n");
+                default -> sb.append(c);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MetricsRegistry" + families.keySet();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.common.metrics;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void sameInstance() {
+        var registry = new MetricsRegistry();
+        var counter = registry.counter("test_total", "Test", "a", "b");
+        assertThat(registry.counter("test_total", "Test", "a", "b")).isSameInstanceAs(counter);
+        assertThat(registry.counter("test_total", "Test", "a", "c")).isNotSameInstanceAs(counter);
+    }
+
+    @Test
+    public void typeMismatch() {
+        var registry = new MetricsRegistry();
+        registry.counter("test", "Test");
+        assertThrows(IllegalArgumentException.class, () -> registry.histogram("test", "Test"));
+    }
+
+    @Test
+    public void prometheusText() {
+        var registry = new MetricsRegistry();
+        registry.counter("requests_total", "Requests", "path", "/a\"b").add(3);
+        registry.gauge("size", "Size", () -> 7);
+        registry.histogram("latency_seconds", "Latency").record(2_000_000_000L);
+
+        assertThat(PrometheusText.toString(registry))
+                .isEqualTo(
+                        """
+                        # HELP latency_seconds Latency
+                        # TYPE latency_seconds summary
+                        latency_seconds{quantile="0.5"} 2.0
+                        latency_seconds{quantile="0.9"} 2.0
+                        latency_seconds{quantile="0.99"} 2.0
+                        latency_seconds{quantile="0.999"} 2.0
+                        latency_seconds_sum 2.0
+                        latency_seconds_count 1
+                        # HELP requests_total Requests
+                        # TYPE requests_total counter
+                        requests_total{path="/a\\"b"} 3
+                        # HELP size Size
+                        # TYPE size gauge
+                        size 7.0
+                        """);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.common.metrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Writes the metrics of a {@link MetricsRegistry} in the <a
+ * href="https://prometheus.io/docs/instrumenting/exposition_formats/">Prometheus text exposition
+ * format</a>.
+ *
+ * <p>{@link Histogram}s are written as summaries (with their quantiles, count and sum), in seconds.
+ */
+public final class PrometheusText {
+
+    public static final String MEDIA_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    public static void write(MetricsRegistry registry, Appendable out) throws IOException {
+        for (var family : registry.families()) {
+            var name = family.name();
+            out.append("# HELP ").append(name).append(' ').append(help(family.help()));
+            out.append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(type(family.type()));
+            out.append('\n');
+            for (var entry : family.metrics().entrySet()) {
+                var labels = entry.getKey();
+                switch (entry.getValue()) {
+                    case Counter counter -> sample(out, name, labels, counter.get());
+                    case DoubleSupplier gauge -> sample(out, name, labels, gauge.getAsDouble());
+                    case Histogram histogram -> summary(out, name, labels, histogram);
+                    default -> throw new IllegalStateException(entry.getValue().toString());
+                }
+            }
+        }
+    }
+
+    public static String toString(MetricsRegistry registry) {
+        var sb = new StringBuilder();
+        try {
+            write(registry, sb);
+        } catch (IOException e) {
+            // StringBuilder never throws IOException
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    private static void summary(Appendable out, String name, String labels, Histogram histogram)
+            throws IOException {
+        for (var q : QUANTILES) {
+            var quantileLabel = "quantile=\"" + q + "\"";
+            var quantileLabels = labels.isEmpty() ? quantileLabel : labels + "," + quantileLabel;
+            sample(out, name, quantileLabels, histogram.quantile(q) / NANOS_PER_SECOND);
+        }
+        sample(out, name + "_sum", labels, histogram.sumNanos() / NANOS_PER_SECOND);
+        sample(out, name + "_count", labels, histogram.count());
+    }
+
+    private static void sample(Appendable out, String name, String labels, long value)
+            throws IOException {
+        sample(out, name, labels, Long.toString(value));
+    }
+
+    private static void sample(Appendable out, String name, String labels, double value)
+            throws IOException {
+        String text;
+        if (Double.isNaN(value)) text = "NaN";
+        else if (value == Double.POSITIVE_INFINITY) text = "+Inf";
+        else if (value == Double.NEGATIVE_INFINITY) text = "-Inf";
+        else text = Double.toString(value);
+        sample(out, name, labels, text);
+    }
+
+    private static void sample(Appendable out, String name, String labels, String value)
+            throws IOException {
+        out.append(name);
+        if (!labels.isEmpty()) out.append('{').append(labels).append('}');
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static String type(MetricsRegistry.Type type) {
+        return switch (type) {
+            case COUNTER -> "counter";
+            case GAUGE -> "gauge";
+            case HISTOGRAM -> "summary";
+        };
+    }
+
+    private static String help(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private PrometheusText() {}
+}
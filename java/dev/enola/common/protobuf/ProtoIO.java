@@ -30,6 +30,7 @@ import static java.util.Objects.requireNonNull;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.net.MediaType;
+import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.ExtensionRegistry;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
@@ -37,6 +38,7 @@ import com.google.protobuf.TextFormat;
 import com.google.protobuf.TypeRegistry;
 import com.google.protobuf.util.JsonFormat;
 
+import dev.enola.common.io.resource.ByteBufferResource;
 import dev.enola.common.io.resource.ClasspathResource;
 import dev.enola.common.io.resource.ReadableResource;
 import dev.enola.common.io.resource.WritableResource;
@@ -147,8 +149,16 @@ public class ProtoIO {
             throws IOException {
         MediaType mediaType = resource.mediaType();
         if (normalizedNoParamsEquals(mediaType, PROTOBUF_BINARY)) {
-            try (InputStream is = resource.byteSource().openBufferedStream()) {
-                builder.mergeFrom(is, extensionRegistry);
+            var buffer =
+                    resource instanceof ByteBufferResource buffered ? buffered.byteBuffer() : null;
+            if (buffer != null) {
+                // Parses directly from e.g. a memory-mapped file, without copying it first
+                var input = CodedInputStream.newInstance(buffer);
+                builder.mergeFrom(input, extensionRegistry);
+            } else {
+                try (InputStream is = resource.byteSource().openBufferedStream()) {
+                    builder.mergeFrom(is, extensionRegistry);
+                }
             }
         } else {
             try (Reader reader = resource.charSource().openBufferedStream()) {
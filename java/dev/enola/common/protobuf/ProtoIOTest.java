@@ -33,6 +33,7 @@ import dev.enola.common.context.testlib.SingletonRule;
 import dev.enola.common.io.mediatype.MediaTypeProviders;
 import dev.enola.common.io.resource.ClasspathResource;
 import dev.enola.common.io.resource.EmptyResource;
+import dev.enola.common.io.resource.FileResource;
 import dev.enola.common.io.resource.MemoryResource;
 import dev.enola.common.io.resource.ReadableResource;
 
@@ -40,6 +41,7 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.file.Files;
 
 public class ProtoIOTest {
 
@@ -121,6 +123,19 @@ public class ProtoIOTest {
                 .isEqualTo(TIMESTAMP);
     }
 
+    @Test
+    public void writeReadBinaryFile() throws IOException {
+        var path = Files.createTempFile("ProtoIOTest", ".binpb");
+        try {
+            var resource = new FileResource(path.toUri(), ProtobufMediaTypes.PROTOBUF_BINARY);
+            new ProtoIO().write(TIMESTAMP, resource);
+            assertThat(new ProtoIO().read(resource, Timestamp.newBuilder(), Timestamp.class))
+                    .isEqualTo(TIMESTAMP);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
     @Test
     public void writeUnknown() throws IOException {
         MemoryResource resource = new MemoryResource(MediaType.ANY_TYPE);
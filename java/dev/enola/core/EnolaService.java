@@ -18,6 +18,9 @@
 package dev.enola.core;
 
 import dev.enola.core.proto.*;
+import dev.enola.thing.proto.Thing;
+
+import java.util.stream.Stream;
 
 public interface EnolaService {
     // TODO Merge this "local" API with the ("remote") dev.enola.core.grpc.EnolaGrpcService
@@ -26,4 +29,33 @@ public interface EnolaService {
 
     // TODO Convert all callers to getThings, and remove this
     GetThingResponse getThing(GetThingRequest r) throws EnolaException;
+
+    /**
+     * Gets many Things at once; see {@link #getThing(GetThingRequest)}. Failing to get one of them
+     * is returned as the error of its result, and does not fail the others. This default
+     * implementation simply gets them one after the other.
+     */
+    default BatchGetThingsResponse batchGetThings(BatchGetThingsRequest r) {
+        var response = BatchGetThingsResponse.newBuilder();
+        for (var iri : r.getIrisList()) {
+            var request = GetThingRequest.newBuilder().setIri(iri).build();
+            var result = BatchGetThingsResponse.Result.newBuilder();
+            try {
+                result.setResponse(getThing(request));
+            } catch (EnolaException | RuntimeException e) {
+                result.setError(e.toString());
+            }
+            response.addResults(result);
+        }
+        return response.build();
+    }
+
+    /**
+     * Streams the Things of {@link #getThings(GetThingsRequest)}. This default implementation is
+     * not actually lazy; implementations should override it to produce each Thing on demand.
+     */
+    default Stream<Thing> streamThings(StreamThingsRequest r) throws EnolaException {
+        var request = GetThingsRequest.newBuilder().setIri(r.getIri()).build();
+        return getThings(request).getThingsList().stream();
+    }
 }
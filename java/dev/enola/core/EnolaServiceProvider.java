@@ -63,8 +63,41 @@ public class EnolaServiceProvider {
     public EnolaServiceProvider(
             ThingsProvider thingsProvider, ThingRepository thingRepository, ResourceProvider rp)
             throws ValidationException, EnolaException {
+        this(thingsProvider, thingRepository, rp, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param warmThingCache whether the Things of the thingRepository are eagerly converted to
+     *     (and cached as) protos now, instead of on their first request.
+     */
+    public EnolaServiceProvider(
+            ThingsProvider thingsProvider,
+            ThingRepository thingRepository,
+            ResourceProvider rp,
+            boolean warmThingCache)
+            throws ValidationException, EnolaException {
+        this(thingsProvider, thingRepository, rp, warmThingCache, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param warmThingCache see {@link #EnolaServiceProvider(ThingsProvider, ThingRepository,
+     *     ResourceProvider, boolean)}
+     * @param live whether Things are still added to and removed from the thingRepository later,
+     *     e.g. while watching files for changes.
+     */
+    public EnolaServiceProvider(
+            ThingsProvider thingsProvider,
+            ThingRepository thingRepository,
+            ResourceProvider rp,
+            boolean warmThingCache,
+            boolean live)
+            throws ValidationException, EnolaException {
         var esb = EnolaServiceRegistry.builder();
-        esb.register(thingRepository, thingsProvider);
+        esb.register(thingRepository, thingsProvider, warmThingCache, live);
 
         var trb = TypeRegistryWrapper.newBuilder();
         trb.add(Things.getDescriptor());
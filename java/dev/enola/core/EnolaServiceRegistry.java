@@ -17,6 +17,7 @@
  */
 package dev.enola.core;
 
+import com.google.common.collect.Iterables;
 import com.google.protobuf.Any;
 
 import dev.enola.common.io.iri.template.URITemplateMatcherChain;
@@ -24,39 +25,58 @@ import dev.enola.common.io.resource.ResourceProvider;
 import dev.enola.core.proto.*;
 import dev.enola.core.resource.ResourceEnolaService;
 import dev.enola.core.thing.ListThingService;
+import dev.enola.core.thing.QueryThingService;
 import dev.enola.core.thing.ThingRepositoryThingService;
 import dev.enola.core.thing.ThingService;
+import dev.enola.data.ObservableRepository;
 import dev.enola.thing.Thing;
 import dev.enola.thing.message.JavaThingToProtoThingConverter;
 import dev.enola.thing.message.ProtoThingRepository;
 import dev.enola.thing.repo.ThingRepository;
 import dev.enola.thing.repo.ThingsProvider;
 
+import org.jspecify.annotations.Nullable;
+
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 class EnolaServiceRegistry implements EnolaService, ProtoThingRepository {
 
     private final URITemplateMatcherChain<ThingService> matcher;
+    private final @Nullable Live live;
     private final ResourceEnolaService resourceEnolaService;
     private final JavaThingToProtoThingConverter converter;
 
+    /** A repository whose IRIs change, so they can't be registered up-front in the matcher. */
+    private record Live(ThingRepository repository, ThingService service) {}
+
     public static Builder builder() {
         return new Builder();
     }
 
     private EnolaServiceRegistry(
             URITemplateMatcherChain<ThingService> matcherChain,
+            @Nullable Live live,
             ResourceEnolaService resourceEnolaService) {
         this.matcher = matcherChain;
+        this.live = live;
         this.resourceEnolaService = resourceEnolaService;
         this.converter = new JavaThingToProtoThingConverter();
     }
 
+    private Optional<Entry<ThingService, Map<String, String>>> match(String iri) {
+        if (live != null && live.repository.get(iri) != null)
+            return Optional.of(Map.entry(live.service, Map.of()));
+        return matcher.match(iri);
+    }
+
     @Override
     public GetThingsResponse getThings(GetThingsRequest r) throws EnolaException {
         var iri = r.getIri();
         var builder = GetThingsResponse.newBuilder();
-        var opt = matcher.match(iri);
+        var opt = match(iri);
         if (opt.isPresent()) {
             var entry = opt.get();
             var delegate = entry.getKey();
@@ -74,9 +94,19 @@ class EnolaServiceRegistry implements EnolaService, ProtoThingRepository {
         return builder.build();
     }
 
+    @Override
+    public Stream<dev.enola.thing.proto.Thing> streamThings(StreamThingsRequest r)
+            throws EnolaException {
+        var iri = r.getIri();
+        var opt = match(iri);
+        if (opt.isEmpty()) return Stream.empty();
+        var entry = opt.get();
+        return entry.getKey().streamThings(iri, entry.getValue());
+    }
+
     @Override
     public Any get(String iri) {
-        var opt = matcher.match(iri);
+        var opt = match(iri);
         if (opt.isPresent()) {
             var entry = opt.get();
             var delegate = entry.getKey();
@@ -106,12 +136,15 @@ class EnolaServiceRegistry implements EnolaService, ProtoThingRepository {
     @Override
     public Iterable<String> listIRI() {
         // TODO Should this still also do the same as, and be called by, listEntities() below?
-        return matcher.listTemplates();
+        if (live == null) return matcher.listTemplates();
+        return Iterables.concat(matcher.listTemplates(), live.repository.listIRI());
     }
 
     public static class Builder {
         private final URITemplateMatcherChain.Builder<ThingService> b =
                 URITemplateMatcherChain.builder();
+        private @Nullable ThingRepository queryableThingRepository;
+        private @Nullable Live live;
 
         private ThingService wrap(ThingService service) {
             return new ThingService() {
@@ -130,6 +163,12 @@ class EnolaServiceRegistry implements EnolaService, ProtoThingRepository {
                         throw new RuntimeException(service + " failed to get: " + iri, e);
                     }
                 }
+
+                @Override
+                public Stream<dev.enola.thing.proto.Thing> streamThings(
+                        String iri, Map<String, String> parameters) throws EnolaException {
+                    return service.streamThings(iri, parameters);
+                }
             };
         }
 
@@ -138,20 +177,65 @@ class EnolaServiceRegistry implements EnolaService, ProtoThingRepository {
         }
 
         public void register(ThingRepository thingRepository, ThingsProvider thingsProvider) {
+            register(thingRepository, thingsProvider, false);
+        }
+
+        public void register(
+                ThingRepository thingRepository, ThingsProvider thingsProvider, boolean warm) {
+            register(thingRepository, thingsProvider, warm, false);
+        }
+
+        /**
+         * Registers the Things of a repository.
+         *
+         * @param warm whether all Things are eagerly converted now, see {@link
+         *     ThingRepositoryThingService#warm()}.
+         * @param live whether Things are added to and removed from the repository later (e.g. by
+         *     an {@link dev.enola.thing.io.IncrementalLoader}); its IRIs are then looked up in it
+         *     on each request, instead of once now. There can only be one such live repository.
+         */
+        public void register(
+                ThingRepository thingRepository,
+                ThingsProvider thingsProvider,
+                boolean warm,
+                boolean live) {
             var thingRepositoryThingService =
                     new ThingRepositoryThingService(thingsProvider, thingRepository);
-            for (var iri : thingRepository.listIRI()) {
-                b.add(iri, wrap(thingRepositoryThingService));
+            if (warm) thingRepositoryThingService.warm();
+            if (live) {
+                if (this.live != null)
+                    throw new IllegalStateException("Already registered a live repository");
+                this.live = new Live(thingRepository, wrap(thingRepositoryThingService));
+            } else {
+                for (var iri : thingRepository.listIRI()) {
+                    b.add(iri, wrap(thingRepositoryThingService));
+                }
             }
+            queryableThingRepository = thingRepository;
         }
 
         public EnolaServiceRegistry build(ResourceProvider rp) {
             var listThingService = new ListThingService();
             b.add(ListThingService.ENOLA_ROOT_LIST_IRIS, wrap(listThingService));
             b.add(ListThingService.ENOLA_ROOT_LIST_THINGS, wrap(listThingService));
+            b.add(ListThingService.ENOLA_ROOT_LIST_IRIS_QUERY, wrap(listThingService));
+            b.add(ListThingService.ENOLA_ROOT_LIST_THINGS_QUERY, wrap(listThingService));
+            if (queryableThingRepository != null) {
+                var queryThingService = new QueryThingService(queryableThingRepository);
+                b.add(QueryThingService.ENOLA_QUERY_IRI_TEMPLATE, wrap(queryThingService));
+            }
             var uriTemplateMatcherChain = b.build();
             var esr =
-                    new EnolaServiceRegistry(uriTemplateMatcherChain, new ResourceEnolaService(rp));
+                    new EnolaServiceRegistry(
+                            uriTemplateMatcherChain, live, new ResourceEnolaService(rp));
+            if (queryableThingRepository != null)
+                listThingService.setThingRepository(queryableThingRepository);
+            // Listen before indexing the current IRIs, so that no change in the meantime is missed
+            if (live != null && live.repository instanceof ObservableRepository observable) {
+                var repository = live.repository;
+                observable.addStoredListener(
+                        iri -> listThingService.changed(iri, repository.get(iri) != null));
+            }
             listThingService.setProtoThingProvider(esr);
             return esr;
         }
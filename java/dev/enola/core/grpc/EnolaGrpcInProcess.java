@@ -25,6 +25,7 @@ import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 
 import dev.enola.common.concurrent.Executors;
+import dev.enola.common.metrics.MetricsRegistry;
 import dev.enola.core.EnolaService;
 import dev.enola.core.EnolaServiceProvider;
 import dev.enola.core.proto.EnolaServiceGrpc;
@@ -75,6 +76,7 @@ public class EnolaGrpcInProcess implements ServiceProvider {
         builder.executor(serverExecutorService);
         builder.scheduledExecutorService(serverScheduledExecutor);
         builder.addService(new EnolaGrpcService(esp, service)); // as in EnolaGrpcServer
+        builder.intercept(new MetricsServerInterceptor(MetricsRegistry.GLOBAL));
         server = builder.build().start();
 
         InProcessChannelBuilder channelBuilder = InProcessChannelBuilder.forName(uniqueName);
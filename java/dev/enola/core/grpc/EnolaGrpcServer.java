@@ -20,6 +20,7 @@ package dev.enola.core.grpc;
 import com.google.common.util.concurrent.ListeningExecutorService;
 
 import dev.enola.common.concurrent.Executors;
+import dev.enola.common.metrics.MetricsRegistry;
 import dev.enola.core.EnolaService;
 import dev.enola.core.EnolaServiceProvider;
 
@@ -39,19 +40,35 @@ public class EnolaGrpcServer implements AutoCloseable {
 
     private final EnolaService service;
     private final EnolaServiceProvider esp;
+    private final boolean virtualThreads;
     private io.grpc.Server server;
     private ListeningExecutorService executor;
 
     public EnolaGrpcServer(EnolaServiceProvider esp, EnolaService service) {
+        this(esp, service, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param virtualThreads whether calls are handled on a new virtual thread each, instead of on
+     *     a cached pool of platform threads.
+     */
+    public EnolaGrpcServer(
+            EnolaServiceProvider esp, EnolaService service, boolean virtualThreads) {
         this.esp = esp;
         this.service = service;
+        this.virtualThreads = virtualThreads;
     }
 
     public EnolaGrpcServer start(int port) throws IOException {
-        executor = Executors.newListeningCachedThreadPool("gRPC-Server", LOGGER);
+        if (virtualThreads)
+            executor = Executors.newListeningVirtualThreadPerTaskExecutor("gRPC-Server", LOGGER);
+        else executor = Executors.newListeningCachedThreadPool("gRPC-Server", LOGGER);
         var builder = ServerBuilder.forPort(port);
         builder.executor(executor);
         builder.addService(new EnolaGrpcService(esp, service)); // as in EnolaGrpcInProcess
+        builder.intercept(new MetricsServerInterceptor(MetricsRegistry.GLOBAL));
         server = builder.build().start();
         return this;
     }
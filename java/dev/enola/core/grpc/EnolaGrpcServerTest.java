@@ -20,11 +20,16 @@ package dev.enola.core.grpc;
 import static com.google.common.truth.Truth.assertThat;
 
 import static dev.enola.common.context.testlib.SingletonRule.$;
+import static dev.enola.core.thing.QueryThingService.VARIABLE_PROPERTY_PREFIX;
 
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableList;
 import com.google.protobuf.Descriptors.Descriptor;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Timestamp;
 
+import dev.enola.common.concurrent.Executors;
 import dev.enola.common.context.testlib.SingletonRule;
 import dev.enola.common.io.mediatype.MediaTypeProviders;
 import dev.enola.common.io.resource.ClasspathResource;
@@ -34,23 +39,43 @@ import dev.enola.common.protobuf.ValidationException;
 import dev.enola.core.EnolaException;
 import dev.enola.core.EnolaService;
 import dev.enola.core.EnolaServiceProvider;
+import dev.enola.core.proto.BatchGetThingsRequest;
+import dev.enola.core.proto.BatchGetThingsResponse;
 import dev.enola.core.proto.EnolaServiceGrpc;
 import dev.enola.core.proto.EnolaServiceGrpc.EnolaServiceBlockingStub;
 import dev.enola.core.proto.GetThingRequest;
+import dev.enola.core.proto.GetThingResponse;
+import dev.enola.core.proto.GetThingsRequest;
+import dev.enola.core.proto.GetThingsResponse;
+import dev.enola.core.proto.StreamThingsRequest;
 import dev.enola.rdf.io.RdfMediaTypes;
 import dev.enola.thing.KIRI;
+import dev.enola.thing.impl.ImmutableThing;
 import dev.enola.thing.message.ProtoTypes;
 import dev.enola.thing.message.ThingExt;
 import dev.enola.thing.proto.Thing;
 import dev.enola.thing.proto.Things;
+import dev.enola.thing.repo.EmptyThingsRepository;
+import dev.enola.thing.repo.ThingMemoryRepositoryRW;
+
+import io.grpc.StatusRuntimeException;
 
 import org.junit.Rule;
 import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class EnolaGrpcServerTest {
 
+    private static final Logger LOG = LoggerFactory.getLogger(EnolaGrpcServerTest.class);
+
     @Rule public SingletonRule r = $(MediaTypeProviders.set(new RdfMediaTypes()));
 
     private final ResourceProvider rp = new ResourceProviders(new ClasspathResource.Provider());
@@ -81,6 +106,138 @@ public class EnolaGrpcServerTest {
         }
     }
 
+    @Test
+    public void query() throws Exception {
+        var repo = new ThingMemoryRepositoryRW();
+        repo.store(
+                ImmutableThing.builder()
+                        .iri("https://example.org/picasso")
+                        .set(KIRI.SCHEMA.NAME, "Pablo Picasso")
+                        .build());
+        var esp = new EnolaServiceProvider(new EmptyThingsRepository(), repo, rp);
+        try (var enolaServer = new EnolaGrpcInProcess(esp, esp.getEnolaService(), false)) {
+            var iri = "enola:/query/?s <" + KIRI.SCHEMA.NAME + "> ?name";
+            var things = getThings(enolaServer.get(), iri);
+            assertThat(things.getThingsList()).hasSize(1);
+            var solution = things.getThings(0);
+            assertThat(solution.getIri()).isEqualTo(iri + "#0");
+            assertThat(solution.getPropertiesOrThrow(VARIABLE_PROPERTY_PREFIX + "s").getLink())
+                    .isEqualTo("https://example.org/picasso");
+            assertThat(ThingExt.getString(solution, VARIABLE_PROPERTY_PREFIX + "name"))
+                    .isEqualTo("Pablo Picasso");
+        }
+    }
+
+    @Test
+    public void streamThings() throws Exception {
+        var repo = new ThingMemoryRepositoryRW();
+        var n = 100;
+        for (int i = 0; i < n; i++) {
+            repo.store(
+                    ImmutableThing.builder()
+                            .iri("https://example.org/" + i)
+                            .set(KIRI.SCHEMA.NAME, "Thing #" + i)
+                            .build());
+        }
+        var esp = new EnolaServiceProvider(new EmptyThingsRepository(), repo, rp);
+        try (var enolaServer = new EnolaGrpcInProcess(esp, esp.getEnolaService(), false)) {
+            var client = enolaServer.get();
+            var iris = new ArrayList<String>();
+            var request = StreamThingsRequest.newBuilder().setIri(KIRI.E.LIST_THINGS).build();
+            client.streamThings(request).forEachRemaining(r -> iris.add(r.getThing().getIri()));
+            for (int i = 0; i < n; i++) assertThat(iris).contains("https://example.org/" + i);
+
+            var query = "enola:/query/?s <" + KIRI.SCHEMA.NAME + "> ?name";
+            request = StreamThingsRequest.newBuilder().setIri(query).build();
+            assertThat(ImmutableList.copyOf(client.streamThings(request))).hasSize(n);
+        }
+    }
+
+    @Test
+    public void batchGetThings() throws Exception {
+        var repo = new ThingMemoryRepositoryRW();
+        var n = 200;
+        for (int i = 0; i < n; i++) {
+            repo.store(
+                    ImmutableThing.builder()
+                            .iri("https://example.org/" + i)
+                            .set(KIRI.SCHEMA.NAME, "Thing #" + i)
+                            .build());
+        }
+        var esp = new EnolaServiceProvider(new EmptyThingsRepository(), repo, rp);
+        var delegate = esp.getEnolaService();
+        var batches = new AtomicInteger();
+        var countingService =
+                new EnolaService() {
+                    @Override
+                    public GetThingsResponse getThings(GetThingsRequest r) throws EnolaException {
+                        return delegate.getThings(r);
+                    }
+
+                    @Override
+                    public GetThingResponse getThing(GetThingRequest r) throws EnolaException {
+                        return delegate.getThing(r);
+                    }
+
+                    @Override
+                    public BatchGetThingsResponse batchGetThings(BatchGetThingsRequest r) {
+                        batches.incrementAndGet();
+                        return delegate.batchGetThings(r);
+                    }
+                };
+
+        try (var enolaServer = new EnolaGrpcInProcess(esp, countingService, true);
+                var executor = Executors.newListeningFixedThreadPool(8, "BatchTest", LOG)) {
+            var batcher = new GetThingBatcher(enolaServer.get(), Duration.ofMillis(5), 50);
+            var futures = new ArrayList<Future<GetThingResponse>>(n);
+            for (int i = 0; i < n; i++) {
+                var iri = "https://example.org/" + i;
+                futures.add(executor.submit(() -> batcher.get(iri)));
+            }
+            for (int i = 0; i < n; i++) {
+                var thing = futures.get(i).get().getThing().unpack(Thing.class);
+                assertThat(thing.getIri()).isEqualTo("https://example.org/" + i);
+            }
+            assertThat(batches.get()).isLessThan(n);
+
+            var iris = List.of("https://example.org/1", "https://example.org/2");
+            var responses = batcher.getAll(iris);
+            assertThat(responses).hasSize(2);
+            assertThat(responses.get(1).getThing().unpack(Thing.class).getIri())
+                    .isEqualTo("https://example.org/2");
+        }
+    }
+
+    @Test
+    public void batchGetThingsFailsOnlyFailedIRIs() throws Exception {
+        var failingService =
+                new EnolaService() {
+                    @Override
+                    public GetThingsResponse getThings(GetThingsRequest r) {
+                        return GetThingsResponse.getDefaultInstance();
+                    }
+
+                    @Override
+                    public GetThingResponse getThing(GetThingRequest r) throws EnolaException {
+                        if (r.getIri().equals("fail")) throw new EnolaException("Failed!");
+                        return GetThingResponse.getDefaultInstance();
+                    }
+                };
+
+        try (var enolaServer = new EnolaGrpcInProcess(esp, failingService, true)) {
+            var request = BatchGetThingsRequest.newBuilder().addIris("ok").addIris("fail");
+            var results = enolaServer.get().batchGetThings(request.build()).getResultsList();
+            assertThat(results).hasSize(2);
+            assertThat(results.get(0).hasResponse()).isTrue();
+            assertThat(results.get(1).getError()).contains("Failed!");
+
+            var batcher = new GetThingBatcher(enolaServer.get());
+            assertThat(batcher.get("ok")).isEqualTo(GetThingResponse.getDefaultInstance());
+            var e = assertThrows(StatusRuntimeException.class, () -> batcher.get("fail"));
+            assertThat(e).hasMessageThat().contains("Failed!");
+        }
+    }
+
     private void check(EnolaServiceGrpc.EnolaServiceBlockingStub client)
             throws InvalidProtocolBufferException {
         // TODO checkGetProtoMessage(client);
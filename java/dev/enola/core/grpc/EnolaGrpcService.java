@@ -17,11 +17,18 @@
  */
 package dev.enola.core.grpc;
 
+import com.google.common.base.Throwables;
+
+import dev.enola.common.metrics.MetricsRegistry;
+import dev.enola.common.metrics.PrometheusText;
 import dev.enola.core.EnolaException;
 import dev.enola.core.EnolaService;
 import dev.enola.core.EnolaServiceProvider;
 import dev.enola.core.proto.*;
 
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 
 public class EnolaGrpcService extends EnolaServiceGrpc.EnolaServiceImplBase {
@@ -43,6 +50,22 @@ public class EnolaGrpcService extends EnolaServiceGrpc.EnolaServiceImplBase {
             responseObserver.onCompleted();
         } catch (EnolaException e) {
             responseObserver.onError(e);
+        } catch (RuntimeException e) {
+            responseObserver.onError(invalidArgumentOrThrow(e));
+        }
+    }
+
+    @Override
+    public void streamThings(
+            StreamThingsRequest request, StreamObserver<StreamThingsResponse> responseObserver) {
+        try {
+            var things = enola.streamThings(request);
+            var call = (ServerCallStreamObserver<StreamThingsResponse>) responseObserver;
+            ThingsStreamer.start(things, call);
+        } catch (EnolaException e) {
+            responseObserver.onError(e);
+        } catch (RuntimeException e) {
+            responseObserver.onError(invalidArgumentOrThrow(e));
         }
     }
 
@@ -55,9 +78,20 @@ public class EnolaGrpcService extends EnolaServiceGrpc.EnolaServiceImplBase {
             responseObserver.onCompleted();
         } catch (EnolaException e) {
             responseObserver.onError(e);
+        } catch (RuntimeException e) {
+            responseObserver.onError(invalidArgumentOrThrow(e));
         }
     }
 
+    @Override
+    public void batchGetThings(
+            BatchGetThingsRequest request,
+            StreamObserver<BatchGetThingsResponse> responseObserver) {
+        var response = enola.batchGetThings(request);
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
     @Override
     public void getFileDescriptorSet(
             GetFileDescriptorSetRequest request,
@@ -67,4 +101,28 @@ public class EnolaGrpcService extends EnolaServiceGrpc.EnolaServiceImplBase {
         responseObserver.onNext(response);
         responseObserver.onCompleted();
     }
+
+    @Override
+    public void getMetrics(
+            GetMetricsRequest request, StreamObserver<GetMetricsResponse> responseObserver) {
+        var text = PrometheusText.toString(MetricsRegistry.GLOBAL);
+        var response = GetMetricsResponse.newBuilder().setPrometheusText(text).build();
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Returns INVALID_ARGUMENT if an {@link IllegalArgumentException} caused the exception, e.g.
+     * an invalid query parameter of an IRI; so that clients can tell their own errors apart from
+     * those of the server. Rethrows any other exception, for gRPC to fail the call with UNKNOWN.
+     */
+    private static StatusRuntimeException invalidArgumentOrThrow(RuntimeException e) {
+        for (var cause : Throwables.getCausalChain(e)) {
+            if (cause instanceof IllegalArgumentException) {
+                var status = Status.INVALID_ARGUMENT.withDescription(cause.getMessage());
+                return status.withCause(e).asRuntimeException();
+            }
+        }
+        throw e;
+    }
 }
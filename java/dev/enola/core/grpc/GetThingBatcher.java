@@ -0,0 +1,196 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.core.grpc;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+
+import dev.enola.core.proto.BatchGetThingsRequest;
+import dev.enola.core.proto.BatchGetThingsResponse;
+import dev.enola.core.proto.EnolaServiceGrpc.EnolaServiceBlockingStub;
+import dev.enola.core.proto.GetThingResponse;
+
+import io.grpc.Status;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * GetThingBatcher coalesces concurrent {@link #get(String)} calls into BatchGetThings RPCs.
+ *
+ * <p>If no BatchGetThings call is currently in flight, then a {@link #get(String)} immediately
+ * sends one (after the optional window) - so there is no added latency for sequential callers.
+ * While a call is in flight, further gets are queued; and as soon as it returns, the queued IRIs
+ * are sent together in the next batch (of at most maxBatchSize). Each thread sends at most one
+ * batch, which includes its own IRI; it then hands off sending the next one to the thread whose
+ * IRI is first in the queue, instead of sending batches for all others.
+ *
+ * <p>Failing to get an IRI fails only the {@link #get(String)} of that IRI, not of the others in
+ * the same batch.
+ *
+ * <p>This works with any stub; e.g. both from {@link EnolaGrpcInProcess} and {@link
+ * EnolaGrpcClientProvider}. Use {@link #getAll(List)} to explicitly get many IRIs in one call.
+ */
+public class GetThingBatcher {
+
+    /**
+     * A queued get; its wakeUp completes either when its response is set, or when it is the turn
+     * of its thread to send the next batch.
+     */
+    private record Pending(
+            String iri,
+            CompletableFuture<GetThingResponse> response,
+            CompletableFuture<Void> wakeUp) {
+
+        Pending(String iri) {
+            this(iri, new CompletableFuture<>(), new CompletableFuture<>());
+        }
+    }
+
+    private final EnolaServiceBlockingStub service;
+    private final Duration window;
+    private final int maxBatchSize;
+
+    private final Queue<Pending> queue = new ArrayDeque<>();
+    private boolean sending; // guarded by queue
+
+    /**
+     * Constructor.
+     *
+     * @param window how long to wait for more concurrent gets, before sending a batch when no
+     *     other batch is in flight; {@link Duration#ZERO} sends such a first batch immediately.
+     * @param maxBatchSize maximum number of IRIs per BatchGetThings call.
+     */
+    public GetThingBatcher(EnolaServiceBlockingStub service, Duration window, int maxBatchSize) {
+        if (window.isNegative()) throw new IllegalArgumentException("window < 0: " + window);
+        if (maxBatchSize < 1)
+            throw new IllegalArgumentException("maxBatchSize < 1: " + maxBatchSize);
+        this.service = service;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Constructor, with batches of up to 100 IRIs, and without any window.
+     *
+     * <p>The window is {@link Duration#ZERO} because gets are already coalesced while a batch is
+     * in flight, which is exactly when there is load; waiting before sending the first batch would
+     * only delay every get of sequential callers (e.g. one request at a time), without making
+     * batches under load much larger.
+     */
+    public GetThingBatcher(EnolaServiceBlockingStub service) {
+        this(service, Duration.ZERO, 100);
+    }
+
+    public GetThingResponse get(String iri) {
+        var pending = new Pending(iri);
+        boolean idle;
+        synchronized (queue) {
+            queue.add(pending);
+            idle = !sending;
+            sending = true;
+        }
+        if (idle) sendBatch(true);
+        else {
+            pending.wakeUp().join();
+            if (!pending.response().isDone()) sendBatch(false);
+        }
+        try {
+            return pending.response().join();
+        } catch (CompletionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
+    /** Gets all IRIs in (one or a few, if there are many) BatchGetThings call/s. */
+    public List<GetThingResponse> getAll(List<String> iris) {
+        var responses = ImmutableList.<GetThingResponse>builderWithExpectedSize(iris.size());
+        for (int i = 0; i < iris.size(); i += maxBatchSize) {
+            var batch = iris.subList(i, Math.min(i + maxBatchSize, iris.size()));
+            var request = BatchGetThingsRequest.newBuilder().addAllIris(batch).build();
+            var results = check(batch.size(), service.batchGetThings(request).getResultsList());
+            for (int j = 0; j < batch.size(); j++) {
+                var result = results.get(j);
+                if (result.hasResponse()) responses.add(result.getResponse());
+                else throw error(batch.get(j), result);
+            }
+        }
+        return responses.build();
+    }
+
+    /**
+     * Sends one batch, starting with the IRI of the calling thread (which is first in the queue),
+     * and then hands off sending the next batch (if any gets were queued in the meantime).
+     */
+    private void sendBatch(boolean idle) {
+        if (idle && !window.isZero()) {
+            try {
+                Thread.sleep(window);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        var batch = new ArrayList<Pending>();
+        synchronized (queue) {
+            while (batch.size() < maxBatchSize && !queue.isEmpty()) batch.add(queue.remove());
+        }
+        send(batch);
+        synchronized (queue) {
+            var next = queue.peek();
+            if (next != null) next.wakeUp().complete(null);
+            else sending = false;
+        }
+    }
+
+    private void send(List<Pending> batch) {
+        try {
+            var request = BatchGetThingsRequest.newBuilder();
+            for (var pending : batch) request.addIris(pending.iri());
+            var results = service.batchGetThings(request.build()).getResultsList();
+            check(batch.size(), results);
+            for (int i = 0; i < batch.size(); i++) {
+                var pending = batch.get(i);
+                var result = results.get(i);
+                if (result.hasResponse()) pending.response().complete(result.getResponse());
+                else pending.response().completeExceptionally(error(pending.iri(), result));
+            }
+        } catch (RuntimeException e) {
+            for (var pending : batch) pending.response().completeExceptionally(e);
+        }
+        for (var pending : batch) pending.wakeUp().complete(null);
+    }
+
+    private static RuntimeException error(String iri, BatchGetThingsResponse.Result result) {
+        // Like the StatusRuntimeException which a GetThing of (only) this IRI would have thrown
+        var description = "Failed to get " + iri + ": " + result.getError();
+        return Status.UNKNOWN.withDescription(description).asRuntimeException();
+    }
+
+    private static <T> List<T> check(int expected, List<T> results) {
+        if (results.size() != expected)
+            throw new IllegalStateException(
+                    "Expected " + expected + " results, but got " + results.size());
+        return results;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.core.grpc;
+
+import dev.enola.common.metrics.MetricsRegistry;
+
+import io.grpc.ForwardingServerCall.SimpleForwardingServerCall;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+/** Records the latency of each gRPC call, and counts failed calls, per method. */
+class MetricsServerInterceptor implements ServerInterceptor {
+
+    private final MetricsRegistry registry;
+
+    MetricsServerInterceptor(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+            ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        var method = call.getMethodDescriptor().getFullMethodName();
+        var start = System.nanoTime();
+        var timedCall =
+                new SimpleForwardingServerCall<>(call) {
+                    @Override
+                    public void close(Status status, Metadata trailers) {
+                        registry.histogram(
+                                        "enola_grpc_server_duration_seconds",
+                                        "Time to handle a gRPC call",
+                                        "method",
+                                        method)
+                                .recordSince(start);
+                        if (!status.isOk())
+                            registry.counter(
+                                            "enola_grpc_server_errors_total",
+                                            "gRPC calls which failed",
+                                            "method",
+                                            method,
+                                            "code",
+                                            status.getCode().name())
+                                    .inc();
+                        super.close(status, trailers);
+                    }
+                };
+        return next.startCall(timedCall, headers);
+    }
+}
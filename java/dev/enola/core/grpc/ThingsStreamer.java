@@ -0,0 +1,79 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.core.grpc;
+
+import dev.enola.core.proto.StreamThingsResponse;
+import dev.enola.thing.proto.Thing;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Sends a Stream of Things as the responses of a server-streaming gRPC call, honoring its flow
+ * control: Things are only pulled from the Stream (and thus typically only produced) while the
+ * client is ready to receive more of them, instead of buffering them all in the server's memory.
+ */
+final class ThingsStreamer implements Runnable {
+
+    static void start(Stream<Thing> things, ServerCallStreamObserver<StreamThingsResponse> call) {
+        var streamer = new ThingsStreamer(things, call);
+        call.setOnCancelHandler(streamer::close);
+        // gRPC also invokes this once initially, after the (unary) request was received
+        call.setOnReadyHandler(streamer);
+    }
+
+    private final Stream<Thing> things;
+    private final Iterator<Thing> iterator;
+    private final ServerCallStreamObserver<StreamThingsResponse> call;
+
+    // The onReady and onCancel handlers are never invoked concurrently, so this need not be atomic
+    private boolean closed;
+
+    private ThingsStreamer(
+            Stream<Thing> things, ServerCallStreamObserver<StreamThingsResponse> call) {
+        this.things = things;
+        this.iterator = things.iterator();
+        this.call = call;
+    }
+
+    @Override
+    public void run() {
+        if (closed) return;
+        try {
+            while (call.isReady() && iterator.hasNext()) {
+                call.onNext(StreamThingsResponse.newBuilder().setThing(iterator.next()).build());
+            }
+            if (!iterator.hasNext()) {
+                close();
+                call.onCompleted();
+            }
+        } catch (RuntimeException e) {
+            close();
+            var status = Status.INTERNAL.withDescription(e.getMessage()).withCause(e);
+            call.onError(status.asRuntimeException());
+        }
+    }
+
+    private void close() {
+        closed = true;
+        things.close();
+    }
+}
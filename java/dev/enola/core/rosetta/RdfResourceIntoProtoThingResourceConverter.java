@@ -23,6 +23,7 @@ import dev.enola.common.io.resource.WritableResource;
 import dev.enola.common.io.resource.convert.CatchingResourceConverter;
 import dev.enola.common.protobuf.ProtoIO;
 import dev.enola.rdf.io.RdfResourceIntoProtoThingConverter;
+import dev.enola.thing.io.CompactThingsIO;
 import dev.enola.thing.io.ThingMediaTypes;
 
 public class RdfResourceIntoProtoThingResourceConverter implements CatchingResourceConverter {
@@ -50,6 +51,10 @@ public class RdfResourceIntoProtoThingResourceConverter implements CatchingResou
 
             // } else {
             var thingsList = optThingsList.get();
+            if (CompactThingsIO.isCompactThings(into.mediaType())) {
+                CompactThingsIO.writeProto(thingsList, into);
+                return true;
+            }
             var message = ritc.asMessage(thingsList).build();
             protoIO.write(message, into);
             // }
@@ -35,6 +35,7 @@ import dev.enola.common.protobuf.ProtoIO;
 import dev.enola.common.protobuf.YamlJsonResourceConverter;
 import dev.enola.format.tika.rdf.TikaResourceIntoRdfResourceConverter;
 import dev.enola.format.xml.XmlResourceConverter;
+import dev.enola.rdf.io.CompactThingsResourceConverter;
 import dev.enola.rdf.io.RdfResourceConverter;
 import dev.enola.thing.gen.gexf.GexfGenerator;
 import dev.enola.thing.gen.gexf.GexfResourceConverter;
@@ -96,6 +97,7 @@ public class Rosetta implements ResourceConverter {
                 new ResourceConverterChain(
                         ImmutableList.of(
                                 // TODO Use ServiceLoader with @AutoService
+                                new CompactThingsResourceConverter(),
                                 new RdfResourceIntoProtoThingResourceConverter(rp),
                                 new RdfResourceConverter(rp),
                                 new TikaResourceIntoRdfResourceConverter(rp),
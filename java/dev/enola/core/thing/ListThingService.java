@@ -17,22 +17,57 @@
  */
 package dev.enola.core.thing;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.Streams;
 import com.google.protobuf.Any;
 import com.google.protobuf.InvalidProtocolBufferException;
 
+import dev.enola.common.io.iri.URIs;
 import dev.enola.core.EnolaException;
 import dev.enola.thing.KIRI;
 import dev.enola.thing.message.ProtoThingRepository;
 import dev.enola.thing.proto.Thing;
 import dev.enola.thing.proto.Things;
 import dev.enola.thing.proto.Value;
+import dev.enola.thing.repo.IndexedThingRepository;
+import dev.enola.thing.repo.ThingRepository;
 
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
-/** ThingService which returns the list of all known Things' IRIs for GET enola:/ */
+/**
+ * ThingService which returns the list of all known Things' IRIs for GET enola:/, and all Things
+ * for GET enola:/inline.
+ *
+ * <p>Both can be filtered and paginated with query parameters, e.g. {@code
+ * enola:/inline?type=https://schema.org/Person&prefix=https://example.org/&limit=100}: {@link
+ * #TYPE_PARAMETER} only lists Things which have that (rdf:)type, {@link #PREFIX_PARAMETER} only
+ * those whose IRI starts with it, and {@link #LIMIT_PARAMETER} returns at most that many. If
+ * there are more, then the response includes an opaque token, which is passed as {@link
+ * #AFTER_PARAMETER} (along with the same other parameters) to get the next page. Parameter values
+ * are URL decoded. Invalid parameters, such as a limit which is not a number, are rejected with
+ * an {@link IllegalArgumentException}.
+ *
+ * <p>Pages follow the sorted order of the IRIs, which are kept in an ordered index; a token is
+ * resolved to its position in that index, so it remains valid even if the Thing which ended its
+ * page was removed since. With a type, the {@link IndexedThingRepository#listIRIByType(String)}
+ * of the repository is used (if it has one), instead of getting and checking every Thing.
+ */
 public class ListThingService implements ThingService {
     private static final Logger LOG = LoggerFactory.getLogger(ListThingService.class);
 
@@ -40,11 +75,72 @@ public class ListThingService implements ThingService {
     public static final String ENOLA_ROOT_LIST_IRIS = KIRI.E.LIST_IRIS;
     public static final String ENOLA_ROOT_LIST_THINGS = KIRI.E.LIST_THINGS;
     public static final String ENOLA_ROOT_LIST_PROPERTY = "https://enola.dev/thing-iri-list";
+    public static final String ENOLA_ROOT_LIST_NEXT_PAGE_PROPERTY =
+            "https://enola.dev/next-page-token";
+
+    /** URI Templates of the filtered and/or paginated listings. */
+    public static final String ENOLA_ROOT_LIST_IRIS_QUERY = ENOLA_ROOT_LIST_IRIS + "?{query}";
+
+    public static final String ENOLA_ROOT_LIST_THINGS_QUERY = ENOLA_ROOT_LIST_THINGS + "?{query}";
+
+    public static final String TYPE_PARAMETER = "type";
+    public static final String PREFIX_PARAMETER = "prefix";
+    public static final String LIMIT_PARAMETER = "limit";
+    public static final String AFTER_PARAMETER = "after";
 
     private ProtoThingRepository protoThingRepository;
+    private @Nullable IndexedThingRepository indexedThingRepository;
+
+    /** The IRIs of all listed Things, sorted; see {@link #changed(String, boolean)}. */
+    private final NavigableSet<String> iris = new ConcurrentSkipListSet<>();
 
+    /** Sets the repository to list, and indexes its IRIs; see {@link #changed(String, boolean)}. */
     public void setProtoThingProvider(ProtoThingRepository protoThingRepository) {
         this.protoThingRepository = protoThingRepository;
+        iris.clear();
+        for (var iri : protoThingRepository.listIRI()) {
+            if (!isListing(iri)) iris.add(iri);
+        }
+    }
+
+    /** Sets the repository whose secondary indexes are used for listings by type, if any. */
+    public void setThingRepository(ThingRepository thingRepository) {
+        if (thingRepository instanceof IndexedThingRepository indexed)
+            this.indexedThingRepository = indexed;
+    }
+
+    /**
+     * Updates the index of the listed IRIs, after the Thing of an IRI was stored, merged or
+     * removed; this must be called for repositories which change after {@link
+     * #setProtoThingProvider(ProtoThingRepository)}.
+     */
+    public void changed(String iri, boolean exists) {
+        if (isListing(iri)) return;
+        if (exists) iris.add(iri);
+        else iris.remove(iri);
+    }
+
+    /**
+     * Returns the IRI of a listing with the given parameters, e.g. for {@link
+     * #ENOLA_ROOT_LIST_THINGS} and a type. Parameters with null values are omitted.
+     */
+    public static String listIRI(String listIRI, Map<String, @Nullable String> parameters) {
+        // Reject an invalid limit already here, e.g. from the query of a web request
+        Listing.limit(parameters.get(LIMIT_PARAMETER));
+        var query = new StringJoiner("&");
+        parameters.forEach(
+                (name, value) -> {
+                    if (value != null) query.add(name + "=" + URLEncoder.encode(value, UTF_8));
+                });
+        return query.length() == 0 ? listIRI : listIRI + "?" + query;
+    }
+
+    /**
+     * Returns the token of the page which follows the one that ends with the given IRI, for {@link
+     * #AFTER_PARAMETER}; e.g. for pages of a listing which is streamed with a limit.
+     */
+    public static String pageToken(String lastIRI) {
+        return Listing.encodeToken(lastIRI);
     }
 
     // Nota bene: The "decoder" (inverse) of this is (currently) in EnolaThingProvider!
@@ -58,34 +154,19 @@ public class ListThingService implements ThingService {
 
     @Override
     public Any getThing(String iri, Map<String, String> parameters) {
-        var thingIRIs = protoThingRepository.listIRI();
-        if (ENOLA_ROOT_LIST_THINGS.equals(iri)) {
+        var listing = Listing.of(iri);
+        if (ENOLA_ROOT_LIST_THINGS.equals(listing.base)) {
             var things = Things.newBuilder();
-            for (var thingIRI : thingIRIs) {
-                if (ENOLA_ROOT_LIST_IRIS.equals(thingIRI)) continue;
-                if (ENOLA_ROOT_LIST_THINGS.equals(thingIRI)) continue;
-                var any = protoThingRepository.get(thingIRI);
-                if (any == null) {
-                    LOG.error("Any null: {}", thingIRI);
-                    continue;
-                }
-                if (!any.getTypeUrl().endsWith("Thing")) {
-                    LOG.warn("Skipping non-Thing Any: {}", any);
-                    continue;
-                }
-                try {
-                    var thing = any.unpack(Thing.class);
-                    things.addThings(thing);
-                } catch (InvalidProtocolBufferException e) {
-                    throw new IllegalStateException("Huh?!", e);
-                }
-            }
+            var page = listing.page(listing.things(this), Thing::getIri);
+            things.addAllThings(page.items);
+            if (page.nextPageToken != null) things.setNextPageToken(page.nextPageToken);
             return Any.pack(things.build());
 
         } else { // only IRIs, not fully inlined Things
             // TODO Have a static Proto message type for this? And use it e.g. in DocGen?
             var list = Value.List.newBuilder();
-            for (var thingIRI : thingIRIs) {
+            var page = listing.page(listing.iris(this), Function.identity());
+            for (var thingIRI : page.items) {
                 var linkValue = Value.newBuilder().setLink(thingIRI);
                 list.addValues(linkValue);
             }
@@ -93,7 +174,166 @@ public class ListThingService implements ThingService {
             var thing = Thing.newBuilder();
             thing.setIri(ENOLA_ROOT_LIST_IRIS);
             thing.putProperties(ENOLA_ROOT_LIST_PROPERTY, value.build());
+            if (page.nextPageToken != null) {
+                var token = Value.newBuilder().setString(page.nextPageToken).build();
+                thing.putProperties(ENOLA_ROOT_LIST_NEXT_PAGE_PROPERTY, token);
+            }
             return Any.pack(thing.build());
         }
     }
+
+    /** Streams all Things lazily for GET enola:/inline, instead of collecting them all. */
+    @Override
+    public Stream<Thing> streamThings(String iri, Map<String, String> parameters)
+            throws EnolaException {
+        var listing = Listing.of(iri);
+        if (!ENOLA_ROOT_LIST_THINGS.equals(listing.base))
+            return ThingService.super.streamThings(iri, parameters);
+        var things = listing.things(this);
+        return listing.limit > 0 ? things.limit(listing.limit) : things;
+    }
+
+    /**
+     * IRIs of the listing (but for its limit), in sorted order; if the listing has a type, and
+     * there is an index for it, then only those with that type.
+     */
+    private Stream<String> listIRI(Listing listing) {
+        Iterable<String> sorted = iris;
+        if (listing.type != null && indexedThingRepository != null)
+            sorted = indexedThingRepository.listIRIByType(listing.type);
+
+        if (sorted instanceof NavigableSet<String> set) {
+            // Start at the position of the page token (or of the prefix), without any scanning
+            var after = listing.after;
+            var prefix = listing.prefix;
+            if (after != null && (prefix == null || after.compareTo(prefix) >= 0))
+                set = set.tailSet(after, false);
+            else if (prefix != null) set = set.tailSet(prefix, true);
+            if (prefix == null) return set.stream();
+            // As the IRIs are sorted, all those with the prefix follow each other
+            return set.stream().takeWhile(iri -> iri.startsWith(prefix));
+        }
+
+        // IndexedThingRepository returns sorted IRIs, but not necessarily as a NavigableSet
+        return Streams.stream(sorted)
+                .filter(listing::hasPrefix)
+                .filter(iri -> listing.after == null || iri.compareTo(listing.after) > 0);
+    }
+
+    /** Whether {@link #listIRI(Listing)} only returns IRIs of Things with the listing's type. */
+    private boolean isIndexed(Listing listing) {
+        return listing.type == null || indexedThingRepository != null;
+    }
+
+    private static boolean isListing(String iri) {
+        return ENOLA_ROOT_LIST_IRIS.equals(iri)
+                || ENOLA_ROOT_LIST_THINGS.equals(iri)
+                || ENOLA_ROOT_LIST_IRIS_QUERY.equals(iri)
+                || ENOLA_ROOT_LIST_THINGS_QUERY.equals(iri);
+    }
+
+    private @Nullable Thing thing(String thingIRI) {
+        if (isListing(thingIRI)) return null;
+        var any = protoThingRepository.get(thingIRI);
+        if (any == null) {
+            LOG.error("Any null: {}", thingIRI);
+            return null;
+        }
+        if (!any.getTypeUrl().endsWith("Thing")) {
+            LOG.warn("Skipping non-Thing Any: {}", any);
+            return null;
+        }
+        try {
+            return any.unpack(Thing.class);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Huh?!", e);
+        }
+    }
+
+    private static boolean hasType(Thing thing, String typeIRI) {
+        var value = thing.getPropertiesMap().get(KIRI.RDF.TYPE);
+        if (value == null) return false;
+        if (value.hasLink()) return value.getLink().equals(typeIRI);
+        if (value.hasList())
+            for (var element : value.getList().getValuesList())
+                if (element.hasLink() && element.getLink().equals(typeIRI)) return true;
+        return false;
+    }
+
+    private record Page<T>(List<T> items, @Nullable String nextPageToken) {}
+
+    private record Listing(
+            String base,
+            @Nullable String type,
+            @Nullable String prefix,
+            int limit,
+            @Nullable String after) {
+
+        static Listing of(String iri) {
+            var q = iri.indexOf('?');
+            if (q == -1) return new Listing(iri, null, null, 0, null);
+
+            var parameters = URIs.getQueryMap(iri);
+            var after = parameters.get(AFTER_PARAMETER);
+            return new Listing(
+                    iri.substring(0, q),
+                    decode(parameters.get(TYPE_PARAMETER)),
+                    decode(parameters.get(PREFIX_PARAMETER)),
+                    limit(parameters.get(LIMIT_PARAMETER)),
+                    after != null ? decodeToken(after) : null);
+        }
+
+        static int limit(@Nullable String limit) {
+            if (limit == null) return 0;
+            int n;
+            try {
+                n = Integer.parseInt(limit);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid limit, not a number: " + limit, e);
+            }
+            if (n < 0) throw new IllegalArgumentException("Invalid limit, negative: " + limit);
+            return n;
+        }
+
+        Stream<String> iris(ListThingService service) {
+            if (service.isIndexed(this)) return service.listIRI(this);
+            return things(service).map(Thing::getIri);
+        }
+
+        Stream<Thing> things(ListThingService service) {
+            var things = service.listIRI(this).map(service::thing).filter(Objects::nonNull);
+            if (!service.isIndexed(this)) things = things.filter(thing -> hasType(thing, type));
+            return things;
+        }
+
+        private boolean hasPrefix(String iri) {
+            return prefix == null || iri.startsWith(prefix);
+        }
+
+        <T> Page<T> page(Stream<T> items, Function<T, String> iri) {
+            if (limit <= 0) return new Page<>(items.toList(), null);
+
+            // Take one more than the limit, to know if there is a next page
+            var list = new ArrayList<T>(items.limit(limit + 1L).toList());
+            if (list.size() <= limit) return new Page<>(list, null);
+            list.remove(limit);
+            return new Page<>(list, encodeToken(iri.apply(list.get(limit - 1))));
+        }
+
+        private static @Nullable String decode(@Nullable String value) {
+            return value != null ? URLDecoder.decode(value, UTF_8) : null;
+        }
+
+        private static String encodeToken(String iri) {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(iri.getBytes(UTF_8));
+        }
+
+        private static String decodeToken(String token) {
+            try {
+                return new String(Base64.getUrlDecoder().decode(token), UTF_8);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid page token: " + token, e);
+            }
+        }
+    }
 }
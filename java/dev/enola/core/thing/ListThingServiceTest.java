@@ -0,0 +1,176 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.core.thing;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.Any;
+
+import dev.enola.thing.KIRI;
+import dev.enola.thing.impl.ImmutableThing;
+import dev.enola.thing.message.ProtoThingRepository;
+import dev.enola.thing.proto.Thing;
+import dev.enola.thing.proto.Things;
+import dev.enola.thing.proto.Value;
+import dev.enola.thing.repo.IndexedThingMemoryRepositoryRW;
+
+import org.jspecify.annotations.Nullable;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ListThingServiceTest {
+
+    private static final String PERSON = "https://schema.org/Person";
+    private static final String PLACE = "https://schema.org/Place";
+
+    private final Map<String, Any> things = new LinkedHashMap<>();
+    private final ListThingService service = new ListThingService();
+
+    public ListThingServiceTest() {
+        add("https://example.org/a/1", PERSON);
+        add("https://example.org/a/2", PLACE);
+        add("https://example.org/b/3", PERSON);
+        add("https://example.org/a/5", PERSON);
+        add("https://example.org/a/4", PERSON);
+        service.setProtoThingProvider(
+                new ProtoThingRepository() {
+                    @Override
+                    public @Nullable Any get(String iri) {
+                        return things.get(iri);
+                    }
+
+                    @Override
+                    public Iterable<String> listIRI() {
+                        var iris = new ArrayList<String>();
+                        iris.add(ListThingService.ENOLA_ROOT_LIST_IRIS);
+                        iris.add(ListThingService.ENOLA_ROOT_LIST_THINGS_QUERY);
+                        iris.addAll(things.keySet());
+                        return iris;
+                    }
+                });
+    }
+
+    private void add(String iri, String type) {
+        var thing = Thing.newBuilder().setIri(iri);
+        thing.putProperties(KIRI.RDF.TYPE, Value.newBuilder().setLink(type).build());
+        things.put(iri, Any.pack(thing.build()));
+    }
+
+    @Test
+    public void all() throws Exception {
+        var things = things(ListThingService.ENOLA_ROOT_LIST_THINGS);
+        assertThat(iris(things)).hasSize(5);
+        assertThat(things.getNextPageToken()).isEmpty();
+    }
+
+    @Test
+    public void paginateFiltered() throws Exception {
+        var parameters = new HashMap<String, @Nullable String>();
+        parameters.put(ListThingService.TYPE_PARAMETER, PERSON);
+        parameters.put(ListThingService.PREFIX_PARAMETER, "https://example.org/a/");
+        parameters.put(ListThingService.LIMIT_PARAMETER, "2");
+
+        var base = ListThingService.ENOLA_ROOT_LIST_THINGS;
+        var page1 = things(ListThingService.listIRI(base, parameters));
+        assertThat(iris(page1))
+                .containsExactly("https://example.org/a/1", "https://example.org/a/4");
+        assertThat(page1.getNextPageToken()).isNotEmpty();
+
+        parameters.put(ListThingService.AFTER_PARAMETER, page1.getNextPageToken());
+        var page2 = things(ListThingService.listIRI(base, parameters));
+        assertThat(iris(page2)).containsExactly("https://example.org/a/5");
+        assertThat(page2.getNextPageToken()).isEmpty();
+    }
+
+    @Test
+    public void paginateIRIs() throws Exception {
+        var base = ListThingService.ENOLA_ROOT_LIST_IRIS;
+        var iri1 = ListThingService.listIRI(base, ImmutableMap.of("limit", "3"));
+        var page1 = service.getThing(iri1, Map.of()).unpack(Thing.class);
+        var properties = page1.getPropertiesMap();
+        var list = properties.get(ListThingService.ENOLA_ROOT_LIST_PROPERTY).getList();
+        assertThat(list.getValuesCount()).isEqualTo(3);
+        var token = properties.get(ListThingService.ENOLA_ROOT_LIST_NEXT_PAGE_PROPERTY).getString();
+
+        var iri2 = ListThingService.listIRI(base, ImmutableMap.of("limit", "3", "after", token));
+        var page2 = service.getThing(iri2, Map.of()).unpack(Thing.class);
+        var list2 = page2.getPropertiesMap().get(ListThingService.ENOLA_ROOT_LIST_PROPERTY);
+        assertThat(list2.getList().getValuesList().stream().map(Value::getLink).toList())
+                .containsExactly("https://example.org/a/5", "https://example.org/b/3")
+                .inOrder();
+        assertThat(page2.getPropertiesMap())
+                .doesNotContainKey(ListThingService.ENOLA_ROOT_LIST_NEXT_PAGE_PROPERTY);
+    }
+
+    @Test
+    public void paginateAfterRemovedThing() throws Exception {
+        var base = ListThingService.ENOLA_ROOT_LIST_THINGS;
+        var page1 = things(ListThingService.listIRI(base, ImmutableMap.of("limit", "2")));
+        assertThat(iris(page1))
+                .containsExactly("https://example.org/a/1", "https://example.org/a/2")
+                .inOrder();
+
+        // The token is resolved by its position, so it still works if its Thing is gone
+        things.remove("https://example.org/a/2");
+        service.changed("https://example.org/a/2", false);
+        var parameters = ImmutableMap.of("limit", "2", "after", page1.getNextPageToken());
+        var page2 = things(ListThingService.listIRI(base, parameters));
+        assertThat(iris(page2))
+                .containsExactly("https://example.org/a/4", "https://example.org/a/5")
+                .inOrder();
+    }
+
+    @Test
+    public void filterByTypeIndex() throws Exception {
+        var repository = new IndexedThingMemoryRepositoryRW();
+        var thing = ImmutableThing.builder().iri("https://example.org/a/4");
+        repository.store(thing.set(KIRI.RDF.TYPE, PERSON).build());
+        service.setThingRepository(repository);
+
+        // Only a/4 is in the index, so the other Persons are not even looked at
+        var base = ListThingService.ENOLA_ROOT_LIST_THINGS;
+        var parameters = ImmutableMap.of(ListThingService.TYPE_PARAMETER, PERSON);
+        assertThat(iris(things(ListThingService.listIRI(base, parameters))))
+                .containsExactly("https://example.org/a/4");
+    }
+
+    @Test
+    public void invalidLimit() {
+        var base = ListThingService.ENOLA_ROOT_LIST_THINGS;
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> ListThingService.listIRI(base, ImmutableMap.of("limit", "x")));
+        assertThrows(IllegalArgumentException.class, () -> things(base + "?limit=x"));
+    }
+
+    private Things things(String iri) throws Exception {
+        return service.getThing(iri, Map.of()).unpack(Things.class);
+    }
+
+    private static List<String> iris(Things things) {
+        return things.getThingsList().stream().map(Thing::getIri).toList();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.core.thing;
+
+import com.google.protobuf.Any;
+
+import dev.enola.common.context.TLC;
+import dev.enola.datatype.DatatypeRepository;
+import dev.enola.datatype.DatatypeRepositoryBuilder;
+import dev.enola.thing.Thing;
+import dev.enola.thing.impl.ImmutableThing;
+import dev.enola.thing.message.JavaThingToProtoThingConverter;
+import dev.enola.thing.proto.Things;
+import dev.enola.thing.query.Query;
+import dev.enola.thing.query.ThingQueryEngine;
+import dev.enola.thing.repo.ThingRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ThingService which evaluates a {@link dev.enola.thing.query.Query} over a {@link
+ * ThingRepository} for GET enola:/query/{query}, e.g. {@code enola:/query/?s a
+ * <https://schema.org/Person>}.
+ *
+ * <p>Each solution is returned as a Thing with IRI "{iri}#{n}", whose properties are the bound
+ * variables, named {@link #VARIABLE_PROPERTY_PREFIX} + the name of the variable.
+ *
+ * <p>Because all solutions are collected into a single response, a query without a LIMIT returns
+ * at most {@link #DEFAULT_LIMIT} of them; use an explicit LIMIT (and OFFSET) to get others.
+ */
+public class QueryThingService implements ThingService {
+
+    public static final String ENOLA_QUERY_IRI_TEMPLATE = "enola:/query/{query}";
+    public static final String VARIABLE_PROPERTY_PREFIX = "https://enola.dev/query/";
+
+    /** Maximum number of solutions of a query without its own LIMIT. */
+    public static final long DEFAULT_LIMIT = 1000;
+
+    private static final String QUERY_PARAMETER = "query";
+
+    private final ThingQueryEngine engine;
+    private final JavaThingToProtoThingConverter javaThingToProtoThingConverter;
+
+    public QueryThingService(ThingRepository thingRepository) {
+        this.engine = new ThingQueryEngine(thingRepository);
+        DatatypeRepository datatypeRepository =
+                TLC.optional(DatatypeRepository.class)
+                        .orElseGet(() -> new DatatypeRepositoryBuilder().build());
+        this.javaThingToProtoThingConverter =
+                new JavaThingToProtoThingConverter(datatypeRepository);
+    }
+
+    @Override
+    public Iterable<Thing> getThings(String iri, Map<String, String> parameters) {
+        // The (unexpanded) template itself is listed, like those of all other ThingServices
+        if (ENOLA_QUERY_IRI_TEMPLATE.equals(iri)) return List.of();
+
+        var text = parameters.get(QUERY_PARAMETER);
+        if (text == null) throw new IllegalArgumentException("No query: " + iri);
+        var query = Query.parse(text);
+        if (query.limit() == Long.MAX_VALUE)
+            query = new Query(query.patterns(), query.filters(), query.offset(), DEFAULT_LIMIT);
+
+        List<Thing> things = new ArrayList<>();
+        engine.query(query)
+                .forEachOrdered(
+                        solution -> {
+                            var thing = ImmutableThing.builder();
+                            thing.iri(iri + "#" + things.size());
+                            for (var binding : solution.entrySet()) {
+                                var predicateIRI = VARIABLE_PROPERTY_PREFIX + binding.getKey();
+                                thing.set(predicateIRI, binding.getValue());
+                            }
+                            things.add(thing.build());
+                        });
+        return things;
+    }
+
+    @Override
+    public Any getThing(String iri, Map<String, String> parameters) {
+        var things = Things.newBuilder();
+        for (var thing : getThings(iri, parameters)) {
+            things.addThings(javaThingToProtoThingConverter.convert(thing));
+        }
+        return Any.pack(things.build());
+    }
+}
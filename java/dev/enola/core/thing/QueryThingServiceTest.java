@@ -0,0 +1,54 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.core.thing;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.Iterables;
+
+import dev.enola.thing.KIRI;
+import dev.enola.thing.impl.ImmutableThing;
+import dev.enola.thing.repo.ThingMemoryRepositoryRW;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+public class QueryThingServiceTest {
+
+    @Test
+    public void defaultLimit() {
+        var repo = new ThingMemoryRepositoryRW();
+        for (int i = 0; i <= QueryThingService.DEFAULT_LIMIT; i++) {
+            repo.store(
+                    ImmutableThing.builder()
+                            .iri("https://example.org/" + i)
+                            .set(KIRI.SCHEMA.NAME, "Thing #" + i)
+                            .build());
+        }
+        var service = new QueryThingService(repo);
+
+        var query = "?s <" + KIRI.SCHEMA.NAME + "> ?name";
+        var things = service.getThings("enola:/query/" + query, Map.of("query", query));
+        assertThat(Iterables.size(things)).isEqualTo(QueryThingService.DEFAULT_LIMIT);
+
+        query = query + " OFFSET 1000 LIMIT 5";
+        things = service.getThings("enola:/query/" + query, Map.of("query", query));
+        assertThat(Iterables.size(things)).isEqualTo(1);
+    }
+}
@@ -17,10 +17,13 @@
  */
 package dev.enola.core.thing;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.protobuf.Any;
 
 import dev.enola.common.context.TLC;
 import dev.enola.core.EnolaException;
+import dev.enola.data.ObservableRepository;
 import dev.enola.datatype.DatatypeRepository;
 import dev.enola.datatype.DatatypeRepositoryBuilder;
 import dev.enola.thing.Thing;
@@ -29,21 +32,51 @@ import dev.enola.thing.repo.ThingRepository;
 import dev.enola.thing.repo.ThingsProvider;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * ThingRepositoryThingService is an {@link ThingService} which delegates to a {@link
  * ThingRepository}.
+ *
+ * <p>The packed {@link Any} of the proto Thing of each IRI is cached (up to a maximum number of
+ * IRIs), because converting it is relatively expensive, and Things in a loaded repository typically
+ * don't change. If the repository is an {@link ObservableRepository}, then the cached Any of an
+ * IRI is invalidated when a Thing with that IRI is stored or merged into it.
  */
 public class ThingRepositoryThingService implements ThingService {
 
+    private static final long DEFAULT_CACHE_SIZE = 10_000;
+
     private final ThingsProvider thingsProvider;
     private final ThingRepository thingRepository;
     private final JavaThingToProtoThingConverter javaThingToProtoThingConverter;
+    private final long cacheSize;
+    private final Cache<String, Any> cache;
+
+    /**
+     * Incremented on every invalidation, before the cache is invalidated, so that a concurrent
+     * getThing() won't cache stale.
+     */
+    private final AtomicLong generation = new AtomicLong();
 
     public ThingRepositoryThingService(
             ThingsProvider thingsProvider, ThingRepository thingRepository) {
+        this(thingsProvider, thingRepository, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param cacheSize maximum number of IRIs whose converted Thing is cached; 0 disables caching.
+     */
+    public ThingRepositoryThingService(
+            ThingsProvider thingsProvider, ThingRepository thingRepository, long cacheSize) {
         this.thingsProvider = thingsProvider;
         this.thingRepository = thingRepository;
+        this.cacheSize = cacheSize;
+        this.cache = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+        if (thingRepository instanceof ObservableRepository observableRepository)
+            observableRepository.addStoredListener(this::invalidate);
         // TODO Implement looking up Datatypes in ThingRepository!
         DatatypeRepository datatypeRepository =
                 TLC.optional(DatatypeRepository.class)
@@ -60,10 +93,52 @@ public class ThingRepositoryThingService implements ThingService {
 
     @Override
     public Any getThing(String iri, Map<String, String> parameters) {
+        var cached = cache.getIfPresent(iri);
+        if (cached != null) return cached;
+
+        var generationBefore = generation.get();
         var javaThing = thingRepository.get(iri);
         if (javaThing == null) {
             throw new IllegalStateException("This should never happen: " + iri);
         }
+        var any = pack(javaThing);
+        cache(iri, any, generationBefore);
+        return any;
+    }
+
+    /**
+     * Caches the Any converted from the Thing which was read at generationBefore, unless it was
+     * invalidated in the meantime. The generation is checked again after the put, because an
+     * invalidation could also happen between the first check and the put; an invalidation after
+     * the second check removes what was just put anyway.
+     */
+    private void cache(String iri, Any any, long generationBefore) {
+        if (generation.get() != generationBefore) return;
+        cache.put(iri, any);
+        if (generation.get() != generationBefore) cache.invalidate(iri);
+    }
+
+    private void invalidate(String iri) {
+        generation.incrementAndGet();
+        cache.invalidate(iri);
+    }
+
+    /**
+     * Eagerly converts and caches the Things of all IRIs of the repository, until the cache is
+     * full; e.g. at the start of a server, so that even the first requests are served quickly.
+     */
+    public void warm() {
+        long n = 0;
+        for (var iri : thingRepository.listIRI()) {
+            if (n++ >= cacheSize) break;
+            var generationBefore = generation.get();
+            var javaThing = thingRepository.get(iri);
+            if (javaThing == null) continue;
+            cache(iri, pack(javaThing), generationBefore);
+        }
+    }
+
+    private Any pack(Thing javaThing) {
         var protoThing = javaThingToProtoThingConverter.convert(javaThing);
         return Any.pack(protoThing.build());
     }
@@ -0,0 +1,76 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.core.thing;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import dev.enola.thing.Thing;
+import dev.enola.thing.impl.ImmutableThing;
+import dev.enola.thing.repo.ThingMemoryRepositoryRW;
+import dev.enola.thing.repo.ThingsProvider;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+public class ThingRepositoryThingServiceTest {
+
+    private static final String IRI = "https://example.org/thing";
+    private static final String NAME = "https://example.org/name";
+
+    private static final ThingsProvider NO_THINGS = iri -> Stream.empty();
+
+    @Test
+    public void cachedUntilMerged() throws Exception {
+        var repo = new ThingMemoryRepositoryRW();
+        repo.store(ImmutableThing.builder().iri(IRI).set(NAME, "one").build());
+        var service = new ThingRepositoryThingService(NO_THINGS, repo);
+
+        var any1 = service.getThing(IRI, Map.of());
+        assertThat(service.getThing(IRI, Map.of())).isSameInstanceAs(any1);
+
+        repo.merge(ImmutableThing.builder().iri(IRI).set(NAME + "2", "two").build());
+        var any2 = service.getThing(IRI, Map.of());
+        assertThat(any2).isNotSameInstanceAs(any1);
+        var thing2 = any2.unpack(dev.enola.thing.proto.Thing.class);
+        assertThat(thing2.getPropertiesMap()).containsKey(NAME + "2");
+    }
+
+    @Test
+    public void warm() throws Exception {
+        var gets = new AtomicInteger();
+        var repo =
+                new ThingMemoryRepositoryRW() {
+                    @Override
+                    public Thing get(String iri) {
+                        gets.incrementAndGet();
+                        return super.get(iri);
+                    }
+                };
+        repo.store(ImmutableThing.builder().iri(IRI).set(NAME, "one").build());
+        var service = new ThingRepositoryThingService(NO_THINGS, repo);
+        service.warm();
+        assertThat(gets.get()).isEqualTo(1);
+
+        var any = service.getThing(IRI, Map.of());
+        assertThat(any.unpack(dev.enola.thing.proto.Thing.class).getIri()).isEqualTo(IRI);
+        assertThat(gets.get()).isEqualTo(1);
+    }
+}
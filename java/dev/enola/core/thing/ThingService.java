@@ -17,12 +17,15 @@
  */
 package dev.enola.core.thing;
 
+import com.google.common.collect.Streams;
 import com.google.protobuf.Any;
 
 import dev.enola.core.EnolaException;
 import dev.enola.thing.Thing;
+import dev.enola.thing.message.JavaThingToProtoThingConverter;
 
 import java.util.Map;
+import java.util.stream.Stream;
 
 public interface ThingService {
     // TODO Replace usages with ProtoThingProvider, once listEntities() is gone
@@ -31,4 +34,16 @@ public interface ThingService {
 
     // TODO Convert all callers to getThings, and remove this
     Any getThing(String iri, Map<String, String> parameters);
+
+    /**
+     * Streams the proto Things of {@link #getThings(String, Map)}, converting each one only when
+     * the stream's consumer gets to it. Services which can produce proto Things more directly
+     * (or more lazily) than that should override this.
+     */
+    default Stream<dev.enola.thing.proto.Thing> streamThings(
+            String iri, Map<String, String> parameters) throws EnolaException {
+        var converter = new JavaThingToProtoThingConverter();
+        return Streams.stream(getThings(iri, parameters))
+                .map(thing -> converter.convert(thing).build());
+    }
 }
@@ -22,34 +22,107 @@ import static java.util.Objects.requireNonNull;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.google.errorprone.annotations.ThreadSafe;
 
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * MemoryRepositoryRW is an in-memory {@link RepositoryRW} implemented using a {@link
  * ConcurrentHashMap}.
  */
 @ThreadSafe
-public abstract class MemoryRepositoryRW<T> implements RepositoryRW<T> {
+public abstract class MemoryRepositoryRW<T> implements RepositoryRW<T>, ObservableRepository {
 
     private final Map<String, T> map = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
 
     protected abstract String getIRI(T value);
 
     protected abstract T merge(T existing, T update);
 
+    // The following hooks are called while the map entry of the T's IRI is locked; so that e.g.
+    // indexes are updated atomically with it, and concurrent updates of the same IRI are ordered.
+
+    /**
+     * Called when a T was stored or merged, with the (possibly merged) T which is now in this
+     * repository. Subclasses may override this e.g. to maintain indexes; this default does nothing.
+     */
+    protected void stored(T item) {}
+
+    /**
+     * Called when a T was removed, with the T which was in this repository. Subclasses which
+     * override {@link #stored(Object)} to maintain indexes should override this as well.
+     */
+    protected void removed(T item) {}
+
+    /**
+     * Called when a T was replaced (see {@link #replace(String, Iterable)}). Subclasses which
+     * maintain indexes should override this to only remove the entries which the new T no longer
+     * has; this default removes all of the previous T, and then stores the new one.
+     */
+    protected void replaced(T previous, T item) {
+        removed(previous);
+        stored(item);
+    }
+
+    @Override
+    public void addStoredListener(Consumer<String> iriListener) {
+        listeners.add(requireNonNull(iriListener));
+    }
+
+    private void notifyListeners(String iri) {
+        for (var listener : listeners) listener.accept(iri);
+    }
+
     @Override
     public void merge(T item) {
-        var iri = getIRI(item);
-        var existing = map.putIfAbsent(iri, item);
-        if (existing != null) map.put(iri, merge(existing, item));
+        merge(getIRI(item), item);
+    }
+
+    private void merge(String iri, T item) {
+        // ConcurrentHashMap#compute() is atomic per key (it only locks the hash bin of that key), so
+        // concurrent merges of the same IRI don't lose updates, and different IRIs don't contend.
+        map.compute(
+                iri,
+                (key, existing) -> {
+                    var merged = existing == null ? item : merge(existing, item);
+                    stored(merged);
+                    return merged;
+                });
+        notifyListeners(iri);
+    }
+
+    /**
+     * Merges multiple items. Items with the same IRI are first merged locally, without touching the
+     * shared map; then each IRI is merged into the map once.
+     */
+    @Override
+    public void mergeAll(Iterable<T> items) {
+        var local = new LinkedHashMap<String, T>();
+        for (T item : items) {
+            local.merge(getIRI(item), item, this::merge);
+        }
+        local.forEach(this::merge);
     }
 
     @Override
     @CanIgnoreReturnValue
     public final Void store(T item) {
-        if (map.putIfAbsent(getIRI(item), item) != null)
-            throw new IllegalArgumentException(item.toString());
+        var iri = getIRI(item);
+        map.compute(
+                iri,
+                (key, existing) -> {
+                    if (existing != null) throw new IllegalArgumentException(item.toString());
+                    stored(item);
+                    return item;
+                });
+        notifyListeners(iri);
         return null;
     }
 
@@ -62,6 +135,60 @@ public abstract class MemoryRepositoryRW<T> implements RepositoryRW<T> {
         return null;
     }
 
+    /**
+     * Removes the T with this IRI, if there is one, and notifies the listeners.
+     *
+     * @return the removed T, or null if there was none
+     */
+    @CanIgnoreReturnValue
+    public @Nullable T remove(String iri) {
+        var removed = new ArrayList<T>(1);
+        map.computeIfPresent(
+                requireNonNull(iri),
+                (key, item) -> {
+                    removed(item);
+                    removed.add(item);
+                    return null;
+                });
+        if (removed.isEmpty()) return null;
+        notifyListeners(iri);
+        return removed.get(0);
+    }
+
+    /**
+     * Replaces the T with this IRI by the merge of these items (which must all have that IRI), or
+     * removes it if there are none, and notifies the listeners once. Unlike a {@link
+     * #remove(String)} followed by {@link #merge(Object)}, this swaps the T (and, see {@link
+     * #replaced(Object, Object)}, its index entries) atomically; so concurrent readers see either
+     * the previous or the new T, but never none.
+     *
+     * @return the replaced T, or null if there was none
+     */
+    @CanIgnoreReturnValue
+    public @Nullable T replace(String iri, Iterable<T> items) {
+        T merged = null;
+        for (T item : items) {
+            if (!iri.equals(getIRI(item)))
+                throw new IllegalArgumentException(getIRI(item) + " is not " + iri);
+            merged = merged == null ? item : merge(merged, item);
+        }
+        if (merged == null) return remove(iri);
+
+        var replacement = merged;
+        var replaced = new ArrayList<T>(1);
+        map.compute(
+                iri,
+                (key, previous) -> {
+                    if (previous != null) {
+                        replaced(previous, replacement);
+                        replaced.add(previous);
+                    } else stored(replacement);
+                    return replacement;
+                });
+        notifyListeners(iri);
+        return replaced.isEmpty() ? null : replaced.get(0);
+    }
+
     @Override
     public T get(String iri) {
         return map.get(requireNonNull(iri));
@@ -0,0 +1,35 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.data;
+
+import java.util.function.Consumer;
+
+/**
+ * ObservableRepository is a {@link Repository} which notifies listeners after an item was stored
+ * or merged into it (or removed from it), e.g. so that they can invalidate caches of data derived
+ * from that item.
+ */
+public interface ObservableRepository {
+
+    /**
+     * Adds a listener, which is called with the IRI of every item after it was stored or merged (or
+     * removed, by repositories which support that). Listeners are called synchronously, on the
+     * thread which stored, so they should be quick.
+     */
+    void addStoredListener(Consumer<String> iriListener);
+}
@@ -41,6 +41,13 @@ public interface Store<B, T> {
      */
     void merge(T item);
 
+    /** Merge multiple Ts; see {@link #merge(Object)}. */
+    default void mergeAll(Iterable<T> items) {
+        for (T item : items) {
+            merge(item);
+        }
+    }
+
     /**
      * Store a T.
      *
@@ -0,0 +1,62 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.rdf.io;
+
+import dev.enola.common.io.resource.ReadableResource;
+import dev.enola.common.io.resource.WritableResource;
+import dev.enola.common.io.resource.convert.CatchingResourceConverter;
+import dev.enola.common.protobuf.ProtoIO;
+import dev.enola.rdf.proto.ProtoThingRdfConverter;
+import dev.enola.thing.io.CompactThingsIO;
+import dev.enola.thing.io.ThingMediaTypes;
+import dev.enola.thing.proto.Things;
+
+/**
+ * Converts {@link ThingMediaTypes#COMPACT_THINGS_BINARYPROTO} snapshots into the other Thing
+ * formats (of {@link ThingMediaTypes}), or into RDF.
+ */
+public class CompactThingsResourceConverter implements CatchingResourceConverter {
+
+    private final ThingMediaTypes thingMediaTypes = new ThingMediaTypes();
+    private final ProtoThingRdfConverter protoThingRdfConverter = new ProtoThingRdfConverter();
+    private final ProtoIO protoIO = new ProtoIO();
+
+    @Override
+    public boolean convertIntoThrows(ReadableResource from, WritableResource into)
+            throws Exception {
+        if (!CompactThingsIO.isCompactThings(from.mediaType())) return false;
+
+        if (CompactThingsIO.isCompactThings(into.mediaType())) {
+            from.byteSource().copyTo(into.byteSink());
+            return true;
+        }
+
+        var things = CompactThingsIO.readProto(from);
+        if (thingMediaTypes.knownTypesWithAlternatives().containsKey(into.mediaType())) {
+            protoIO.write(Things.newBuilder().addAllThings(things).build(), into);
+            return true;
+        }
+
+        var opt = WritableResourceRDFHandler.create(into);
+        if (opt.isEmpty()) return false;
+        try (var handler = opt.get()) {
+            for (var thing : things) protoThingRdfConverter.convertInto(thing, handler);
+        }
+        return true;
+    }
+}
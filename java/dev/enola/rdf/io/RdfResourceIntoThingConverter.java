@@ -25,7 +25,6 @@ import dev.enola.thing.Thing;
 import dev.enola.thing.Thing.Builder;
 import dev.enola.thing.impl.ImmutableThing;
 import dev.enola.thing.io.UriIntoThingConverter;
-import dev.enola.thing.message.ProtoThingIntoJavaThingBuilderConverter;
 import dev.enola.thing.repo.ThingsBuilder;
 
 import java.io.IOException;
@@ -35,13 +34,16 @@ import java.util.function.Supplier;
 /**
  * RdfResourceIntoThingConverter "converts" (loads, really) RDF resources (e.g. *.ttl, et al.) into
  * Things.
+ *
+ * <p>The RDF statements are streamed from the parser directly into Java Thing Builders, see {@link
+ * ThingsBuilderRDFHandler}; without an intermediate RDF4j Model or Proto Things.
  */
 @SuppressWarnings("rawtypes")
 public class RdfResourceIntoThingConverter<T extends Thing> implements UriIntoThingConverter {
 
-    private final RdfResourceIntoProtoThingConverter rdfResourceIntoProtoThingConverter;
+    private final RdfReaderConverterInto rdfReaderConverterInto;
 
-    private final ProtoThingIntoJavaThingBuilderConverter protoThingIntoJavaThingBuilderConverter;
+    private final DatatypeRepository datatypeRepository;
 
     private final Supplier<Builder<T>> builderSupplier;
     private final ResourceProvider rp;
@@ -50,9 +52,8 @@ public class RdfResourceIntoThingConverter<T extends Thing> implements UriIntoTh
             ResourceProvider rp,
             DatatypeRepository datatypeRepository,
             Supplier<Thing.Builder<T>> builderSupplier) {
-        this.rdfResourceIntoProtoThingConverter = new RdfResourceIntoProtoThingConverter(rp);
-        this.protoThingIntoJavaThingBuilderConverter =
-                new ProtoThingIntoJavaThingBuilderConverter(datatypeRepository);
+        this.rdfReaderConverterInto = new RdfReaderConverterInto(rp);
+        this.datatypeRepository = datatypeRepository;
         this.builderSupplier = builderSupplier;
         this.rp = rp;
     }
@@ -74,15 +75,9 @@ public class RdfResourceIntoThingConverter<T extends Thing> implements UriIntoTh
         var resource = rp.getResource(uri);
         if (resource == null) return false;
 
-        var optProtoList = rdfResourceIntoProtoThingConverter.convert(resource);
-        if (!optProtoList.isPresent()) return false;
-
-        var protoList = optProtoList.get();
+        if (resource.byteSource().isEmpty()) return false;
 
-        for (var protoThing : protoList) {
-            var thingBuilder = into.getBuilder(protoThing.getIri());
-            protoThingIntoJavaThingBuilderConverter.convertIntoOrThrow(protoThing, thingBuilder);
-        }
-        return true;
+        var handler = new ThingsBuilderRDFHandler(into, datatypeRepository);
+        return rdfReaderConverterInto.convertInto(resource, handler);
     }
 }
@@ -19,21 +19,33 @@ package dev.enola.rdf.io;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import static org.junit.Assert.assertThrows;
+
 import static dev.enola.common.context.testlib.SingletonRule.$;
 
+import com.google.common.collect.Streams;
+
 import dev.enola.common.context.testlib.SingletonRule;
+import dev.enola.common.convert.ConversionException;
 import dev.enola.common.io.mediatype.MediaTypeProviders;
 import dev.enola.common.io.resource.*;
 import dev.enola.datatype.DatatypeRepository;
 import dev.enola.datatype.DatatypeRepositoryBuilder;
+import dev.enola.thing.Link;
+import dev.enola.thing.PredicatesObjects;
 import dev.enola.thing.Thing;
+import dev.enola.thing.impl.ImmutableThing;
+import dev.enola.thing.message.ProtoThingIntoJavaThingBuilderConverter;
 import dev.enola.thing.repo.ThingsBuilder;
 
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
 import org.junit.Rule;
 import org.junit.Test;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 
 public class RdfResourceIntoThingConverterTest {
 
@@ -51,6 +63,82 @@ public class RdfResourceIntoThingConverterTest {
         assertThat(thing.iri()).isEqualTo("http://example.enola.dev/Dalí");
     }
 
+    @Test
+    public void picassoStruct() throws IOException {
+        var picasso =
+                Streams.stream(convert(new ClasspathResource("picasso.ttl").uri()))
+                        .map(Thing.Builder::build)
+                        .filter(thing -> thing.iri().equals("http://example.enola.dev/Picasso"))
+                        .findFirst()
+                        .get();
+        var address = picasso.get("http://example.enola.dev/homeAddress", PredicatesObjects.class);
+        assertThat(address.getString("http://example.enola.dev/city")).isEqualTo("Barcelona");
+    }
+
+    @Test
+    public void collection() throws IOException {
+        var rdf = "@prefix : <http://example.org/>. :thing :property ( :thing1 :thing2 ).";
+        var resource = StringResource.of(rdf, RdfMediaTypes.TURTLE);
+        var converter = new RdfResourceIntoThingConverter<>(uri -> resource, datatypeRepository);
+        var thingsBuilder = new ThingsBuilder();
+        converter.convertInto(resource.uri(), thingsBuilder);
+        var thing = thingsBuilder.builders().iterator().next().build();
+        var thing1 = new Link("http://example.org/thing1");
+        var thing2 = new Link("http://example.org/thing2");
+        assertThat(thing.get("http://example.org/property", List.class))
+                .containsExactly(thing1, thing2)
+                .inOrder();
+    }
+
+    @Test
+    public void typedCollection() throws IOException {
+        var rdf =
+                "@prefix : <http://example.org/>. @prefix rdf:"
+                        + " <http://www.w3.org/1999/02/22-rdf-syntax-ns#>. :thing :property [ a"
+                        + " rdf:List; rdf:first :thing1; rdf:rest ( :thing2 ) ].";
+        var resource = StringResource.of(rdf, RdfMediaTypes.TURTLE);
+        var converter = new RdfResourceIntoThingConverter<>(uri -> resource, datatypeRepository);
+        var thingsBuilder = new ThingsBuilder();
+        converter.convertInto(resource.uri(), thingsBuilder);
+        var thing = thingsBuilder.builders().iterator().next().build();
+        var thing1 = new Link("http://example.org/thing1");
+        var thing2 = new Link("http://example.org/thing2");
+        assertThat(thing.get("http://example.org/property", List.class))
+                .containsExactly(thing1, thing2)
+                .inOrder();
+    }
+
+    @Test
+    public void sameAsViaProto() throws IOException {
+        var uri = new ClasspathResource("graph.ttl").uri();
+        var viaProto = new ArrayList<Thing>();
+        var protoThings =
+                new RdfResourceIntoProtoThingConverter(resourceProvider)
+                        .convert(resourceProvider.getReadableResource(uri))
+                        .get();
+        var protoToJava = new ProtoThingIntoJavaThingBuilderConverter(datatypeRepository);
+        for (var protoThing : protoThings) {
+            var builder = ImmutableThing.builder();
+            protoToJava.convertIntoOrThrow(protoThing, builder);
+            viaProto.add(builder.build());
+        }
+
+        var direct = new ArrayList<Thing>();
+        for (var builder : convert(uri)) direct.add(builder.build());
+
+        assertThat(direct).containsExactlyElementsIn(viaProto);
+    }
+
+    @Test
+    public void rejectsTripleTerms() {
+        var vf = SimpleValueFactory.getInstance();
+        var iri = vf.createIRI("https://example.org/a");
+        var statement = vf.createStatement(iri, iri, vf.createTriple(iri, iri, iri));
+        var handler = new ThingsBuilderRDFHandler(new ThingsBuilder(), datatypeRepository);
+        var e = assertThrows(ConversionException.class, () -> handler.handleStatement(statement));
+        assertThat(e).hasMessageThat().contains("https://example.org/a");
+    }
+
     @Test
     public void emptyYAML() throws IOException {
         assertThat(convert(new ClasspathResource("empty.yaml").uri())).isEmpty();
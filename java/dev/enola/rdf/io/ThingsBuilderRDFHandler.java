@@ -0,0 +1,206 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.rdf.io;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import dev.enola.common.convert.ConversionException;
+import dev.enola.datatype.DatatypeRepository;
+import dev.enola.thing.LangString;
+import dev.enola.thing.Link;
+import dev.enola.thing.Literal;
+import dev.enola.thing.PredicatesObjects;
+import dev.enola.thing.impl.ImmutablePredicatesObjects;
+import dev.enola.thing.repo.ThingsBuilder;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.base.CoreDatatype;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RDFHandler which builds Java {@link dev.enola.thing.Thing}s directly from a stream of RDF
+ * statements, such as those produced by a Rio parser.
+ *
+ * <p>This avoids first collecting all statements into an RDF4j {@link
+ * org.eclipse.rdf4j.model.Model}, then converting that into Proto Things with {@link
+ * dev.enola.rdf.proto.RdfProtoThingsConverter}, and then converting those again into Java Things.
+ *
+ * <p>Statements are grouped by subject and predicate as they arrive. Because RDF statements are
+ * not ordered, the Things are only built into the {@link ThingsBuilder} on {@link #endRDF()}.
+ */
+class ThingsBuilderRDFHandler extends AbstractRDFHandler {
+
+    private final ThingsBuilder into;
+    private final DatatypeRepository datatypeRepository;
+
+    // These are the "root" Things; i.e. the Statements where Subject is an IRI.
+    private final Map<String, Map<String, List<Value>>> roots = new LinkedHashMap<>();
+
+    // These are the "contained" Things, which are inside "struct" of another Thing; i.e. the
+    // Statements where the Subject is a BNode (whose ID is the key of this Map).
+    private final Map<String, Map<String, List<Value>>> structs = new HashMap<>();
+
+    // These are the RDF Collections; the keys are again BNode IDs.
+    private final Map<String, Value> collectionsFirsts = new HashMap<>();
+    private final Map<String, Value> collectionsRests = new HashMap<>();
+
+    ThingsBuilderRDFHandler(ThingsBuilder into, DatatypeRepository datatypeRepository) {
+        this.into = into;
+        this.datatypeRepository = datatypeRepository;
+    }
+
+    @Override
+    public void handleStatement(Statement statement) throws RDFHandlerException {
+        var subject = statement.getSubject();
+        var predicate = statement.getPredicate();
+        var object = statement.getObject();
+        if (object.isTriple()) throw unsupported(statement);
+
+        if (subject.isIRI()) {
+            add(roots, subject.stringValue(), predicate, object);
+
+        } else if (subject.isBNode()) {
+            var subjectBNodeID = ((BNode) subject).getID();
+            if (predicate.equals(RDF.FIRST)) collectionsFirsts.put(subjectBNodeID, object);
+            else if (predicate.equals(RDF.REST)) collectionsRests.put(subjectBNodeID, object);
+            else add(structs, subjectBNodeID, predicate, object);
+
+        } else throw unsupported(statement);
+    }
+
+    private static ConversionException unsupported(Statement statement) {
+        return new ConversionException(
+                "RDF-star triple terms are not supported, in statement: " + statement);
+    }
+
+    private static void add(
+            Map<String, Map<String, List<Value>>> map, String key, IRI predicate, Value object) {
+        map.computeIfAbsent(key, k -> new LinkedHashMap<>())
+                .computeIfAbsent(predicate.stringValue(), p -> new ArrayList<>(1))
+                .add(object);
+    }
+
+    @Override
+    public void endRDF() throws RDFHandlerException {
+        roots.forEach(
+                (iri, predicatesObjects) -> {
+                    var thingBuilder = into.getBuilder(iri);
+                    predicatesObjects.forEach(
+                            (predicate, objects) -> set(thingBuilder, predicate, objects));
+                });
+
+        roots.clear();
+        structs.clear();
+        collectionsFirsts.clear();
+        collectionsRests.clear();
+    }
+
+    @SuppressWarnings("Immutable") // TODO Object value https://errorprone.info/bugpattern/Immutable
+    private void set(PredicatesObjects.Builder<?> builder, String predicate, List<Value> objects) {
+        if (objects.size() == 1) {
+            var object = objects.get(0);
+            if (object instanceof org.eclipse.rdf4j.model.Literal literal && isTyped(literal)) {
+                var datatypeIRI = literal.getDatatype().stringValue();
+                var datatype = datatypeRepository.get(datatypeIRI);
+                if (datatype != null) {
+                    var value = datatype.stringConverter().convertFrom(literal.stringValue());
+                    builder.set(predicate, value, datatypeIRI);
+                    return;
+                }
+            }
+            builder.set(predicate, object(object));
+
+        } else {
+            // Multiple objects of the same subject and predicate have no order in RDF
+            var set = ImmutableSet.<Object>builderWithExpectedSize(objects.size());
+            for (var object : objects) {
+                set.add(object(object));
+            }
+            builder.set(predicate, set.build());
+        }
+    }
+
+    private static boolean isTyped(org.eclipse.rdf4j.model.Literal literal) {
+        return literal.getLanguage().isEmpty()
+                && !CoreDatatype.XSD.STRING.getIri().equals(literal.getDatatype());
+    }
+
+    private Object object(Value rdfValue) {
+        if (rdfValue.isIRI()) {
+            return new Link(rdfValue.stringValue());
+
+        } else if (rdfValue.isLiteral()) {
+            var rdfLiteral = (org.eclipse.rdf4j.model.Literal) rdfValue;
+            var optLang = rdfLiteral.getLanguage();
+            if (CoreDatatype.XSD.STRING.getIri().equals(rdfLiteral.getDatatype()))
+                return rdfLiteral.stringValue();
+            else if (optLang.isPresent())
+                return new LangString(rdfLiteral.stringValue(), optLang.get());
+            else {
+                var datatypeIRI = rdfLiteral.getDatatype().stringValue();
+                return new Literal(rdfLiteral.stringValue(), datatypeIRI);
+            }
+
+        } else if (rdfValue.isBNode()) {
+            var bNodeID = ((BNode) rdfValue).getID();
+            // A BNode with an rdf:first is a collection, even if it also has e.g. an rdf:type
+            if (collectionsFirsts.containsKey(bNodeID)) return collection(bNodeID);
+            var struct = structs.get(bNodeID);
+            if (struct != null) return struct(struct);
+            throw new IllegalStateException(
+                    bNodeID + " not found, neither in structs nor in collectionsFirsts");
+
+        } else {
+            // Triples are already rejected by handleStatement(), so this cannot normally happen
+            throw new ConversionException("Unsupported RDF value: " + rdfValue);
+        }
+    }
+
+    private PredicatesObjects struct(Map<String, List<Value>> predicatesObjects) {
+        var builder = ImmutablePredicatesObjects.builderWithExpectedSize(predicatesObjects.size());
+        predicatesObjects.forEach((predicate, objects) -> set(builder, predicate, objects));
+        return builder.build();
+    }
+
+    private ImmutableList<Object> collection(String firstBNodeID) {
+        var list = ImmutableList.<Object>builder();
+        @Nullable String bNodeID = firstBNodeID;
+        while (bNodeID != null) {
+            var first = collectionsFirsts.get(bNodeID);
+            if (first == null) throw new IllegalStateException("Broken RDF Collection: " + bNodeID);
+            list.add(object(first));
+            // The last rdf:rest is rdf:nil, which is an IRI, not a BNode
+            var rest = collectionsRests.get(bNodeID);
+            bNodeID = rest instanceof BNode restBNode ? restBNode.getID() : null;
+        }
+        return list.build();
+    }
+}
@@ -20,18 +20,16 @@ package dev.enola.rdf.proto;
 import dev.enola.common.convert.ConversionException;
 import dev.enola.common.convert.Converter;
 import dev.enola.thing.proto.Thing;
-import dev.enola.thing.proto.Thing.Builder;
 import dev.enola.thing.proto.Value;
 
 import org.eclipse.rdf4j.model.BNode;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.model.base.CoreDatatype;
-import org.eclipse.rdf4j.model.util.RDFCollections;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.jspecify.annotations.Nullable;
 
 import java.util.*;
-import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -42,93 +40,97 @@ import java.util.stream.Stream;
 public class RdfProtoThingsConverter implements Converter<Model, Stream<Thing.Builder>> {
 
     // TODO In general, an RDF stream of statements is not "ordered"; there could be "later updates"
-    // to "previous things" at any time. The design of this current default implementation takes
-    // this into account - which makes this very inefficient from a memory usage point of view
-    // for very large RDF graphs. Future optimizations could include (optional, always) modes
-    // which either makes assumptions when "a Thing is completed" (perhaps upon encountering
-    // the first a non-Blank statement for another Subject?), or which uses
-    // for (var subject : model.subjects()) filter(subject, null, null) ...
-    // to do this in a more orderly fashion - if that scales better?
-    // (Perhaps keep such different "strategies" configurable?)
+    // to "previous things" at any time. This is why this first groups all Statements of the Model
+    // by Subject & Predicate (in one single pass), and only then builds the Things. Future
+    // optimizations could include (optional) modes which make assumptions when "a Thing is
+    // completed" (perhaps upon encountering the first a non-Blank statement for another Subject?).
 
     public List<Thing.Builder> convertToList(Model input) throws ConversionException {
         return convert(input).toList();
     }
 
-    record Pair(Map<String, Thing.Builder> structs, Map<String, BNode> collectionsFirsts) {}
+    /** The objects of all Statements of one subject, grouped by predicate. */
+    @SuppressWarnings("serial")
+    private static class SubjectStatements
+            extends LinkedHashMap<IRI, List<org.eclipse.rdf4j.model.Value>> {
+        void add(IRI predicate, org.eclipse.rdf4j.model.Value object) {
+            computeIfAbsent(predicate, p -> new ArrayList<>(1)).add(object);
+        }
+    }
+
+    /** All Statements of a Model, grouped (once) by subject and predicate. */
+    private static class Grouped {
 
-    @Override
-    public Stream<Thing.Builder> convert(Model input) {
         // These are the "root" Things; i.e. the Statements where Subject is an IRI.
-        final Map<IRI, Thing.Builder> roots = new HashMap<>();
+        final Map<IRI, SubjectStatements> roots = new HashMap<>();
 
         // These are the "contained" Things, which are inside "struct" of another Thing; i.e. the
-        // Statements where the Subject is a BNode with an IRI (which is the key of this
-        // Map).
-        Map<String, Thing.Builder> structs = new HashMap<>();
-
-        // These are the RDF Collections; the key is again a BNode IRI
-        Map<String, BNode> collectionsFirsts = new HashMap<>();
+        // Statements where the Subject is a BNode with an ID (which is the key of this Map).
+        final Map<String, SubjectStatements> structs = new HashMap<>();
 
-        Pair pair = new Pair(structs, collectionsFirsts);
-
-        List<Consumer<Pair>> deferred = new ArrayList<>();
+        // These are the RDF Collections; the key is again a BNode ID
+        final Map<String, org.eclipse.rdf4j.model.Value> collectionsFirsts = new HashMap<>();
+        final Map<String, org.eclipse.rdf4j.model.Value> collectionsRests = new HashMap<>();
+    }
 
+    @Override
+    public Stream<Thing.Builder> convert(Model input) {
+        var grouped = new Grouped();
         for (var statement : input) {
-            Thing.Builder thing;
-            var predicate = statement.getPredicate();
             var subject = statement.getSubject();
+            var predicate = statement.getPredicate();
+            var object = statement.getObject();
             if (subject.isIRI()) {
                 var subjectIRI = (IRI) subject;
-                thing =
-                        roots.computeIfAbsent(
-                                subjectIRI, iri -> Thing.newBuilder().setIri(iri.stringValue()));
+                grouped.roots
+                        .computeIfAbsent(subjectIRI, iri -> new SubjectStatements())
+                        .add(predicate, object);
 
             } else if (subject.isBNode()) {
-                var subjectBNode = (BNode) subject;
-                var subjectBNodeID = subjectBNode.getID();
-                if (predicate.equals(RDF.FIRST)) {
-                    collectionsFirsts.put(subjectBNodeID, subjectBNode);
-                    continue;
-                } else if (predicate.equals(RDF.REST)) {
-                    // Ignore, because the use of RDFCollections.asValues() handles this, see above.
-                    continue;
-                }
-                thing = structs.computeIfAbsent(subjectBNodeID, id -> Thing.newBuilder());
+                var subjectBNodeID = ((BNode) subject).getID();
+                if (predicate.equals(RDF.FIRST))
+                    grouped.collectionsFirsts.put(subjectBNodeID, object);
+                else if (predicate.equals(RDF.REST))
+                    grouped.collectionsRests.put(subjectBNodeID, object);
+                else
+                    grouped.structs
+                            .computeIfAbsent(subjectBNodeID, id -> new SubjectStatements())
+                            .add(predicate, object);
 
             } else throw new UnsupportedOperationException("TODO: " + subject);
-
-            // The goal of this is to turn an RDF Object List into a Thing List Value
-            var statements = input.filter(subject, predicate, null);
-            if (statements.size() == 1) {
-                var value = convert(input, thing, predicate, statement.getObject(), deferred);
-                thing.putProperties(predicate.stringValue(), value.build());
-            } else {
-                // TODO Should distinguish List vs Set with 'ordered' in Thing.proto ...
-                var protoValueList = dev.enola.thing.proto.Value.List.newBuilder();
-                for (var subStatement : statements) {
-                    var object = subStatement.getObject();
-                    var protoValue = convert(input, thing, predicate, object, deferred);
-                    protoValueList.addValues(protoValue);
-                }
-                var value = Value.newBuilder().setList(protoValueList);
-                thing.putProperties(statement.getPredicate().stringValue(), value.build());
-            }
         }
 
-        for (var action : deferred) {
-            action.accept(pair);
-        }
+        var things = new ArrayList<Thing.Builder>(grouped.roots.size());
+        grouped.roots.forEach(
+                (iri, predicatesObjects) -> {
+                    var thing = Thing.newBuilder().setIri(iri.stringValue());
+                    putProperties(grouped, thing, predicatesObjects);
+                    things.add(thing);
+                });
+        return things.stream();
+    }
 
-        return roots.values().stream();
+    private static void putProperties(
+            Grouped grouped, Thing.Builder thing, SubjectStatements predicatesObjects) {
+        predicatesObjects.forEach(
+                (predicate, objects) -> {
+                    // The goal of this is to turn an RDF Object List into a Thing List Value
+                    Value.Builder value;
+                    if (objects.size() == 1) {
+                        value = convert(grouped, objects.get(0));
+                    } else {
+                        // TODO Should distinguish List vs Set with 'ordered' in Thing.proto ...
+                        var protoValueList = Value.List.newBuilder();
+                        for (var object : objects) {
+                            protoValueList.addValues(convert(grouped, object));
+                        }
+                        value = Value.newBuilder().setList(protoValueList);
+                    }
+                    thing.putProperties(predicate.stringValue(), value.build());
+                });
     }
 
-    private static dev.enola.thing.proto.Value.Builder convert(
-            Model model,
-            Builder thing,
-            IRI predicate,
-            org.eclipse.rdf4j.model.Value rdfValue,
-            List<Consumer<Pair>> deferred) {
+    private static Value.Builder convert(Grouped grouped, org.eclipse.rdf4j.model.Value rdfValue) {
         var value = Value.newBuilder();
         if (rdfValue.isIRI()) {
             value.setLink(rdfValue.stringValue());
@@ -141,13 +143,13 @@ public class RdfProtoThingsConverter implements Converter<Model, Stream<Thing.Bu
                 value.setString(rdfValue.stringValue());
 
             } else if (optLang.isPresent()) {
-                var langString = dev.enola.thing.proto.Value.LangString.newBuilder();
+                var langString = Value.LangString.newBuilder();
                 langString.setText(rdfLiteral.stringValue());
                 langString.setLang(optLang.get());
                 value.setLangString(langString);
 
             } else {
-                var literal = dev.enola.thing.proto.Value.Literal.newBuilder();
+                var literal = Value.Literal.newBuilder();
                 literal.setDatatype(rdfLiteral.getDatatype().stringValue());
                 literal.setValue(rdfLiteral.stringValue());
                 value.setLiteral(literal);
@@ -155,34 +157,19 @@ public class RdfProtoThingsConverter implements Converter<Model, Stream<Thing.Bu
 
         } else if (rdfValue.isBNode()) {
             var bNodeID = ((BNode) rdfValue).getID();
-            deferred.add(
-                    pair -> {
-                        var containedThing = pair.structs.get(bNodeID);
-                        if (containedThing != null) {
-                            value.setStruct(containedThing);
-
-                        } else {
-                            var collectionStatement = pair.collectionsFirsts.get(bNodeID);
-                            if (collectionStatement == null)
-                                throw new IllegalStateException(
-                                        bNodeID
-                                                + " not found, neither in structs nor in"
-                                                + " collectionsFirsts");
-
-                            var rdfValueList = new ArrayList<org.eclipse.rdf4j.model.Value>(0);
-                            RDFCollections.asValues(model, collectionStatement, rdfValueList);
-                            var protoValueList = dev.enola.thing.proto.Value.List.newBuilder();
-                            protoValueList.setOrdered(true);
-
-                            for (var rdf4jValue : rdfValueList) {
-                                var protoValue =
-                                        convert(model, thing, predicate, rdf4jValue, deferred);
-                                protoValueList.addValues(protoValue);
-                            }
-                            value.setList(protoValueList);
-                        }
-                        thing.putProperties(predicate.stringValue(), value.build());
-                    });
+            var struct = grouped.structs.get(bNodeID);
+            // Collections may also have other statements, such as "a rdf:List", which are dropped
+            if (grouped.collectionsFirsts.containsKey(bNodeID)) {
+                value.setList(collection(grouped, bNodeID));
+
+            } else if (struct != null) {
+                var containedThing = Thing.newBuilder();
+                putProperties(grouped, containedThing, struct);
+                value.setStruct(containedThing);
+
+            } else
+                throw new IllegalStateException(
+                        bNodeID + " not found, neither in structs nor in collectionsFirsts");
 
         } else if (rdfValue.isTriple()) {
             throw new UnsupportedOperationException("TODO: Triple");
@@ -193,4 +180,20 @@ public class RdfProtoThingsConverter implements Converter<Model, Stream<Thing.Bu
 
         return value;
     }
+
+    private static Value.List.Builder collection(Grouped grouped, String firstBNodeID) {
+        var protoValueList = Value.List.newBuilder();
+        protoValueList.setOrdered(true);
+        @Nullable String bNodeID = firstBNodeID;
+        while (bNodeID != null) {
+            var first = grouped.collectionsFirsts.get(bNodeID);
+            if (first == null)
+                throw new IllegalStateException("Broken RDF Collection at: " + bNodeID);
+            protoValueList.addValues(convert(grouped, first));
+            // The last rdf:rest is rdf:nil, which is an IRI, not a BNode
+            var rest = grouped.collectionsRests.get(bNodeID);
+            bNodeID = rest instanceof BNode restBNode ? restBNode.getID() : null;
+        }
+        return protoValueList;
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.rdf.proto;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.truth.extensions.proto.ProtoTruth;
+
+import dev.enola.thing.proto.Thing;
+import dev.enola.thing.proto.Value;
+
+import org.eclipse.rdf4j.model.util.ModelBuilder;
+import org.eclipse.rdf4j.model.util.RDFCollections;
+import org.eclipse.rdf4j.model.util.Values;
+import org.junit.Test;
+
+import java.util.List;
+
+public class RdfProtoThingsConverterTest {
+
+    private static final String THING = "http://example.org/thing";
+    private static final String PROPERTY = "http://example.org/property";
+
+    private final RdfProtoThingsConverter converter = new RdfProtoThingsConverter();
+
+    @Test
+    public void multiValuedPredicate() {
+        var model =
+                new ModelBuilder()
+                        .subject(THING)
+                        .add(PROPERTY, "a")
+                        .add(PROPERTY, "b")
+                        .add(PROPERTY, "c")
+                        .build();
+        var list =
+                Value.List.newBuilder()
+                        .addValues(Value.newBuilder().setString("a"))
+                        .addValues(Value.newBuilder().setString("b"))
+                        .addValues(Value.newBuilder().setString("c"));
+        var expected =
+                Thing.newBuilder()
+                        .setIri(THING)
+                        .putProperties(PROPERTY, Value.newBuilder().setList(list).build());
+        var things = converter.convertToList(model);
+        assertThat(things).hasSize(1);
+        ProtoTruth.assertThat(things.get(0).build()).isEqualTo(expected.build());
+    }
+
+    @Test
+    public void structs() {
+        var bNode1 = Values.bnode("b1");
+        var bNode2 = Values.bnode("b2");
+        var model =
+                new ModelBuilder()
+                        .subject(THING)
+                        .add(PROPERTY, bNode1)
+                        .add(PROPERTY, bNode2)
+                        .subject(bNode1)
+                        .add(PROPERTY, "one")
+                        .subject(bNode2)
+                        .add(PROPERTY, "two")
+                        .build();
+        var things = converter.convertToList(model);
+        assertThat(things).hasSize(1);
+        var values = things.get(0).getPropertiesOrThrow(PROPERTY).getList().getValuesList();
+        assertThat(values.get(0).getStruct().getPropertiesOrThrow(PROPERTY).getString())
+                .isEqualTo("one");
+        assertThat(values.get(1).getStruct().getPropertiesOrThrow(PROPERTY).getString())
+                .isEqualTo("two");
+    }
+
+    @Test
+    public void collection() {
+        var head = Values.bnode("head");
+        var model = new ModelBuilder().subject(THING).add(PROPERTY, head).build();
+        var items = List.of(Values.iri("http://example.org/1"), Values.iri("http://example.org/2"));
+        RDFCollections.asRDF(items, head, model);
+
+        var list =
+                Value.List.newBuilder()
+                        .setOrdered(true)
+                        .addValues(Value.newBuilder().setLink("http://example.org/1"))
+                        .addValues(Value.newBuilder().setLink("http://example.org/2"));
+        var expected =
+                Thing.newBuilder()
+                        .setIri(THING)
+                        .putProperties(PROPERTY, Value.newBuilder().setList(list).build());
+        var things = converter.convertToList(model);
+        assertThat(things).hasSize(1);
+        ProtoTruth.assertThat(things.get(0).build()).isEqualTo(expected.build());
+    }
+}
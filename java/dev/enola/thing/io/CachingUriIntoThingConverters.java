@@ -0,0 +1,218 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.io;
+
+import com.google.common.hash.Hashing;
+
+import dev.enola.common.context.TLC;
+import dev.enola.common.convert.ConversionException;
+import dev.enola.common.io.resource.ResourceProvider;
+import dev.enola.datatype.DatatypeRepository;
+import dev.enola.thing.Thing;
+import dev.enola.thing.impl.MutableThing;
+import dev.enola.thing.java2.ProxyTBF;
+import dev.enola.thing.message.CompactThingsCodec;
+import dev.enola.thing.message.JavaThingToProtoThingConverter;
+import dev.enola.thing.message.ProtoThingIntoJavaThingBuilderConverter;
+import dev.enola.thing.proto.CompactThings;
+import dev.enola.thing.repo.ThingsBuilder;
+import dev.enola.thing.repo.TypedThingsBuilder;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+
+/**
+ * {@link UriIntoThingConverters} which caches the Things converted from each URI as a {@link
+ * ThingMediaTypes#COMPACT_THINGS_BINARYPROTO} snapshot file in a directory.
+ *
+ * <p>Snapshots are keyed by the URI and the {@link
+ * dev.enola.common.io.resource.ReadableResource#lastModifiedIfKnown()} of its resource; so only
+ * resources which changed since they were last loaded are converted again, and all others are read
+ * from their (memory-mapped) snapshot. Resources without a last modified time are not cached, and
+ * neither are remote (HTTP) ones; finding out whether those changed would need another request.
+ *
+ * <p>Writing the snapshot of a changed resource deletes its previous one, and {@link
+ * #evictUnused(Duration)} deletes those of resources which are not loaded anymore.
+ */
+public class CachingUriIntoThingConverters extends UriIntoThingConverters {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CachingUriIntoThingConverters.class);
+
+    // Increment this whenever the snapshot format, or what converters produce, changes!
+    private static final int VERSION = 1;
+
+    private static final String EXTENSION = ".thing.compact.binpb";
+
+    private final Path directory;
+    private final String salt;
+    private final ResourceProvider rp;
+    private final DatatypeRepository datatypeRepository;
+
+    /**
+     * Constructor.
+     *
+     * @param directory where snapshot files are stored; it is created if it does not exist yet.
+     * @param salt is included in the snapshot keys; it must differ for different converters.
+     */
+    public CachingUriIntoThingConverters(
+            Iterable<TypedUriIntoThingConverter<?, ?>> converters,
+            Path directory,
+            String salt,
+            ResourceProvider rp,
+            DatatypeRepository datatypeRepository) {
+        super(converters);
+        this.directory = directory;
+        this.salt = salt;
+        this.rp = rp;
+        this.datatypeRepository = datatypeRepository;
+    }
+
+    @Override
+    public Iterable<Thing.Builder<Thing>> convert(URI input) throws ConversionException {
+        try {
+            var lastModified = lastModified(input);
+            if (lastModified == null) return super.convert(input);
+
+            var key = key(input);
+            var snapshot = directory.resolve(key + "." + lastModified.toEpochMilli() + EXTENSION);
+            if (Files.exists(snapshot)) {
+                try {
+                    var builders = read(snapshot);
+                    touch(snapshot);
+                    return builders;
+                } catch (IOException | IllegalArgumentException e) {
+                    LOG.warn("Ignoring unreadable snapshot {} of {}", snapshot, input, e);
+                }
+            }
+
+            var builders = super.convert(input);
+            write(builders, snapshot);
+            deletePrevious(key, snapshot);
+            return builders;
+
+        } catch (IOException e) {
+            throw new ConversionException("IOException on " + input, e);
+        }
+    }
+
+    private @Nullable Instant lastModified(URI input) {
+        var scheme = input.getScheme();
+        if ("http".equals(scheme) || "https".equals(scheme)) return null;
+
+        var resource = rp.getReadableResource(input);
+        if (resource == null) return null;
+        return resource.lastModifiedIfKnown().orElse(null);
+    }
+
+    /** Key of all snapshots of the input; its last modified time is NOT part of this. */
+    private String key(URI input) {
+        var hasher = Hashing.sha256().newHasher();
+        hasher.putInt(VERSION);
+        hasher.putString(salt, StandardCharsets.UTF_8);
+        hasher.putBoolean(TLC.optional(Flags.ORIGIN).orElse(true));
+        hasher.putString(input.toString(), StandardCharsets.UTF_8);
+        return hasher.hash().toString();
+    }
+
+    /** Marks the snapshot as used, for {@link #evictUnused(Duration)}. */
+    private static void touch(Path snapshot) {
+        try {
+            Files.setLastModifiedTime(snapshot, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            LOG.debug("Failed to touch snapshot {}", snapshot, e);
+        }
+    }
+
+    /** Deletes the snapshots of previous versions of the resource, which are never used again. */
+    private void deletePrevious(String key, Path current) throws IOException {
+        try (var snapshots = Files.newDirectoryStream(directory, key + ".*" + EXTENSION)) {
+            for (var snapshot : snapshots) {
+                if (!snapshot.equals(current)) Files.deleteIfExists(snapshot);
+            }
+        }
+    }
+
+    /**
+     * Deletes all snapshots which were not read nor written for the given time, e.g. because their
+     * resources are not loaded anymore. Failures are logged, but not thrown.
+     */
+    public void evictUnused(Duration maxAge) {
+        if (!Files.isDirectory(directory)) return;
+        var oldest = FileTime.from(Instant.now().minus(maxAge));
+        try (var snapshots = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (var snapshot : snapshots) {
+                if (Files.getLastModifiedTime(snapshot).compareTo(oldest) < 0)
+                    Files.deleteIfExists(snapshot);
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to evict unused snapshots from {}", directory, e);
+        }
+    }
+
+    private Iterable<Thing.Builder<Thing>> read(Path snapshot) throws IOException {
+        CompactThings compactThings;
+        try (var channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            compactThings = CompactThings.parseFrom(buffer);
+        }
+
+        var thingsBuilder =
+                new TypedThingsBuilder<Thing, Thing.Builder<Thing>>(
+                        new ProxyTBF(MutableThing.FACTORY));
+        var into = new ThingsBuilder(thingsBuilder);
+        var converter = new ProtoThingIntoJavaThingBuilderConverter(datatypeRepository);
+        for (var protoThing : CompactThingsCodec.decode(compactThings)) {
+            converter.convertInto(protoThing, into.getBuilder(protoThing.getIri()));
+        }
+        return thingsBuilder.builders();
+    }
+
+    private void write(Iterable<Thing.Builder<Thing>> builders, Path snapshot)
+            throws IOException {
+        var converter = new JavaThingToProtoThingConverter(datatypeRepository);
+        var protoThings = new ArrayList<dev.enola.thing.proto.Thing.Builder>();
+        for (var builder : builders) protoThings.add(converter.convert(builder.build()));
+        var compactThings = CompactThingsCodec.encode(protoThings);
+
+        // Write into a temporary file first, so that concurrent readers never see partial ones
+        Files.createDirectories(directory);
+        var temp = Files.createTempFile(directory, snapshot.getFileName().toString(), ".tmp");
+        try {
+            try (var os = Files.newOutputStream(temp)) {
+                compactThings.writeTo(os);
+            }
+            Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
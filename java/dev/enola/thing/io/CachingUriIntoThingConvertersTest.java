@@ -0,0 +1,136 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.io;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static dev.enola.common.context.testlib.SingletonRule.$;
+
+import com.google.common.collect.ImmutableList;
+
+import dev.enola.common.context.testlib.SingletonRule;
+import dev.enola.common.io.mediatype.MediaTypeProviders;
+import dev.enola.common.io.resource.FileResource;
+import dev.enola.common.io.resource.ResourceProvider;
+import dev.enola.common.io.resource.ResourceProviders;
+import dev.enola.datatype.DatatypeRepositoryBuilder;
+import dev.enola.rdf.io.RdfMediaTypes;
+import dev.enola.rdf.io.RdfResourceIntoThingConverter;
+import dev.enola.thing.Thing;
+import dev.enola.thing.repo.ThingsBuilder;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CachingUriIntoThingConvertersTest {
+
+    @Rule public SingletonRule r = $(MediaTypeProviders.set(new RdfMediaTypes()));
+
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final ResourceProvider rp = new ResourceProviders(new FileResource.Provider());
+
+    private int conversions;
+
+    @Test
+    public void cachesUntilModified() throws IOException {
+        var ttl = tmp.newFile("test.ttl").toPath();
+        Files.writeString(ttl, "<https://example.org/a> <https://example.org/p> \"1\" .");
+        var cache = tmp.newFolder("cache").toPath();
+
+        var first = load(ttl, cache);
+        assertThat(conversions).isEqualTo(1);
+        assertThat(iris(first)).containsExactly("https://example.org/a");
+        assertThat(snapshots(cache)).hasSize(1);
+
+        // A new instance (e.g. on the next start) reads the snapshot instead of converting again
+        var second = load(ttl, cache);
+        assertThat(conversions).isEqualTo(1);
+        assertThat(iris(second)).containsExactly("https://example.org/a");
+        assertThat(second.get(0).get("https://example.org/p", String.class)).isEqualTo("1");
+
+        Files.writeString(ttl, "<https://example.org/b> <https://example.org/p> \"2\" .");
+        Files.setLastModifiedTime(ttl, FileTime.from(Instant.now().plusSeconds(60)));
+        var third = load(ttl, cache);
+        assertThat(conversions).isEqualTo(2);
+        assertThat(iris(third)).containsExactly("https://example.org/b");
+
+        // The snapshot of the previous version of the resource was deleted
+        assertThat(snapshots(cache)).hasSize(1);
+    }
+
+    @Test
+    public void evictUnused() throws IOException {
+        var ttl = tmp.newFile("test.ttl").toPath();
+        Files.writeString(ttl, "<https://example.org/a> <https://example.org/p> \"1\" .");
+        var cache = tmp.newFolder("cache").toPath();
+        load(ttl, cache);
+
+        var converters = converters(cache);
+        converters.evictUnused(Duration.ofDays(1));
+        assertThat(snapshots(cache)).hasSize(1);
+
+        var snapshot = snapshots(cache).get(0);
+        Files.setLastModifiedTime(snapshot, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        converters.evictUnused(Duration.ofDays(1));
+        assertThat(snapshots(cache)).isEmpty();
+    }
+
+    private List<Thing> load(Path ttl, Path cache) {
+        var things = new ArrayList<Thing>();
+        for (var builder : converters(cache).convert(ttl.toUri())) things.add(builder.build());
+        return things;
+    }
+
+    private CachingUriIntoThingConverters converters(Path cache) {
+        var dtr = new DatatypeRepositoryBuilder().build();
+        var rdf = new RdfResourceIntoThingConverter<>(rp, dtr);
+        UriIntoThingConverter counting =
+                (URI input, ThingsBuilder into) -> {
+                    ++conversions;
+                    return rdf.convertInto(input, into);
+                };
+        return new CachingUriIntoThingConverters(
+                ImmutableList.<TypedUriIntoThingConverter<?, ?>>of(counting),
+                cache,
+                "test",
+                rp,
+                dtr);
+    }
+
+    private static List<Path> snapshots(Path cache) throws IOException {
+        try (var snapshots = Files.list(cache)) {
+            return snapshots.toList();
+        }
+    }
+
+    private static List<String> iris(List<Thing> things) {
+        return things.stream().map(Thing::iri).toList();
+    }
+}
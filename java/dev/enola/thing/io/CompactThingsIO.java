@@ -0,0 +1,88 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.io;
+
+import static dev.enola.common.io.mediatype.MediaTypes.normalizedNoParamsEquals;
+import static dev.enola.common.protobuf.ProtobufMediaTypes.PROTOBUF_BINARY;
+import static dev.enola.common.protobuf.ProtobufMediaTypes.getProtoMessageFQN;
+
+import com.google.common.net.MediaType;
+
+import dev.enola.common.convert.ConversionException;
+import dev.enola.common.io.resource.ReadableResource;
+import dev.enola.common.io.resource.WritableResource;
+import dev.enola.datatype.DatatypeRepository;
+import dev.enola.thing.Thing;
+import dev.enola.thing.message.CompactThingsCodec;
+import dev.enola.thing.message.JavaThingToProtoThingConverter;
+import dev.enola.thing.message.ProtoThingIntoJavaThingBuilderConverter;
+import dev.enola.thing.proto.CompactThings;
+import dev.enola.thing.repo.ThingsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes (whole repositories of) Things as {@link
+ * ThingMediaTypes#COMPACT_THINGS_BINARYPROTO} snapshots.
+ */
+public final class CompactThingsIO {
+
+    private static final String FQN = CompactThings.getDescriptor().getFullName();
+
+    private CompactThingsIO() {}
+
+    public static boolean isCompactThings(MediaType mediaType) {
+        return normalizedNoParamsEquals(mediaType, PROTOBUF_BINARY)
+                && getProtoMessageFQN(mediaType).map(FQN::equals).orElse(false);
+    }
+
+    public static void write(Iterable<? extends Thing> things, WritableResource into)
+            throws IOException {
+        var converter = new JavaThingToProtoThingConverter();
+        var protoThings = new ArrayList<dev.enola.thing.proto.Thing.Builder>();
+        for (var thing : things) protoThings.add(converter.convert(thing));
+        writeProto(protoThings, into);
+    }
+
+    public static void writeProto(
+            Iterable<? extends dev.enola.thing.proto.ThingOrBuilder> things, WritableResource into)
+            throws IOException {
+        var compactThings = CompactThingsCodec.encode(things);
+        try (var os = into.byteSink().openBufferedStream()) {
+            compactThings.writeTo(os);
+        }
+    }
+
+    public static List<dev.enola.thing.proto.Thing> readProto(ReadableResource from)
+            throws IOException {
+        try (var is = from.byteSource().openBufferedStream()) {
+            return CompactThingsCodec.decode(CompactThings.parseFrom(is));
+        }
+    }
+
+    public static void read(
+            ReadableResource from, ThingsBuilder into, DatatypeRepository datatypeRepository)
+            throws ConversionException, IOException {
+        var converter = new ProtoThingIntoJavaThingBuilderConverter(datatypeRepository);
+        for (var protoThing : readProto(from)) {
+            converter.convertInto(protoThing, into.getBuilder(protoThing.getIri()));
+        }
+    }
+}
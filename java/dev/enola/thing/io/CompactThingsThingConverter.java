@@ -0,0 +1,56 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.io;
+
+import dev.enola.common.context.TLC;
+import dev.enola.common.convert.ConversionException;
+import dev.enola.common.io.resource.ResourceProvider;
+import dev.enola.datatype.DatatypeRepository;
+import dev.enola.thing.repo.ThingsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * CompactThingsThingConverter loads {@link ThingMediaTypes#COMPACT_THINGS_BINARYPROTO} snapshots,
+ * such as those written by {@link CompactThingsIO#write}.
+ */
+public class CompactThingsThingConverter implements UriIntoThingConverter {
+
+    private final ResourceProvider rp;
+    private final DatatypeRepository datatypeRepository;
+
+    public CompactThingsThingConverter(ResourceProvider rp, DatatypeRepository datatypeRepository) {
+        this.rp = rp;
+        this.datatypeRepository = datatypeRepository;
+    }
+
+    public CompactThingsThingConverter() {
+        this(TLC.get(ResourceProvider.class), TLC.get(DatatypeRepository.class));
+    }
+
+    @Override
+    public boolean convertInto(URI from, ThingsBuilder into)
+            throws ConversionException, IOException {
+        var resource = rp.getReadableResource(from);
+        if (resource == null || !CompactThingsIO.isCompactThings(resource.mediaType())) return false;
+
+        CompactThingsIO.read(resource, into, datatypeRepository);
+        return true;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.io;
+
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
+
+import dev.enola.common.io.iri.URIs;
+import dev.enola.common.io.resource.stream.FileGlobResolver;
+import dev.enola.common.io.resource.stream.FileGlobWatcher;
+import dev.enola.thing.Thing;
+import dev.enola.thing.repo.ThingMemoryRepositoryRW;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * IncrementalLoader loads resources into a store (like {@link Loader}), but remembers which Things
+ * came from which resource; so that when some resources change, only those are loaded again, and
+ * only the Things they contributed are updated in the store, instead of re-loading everything.
+ *
+ * <p>A Thing which several resources contributed to is merged again from all of the resources which
+ * (still) have it, and then replaces the previous one in the store (or is removed, if none still
+ * do); so e.g. deleting a file retracts exactly the triples it contained, while readers of the
+ * store never see it missing in between. If a changed resource fails to load (which is common while
+ * it's being edited), then the Things it previously contributed are kept.
+ *
+ * <p>Use {@link #watch(String)} to reload automatically whenever files change.
+ */
+public class IncrementalLoader implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IncrementalLoader.class);
+
+    private final Loader loader;
+    private final ThingMemoryRepositoryRW store;
+
+    // The Things of each source, by IRI; these are merged, if a source has the same IRI repeatedly
+    private final Map<URI, Map<String, Thing>> sources = new LinkedHashMap<>();
+    private final SetMultimap<String, URI> iriSources = LinkedHashMultimap.create();
+
+    private final List<Consumer<Set<String>>> listeners = new CopyOnWriteArrayList<>();
+    private final List<FileGlobWatcher> watchers = new ArrayList<>();
+
+    public IncrementalLoader(Loader loader, ThingMemoryRepositoryRW store) {
+        this.loader = loader;
+        this.store = store;
+    }
+
+    /** Loads resources (sequentially) into the store. */
+    public synchronized void load(Stream<URI> stream) {
+        var affected = new HashSet<String>();
+        stream.forEach(uri -> put(uri, loader.loadThings(uri), affected));
+        for (var iri : affected) remerge(iri);
+    }
+
+    /**
+     * Watches a "globbed" file: IRI (see {@link FileGlobResolver}), and {@link #reload(Set)}s the
+     * changed files, until this is closed. Only files are supported; other IRIs are ignored.
+     */
+    public synchronized void watch(String globIRI) throws IOException {
+        if (!URIs.absolutify(globIRI).startsWith("file:")) {
+            LOG.warn("Cannot watch {}, only file: IRIs", globIRI);
+            return;
+        }
+        watchers.add(new FileGlobResolver().watch(globIRI, this::reload));
+    }
+
+    /**
+     * Adds a listener, which is called with the IRIs of all Things which changed after a reload;
+     * e.g. to invalidate caches of things derived from the entire store, which the store's own
+     * {@link ThingMemoryRepositoryRW#addStoredListener(Consumer)} cannot easily do.
+     */
+    public void addListener(Consumer<Set<String>> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Reloads resources which were created, modified or deleted; deleted files and directories
+     * retract all Things which were loaded from them.
+     */
+    public synchronized void reload(Set<URI> changed) {
+        var affected = new HashSet<String>();
+        for (var uri : changed) {
+            var path = path(uri);
+            if (path != null && !Files.exists(path)) {
+                retract(uri, affected);
+                // Deleting a directory doesn't report the files which were in it
+                for (var source : List.copyOf(sources.keySet())) {
+                    var sourcePath = path(source);
+                    if (sourcePath != null
+                            && sourcePath.startsWith(path)
+                            && !Files.exists(sourcePath)) retract(source, affected);
+                }
+            } else {
+                try {
+                    var things = loader.loadThings(uri);
+                    retract(uri, affected);
+                    put(uri, things, affected);
+                } catch (RuntimeException e) {
+                    LOG.warn("Failed to reload {}, keeping its previous content", uri, e);
+                }
+            }
+        }
+        for (var iri : affected) remerge(iri);
+
+        LOG.info("Reloaded {} resources, which changed {} Things", changed.size(), affected.size());
+        if (!affected.isEmpty()) for (var listener : listeners) listener.accept(affected);
+    }
+
+    private void put(URI source, Iterable<Thing> things, Set<String> affected) {
+        var byIRI = new LinkedHashMap<String, Thing>();
+        for (var thing : things) {
+            byIRI.put(thing.iri(), thing);
+            iriSources.put(thing.iri(), source);
+        }
+        sources.put(source, byIRI);
+        affected.addAll(byIRI.keySet());
+    }
+
+    private void retract(URI source, Set<String> affected) {
+        var previous = sources.remove(source);
+        if (previous == null) return;
+        for (var iri : previous.keySet()) iriSources.remove(iri, source);
+        affected.addAll(previous.keySet());
+    }
+
+    private void remerge(String iri) {
+        var things = new ArrayList<Thing>();
+        for (var source : iriSources.get(iri)) things.add(sources.get(source).get(iri));
+        store.replace(iri, things);
+    }
+
+    private static @Nullable Path path(URI uri) {
+        if (!"file".equals(uri.getScheme())) return null;
+        return URIs.getFilePath(uri);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (var watcher : watchers) watcher.close();
+        watchers.clear();
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.io;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static dev.enola.common.context.testlib.SingletonRule.$;
+
+import dev.enola.common.context.testlib.SingletonRule;
+import dev.enola.common.io.mediatype.MediaTypeProviders;
+import dev.enola.common.io.resource.FileResource;
+import dev.enola.common.io.resource.ResourceProviders;
+import dev.enola.datatype.DatatypeRepositoryBuilder;
+import dev.enola.rdf.io.RdfMediaTypes;
+import dev.enola.rdf.io.RdfResourceIntoThingConverter;
+import dev.enola.thing.repo.IndexedThingMemoryRepositoryRW;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class IncrementalLoaderTest {
+
+    @Rule public SingletonRule r = $(MediaTypeProviders.set(new RdfMediaTypes()));
+
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final IndexedThingMemoryRepositoryRW store = new IndexedThingMemoryRepositoryRW();
+    private final IncrementalLoader loader = newIncrementalLoader();
+
+    private IncrementalLoader newIncrementalLoader() {
+        var rp = new ResourceProviders(new FileResource.Provider());
+        var rdf = new RdfResourceIntoThingConverter<>(rp, new DatatypeRepositoryBuilder().build());
+        return new IncrementalLoader(new Loader(new UriIntoThingConverters(rdf)), store);
+    }
+
+    private Path ttl(String name, String content) throws IOException {
+        return Files.writeString(tmp.getRoot().toPath().resolve(name), content);
+    }
+
+    @Test
+    public void reloadModifiedAndDeleted() throws IOException {
+        var a = ttl("a.ttl", "<https://example.org/a> <https://example.org/p> \"1\" .");
+        var b = ttl("b.ttl", "<https://example.org/b> <https://example.org/p> \"2\" .");
+        loader.load(Stream.of(a.toUri(), b.toUri()));
+        assertThat(store.listIRI())
+                .containsExactly("https://example.org/a", "https://example.org/b");
+
+        var changes = new ArrayList<Set<String>>();
+        loader.addListener(changes::add);
+
+        ttl("a.ttl", "<https://example.org/c> <https://example.org/p> \"3\" .");
+        loader.reload(Set.of(a.toUri()));
+        assertThat(store.listIRI())
+                .containsExactly("https://example.org/b", "https://example.org/c");
+        assertThat(store.get("https://example.org/c").get("https://example.org/p", String.class))
+                .isEqualTo("3");
+        assertThat(changes)
+                .containsExactly(Set.of("https://example.org/a", "https://example.org/c"));
+
+        Files.delete(b);
+        loader.reload(Set.of(b.toUri()));
+        assertThat(store.listIRI()).containsExactly("https://example.org/c");
+        assertThat(store.listIRIByPredicate("https://example.org/p"))
+                .containsExactly("https://example.org/c");
+    }
+
+    @Test
+    public void thingFromSeveralSources() throws IOException {
+        var a = ttl("a.ttl", "<https://example.org/t> <https://example.org/p> \"1\" .");
+        var b = ttl("b.ttl", "<https://example.org/t> <https://example.org/q> \"2\" .");
+        loader.load(Stream.of(a.toUri(), b.toUri()));
+        var thing = store.get("https://example.org/t");
+        assertThat(thing.predicateIRIs())
+                .containsAtLeast("https://example.org/p", "https://example.org/q");
+
+        Files.delete(a);
+        loader.reload(Set.of(a.toUri()));
+        thing = store.get("https://example.org/t");
+        assertThat(thing.predicateIRIs()).contains("https://example.org/q");
+        assertThat(thing.predicateIRIs()).doesNotContain("https://example.org/p");
+    }
+
+    @Test
+    public void keepPreviousIfReloadFails() throws IOException {
+        var a = ttl("a.ttl", "<https://example.org/a> <https://example.org/p> \"1\" .");
+        loader.load(Stream.of(a.toUri()));
+
+        ttl("a.ttl", "<https://example.org/a> <https://example.org/p> ");
+        loader.reload(Set.of(a.toUri()));
+        assertThat(store.listIRI()).containsExactly("https://example.org/a");
+    }
+
+    @Test
+    public void deletedDirectory() throws IOException {
+        var dir = tmp.newFolder("dir").toPath();
+        var a = ttl("dir/a.ttl", "<https://example.org/a> <https://example.org/p> \"1\" .");
+        loader.load(Stream.of(a.toUri()));
+
+        Files.delete(a);
+        Files.delete(dir);
+        loader.reload(Set.of(dir.toUri()));
+        assertThat(store.listIRI()).isEmpty();
+    }
+}
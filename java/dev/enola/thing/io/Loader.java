@@ -17,51 +17,264 @@
  */
 package dev.enola.thing.io;
 
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
+import dev.enola.common.concurrent.Executors;
 import dev.enola.common.convert.ConversionException;
 import dev.enola.common.convert.ConverterInto;
+import dev.enola.common.io.resource.Resource;
+import dev.enola.common.io.resource.cache.ContentCachingResourceProvider;
+import dev.enola.common.metrics.Counter;
+import dev.enola.common.metrics.Histogram;
+import dev.enola.common.metrics.MetricsRegistry;
 import dev.enola.data.Store;
 import dev.enola.thing.Thing;
 import dev.enola.thing.repo.ThingMemoryRepositoryROBuilder;
 
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 public class Loader implements ConverterInto<Stream<URI>, Store<?, Thing>> {
 
     // TODO Move Glob-based loading from CommandWithModel into here!
 
-    // TODO Load resources multi-threaded, in parallel...
-
     private static final Logger LOG = LoggerFactory.getLogger(Loader.class);
 
+    private static final Histogram PARSE_TIME =
+            MetricsRegistry.GLOBAL.histogram(
+                    "enola_loader_resource_duration_seconds", "Time to parse a resource");
+
+    private static final Counter FAILURES =
+            MetricsRegistry.GLOBAL.counter(
+                    "enola_loader_resource_failures_total", "Resources which failed to load");
+
     private final UriIntoThingConverters uriIntoThingConverters;
+    private final int parallelism;
+    private final boolean virtualThreads;
+    private final @Nullable ContentCachingResourceProvider readAheadProvider;
 
     public Loader(UriIntoThingConverters uriIntoThingConverters) {
+        this(uriIntoThingConverters, 1);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param parallelism how many resources {@link #convertInto(Stream, Store)} converts at the
+     *     same time; 1 loads them sequentially on the calling thread.
+     */
+    public Loader(UriIntoThingConverters uriIntoThingConverters, int parallelism) {
+        this(uriIntoThingConverters, parallelism, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param parallelism see {@link #Loader(UriIntoThingConverters, int)}
+     * @param virtualThreads whether resources are converted on a new virtual thread each, instead
+     *     of on a fixed pool of platform threads; this is only used if parallelism is above 1.
+     */
+    public Loader(
+            UriIntoThingConverters uriIntoThingConverters,
+            int parallelism,
+            boolean virtualThreads) {
+        this(uriIntoThingConverters, parallelism, virtualThreads, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param parallelism see {@link #Loader(UriIntoThingConverters, int)}
+     * @param virtualThreads see {@link #Loader(UriIntoThingConverters, int, boolean)}
+     * @param readAheadProvider if not null, then a sequential load (parallelism 1) asynchronously
+     *     reads the next few resources into this cache, while the current one is parsed; so that
+     *     their I/O overlaps. This is only useful if converters get resources from the same one.
+     */
+    public Loader(
+            UriIntoThingConverters uriIntoThingConverters,
+            int parallelism,
+            boolean virtualThreads,
+            @Nullable ContentCachingResourceProvider readAheadProvider) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism < 1: " + parallelism);
         this.uriIntoThingConverters = uriIntoThingConverters;
+        this.parallelism = parallelism;
+        this.virtualThreads = virtualThreads;
+        this.readAheadProvider = readAheadProvider;
     }
 
     @Override
     public boolean convertInto(Stream<URI> stream, Store<?, Thing> store)
             throws ConversionException, IOException {
 
-        stream.forEach(resource -> load(resource, store));
+        if (parallelism > 1) loadInParallel(stream, store);
+        else if (readAheadProvider != null) loadWithReadAhead(stream, store, readAheadProvider);
+        else stream.forEach(resource -> load(resource, store));
         // TODO Should check if at least one URI successfully loaded anything?
         return true;
     }
 
+    /**
+     * Converts resources on a bounded worker pool, but merges their Things into the store on the
+     * calling thread, in the order of the input stream; so the store ends up exactly as it would
+     * after a sequential load (and does not even need to be thread safe).
+     */
+    private void loadInParallel(Stream<URI> stream, Store<?, Thing> store) {
+        // This is created here (and not in the constructor) so that the new threads inherit the
+        // TLC of the caller; see ContextAwareThreadFactory.
+        // With virtual threads, parallelism is still bounded, by the maxPending queue below.
+        var executor =
+                virtualThreads
+                        ? Executors.newListeningVirtualThreadPerTaskExecutor("Loader", LOG)
+                        : Executors.newListeningFixedThreadPool(parallelism, "Loader", LOG);
+        try {
+            // At most 2x parallelism converted resources are held in memory, waiting for merge
+            var maxPending = 2 * parallelism;
+            Queue<ListenableFuture<Iterable<Thing>>> pending = new ArrayDeque<>(maxPending);
+            var iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                var uri = iterator.next();
+                pending.add(executor.submit(() -> convert(uri)));
+                if (pending.size() >= maxPending) mergeInto(pending.remove(), store);
+            }
+            while (!pending.isEmpty()) mergeInto(pending.remove(), store);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** A resource being read ahead; its future is the number of bytes which it cached. */
+    private record ReadAhead(URI uri, ListenableFuture<Long> cached) {}
+
+    /**
+     * Loads resources sequentially, on the calling thread, but only after having started to read
+     * the next of them asynchronously (which, for remote resources, mostly overlaps their
+     * download).
+     *
+     * <p>Read ahead content must still be cached when it is loaded; so it may use at most half of
+     * the cache. Resources not read yet count as the largest entry the cache keeps, and those too
+     * large to be cached at all are not read ahead.
+     */
+    private void loadWithReadAhead(
+            Stream<URI> stream, Store<?, Thing> store, ContentCachingResourceProvider cache) {
+        var maximumBytes = cache.maximumBytes() / 2;
+        var maximumEntryBytes = cache.maximumEntryBytes();
+        var reserved = new AtomicLong();
+        Queue<ReadAhead> pending = new ArrayDeque<>();
+        var iterator = stream.iterator();
+        while (iterator.hasNext()) {
+            var uri = iterator.next();
+            while (!pending.isEmpty() && reserved.get() + maximumEntryBytes > maximumBytes)
+                reserved.addAndGet(-loadAfterRead(pending.remove(), store));
+
+            reserved.addAndGet(maximumEntryBytes);
+            var read =
+                    Futures.transformAsync(
+                            cache.getResourceAsync(uri),
+                            resource -> readAhead(resource, maximumEntryBytes),
+                            directExecutor());
+            var cached =
+                    Futures.catching(
+                            read,
+                            Exception.class,
+                            e -> {
+                                // Ignored, because load() reads it again, and then fails better
+                                LOG.debug("Failed to read ahead {}", uri, e);
+                                return 0L;
+                            },
+                            directExecutor());
+            var charged =
+                    Futures.transform(
+                            cached,
+                            bytes -> {
+                                reserved.addAndGet(bytes - maximumEntryBytes);
+                                return bytes;
+                            },
+                            directExecutor());
+            pending.add(new ReadAhead(uri, charged));
+        }
+        while (!pending.isEmpty()) loadAfterRead(pending.remove(), store);
+    }
+
+    private static ListenableFuture<Long> readAhead(
+            @Nullable Resource resource, long maximumEntryBytes) {
+        if (resource == null) return immediateFuture(0L);
+        var size = resource.byteSource().sizeIfKnown();
+        if (size.isPresent() && size.get() > maximumEntryBytes) return immediateFuture(0L);
+        return Futures.transform(
+                resource.readAsync(),
+                bytes -> bytes.length <= maximumEntryBytes ? (long) bytes.length : 0L,
+                directExecutor());
+    }
+
+    /** Loads a resource once it was read ahead, and returns how many bytes of it were cached. */
+    private long loadAfterRead(ReadAhead readAhead, Store<?, Thing> store) {
+        long cached;
+        try {
+            cached = readAhead.cached.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConversionException("Interrupted while loading", e);
+        } catch (ExecutionException e) {
+            throw new ConversionException("Failed to read ahead " + readAhead.uri, e.getCause());
+        }
+        load(readAhead.uri, store);
+        return cached;
+    }
+
+    private Iterable<Thing> convert(URI uri) {
+        LOG.info("Loading {}...", uri);
+        var things = ImmutableList.<Thing>builder();
+        for (var thingBuilder : parse(uri)) things.add(thingBuilder.build());
+        return things.build();
+    }
+
+    private Iterable<Thing.Builder<Thing>> parse(URI uri) {
+        var start = System.nanoTime();
+        try {
+            return uriIntoThingConverters.convert(uri);
+        } catch (RuntimeException e) {
+            FAILURES.inc();
+            throw e;
+        } finally {
+            PARSE_TIME.recordSince(start);
+        }
+    }
+
+    private static void mergeInto(ListenableFuture<Iterable<Thing>> future, Store<?, Thing> store) {
+        try {
+            store.mergeAll(future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConversionException("Interrupted while loading", e);
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new ConversionException("Loading failed", e.getCause());
+        }
+    }
+
     public boolean load(String uri, Store<?, Thing> store) {
         return load(URI.create(uri), store);
     }
 
     public boolean load(URI uri, Store<?, Thing> store) {
         LOG.info("Loading {}...", uri);
-        var things = uriIntoThingConverters.convert(uri);
+        var things = parse(uri);
         if (Iterables.isEmpty(things)) return false;
         things.forEach(
                 thingBuilder -> {
@@ -0,0 +1,106 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.io;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static dev.enola.common.context.testlib.SingletonRule.$;
+
+import dev.enola.common.context.testlib.EnolaTestTLCRules;
+import dev.enola.common.context.testlib.SingletonRule;
+import dev.enola.common.io.mediatype.MediaTypeProviders;
+import dev.enola.common.io.resource.ClasspathResource;
+import dev.enola.common.io.resource.cache.ContentCachingResourceProvider;
+import dev.enola.rdf.io.RdfMediaTypes;
+import dev.enola.rdf.io.RdfResourceIntoThingConverter;
+import dev.enola.thing.repo.ThingMemoryRepositoryROBuilder;
+import dev.enola.thing.repo.ThingRepository;
+
+import org.jspecify.annotations.Nullable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+public class LoaderTest {
+
+    @Rule public SingletonRule r = $(MediaTypeProviders.set(new RdfMediaTypes()));
+
+    @Rule public final TestRule tlcRule = EnolaTestTLCRules.BASIC;
+
+    private static final String[] URIS = {
+        "classpath:/picasso.ttl",
+        "classpath:/graph.ttl",
+        "classpath:/greeting1.xml.ttl",
+        "classpath:/picasso.ttl"
+    };
+
+    @Test
+    public void parallelIsSameAsSequential() {
+        var sequential = load(1, false);
+        var parallel = load(3, false);
+        assertThat(parallel.listIRI()).containsExactlyElementsIn(sequential.listIRI()).inOrder();
+        assertThat(parallel.list()).containsExactlyElementsIn(sequential.list()).inOrder();
+    }
+
+    @Test
+    public void virtualThreadsIsSameAsSequential() {
+        var sequential = load(1, false);
+        var parallel = load(3, true);
+        assertThat(parallel.listIRI()).containsExactlyElementsIn(sequential.listIRI()).inOrder();
+        assertThat(parallel.list()).containsExactlyElementsIn(sequential.list()).inOrder();
+    }
+
+    @Test
+    public void readAheadIsSameAsSequential() {
+        var sequential = load(1, false);
+        var cache = new ContentCachingResourceProvider(new ClasspathResource.Provider());
+        var readAhead = load(1, false, cache);
+        assertThat(readAhead.listIRI()).containsExactlyElementsIn(sequential.listIRI()).inOrder();
+        assertThat(readAhead.list()).containsExactlyElementsIn(sequential.list()).inOrder();
+    }
+
+    @Test
+    public void readAheadWithTooSmallCacheIsSameAsSequential() {
+        // Resources larger than this cache's 1 KiB entries are not read ahead, but still loaded
+        var rp = new ClasspathResource.Provider();
+        var cache = new ContentCachingResourceProvider(rp, 8 * 1024, Duration.ofMinutes(1));
+        var sequential = load(1, false);
+        var readAhead = load(1, false, cache);
+        assertThat(readAhead.listIRI()).containsExactlyElementsIn(sequential.listIRI()).inOrder();
+        assertThat(readAhead.list()).containsExactlyElementsIn(sequential.list()).inOrder();
+    }
+
+    private ThingRepository load(int parallelism, boolean virtualThreads) {
+        return load(parallelism, virtualThreads, null);
+    }
+
+    private ThingRepository load(
+            int parallelism,
+            boolean virtualThreads,
+            @Nullable ContentCachingResourceProvider readAhead) {
+        var converters = new UriIntoThingConverters(new RdfResourceIntoThingConverter<>());
+        var loader = new Loader(converters, parallelism, virtualThreads, readAhead);
+        var store = new ThingMemoryRepositoryROBuilder();
+        loader.convertIntoOrThrow(Stream.of(URIS).map(URI::create), store);
+        return store.build();
+    }
+}
@@ -26,6 +26,7 @@ import com.google.common.net.MediaType;
 
 import dev.enola.common.io.mediatype.MediaTypeProvider;
 import dev.enola.common.protobuf.ProtobufMediaTypes;
+import dev.enola.thing.proto.CompactThings;
 import dev.enola.thing.proto.Thing;
 
 import java.nio.charset.StandardCharsets;
@@ -43,6 +44,15 @@ public class ThingMediaTypes implements MediaTypeProvider {
             ProtobufMediaTypes.setProtoMessageFQN(
                     ProtobufMediaTypes.PROTOBUF_BINARY, Thing.getDescriptor().getFullName());
 
+    /**
+     * Dictionary-encoded binary snapshot of many Things; see {@link
+     * dev.enola.thing.message.CompactThingsCodec}.
+     */
+    public static final MediaType COMPACT_THINGS_BINARYPROTO =
+            ProtobufMediaTypes.setProtoMessageFQN(
+                    ProtobufMediaTypes.PROTOBUF_BINARY,
+                    CompactThings.getDescriptor().getFullName());
+
     private static final String THING_SUBTYPE = "enola.dev#thing";
 
     public static final MediaType THING_JSON_UTF_8 =
@@ -61,6 +71,8 @@ public class ThingMediaTypes implements MediaTypeProvider {
                 emptySet(),
                 THING_BINARYPROTO_UTF_8,
                 emptySet(),
+                COMPACT_THINGS_BINARYPROTO,
+                emptySet(),
                 THING_JSON_UTF_8,
                 emptySet(),
                 THING_YAML_UTF_8,
@@ -71,16 +83,13 @@ public class ThingMediaTypes implements MediaTypeProvider {
 
     @Override
     public Multimap<String, MediaType> extensionsToTypes() {
-        return ImmutableMultimap.of(
-                ".thing.txtpb",
-                THING_TEXTPROTO_UTF_8,
-                ".thing.binpb",
-                THING_BINARYPROTO_UTF_8,
-                ".thing.json",
-                THING_JSON_UTF_8,
-                ".thing.yaml",
-                THING_YAML_UTF_8,
-                ".thing.html",
-                THING_HTML_UTF_8);
+        return ImmutableMultimap.<String, MediaType>builder()
+                .put(".thing.txtpb", THING_TEXTPROTO_UTF_8)
+                .put(".thing.binpb", THING_BINARYPROTO_UTF_8)
+                .put(".thing.compact.binpb", COMPACT_THINGS_BINARYPROTO)
+                .put(".thing.json", THING_JSON_UTF_8)
+                .put(".thing.yaml", THING_YAML_UTF_8)
+                .put(".thing.html", THING_HTML_UTF_8)
+                .build();
     }
 }
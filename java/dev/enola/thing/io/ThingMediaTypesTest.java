@@ -56,4 +56,14 @@ public class ThingMediaTypesTest {
         var resource = rp.getResource(new URI("file:/picasso.thing.yaml"));
         assertThat(resource.mediaType()).isEqualTo(ThingMediaTypes.THING_YAML_UTF_8);
     }
+
+    @Test
+    public void compactThings() throws URISyntaxException {
+        var rp = new ResourceProviders(new FileResource.Provider());
+        var resource = rp.getResource(new URI("file:/picasso.thing.compact.binpb"));
+        assertThat(resource.mediaType()).isEqualTo(ThingMediaTypes.COMPACT_THINGS_BINARYPROTO);
+        assertThat(CompactThingsIO.isCompactThings(resource.mediaType())).isTrue();
+        assertThat(CompactThingsIO.isCompactThings(ThingMediaTypes.THING_BINARYPROTO_UTF_8))
+                .isFalse();
+    }
 }
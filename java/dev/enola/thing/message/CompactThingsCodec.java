@@ -0,0 +1,225 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.message;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+
+import dev.enola.thing.proto.CompactThing;
+import dev.enola.thing.proto.CompactThings;
+import dev.enola.thing.proto.Thing;
+import dev.enola.thing.proto.ThingOrBuilder;
+import dev.enola.thing.proto.Value;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codec between proto {@link Thing}s and the dictionary-encoded {@link CompactThings}.
+ *
+ * <p>Every IRI (of Things, of predicates, of links and of literal datatypes) is stored exactly once
+ * in {@link CompactThings#getLinksMap()}, and referenced by its (varint) ID everywhere else. This
+ * makes snapshots of a whole repository much smaller and faster to (de)serialize than {@link
+ * dev.enola.thing.proto.Things}, which repeats the full IRI strings of every property.
+ *
+ * <p>The {@code bytes} of each {@link CompactThing} property hold one Value, written as a kind tag
+ * followed by its payload (see the {@code TAG_*} constants); nested structs and lists recurse.
+ */
+public final class CompactThingsCodec {
+
+    // NB: These tags are persisted; never change or reuse them, only add new ones!
+    private static final int TAG_LINK = 1;
+    private static final int TAG_STRING = 2;
+    private static final int TAG_LITERAL = 3;
+    private static final int TAG_LANG_STRING = 4;
+    private static final int TAG_STRUCT = 5;
+    private static final int TAG_LIST = 6;
+
+    private CompactThingsCodec() {}
+
+    public static CompactThings encode(Iterable<? extends ThingOrBuilder> things) {
+        var encoder = new Encoder();
+        for (var thing : things) encoder.add(thing);
+        return encoder.build();
+    }
+
+    public static List<Thing> decode(CompactThings compactThings) {
+        var decoder = new Decoder(compactThings.getLinksMap());
+        var things = new ArrayList<Thing>(compactThings.getThingsCount());
+        for (var entry : compactThings.getThingsMap().entrySet()) {
+            var thing = Thing.newBuilder().setIri(decoder.link(entry.getKey()));
+            decoder.properties(entry.getValue().getPropertiesMap(), thing);
+            things.add(thing.build());
+        }
+        return things;
+    }
+
+    private static class Encoder {
+        private final Map<String, Long> ids = new HashMap<>();
+        private final CompactThings.Builder compactThings = CompactThings.newBuilder();
+
+        void add(ThingOrBuilder thing) {
+            var iri = thing.getIri();
+            if (iri.isEmpty()) throw new IllegalArgumentException("Thing without IRI: " + thing);
+            var compactThing = CompactThing.newBuilder();
+            for (var property : thing.getPropertiesMap().entrySet()) {
+                var value = encode(property.getValue(), property.getKey());
+                compactThing.putProperties(id(property.getKey()), value);
+            }
+            compactThings.putThings(id(iri), compactThing.build());
+        }
+
+        CompactThings build() {
+            return compactThings.build();
+        }
+
+        private long id(String iri) {
+            var id = ids.get(iri);
+            if (id == null) {
+                // IDs start at 1, so that 0 (the proto default) can mean "not set"
+                id = (long) ids.size() + 1;
+                ids.put(iri, id);
+                compactThings.putLinks(id, iri);
+            }
+            return id;
+        }
+
+        private ByteString encode(Value value, String predicateIRI) {
+            var bytes = ByteString.newOutput();
+            var out = CodedOutputStream.newInstance(bytes);
+            try {
+                write(value, predicateIRI, out);
+                out.flush();
+            } catch (IOException e) {
+                // Cannot happen when writing into memory
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteString();
+        }
+
+        private void write(Value value, String predicateIRI, CodedOutputStream out)
+                throws IOException {
+            switch (value.getKindCase()) {
+                case LINK:
+                    out.writeUInt32NoTag(TAG_LINK);
+                    out.writeUInt64NoTag(id(value.getLink()));
+                    break;
+                case STRING:
+                    out.writeUInt32NoTag(TAG_STRING);
+                    out.writeStringNoTag(value.getString());
+                    break;
+                case LITERAL:
+                    out.writeUInt32NoTag(TAG_LITERAL);
+                    out.writeStringNoTag(value.getLiteral().getValue());
+                    out.writeUInt64NoTag(id(value.getLiteral().getDatatype()));
+                    break;
+                case LANG_STRING:
+                    out.writeUInt32NoTag(TAG_LANG_STRING);
+                    out.writeStringNoTag(value.getLangString().getText());
+                    out.writeStringNoTag(value.getLangString().getLang());
+                    break;
+                case STRUCT:
+                    var struct = value.getStruct();
+                    out.writeUInt32NoTag(TAG_STRUCT);
+                    out.writeUInt64NoTag(struct.getIri().isEmpty() ? 0 : id(struct.getIri()));
+                    out.writeUInt32NoTag(struct.getPropertiesCount());
+                    for (var property : struct.getPropertiesMap().entrySet()) {
+                        out.writeUInt64NoTag(id(property.getKey()));
+                        write(property.getValue(), property.getKey(), out);
+                    }
+                    break;
+                case LIST:
+                    var list = value.getList();
+                    out.writeUInt32NoTag(TAG_LIST);
+                    out.writeBoolNoTag(list.getOrdered());
+                    out.writeUInt32NoTag(list.getValuesCount());
+                    for (var element : list.getValuesList()) write(element, predicateIRI, out);
+                    break;
+                default:
+                    throw new IllegalArgumentException(predicateIRI + " has no value: " + value);
+            }
+        }
+    }
+
+    private static class Decoder {
+        private final Map<Long, String> links;
+
+        Decoder(Map<Long, String> links) {
+            this.links = links;
+        }
+
+        String link(long id) {
+            var iri = links.get(id);
+            if (iri == null) throw new IllegalArgumentException("Unknown link ID: " + id);
+            return iri;
+        }
+
+        void properties(Map<Long, ByteString> properties, Thing.Builder into) {
+            for (var property : properties.entrySet()) {
+                var in = property.getValue().newCodedInput();
+                try {
+                    into.putProperties(link(property.getKey()), read(in));
+                } catch (IOException e) {
+                    throw new IllegalArgumentException(
+                            "Corrupt property " + link(property.getKey()), e);
+                }
+            }
+        }
+
+        private Value read(CodedInputStream in) throws IOException {
+            var tag = in.readUInt32();
+            return switch (tag) {
+                case TAG_LINK -> Value.newBuilder().setLink(link(in.readUInt64())).build();
+                case TAG_STRING -> Value.newBuilder().setString(in.readString()).build();
+                case TAG_LITERAL -> {
+                    var literal = Value.Literal.newBuilder().setValue(in.readString());
+                    literal.setDatatype(link(in.readUInt64()));
+                    yield Value.newBuilder().setLiteral(literal).build();
+                }
+                case TAG_LANG_STRING -> {
+                    var langString = Value.LangString.newBuilder().setText(in.readString());
+                    langString.setLang(in.readString());
+                    yield Value.newBuilder().setLangString(langString).build();
+                }
+                case TAG_STRUCT -> {
+                    var struct = Thing.newBuilder();
+                    var iriID = in.readUInt64();
+                    if (iriID != 0) struct.setIri(link(iriID));
+                    var size = in.readUInt32();
+                    for (int i = 0; i < size; i++) {
+                        var predicateIRI = link(in.readUInt64());
+                        struct.putProperties(predicateIRI, read(in));
+                    }
+                    yield Value.newBuilder().setStruct(struct).build();
+                }
+                case TAG_LIST -> {
+                    var list = Value.List.newBuilder().setOrdered(in.readBool());
+                    var size = in.readUInt32();
+                    for (int i = 0; i < size; i++) list.addValues(read(in));
+                    yield Value.newBuilder().setList(list).build();
+                }
+                default -> throw new IOException("Unknown tag: " + tag);
+            };
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.message;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.extensions.proto.ProtoTruth.assertThat;
+
+import static dev.enola.common.context.testlib.SingletonRule.$;
+
+import static org.junit.Assert.assertThrows;
+
+import dev.enola.common.context.testlib.SingletonRule;
+import dev.enola.common.io.mediatype.MediaTypeProviders;
+import dev.enola.common.io.resource.ClasspathResource;
+import dev.enola.rdf.io.RdfMediaTypes;
+import dev.enola.rdf.io.RdfReaderConverter;
+import dev.enola.rdf.proto.RdfProtoThingsConverter;
+import dev.enola.thing.proto.Thing;
+import dev.enola.thing.proto.Value;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CompactThingsCodecTest {
+
+    @Rule public SingletonRule r = $(MediaTypeProviders.set(new RdfMediaTypes()));
+
+    @Test
+    public void picasso() throws IOException {
+        var cpr = new ClasspathResource("picasso.ttl");
+        var rdf4jModel = new RdfReaderConverter(iri -> null).convert(cpr).get();
+        var things = new ArrayList<Thing>();
+        new RdfProtoThingsConverter().convert(rdf4jModel).forEach(b -> things.add(b.build()));
+
+        var compactThings = CompactThingsCodec.encode(things);
+        assertThat(compactThings.getThingsCount()).isEqualTo(things.size());
+        assertThat(CompactThingsCodec.decode(compactThings)).containsExactlyElementsIn(things);
+    }
+
+    @Test
+    public void allKinds() {
+        var struct =
+                Thing.newBuilder()
+                        .putProperties(
+                                "https://example.org/p", Value.newBuilder().setString("s").build());
+        var list =
+                Value.List.newBuilder()
+                        .setOrdered(true)
+                        .addValues(Value.newBuilder().setLink("https://example.org/b"))
+                        .addValues(Value.newBuilder().setString("b"));
+        var thing =
+                Thing.newBuilder()
+                        .setIri("https://example.org/a")
+                        .putProperties(
+                                "https://example.org/link",
+                                Value.newBuilder().setLink("https://example.org/b").build())
+                        .putProperties(
+                                "https://example.org/string",
+                                Value.newBuilder().setString("héllo").build())
+                        .putProperties(
+                                "https://example.org/literal",
+                                Value.newBuilder()
+                                        .setLiteral(
+                                                Value.Literal.newBuilder()
+                                                        .setValue("42")
+                                                        .setDatatype("https://example.org/int"))
+                                        .build())
+                        .putProperties(
+                                "https://example.org/langString",
+                                Value.newBuilder()
+                                        .setLangString(
+                                                Value.LangString.newBuilder()
+                                                        .setText("bonjour")
+                                                        .setLang("fr"))
+                                        .build())
+                        .putProperties(
+                                "https://example.org/struct",
+                                Value.newBuilder().setStruct(struct).build())
+                        .putProperties(
+                                "https://example.org/list",
+                                Value.newBuilder().setList(list).build())
+                        .build();
+        var other =
+                Thing.newBuilder()
+                        .setIri("https://example.org/b")
+                        .putProperties(
+                                "https://example.org/link",
+                                Value.newBuilder().setLink("https://example.org/a").build())
+                        .build();
+
+        var compactThings = CompactThingsCodec.encode(List.of(thing, other));
+        assertThat(CompactThingsCodec.decode(compactThings)).containsExactly(thing, other);
+
+        // Each IRI is stored only once, no matter how often it's used
+        assertThat(compactThings.getLinksMap().values()).containsNoDuplicates();
+        assertThat(compactThings.getLinksMap().values())
+                .containsAtLeast("https://example.org/a", "https://example.org/b");
+        assertThat(compactThings.getLinksCount()).isEqualTo(10);
+    }
+
+    @Test
+    public void empty() {
+        var compactThings = CompactThingsCodec.encode(List.of());
+        assertThat(compactThings.getThingsCount()).isEqualTo(0);
+        assertThat(CompactThingsCodec.decode(compactThings)).isEmpty();
+    }
+
+    @Test
+    public void thingWithoutIRI() {
+        var thing = Thing.newBuilder().build();
+        assertThrows(
+                IllegalArgumentException.class, () -> CompactThingsCodec.encode(List.of(thing)));
+    }
+}
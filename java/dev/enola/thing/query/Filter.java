@@ -0,0 +1,64 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.query;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/** Filter restricts the solutions of a {@link Query} to those where a variable satisfies a test. */
+public record Filter(Operator operator, Term.Variable variable, Term operand)
+        implements Predicate<Map<String, Object>> {
+
+    public enum Operator {
+        EQUALS,
+        NOT_EQUALS,
+        CONTAINS
+    }
+
+    /** Names of the {@link Term.Variable}s which must be bound before this filter can be tested. */
+    public Set<String> variables() {
+        if (operand instanceof Term.Variable other)
+            return ImmutableSet.of(variable.name(), other.name());
+        else return ImmutableSet.of(variable.name());
+    }
+
+    @Override
+    public boolean test(Map<String, Object> solution) {
+        var value = variable.resolve(solution);
+        var other = operand.resolve(solution);
+        // Like in SPARQL, a filter on an unbound variable is an error, which removes the solution
+        if (value == null || other == null) return false;
+        return switch (operator) {
+            case EQUALS -> Values.matches(other, value);
+            case NOT_EQUALS -> !Values.matches(other, value);
+            case CONTAINS -> Values.text(value).contains(Values.text(other));
+        };
+    }
+
+    @Override
+    public String toString() {
+        return switch (operator) {
+            case EQUALS -> "FILTER(" + variable + " = " + operand + ")";
+            case NOT_EQUALS -> "FILTER(" + variable + " != " + operand + ")";
+            case CONTAINS -> "FILTER(CONTAINS(" + variable + ", " + operand + "))";
+        };
+    }
+}
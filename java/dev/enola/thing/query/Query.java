@@ -0,0 +1,62 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.query;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * Query is a "Basic Graph Pattern" (BGP); a conjunction of {@link TriplePattern}s, whose solutions
+ * are restricted by {@link Filter}s, and then paged through by offset and limit.
+ *
+ * <p>See {@link QueryParser} for the textual syntax of this.
+ */
+public record Query(
+        List<TriplePattern> patterns, List<Filter> filters, long offset, long limit) {
+
+    public Query {
+        patterns = ImmutableList.copyOf(patterns);
+        filters = ImmutableList.copyOf(filters);
+        if (patterns.isEmpty()) throw new IllegalArgumentException("Query without patterns");
+        if (offset < 0) throw new IllegalArgumentException("Negative offset: " + offset);
+        if (limit < 0) throw new IllegalArgumentException("Negative limit: " + limit);
+    }
+
+    public Query(List<TriplePattern> patterns, List<Filter> filters) {
+        this(patterns, filters, 0, Long.MAX_VALUE);
+    }
+
+    public Query(List<TriplePattern> patterns) {
+        this(patterns, List.of());
+    }
+
+    public static Query parse(String query) {
+        return new QueryParser(query).query();
+    }
+
+    @Override
+    public String toString() {
+        var sb = new StringBuilder();
+        for (var pattern : patterns) sb.append(pattern).append('\n');
+        for (var filter : filters) sb.append(filter).append('\n');
+        if (offset > 0) sb.append("OFFSET ").append(offset).append('\n');
+        if (limit < Long.MAX_VALUE) sb.append("LIMIT ").append(limit).append('\n');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.query;
+
+import dev.enola.thing.KIRI;
+import dev.enola.thing.Link;
+
+import java.util.ArrayList;
+
+/**
+ * QueryParser parses the text of a {@link Query}, which uses a (very) small subset of the syntax
+ * of SPARQL; for example:
+ *
+ * <pre>
+ * ?person a &lt;https://schema.org/Person&gt; .
+ * ?person &lt;https://schema.org/name&gt; ?name .
+ * FILTER(CONTAINS(?name, "Pablo"))
+ * LIMIT 10 OFFSET 20
+ * </pre>
+ *
+ * <p>Terms are either {@code ?variable}, {@code <iri>} or {@code "text"}, and {@code a} is a
+ * shortcut for the rdf:type predicate. Supported filters are {@code FILTER(?v = term)}, {@code
+ * FILTER(?v != term)} and {@code FILTER(CONTAINS(?v, term))}. Prefixed names, SELECT and WHERE are
+ * not supported.
+ */
+final class QueryParser {
+
+    private final String input;
+    private int pos;
+
+    QueryParser(String input) {
+        this.input = input;
+    }
+
+    Query query() {
+        var patterns = new ArrayList<TriplePattern>();
+        var filters = new ArrayList<Filter>();
+        long offset = 0;
+        long limit = Long.MAX_VALUE;
+        skipWhitespace();
+        while (pos < input.length()) {
+            if (keyword("FILTER")) filters.add(filter());
+            else if (keyword("OFFSET")) offset = number();
+            else if (keyword("LIMIT")) limit = number();
+            else patterns.add(pattern());
+            skipWhitespace();
+        }
+        return new Query(patterns, filters, offset, limit);
+    }
+
+    private TriplePattern pattern() {
+        var subject = term();
+        if (subject instanceof Term.Constant constant && !(constant.value() instanceof Link))
+            throw error("Subject must be ?variable or <IRI>");
+        skipWhitespace();
+        var predicate = keyword("a") ? Term.Constant.iri(KIRI.RDF.TYPE) : term();
+        var object = term();
+        skipWhitespace();
+        if (peek() == '.') pos++;
+        return new TriplePattern(subject, predicate, object);
+    }
+
+    private Filter filter() {
+        expect('(');
+        Filter filter;
+        if (keyword("CONTAINS")) {
+            expect('(');
+            var variable = variable();
+            expect(',');
+            filter = new Filter(Filter.Operator.CONTAINS, variable, term());
+            expect(')');
+        } else {
+            var variable = variable();
+            skipWhitespace();
+            Filter.Operator operator;
+            if (input.startsWith("!=", pos)) {
+                operator = Filter.Operator.NOT_EQUALS;
+                pos += 2;
+            } else if (input.startsWith("=", pos)) {
+                operator = Filter.Operator.EQUALS;
+                pos += 1;
+            } else throw error("Expected = or !=");
+            filter = new Filter(operator, variable, term());
+        }
+        expect(')');
+        return filter;
+    }
+
+    private Term.Variable variable() {
+        if (term() instanceof Term.Variable variable) return variable;
+        else throw error("Expected ?variable");
+    }
+
+    private Term term() {
+        skipWhitespace();
+        var start = pos;
+        switch (peek()) {
+            case '?' -> {
+                pos++;
+                while (pos < input.length() && isNameChar(input.charAt(pos))) pos++;
+                return new Term.Variable(input.substring(start + 1, pos));
+            }
+            case '<' -> {
+                var end = input.indexOf('>', pos);
+                if (end < 0) throw error("Unterminated <IRI");
+                pos = end + 1;
+                return Term.Constant.iri(input.substring(start + 1, end));
+            }
+            case '"' -> {
+                pos++;
+                var sb = new StringBuilder();
+                while (pos < input.length() && input.charAt(pos) != '"') {
+                    var c = input.charAt(pos++);
+                    if (c == '\\' && pos < input.length()) c = input.charAt(pos++);
+                    sb.append(c);
+                }
+                if (pos >= input.length()) throw error("Unterminated \"text");
+                pos++;
+                return new Term.Constant(sb.toString());
+            }
+            default -> throw error("Expected ?variable, <IRI> or \"text\"");
+        }
+    }
+
+    private long number() {
+        skipWhitespace();
+        var start = pos;
+        while (pos < input.length() && Character.isDigit(input.charAt(pos))) pos++;
+        if (start == pos) throw error("Expected number");
+        return Long.parseLong(input.substring(start, pos));
+    }
+
+    /** Consumes the (case-insensitive) keyword, if it is next; returns whether it was. */
+    private boolean keyword(String keyword) {
+        skipWhitespace();
+        var end = pos + keyword.length();
+        if (!input.regionMatches(true, pos, keyword, 0, keyword.length())) return false;
+        if (end < input.length() && isNameChar(input.charAt(end))) return false;
+        pos = end;
+        return true;
+    }
+
+    private void expect(char expected) {
+        skipWhitespace();
+        if (peek() != expected) throw error("Expected " + expected);
+        pos++;
+    }
+
+    private char peek() {
+        return pos < input.length() ? input.charAt(pos) : 0;
+    }
+
+    private void skipWhitespace() {
+        while (pos < input.length() && Character.isWhitespace(input.charAt(pos))) pos++;
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos + " of: " + input);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.query;
+
+import static java.util.Objects.requireNonNull;
+
+import dev.enola.thing.Link;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.Map;
+
+/**
+ * Term is either a {@link Variable} or a {@link Constant}, in a subject, predicate or object
+ * position of a {@link TriplePattern}.
+ */
+public sealed interface Term {
+
+    /** The value of this term for the given (partial) solution, or null if it is still unbound. */
+    @Nullable Object resolve(Map<String, Object> solution);
+
+    /** Variable, AKA "?name"; its values are bound by evaluating a {@link Query}. */
+    record Variable(String name) implements Term {
+        public Variable {
+            if (name.isEmpty()) throw new IllegalArgumentException("Empty variable name");
+        }
+
+        @Override
+        public @Nullable Object resolve(Map<String, Object> solution) {
+            return solution.get(name);
+        }
+
+        @Override
+        public String toString() {
+            return "?" + name;
+        }
+    }
+
+    /**
+     * Constant, either a {@link Link} for an IRI (AKA "&lt;iri&gt;"), or any other Thing object
+     * such as a String (AKA "\"text\"").
+     */
+    record Constant(Object value) implements Term {
+        public Constant {
+            requireNonNull(value);
+        }
+
+        public static Constant iri(String iri) {
+            return new Constant(new Link(iri));
+        }
+
+        @Override
+        public Object resolve(Map<String, Object> solution) {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            if (value instanceof Link) return "<" + value + ">";
+            var text = value.toString().replace("\\", "\\\\").replace("\"", "\\\"");
+            return "\"" + text + "\"";
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.query;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Streams;
+
+import dev.enola.data.Queryable;
+import dev.enola.thing.KIRI;
+import dev.enola.thing.Link;
+import dev.enola.thing.Thing;
+import dev.enola.thing.repo.IndexedThingRepository;
+import dev.enola.thing.repo.ThingRepository;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * ThingQueryEngine evaluates {@link Query}s over the Things in a {@link ThingRepository}.
+ *
+ * <p>Each solution is a Map of variable names to their values; IRIs (of subjects, predicates and
+ * linked objects) are bound as {@link Link}, and other objects as they are in the Thing. Solutions
+ * are streamed lazily, so a {@link Query#limit()} stops evaluation as soon as it is reached.
+ *
+ * <p>Triple patterns are joined in an order chosen by their estimated cost, which is the number of
+ * Things which each pattern has to look at. If the repository is an {@link IndexedThingRepository},
+ * then its indexes are used both for these estimates and for the evaluation itself; otherwise, each
+ * unbound subject requires a scan of all Things.
+ */
+public class ThingQueryEngine implements Queryable<String, String, Stream<Map<String, Object>>> {
+
+    /** IRI of the query language of {@link QueryParser}, for {@link #query(String, String)}. */
+    public static final String QUERY_LANGUAGE = "https://enola.dev/ql/bgp";
+
+    /** Repositories whose IRIs are not a Collection are only counted up to this, see size(). */
+    private static final int MAX_COUNTED_SIZE = 10_000;
+
+    private final ThingRepository repository;
+
+    public ThingQueryEngine(ThingRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public Stream<Map<String, Object>> query(String queryLanguage, String query) {
+        if (!QUERY_LANGUAGE.equals(queryLanguage))
+            throw new IllegalArgumentException("Unsupported query language: " + queryLanguage);
+        return query(Query.parse(query));
+    }
+
+    public Stream<Map<String, Object>> query(Query query) {
+        Stream<Map<String, Object>> solutions = Stream.of(Map.of());
+        var bound = new HashSet<String>();
+        var filters = new ArrayList<>(query.filters());
+        for (var pattern : plan(query.patterns())) {
+            solutions = solutions.flatMap(solution -> match(pattern, solution));
+            bound.addAll(pattern.variables());
+
+            // Filter as early as possible, to not join solutions which will be removed later
+            for (var iterator = filters.iterator(); iterator.hasNext(); ) {
+                var filter = iterator.next();
+                if (bound.containsAll(filter.variables())) {
+                    solutions = solutions.filter(filter);
+                    iterator.remove();
+                }
+            }
+        }
+        // Filters on variables which no pattern binds remove all solutions
+        if (!filters.isEmpty()) return Stream.empty();
+
+        return solutions.skip(query.offset()).limit(query.limit());
+    }
+
+    /**
+     * Orders the patterns for evaluation. This is greedy: The next pattern is always the cheapest
+     * one which shares a variable with those already planned, to avoid cross products.
+     */
+    List<TriplePattern> plan(List<TriplePattern> patterns) {
+        var size = size();
+        var remaining = new ArrayList<>(patterns);
+        var planned = new ArrayList<TriplePattern>(patterns.size());
+        var bound = new HashSet<String>();
+        while (!remaining.isEmpty()) {
+            TriplePattern best = null;
+            long bestCost = Long.MAX_VALUE;
+            boolean bestJoins = false;
+            for (var pattern : remaining) {
+                var variables = pattern.variables();
+                var joins =
+                        bound.isEmpty()
+                                || variables.isEmpty()
+                                || !Collections.disjoint(bound, variables);
+                var cost = cost(pattern, bound, size);
+                var better = joins == bestJoins ? cost < bestCost : joins;
+                if (best == null || better) {
+                    best = pattern;
+                    bestCost = cost;
+                    bestJoins = joins;
+                }
+            }
+            remaining.remove(best);
+            planned.add(best);
+            bound.addAll(best.variables());
+        }
+        return planned;
+    }
+
+    /**
+     * Number of Things in the repository; this is O(1) if it lists its IRIs as a Collection (like
+     * the key set of a map), otherwise they are counted, but only up to {@link #MAX_COUNTED_SIZE}.
+     */
+    private long size() {
+        var iris = repository.listIRI();
+        if (iris instanceof Collection<?> collection) return collection.size();
+        return Iterables.size(Iterables.limit(iris, MAX_COUNTED_SIZE));
+    }
+
+    /** Estimated number of Things to look at for the pattern, given the bound variables. */
+    private long cost(TriplePattern pattern, Set<String> bound, long size) {
+        if (isBound(pattern.subject(), bound)) return 1;
+
+        var predicate = pattern.predicate() instanceof Term.Constant constant ? constant : null;
+        var object = pattern.object() instanceof Term.Constant constant ? constant : null;
+        if (repository instanceof IndexedThingRepository indexed) {
+            if (object != null && object.value() instanceof Link link) {
+                if (predicate != null && isType(predicate.value()))
+                    return indexed.countIRIByType(link.iri());
+                return indexed.countIRILinkingTo(link.iri());
+            }
+            if (predicate != null && predicate.value() instanceof Link link)
+                size = indexed.countIRIByPredicate(link.iri());
+        } else {
+            // Without statistics, assume that each constant halves the number of candidates
+            if (predicate != null) size /= 2;
+            if (object != null) size /= 2;
+        }
+        // An object bound by a previous pattern is (very roughly) also more selective
+        if (object == null && isBound(pattern.object(), bound)) size /= 2;
+        return size;
+    }
+
+    private Stream<Map<String, Object>> match(TriplePattern pattern, Map<String, Object> solution) {
+        var subject = pattern.subject().resolve(solution);
+        var predicate = pattern.predicate().resolve(solution);
+        var object = pattern.object().resolve(solution);
+        if (predicate != null && !(predicate instanceof Link)) return Stream.empty();
+        return subjects(subject, predicate, object)
+                .map(repository::get)
+                .filter(Objects::nonNull)
+                .flatMap(thing -> match(thing, pattern, (Link) predicate, object, solution));
+    }
+
+    /** IRIs of candidate subjects, using an index if possible. */
+    private Stream<String> subjects(
+            @Nullable Object subject, @Nullable Object predicate, @Nullable Object object) {
+        if (subject != null) {
+            if (subject instanceof Link link) return Stream.of(link.iri());
+            else return Stream.empty();
+        }
+        if (repository instanceof IndexedThingRepository indexed) {
+            if (object instanceof Link link) {
+                if (predicate != null && isType(predicate))
+                    return Streams.stream(indexed.listIRIByType(link.iri()));
+                return Streams.stream(indexed.listIRILinkingTo(link.iri()));
+            }
+            if (predicate instanceof Link link)
+                return Streams.stream(indexed.listIRIByPredicate(link.iri()));
+        }
+        return Streams.stream(repository.listIRI());
+    }
+
+    private Stream<Map<String, Object>> match(
+            Thing thing,
+            TriplePattern pattern,
+            @Nullable Link predicate,
+            @Nullable Object object,
+            Map<String, Object> solution) {
+        Iterable<String> predicateIRIs =
+                predicate != null ? List.of(predicate.iri()) : thing.predicateIRIs();
+        var subject = new Link(thing.iri());
+        return Streams.stream(predicateIRIs)
+                .flatMap(
+                        predicateIRI -> {
+                            var link = new Link(predicateIRI);
+                            return objects(thing, predicateIRI, object)
+                                    .flatMap(
+                                            value ->
+                                                    bind(solution, pattern, subject, link, value));
+                        });
+    }
+
+    /** Objects of the Thing's predicate, which match the object (unless that is still unbound). */
+    private static Stream<Object> objects(
+            Thing thing, String predicateIRI, @Nullable Object object) {
+        Object value = thing.get(predicateIRI);
+        if (value == null) return Stream.empty();
+        Stream<?> values =
+                value instanceof Iterable<?> iterable ? Streams.stream(iterable) : Stream.of(value);
+        return values
+                .map(each -> Values.normalize(predicateIRI, each))
+                .filter(each -> object == null || Values.matches(object, each));
+    }
+
+    /** Extends the solution with the pattern's variables, or empty if they conflict with it. */
+    private static Stream<Map<String, Object>> bind(
+            Map<String, Object> solution,
+            TriplePattern pattern,
+            Link subject,
+            Link predicate,
+            Object object) {
+        var extended = new LinkedHashMap<>(solution);
+        if (bind(extended, pattern.subject(), subject)
+                && bind(extended, pattern.predicate(), predicate)
+                && bind(extended, pattern.object(), object))
+            return Stream.of(Collections.unmodifiableMap(extended));
+        else return Stream.empty();
+    }
+
+    private static boolean bind(Map<String, Object> solution, Term term, Object value) {
+        if (!(term instanceof Term.Variable variable)) return true;
+        var existing = solution.putIfAbsent(variable.name(), value);
+        return existing == null || Values.matches(existing, value);
+    }
+
+    private static boolean isBound(Term term, Set<String> bound) {
+        return term instanceof Term.Constant
+                || (term instanceof Term.Variable variable && bound.contains(variable.name()));
+    }
+
+    private static boolean isType(Object predicate) {
+        return predicate instanceof Link link && KIRI.RDF.TYPE.equals(link.iri());
+    }
+}
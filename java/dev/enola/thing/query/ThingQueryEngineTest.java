@@ -0,0 +1,261 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.query;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableList;
+
+import dev.enola.thing.KIRI;
+import dev.enola.thing.LangString;
+import dev.enola.thing.Link;
+import dev.enola.thing.Thing;
+import dev.enola.thing.impl.ImmutableThing;
+import dev.enola.thing.repo.IndexedThingMemoryRepositoryRW;
+import dev.enola.thing.repo.ThingMemoryRepositoryRW;
+import dev.enola.thing.repo.ThingRepositoryStore;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class ThingQueryEngineTest {
+
+    private static final String NS = "https://example.org/";
+    private static final String PERSON = NS + "Person";
+    private static final String DOG = NS + "Dog";
+    private static final String NAME = NS + "name";
+    private static final String KNOWS = NS + "knows";
+
+    private static final Thing PABLO =
+            ImmutableThing.builder()
+                    .iri(NS + "pablo")
+                    .set(KIRI.RDF.TYPE, new Link(PERSON))
+                    .set(NAME, "Pablo Picasso")
+                    .set(KNOWS, ImmutableList.of(new Link(NS + "georges"), new Link(NS + "max")))
+                    .build();
+
+    private static final Thing GEORGES =
+            ImmutableThing.builder()
+                    .iri(NS + "georges")
+                    .set(KIRI.RDF.TYPE, new Link(PERSON))
+                    .set(NAME, new LangString("Georges Braque", "fr"))
+                    .set(KNOWS, new Link(NS + "pablo"))
+                    .build();
+
+    private static final Thing MAX =
+            ImmutableThing.builder()
+                    .iri(NS + "max")
+                    .set(KIRI.RDF.TYPE, PERSON) // NB: String, not Link!
+                    .set(NAME, "Max Jacob")
+                    .build();
+
+    private static final Thing LUMP =
+            ImmutableThing.builder()
+                    .iri(NS + "lump")
+                    .set(KIRI.RDF.TYPE, new Link(DOG))
+                    .set(NAME, "Lump")
+                    .build();
+
+    private static <T extends ThingRepositoryStore> T store(T repo) {
+        repo.storeAll(List.of(PABLO, GEORGES, MAX, LUMP));
+        return repo;
+    }
+
+    private static List<ThingQueryEngine> engines() {
+        return List.of(
+                new ThingQueryEngine(store(new IndexedThingMemoryRepositoryRW())),
+                new ThingQueryEngine(store(new ThingMemoryRepositoryRW())));
+    }
+
+    private static List<Map<String, Object>> query(ThingQueryEngine engine, String query) {
+        return engine.query(ThingQueryEngine.QUERY_LANGUAGE, query).toList();
+    }
+
+    @Test
+    public void type() {
+        for (var engine : engines()) {
+            assertThat(query(engine, "?p a <" + PERSON + ">"))
+                    .containsExactly(
+                            Map.of("p", new Link(PABLO.iri())),
+                            Map.of("p", new Link(GEORGES.iri())),
+                            Map.of("p", new Link(MAX.iri())));
+        }
+    }
+
+    @Test
+    public void join() {
+        for (var engine : engines()) {
+            var solutions =
+                    query(
+                            engine,
+                            "<" + PABLO.iri() + "> <" + KNOWS + "> ?friend . "
+                                    + "?friend <" + NAME + "> ?name");
+            assertThat(solutions)
+                    .containsExactly(
+                            Map.of(
+                                    "friend", new Link(GEORGES.iri()),
+                                    "name", new LangString("Georges Braque", "fr")),
+                            Map.of("friend", new Link(MAX.iri()), "name", "Max Jacob"));
+        }
+    }
+
+    @Test
+    public void backlinks() {
+        for (var engine : engines()) {
+            assertThat(query(engine, "?who <" + KNOWS + "> <" + PABLO.iri() + ">"))
+                    .containsExactly(Map.of("who", new Link(GEORGES.iri())));
+        }
+    }
+
+    @Test
+    public void stringTypeIsALink() {
+        // MAX's rdf:type is a String, which the index of links must find like a scan does
+        for (var engine : engines()) {
+            assertThat(query(engine, "?s ?p <" + PERSON + ">"))
+                    .containsExactly(
+                            Map.of("s", new Link(PABLO.iri()), "p", new Link(KIRI.RDF.TYPE)),
+                            Map.of("s", new Link(GEORGES.iri()), "p", new Link(KIRI.RDF.TYPE)),
+                            Map.of("s", new Link(MAX.iri()), "p", new Link(KIRI.RDF.TYPE)));
+        }
+    }
+
+    @Test
+    public void sameVariableTwice() {
+        for (var engine : engines()) {
+            // Who knows someone who knows them back?
+            var solutions = query(engine, "?a <" + KNOWS + "> ?b . ?b <" + KNOWS + "> ?a");
+            assertThat(solutions)
+                    .containsExactly(
+                            Map.of("a", new Link(PABLO.iri()), "b", new Link(GEORGES.iri())),
+                            Map.of("a", new Link(GEORGES.iri()), "b", new Link(PABLO.iri())));
+        }
+    }
+
+    @Test
+    public void variablePredicate() {
+        for (var engine : engines()) {
+            assertThat(query(engine, "<" + LUMP.iri() + "> ?p ?o"))
+                    .containsExactly(
+                            Map.of("p", new Link(KIRI.RDF.TYPE), "o", new Link(DOG)),
+                            Map.of("p", new Link(NAME), "o", "Lump"));
+        }
+    }
+
+    @Test
+    public void textMatchesLangString() {
+        for (var engine : engines()) {
+            assertThat(query(engine, "?p <" + NAME + "> \"Georges Braque\""))
+                    .containsExactly(Map.of("p", new Link(GEORGES.iri())));
+        }
+    }
+
+    @Test
+    public void filters() {
+        for (var engine : engines()) {
+            var query = "?p a <" + PERSON + "> . ?p <" + NAME + "> ?name . ";
+            assertThat(query(engine, query + "FILTER(CONTAINS(?name, \"Pablo\"))"))
+                    .containsExactly(Map.of("p", new Link(PABLO.iri()), "name", "Pablo Picasso"));
+            assertThat(query(engine, query + "FILTER(?name != \"Pablo Picasso\")")).hasSize(2);
+            assertThat(query(engine, query + "FILTER(?p = <" + MAX.iri() + ">)")).hasSize(1);
+            assertThat(query(engine, query + "FILTER(?unbound = \"x\")")).isEmpty();
+        }
+    }
+
+    @Test
+    public void offsetAndLimit() {
+        for (var engine : engines()) {
+            var all = query(engine, "?s ?p ?o");
+            assertThat(all).hasSize(11);
+            assertThat(query(engine, "?s ?p ?o LIMIT 5")).isEqualTo(all.subList(0, 5));
+            assertThat(query(engine, "?s ?p ?o OFFSET 10")).isEqualTo(all.subList(10, 11));
+            assertThat(query(engine, "?s ?p ?o offset 3 limit 2")).isEqualTo(all.subList(3, 5));
+        }
+    }
+
+    @Test
+    public void planUsesIndexStatistics() {
+        var engine = new ThingQueryEngine(store(new IndexedThingMemoryRepositoryRW()));
+        var name = new TriplePattern(variable("x"), Term.Constant.iri(NAME), variable("n"));
+        var dog = new TriplePattern(variable("x"), rdfType(), Term.Constant.iri(DOG));
+        var other = new TriplePattern(variable("y"), Term.Constant.iri(NAME), variable("n"));
+        assertThat(engine.plan(List.of(name, other, dog)))
+                .containsExactly(dog, name, other)
+                .inOrder();
+    }
+
+    @Test
+    public void planWithoutIndexStatistics() {
+        var engine = new ThingQueryEngine(store(new ThingMemoryRepositoryRW()));
+        var a = new TriplePattern(variable("a"), Term.Constant.iri(KNOWS), variable("b"));
+        var b = new TriplePattern(variable("b"), rdfType(), Term.Constant.iri(PERSON));
+        var c = new TriplePattern(variable("c"), rdfType(), Term.Constant.iri(DOG));
+        assertThat(engine.plan(List.of(c, a, b))).containsExactly(c, b, a).inOrder();
+        assertThat(engine.plan(List.of(a, b))).containsExactly(b, a).inOrder();
+    }
+
+    @Test
+    public void parse() {
+        var query =
+                Query.parse(
+                        "?p a <" + PERSON + "> .\n ?p <" + NAME + "> \"Pablo \\\"P\\\"\" "
+                                + "FILTER(?p != <" + MAX.iri() + ">) LIMIT 7");
+        assertThat(query.patterns())
+                .containsExactly(
+                        new TriplePattern(variable("p"), rdfType(), Term.Constant.iri(PERSON)),
+                        new TriplePattern(
+                                variable("p"),
+                                Term.Constant.iri(NAME),
+                                new Term.Constant("Pablo \"P\"")));
+        assertThat(query.filters())
+                .containsExactly(
+                        new Filter(
+                                Filter.Operator.NOT_EQUALS,
+                                variable("p"),
+                                Term.Constant.iri(MAX.iri())));
+        assertThat(query.offset()).isEqualTo(0);
+        assertThat(query.limit()).isEqualTo(7);
+        assertThat(Query.parse(query.toString())).isEqualTo(query);
+    }
+
+    @Test
+    public void parseErrors() {
+        assertThrows(IllegalArgumentException.class, () -> Query.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> Query.parse("?s ?p"));
+        assertThrows(IllegalArgumentException.class, () -> Query.parse("\"s\" ?p ?o"));
+        assertThrows(IllegalArgumentException.class, () -> Query.parse("?s <p ?o"));
+        assertThrows(IllegalArgumentException.class, () -> Query.parse("?s ?p ?o LIMIT x"));
+        assertThrows(IllegalArgumentException.class, () -> Query.parse("?s ?p ?o FILTER(?s)"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedQueryLanguage() {
+        engines().get(0).query("https://www.w3.org/TR/sparql11-query/", "?s ?p ?o");
+    }
+
+    private static Term.Variable variable(String name) {
+        return new Term.Variable(name);
+    }
+
+    private static Term rdfType() {
+        return Term.Constant.iri(KIRI.RDF.TYPE);
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.query;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Set;
+
+/** TriplePattern is a "subject predicate object" triple, where each {@link Term} may be unbound. */
+public record TriplePattern(Term subject, Term predicate, Term object) {
+
+    /** Names of the {@link Term.Variable}s used in this pattern. */
+    public Set<String> variables() {
+        var variables = ImmutableSet.<String>builderWithExpectedSize(3);
+        if (subject instanceof Term.Variable variable) variables.add(variable.name());
+        if (predicate instanceof Term.Variable variable) variables.add(variable.name());
+        if (object instanceof Term.Variable variable) variables.add(variable.name());
+        return variables.build();
+    }
+
+    @Override
+    public String toString() {
+        return subject + " " + predicate + " " + object + " .";
+    }
+}
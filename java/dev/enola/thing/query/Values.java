@@ -0,0 +1,61 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.query;
+
+import dev.enola.thing.KIRI;
+import dev.enola.thing.LangString;
+import dev.enola.thing.Link;
+import dev.enola.thing.Literal;
+
+import java.net.URI;
+
+/** Comparisons of Thing objects, as used by {@link ThingQueryEngine} and {@link Filter}. */
+final class Values {
+
+    /**
+     * Normalizes the object of a predicate of a Thing, so that all links are a {@link Link}.
+     *
+     * <p>An rdf:type is also a link if it's a String; as in {@link
+     * dev.enola.thing.repo.IndexedThingRepository#listIRILinkingTo(String)}.
+     */
+    static Object normalize(String predicateIRI, Object object) {
+        if (object instanceof URI uri) return new Link(uri.toString());
+        if (object instanceof String string && KIRI.RDF.TYPE.equals(predicateIRI))
+            return new Link(string);
+        return object;
+    }
+
+    /**
+     * Whether the actual (normalized) object matches the expected one. Links only match equal
+     * links; a String matches any other object with the same {@link #text(Object)}.
+     */
+    static boolean matches(Object expected, Object actual) {
+        if (expected.equals(actual)) return true;
+        if (expected instanceof Link || actual instanceof Link) return false;
+        return expected instanceof String string && string.equals(text(actual));
+    }
+
+    /** Text of an object, without the language tag of a LangString or datatype of a Literal. */
+    static String text(Object object) {
+        if (object instanceof LangString langString) return langString.text();
+        if (object instanceof Literal literal) return literal.value();
+        return object.toString();
+    }
+
+    private Values() {}
+}
@@ -0,0 +1,79 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.repo;
+
+import com.google.errorprone.annotations.ThreadSafe;
+
+import dev.enola.thing.Thing;
+
+/**
+ * IndexedThingMemoryRepositoryRW is a {@link ThingMemoryRepositoryRW} which (incrementally)
+ * maintains the secondary indexes of an {@link IndexedThingRepository} as Things are stored,
+ * merged and removed.
+ */
+@ThreadSafe
+public class IndexedThingMemoryRepositoryRW extends ThingMemoryRepositoryRW
+        implements IndexedThingRepository {
+
+    private final ThingIndexes indexes = new ThingIndexes();
+
+    @Override
+    protected void stored(Thing thing) {
+        indexes.index(thing);
+    }
+
+    @Override
+    protected void removed(Thing thing) {
+        indexes.unindex(thing);
+    }
+
+    @Override
+    protected void replaced(Thing previous, Thing thing) {
+        indexes.reindex(previous, thing);
+    }
+
+    @Override
+    public Iterable<String> listIRIByType(String typeIRI) {
+        return indexes.byType(typeIRI);
+    }
+
+    @Override
+    public Iterable<String> listIRIByPredicate(String predicateIRI) {
+        return indexes.byPredicate(predicateIRI);
+    }
+
+    @Override
+    public Iterable<String> listIRILinkingTo(String iri) {
+        return indexes.byLink(iri);
+    }
+
+    @Override
+    public int countIRIByType(String typeIRI) {
+        return indexes.countByType(typeIRI);
+    }
+
+    @Override
+    public int countIRIByPredicate(String predicateIRI) {
+        return indexes.countByPredicate(predicateIRI);
+    }
+
+    @Override
+    public int countIRILinkingTo(String iri) {
+        return indexes.countByLink(iri);
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.repo;
+
+/**
+ * ThingRepository with secondary indexes, for lookups which would otherwise require scanning all
+ * Things of the repository (via {@link #list()}).
+ *
+ * <p>The returned IRIs are sorted, and each lookup is O(result) instead of O(repository).
+ */
+public interface IndexedThingRepository extends ThingRepository {
+
+    /** IRIs of all Things which have the given rdf:type. */
+    Iterable<String> listIRIByType(String typeIRI);
+
+    /** IRIs of all Things which have (any object for) the given predicate. */
+    Iterable<String> listIRIByPredicate(String predicateIRI);
+
+    /**
+     * IRIs of all Things which link to the given IRI; AKA "backlinks", or "what links here". An
+     * rdf:type is always a link, even if it's a String instead of a {@link dev.enola.thing.Link}.
+     */
+    Iterable<String> listIRILinkingTo(String iri);
+
+    // The counts are O(1), and may be (very briefly) off during concurrent changes; for estimates,
+    // e.g. in query planning, instead of e.g. Iterables.size() of the lists, which is O(n).
+
+    /** Number of IRIs of {@link #listIRIByType(String)}. */
+    int countIRIByType(String typeIRI);
+
+    /** Number of IRIs of {@link #listIRIByPredicate(String)}. */
+    int countIRIByPredicate(String predicateIRI);
+
+    /** Number of IRIs of {@link #listIRILinkingTo(String)}. */
+    int countIRILinkingTo(String iri);
+}
@@ -0,0 +1,205 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.repo;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+
+import dev.enola.data.Store;
+import dev.enola.thing.KIRI;
+import dev.enola.thing.Link;
+import dev.enola.thing.Thing;
+import dev.enola.thing.impl.ImmutableThing;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IndexedThingRepositoryTest {
+
+    private static final Thing CLASS =
+            ImmutableThing.builder()
+                    .iri("https://example.org/Greeting")
+                    .set(KIRI.RDF.TYPE, new Link(KIRI.RDFS.CLASS))
+                    .build();
+
+    private static final Thing HELLO =
+            ImmutableThing.builder()
+                    .iri("https://example.org/hello")
+                    .set(KIRI.RDF.TYPE, new Link("https://example.org/Greeting"))
+                    .set("https://example.org/message", "hello, world")
+                    .build();
+
+    private static final Thing HI =
+            ImmutableThing.builder()
+                    .iri("https://example.org/hi")
+                    .set(
+                            KIRI.RDF.TYPE,
+                            ImmutableList.of(
+                                    new Link("https://example.org/Greeting"),
+                                    new Link("https://example.org/Short")))
+                    .set("https://example.org/seeAlso", new Link("https://example.org/hello"))
+                    .build();
+
+    private void store(Store<?, Thing> store) {
+        store.store(CLASS);
+        store.store(HELLO);
+        store.store(HI);
+    }
+
+    private void check(IndexedThingRepository repo) {
+        assertThat(repo.listIRIByType(KIRI.RDFS.CLASS)).containsExactly(CLASS.iri());
+        assertThat(repo.listIRIByType("https://example.org/Greeting"))
+                .containsExactly(HELLO.iri(), HI.iri())
+                .inOrder();
+        assertThat(repo.listIRIByType("https://example.org/Short")).containsExactly(HI.iri());
+        assertThat(repo.listIRIByType("https://example.org/Unknown")).isEmpty();
+
+        assertThat(repo.listIRIByPredicate("https://example.org/message"))
+                .containsExactly(HELLO.iri());
+        assertThat(repo.listIRIByPredicate(KIRI.RDF.TYPE)).hasSize(3);
+
+        assertThat(repo.listIRILinkingTo(HELLO.iri())).containsExactly(HI.iri());
+        assertThat(repo.listIRILinkingTo("https://example.org/Greeting"))
+                .containsExactly(HELLO.iri(), HI.iri());
+
+        assertThat(repo.countIRIByType("https://example.org/Greeting")).isEqualTo(2);
+        assertThat(repo.countIRIByType("https://example.org/Unknown")).isEqualTo(0);
+        assertThat(repo.countIRIByPredicate(KIRI.RDF.TYPE)).isEqualTo(3);
+        assertThat(repo.countIRILinkingTo(HELLO.iri())).isEqualTo(1);
+    }
+
+    @Test
+    public void memoryRepositoryRO() {
+        var builder = new ThingMemoryRepositoryROBuilder();
+        store(builder);
+        check(builder.build());
+    }
+
+    @Test
+    public void memoryRepositoryRW() {
+        var repo = new IndexedThingMemoryRepositoryRW();
+        store(repo);
+        check(repo);
+    }
+
+    @Test
+    public void mergeUpdatesIndexes() {
+        var repo = new IndexedThingMemoryRepositoryRW();
+        store(repo);
+        repo.merge(
+                ImmutableThing.builder()
+                        .iri(HELLO.iri())
+                        .set("https://example.org/seeAlso", new Link(HI.iri()))
+                        .build());
+        assertThat(repo.listIRILinkingTo(HI.iri())).containsExactly(HELLO.iri());
+        assertThat(repo.listIRIByPredicate("https://example.org/seeAlso"))
+                .containsExactly(HELLO.iri(), HI.iri());
+    }
+
+    @Test
+    public void removeUpdatesIndexes() {
+        var repo = new IndexedThingMemoryRepositoryRW();
+        store(repo);
+        var removed = new ArrayList<String>();
+        repo.addStoredListener(removed::add);
+
+        assertThat(repo.remove(HI.iri())).isEqualTo(HI);
+        assertThat(repo.remove(HI.iri())).isNull();
+        assertThat(removed).containsExactly(HI.iri());
+
+        assertThat(repo.get(HI.iri())).isNull();
+        assertThat(repo.listIRIByType("https://example.org/Greeting")).containsExactly(HELLO.iri());
+        assertThat(repo.listIRIByType("https://example.org/Short")).isEmpty();
+        assertThat(repo.listIRILinkingTo(HELLO.iri())).isEmpty();
+        assertThat(repo.countIRIByType("https://example.org/Greeting")).isEqualTo(1);
+        assertThat(repo.countIRILinkingTo(HELLO.iri())).isEqualTo(0);
+    }
+
+    @Test
+    public void replaceUpdatesIndexes() {
+        var repo = new IndexedThingMemoryRepositoryRW();
+        store(repo);
+        var replaced = new ArrayList<String>();
+        repo.addStoredListener(replaced::add);
+
+        var shortHI =
+                ImmutableThing.builder()
+                        .iri(HI.iri())
+                        .set(KIRI.RDF.TYPE, new Link("https://example.org/Short"))
+                        .build();
+        assertThat(repo.replace(HI.iri(), List.of(shortHI))).isEqualTo(HI);
+        assertThat(repo.get(HI.iri())).isEqualTo(shortHI);
+        assertThat(replaced).containsExactly(HI.iri());
+        assertThat(repo.listIRIByType("https://example.org/Greeting")).containsExactly(HELLO.iri());
+        assertThat(repo.listIRIByType("https://example.org/Short")).containsExactly(HI.iri());
+        assertThat(repo.listIRILinkingTo(HELLO.iri())).isEmpty();
+
+        assertThat(repo.replace(HI.iri(), List.of())).isEqualTo(shortHI);
+        assertThat(repo.get(HI.iri())).isNull();
+        assertThat(repo.listIRIByType("https://example.org/Short")).isEmpty();
+    }
+
+    @Test
+    public void replaceKeepsIndexesForConcurrentReaders() throws InterruptedException {
+        var repo = new IndexedThingMemoryRepositoryRW();
+        store(repo);
+        var stop = new AtomicBoolean();
+        var missing = new AtomicInteger();
+        var reader =
+                new Thread(
+                        () -> {
+                            while (!stop.get()) {
+                                var greetings = repo.listIRIByType(CLASS.iri());
+                                if (!Iterables.contains(greetings, HI.iri()))
+                                    missing.incrementAndGet();
+                            }
+                        });
+        reader.start();
+        for (int i = 0; i < 10_000; i++) repo.replace(HI.iri(), List.of(HI));
+        stop.set(true);
+        reader.join();
+        assertThat(missing.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void concurrentMergeAndReplaceKeepIndexesConsistent() throws InterruptedException {
+        var repo = new IndexedThingMemoryRepositoryRW();
+        store(repo);
+        var extra = "https://example.org/extra";
+        var other = "https://example.org/other";
+        var extraHI = ImmutableThing.builder().iri(HI.iri()).set(extra, new Link(other)).build();
+        for (int i = 0; i < 1_000; i++) {
+            var merger = new Thread(() -> repo.merge(extraHI));
+            merger.start();
+            repo.replace(HI.iri(), List.of(HI));
+            merger.join();
+
+            var hasExtra = repo.get(HI.iri()).predicateIRIs().contains(extra);
+            assertThat(Iterables.contains(repo.listIRIByPredicate(extra), HI.iri()))
+                    .isEqualTo(hasExtra);
+            assertThat(Iterables.contains(repo.listIRILinkingTo(other), HI.iri()))
+                    .isEqualTo(hasExtra);
+        }
+    }
+}
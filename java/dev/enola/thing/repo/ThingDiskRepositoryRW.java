@@ -0,0 +1,562 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.repo;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.hash.Hashing;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+
+import dev.enola.data.ObservableRepository;
+import dev.enola.datatype.DatatypeRepository;
+import dev.enola.thing.Thing;
+import dev.enola.thing.impl.ImmutableThing;
+import dev.enola.thing.message.JavaThingToProtoThingConverter;
+import dev.enola.thing.message.ProtoThingIntoJavaThingBuilderConverter;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * ThingDiskRepositoryRW is a read & write {@link ThingRepositoryStore} which keeps its Things in
+ * files on a local disk, instead of on the heap like {@link ThingMemoryRepositoryRW}; so it can
+ * hold many more Things than fit into memory.
+ *
+ * <p>Things are appended (as length-delimited proto Things) to a log file. Merging a Thing appends
+ * a new record, which supersedes the previous one of the same IRI. Each distinct IRI is also
+ * appended (length-delimited) to an IRIs file. A memory-mapped (open addressing, linear probing)
+ * hash table maps the hash of each IRI to the offsets of its latest record, and of the IRI. The
+ * most recently used Things are additionally kept in an in-heap cache.
+ *
+ * <p>If the index is missing or stale on open (e.g. after a crash), it is rebuilt from the log.
+ *
+ * <p>Instances are safe for concurrent use. Writes (and index lookups) are serialized, but reading
+ * the files is not; this is safe, because both are only ever appended to (until {@link #clear()}).
+ */
+public class ThingDiskRepositoryRW
+        implements ThingRepositoryStore, ObservableRepository, Closeable {
+
+    // TODO Compact the log (drop superseded records) when it contains mostly garbage
+
+    private static final Logger LOG = LoggerFactory.getLogger(ThingDiskRepositoryRW.class);
+
+    private static final String LOG_FILENAME = "things.log";
+    private static final String INDEX_FILENAME = "things.idx";
+    private static final String IRIS_FILENAME = "things.iris";
+
+    // Index header: magic (int), version (int), capacity (int), size (int), log length (long),
+    // IRIs length (long)
+    private static final int MAGIC = 0x454e4f4c; // "ENOL"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int CAPACITY_POSITION = 8;
+    private static final int SIZE_POSITION = 12;
+    private static final int LOG_LENGTH_POSITION = 16;
+    private static final int IRIS_LENGTH_POSITION = 24;
+
+    // Index slot: hash of IRI (long, 0 means empty), offset of record in log (long), offset of IRI
+    // in IRIs (long)
+    private static final int SLOT_SIZE = 24;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    public static final long DEFAULT_CACHE_SIZE = 10_000;
+
+    private final Path indexPath;
+    private final FileChannel log;
+    private final FileChannel iris;
+    private final Cache<String, Thing> cache;
+    private final JavaThingToProtoThingConverter javaToProto;
+    private final ProtoThingIntoJavaThingBuilderConverter protoToJava;
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    private FileChannel indexChannel;
+    private MappedByteBuffer index;
+    private int capacity;
+    private int size;
+    private long logLength;
+    private long irisLength;
+    private long writes;
+
+    /**
+     * Constructor.
+     *
+     * @param directory where the files of this repository are (or will be) stored.
+     * @param cacheSize how many Things are kept in memory (0 to disable caching).
+     */
+    public ThingDiskRepositoryRW(
+            Path directory, long cacheSize, DatatypeRepository datatypeRepository)
+            throws IOException {
+        this.javaToProto = new JavaThingToProtoThingConverter(datatypeRepository);
+        this.protoToJava = new ProtoThingIntoJavaThingBuilderConverter(datatypeRepository);
+        this.cache = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+
+        Files.createDirectories(directory);
+        this.indexPath = directory.resolve(INDEX_FILENAME);
+        this.log = FileChannel.open(directory.resolve(LOG_FILENAME), CREATE, READ, WRITE);
+        this.logLength = log.size();
+        this.iris = FileChannel.open(directory.resolve(IRIS_FILENAME), CREATE, READ, WRITE);
+        this.irisLength = iris.size();
+        if (!openIndex()) rebuildIndex();
+    }
+
+    public ThingDiskRepositoryRW(Path directory) throws IOException {
+        this(directory, DEFAULT_CACHE_SIZE, DatatypeRepository.CTX);
+    }
+
+    @Override
+    public @Nullable Thing get(String iri) {
+        var thing = cache.getIfPresent(iri);
+        if (thing != null) return thing;
+
+        // Only the index is looked up while locked, and the files are then read with positional
+        // (thus thread safe) reads; so that concurrent cold reads don't wait for each other.
+        long[] candidates;
+        long logLength;
+        long irisLength;
+        long writes;
+        synchronized (this) {
+            candidates = candidates(hash(iri));
+            logLength = this.logLength;
+            irisLength = this.irisLength;
+            writes = this.writes;
+        }
+        try {
+            for (int i = 0; i < candidates.length; i += 2) {
+                if (!readIRI(candidates[i + 1], irisLength).equals(iri)) continue;
+                thing = toJava(read(candidates[i], logLength).thing());
+                synchronized (this) {
+                    // Unless it was written meanwhile, in which case this would cache a stale one
+                    if (this.writes == writes) cache.put(iri, thing);
+                }
+                return thing;
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + iri, e);
+        }
+    }
+
+    @Override
+    public Iterable<String> listIRI() {
+        long length;
+        synchronized (this) {
+            length = irisLength;
+        }
+        return () ->
+                new AbstractIterator<>() {
+                    private long offset = 0;
+
+                    @Override
+                    protected @Nullable String computeNext() {
+                        if (offset >= length) return endOfData();
+                        try {
+                            var iri = readDelimited(iris, length, offset);
+                            offset = iri.end();
+                            return StandardCharsets.UTF_8.decode(iri.bytes()).toString();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException("Failed to read IRI at " + offset, e);
+                        }
+                    }
+                };
+    }
+
+    @Override
+    public Iterable<Thing> list() {
+        var offsets = offsets();
+        return () ->
+                Arrays.stream(offsets).mapToObj(offset -> toJava(readOrThrow(offset))).iterator();
+    }
+
+    @Override
+    public synchronized void merge(Thing item) {
+        try {
+            var hash = hash(item.iri());
+            var slot = findSlot(item.iri(), hash);
+            if (slot < 0) {
+                write(item, hash, slot);
+            } else {
+                var existing = toJava(read(offset(slot)).thing());
+                write(ThingMerger.merge(existing, item), hash, slot);
+            }
+            notifyStored(item.iri());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to merge " + item.iri(), e);
+        }
+    }
+
+    @Override
+    @CanIgnoreReturnValue
+    public synchronized Void store(Thing item) {
+        try {
+            var hash = hash(item.iri());
+            var slot = findSlot(item.iri(), hash);
+            if (slot >= 0) throw new IllegalArgumentException(item.toString());
+            write(item, hash, slot);
+            notifyStored(item.iri());
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store " + item.iri(), e);
+        }
+    }
+
+    @Override
+    @CanIgnoreReturnValue
+    public Void storeAll(Iterable<Thing> items) {
+        for (Thing item : items) {
+            store(item);
+        }
+        return null;
+    }
+
+    @Override
+    public void addStoredListener(Consumer<String> iriListener) {
+        listeners.add(requireNonNull(iriListener));
+    }
+
+    private void notifyStored(String iri) {
+        for (var listener : listeners) listener.accept(iri);
+    }
+
+    /**
+     * Removes all Things, e.g. to load them again from scratch. (Merging Things into a repository
+     * which already has them, e.g. from an earlier run, keeps their previous values as well.)
+     */
+    public synchronized void clear() throws IOException {
+        log.truncate(0);
+        logLength = 0;
+        indexChannel.close();
+        rebuildIndex();
+        cache.invalidateAll();
+        writes++;
+    }
+
+    /** Forces all changes to be written to disk. */
+    public synchronized void flush() throws IOException {
+        log.force(false);
+        iris.force(false);
+        index.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        indexChannel.close();
+        iris.close();
+        log.close();
+        cache.invalidateAll();
+    }
+
+    private Thing toJava(dev.enola.thing.proto.Thing protoThing) {
+        var builder = ImmutableThing.builder();
+        try {
+            protoToJava.convertInto(protoThing, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to convert " + protoThing.getIri(), e);
+        }
+        return builder.build();
+    }
+
+    private static long hash(String iri) {
+        var hash = Hashing.murmur3_128().hashString(iri, StandardCharsets.UTF_8).asLong();
+        return hash == 0 ? 1 : hash; // because 0 marks empty slots
+    }
+
+    private static int position(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private long offset(int slot) {
+        return index.getLong(position(slot) + 8);
+    }
+
+    private long iriOffset(int slot) {
+        return index.getLong(position(slot) + 16);
+    }
+
+    /** Returns the log and IRI offsets (pairwise) of all slots with this hash of an IRI. */
+    private long[] candidates(long hash) {
+        var candidates = new long[2];
+        var found = 0;
+        var mask = capacity - 1;
+        for (int slot = (int) (hash & mask); ; slot = (slot + 1) & mask) {
+            var slotHash = index.getLong(position(slot));
+            if (slotHash == 0) return Arrays.copyOf(candidates, found);
+            if (slotHash == hash) {
+                if (found == candidates.length) candidates = Arrays.copyOf(candidates, found * 2);
+                candidates[found++] = offset(slot);
+                candidates[found++] = iriOffset(slot);
+            }
+        }
+    }
+
+    /**
+     * Finds the slot of the IRI in the index.
+     *
+     * @return the slot, if found; otherwise (-(empty slot) - 1), where the IRI could be inserted.
+     */
+    private int findSlot(String iri, long hash) throws IOException {
+        var mask = capacity - 1;
+        for (int slot = (int) (hash & mask); ; slot = (slot + 1) & mask) {
+            var slotHash = index.getLong(position(slot));
+            if (slotHash == 0) return -slot - 1;
+            if (slotHash == hash && readIRI(iriOffset(slot)).equals(iri)) return slot;
+        }
+    }
+
+    private void write(Thing thing, long hash, int slot) throws IOException {
+        var offset = append(javaToProto.convert(thing).build());
+        writes++;
+        if (slot >= 0) {
+            index.putLong(position(slot) + 8, offset);
+        } else {
+            insert(index, capacity, hash, offset, appendIRI(thing.iri()));
+            index.putInt(SIZE_POSITION, ++size);
+        }
+        index.putLong(LOG_LENGTH_POSITION, logLength);
+        index.putLong(IRIS_LENGTH_POSITION, irisLength);
+        cache.put(thing.iri(), thing);
+        if (size > capacity / 4 * 3) grow();
+    }
+
+    private static void insert(
+            ByteBuffer index, int capacity, long hash, long offset, long iriOffset) {
+        var mask = capacity - 1;
+        var slot = (int) (hash & mask);
+        while (index.getLong(position(slot)) != 0) slot = (slot + 1) & mask;
+        index.putLong(position(slot), hash);
+        index.putLong(position(slot) + 8, offset);
+        index.putLong(position(slot) + 16, iriOffset);
+    }
+
+    private synchronized long[] offsets() {
+        var offsets = new long[size];
+        var i = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            if (index.getLong(position(slot)) != 0) offsets[i++] = offset(slot);
+        }
+        // Reading the log sequentially is much faster than in the random order of the hash table
+        Arrays.sort(offsets);
+        return offsets;
+    }
+
+    // Log & IRIs
+
+    private record Record(dev.enola.thing.proto.Thing thing, long end) {}
+
+    private record Delimited(ByteBuffer bytes, long end) {}
+
+    private long append(dev.enola.thing.proto.Thing protoThing) throws IOException {
+        var offset = logLength;
+        logLength = appendDelimited(log, offset, protoThing.toByteArray());
+        return offset;
+    }
+
+    private long appendIRI(String iri) throws IOException {
+        var offset = irisLength;
+        irisLength = appendDelimited(iris, offset, iri.getBytes(StandardCharsets.UTF_8));
+        return offset;
+    }
+
+    /** Writes the bytes with a varint length prefix at offset, and returns where they end. */
+    private static long appendDelimited(FileChannel channel, long offset, byte[] bytes)
+            throws IOException {
+        var lengthSize = CodedOutputStream.computeUInt32SizeNoTag(bytes.length);
+        var buffer = ByteBuffer.allocate(lengthSize + bytes.length);
+        var output = CodedOutputStream.newInstance(buffer);
+        output.writeUInt32NoTag(bytes.length);
+        output.writeRawBytes(bytes);
+        output.flush();
+        buffer.flip();
+
+        while (buffer.hasRemaining()) channel.write(buffer, offset + buffer.position());
+        return offset + buffer.limit();
+    }
+
+    private Record read(long offset) throws IOException {
+        return read(offset, logLength);
+    }
+
+    private Record read(long offset, long logLength) throws IOException {
+        var record = readDelimited(log, logLength, offset);
+        return new Record(dev.enola.thing.proto.Thing.parseFrom(record.bytes()), record.end());
+    }
+
+    private String readIRI(long offset) throws IOException {
+        return readIRI(offset, irisLength);
+    }
+
+    private String readIRI(long offset, long irisLength) throws IOException {
+        var iri = readDelimited(iris, irisLength, offset);
+        return StandardCharsets.UTF_8.decode(iri.bytes()).toString();
+    }
+
+    /**
+     * Reads varint length prefixed bytes at offset. A (corrupt) length beyond the channel's length
+     * is an IOException, just like a truncated one.
+     */
+    private static Delimited readDelimited(FileChannel channel, long channelLength, long offset)
+            throws IOException {
+        // A varint32 length prefix is at most 5 bytes long
+        var head = ByteBuffer.allocate(5);
+        channel.read(head, offset);
+        head.flip();
+        var input = CodedInputStream.newInstance(head);
+        var length = input.readRawVarint32();
+        var start = offset + input.getTotalBytesRead();
+        if (length < 0 || length > channelLength - start)
+            throw new IOException("Invalid length " + length + " of record at " + offset);
+
+        var body = ByteBuffer.allocate(length);
+        while (body.hasRemaining()) {
+            if (channel.read(body, start + body.position()) < 0)
+                throw new EOFException("Truncated record at " + offset);
+        }
+        body.flip();
+        return new Delimited(body, start + length);
+    }
+
+    private dev.enola.thing.proto.Thing readOrThrow(long offset) {
+        try {
+            return read(offset).thing();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read record at " + offset, e);
+        }
+    }
+
+    // Index
+
+    private boolean openIndex() throws IOException {
+        if (!Files.exists(indexPath)) return false;
+        var channel = FileChannel.open(indexPath, READ, WRITE);
+        var fileSize = channel.size();
+        if (fileSize >= HEADER_SIZE) {
+            var mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            var mappedCapacity = mapped.getInt(CAPACITY_POSITION);
+            if (mapped.getInt(0) == MAGIC
+                    && mapped.getInt(4) == VERSION
+                    && Integer.bitCount(mappedCapacity) == 1
+                    && fileSize == position(mappedCapacity)
+                    && mapped.getLong(LOG_LENGTH_POSITION) == logLength
+                    && mapped.getLong(IRIS_LENGTH_POSITION) == irisLength) {
+                indexChannel = channel;
+                index = mapped;
+                capacity = mappedCapacity;
+                size = mapped.getInt(SIZE_POSITION);
+                return true;
+            }
+        }
+        LOG.warn("Ignoring stale or invalid {}", indexPath);
+        channel.close();
+        return false;
+    }
+
+    private void rebuildIndex() throws IOException {
+        LOG.info("Rebuilding index {} from log...", indexPath);
+        Files.deleteIfExists(indexPath);
+        indexChannel = FileChannel.open(indexPath, CREATE, READ, WRITE);
+        index = newIndex(indexChannel, INITIAL_CAPACITY);
+        capacity = INITIAL_CAPACITY;
+        size = 0;
+        iris.truncate(0);
+        irisLength = 0;
+
+        long offset = 0;
+        while (offset < logLength) {
+            Record record;
+            try {
+                record = read(offset);
+            } catch (IOException e) {
+                // Typically a partially written last record, e.g. after a crash
+                LOG.warn("Truncating {} bytes of log after offset {}", logLength - offset, offset);
+                log.truncate(offset);
+                break;
+            }
+            var iri = record.thing().getIri();
+            var hash = hash(iri);
+            var slot = findSlot(iri, hash);
+            if (slot >= 0) {
+                index.putLong(position(slot) + 8, offset);
+            } else {
+                insert(index, capacity, hash, offset, appendIRI(iri));
+                index.putInt(SIZE_POSITION, ++size);
+                if (size > capacity / 4 * 3) grow();
+            }
+            offset = record.end();
+        }
+        logLength = offset;
+        index.putLong(LOG_LENGTH_POSITION, logLength);
+        index.putLong(IRIS_LENGTH_POSITION, irisLength);
+    }
+
+    private static MappedByteBuffer newIndex(FileChannel channel, int capacity)
+            throws IOException {
+        // Mapping beyond the end of the file extends it (and the new bytes are 0, i.e. empty)
+        var mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, position(capacity));
+        mapped.putInt(0, MAGIC);
+        mapped.putInt(4, VERSION);
+        mapped.putInt(CAPACITY_POSITION, capacity);
+        return mapped;
+    }
+
+    private void grow() throws IOException {
+        var newCapacity = capacity * 2;
+        var newPath = indexPath.resolveSibling(INDEX_FILENAME + ".new");
+        Files.deleteIfExists(newPath);
+        var newChannel = FileChannel.open(newPath, CREATE, READ, WRITE);
+        var newIndex = newIndex(newChannel, newCapacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            var hash = index.getLong(position(slot));
+            if (hash != 0) insert(newIndex, newCapacity, hash, offset(slot), iriOffset(slot));
+        }
+        newIndex.putInt(SIZE_POSITION, size);
+        newIndex.putLong(LOG_LENGTH_POSITION, logLength);
+        newIndex.putLong(IRIS_LENGTH_POSITION, irisLength);
+        newIndex.force();
+        Files.move(newPath, indexPath, StandardCopyOption.ATOMIC_MOVE);
+
+        indexChannel.close();
+        indexChannel = newChannel;
+        index = newIndex;
+        capacity = newCapacity;
+    }
+}
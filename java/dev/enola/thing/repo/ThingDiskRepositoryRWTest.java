@@ -0,0 +1,185 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.repo;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.junit.Assert.assertThrows;
+
+import dev.enola.datatype.DatatypeRepository;
+import dev.enola.datatype.DatatypeRepositoryBuilder;
+import dev.enola.thing.Thing;
+import dev.enola.thing.impl.ImmutableThing;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ThingDiskRepositoryRWTest {
+
+    private static final String IRI = "http://example.com";
+
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final DatatypeRepository dtr = new DatatypeRepositoryBuilder().build();
+
+    private ThingDiskRepositoryRW open(Path directory) throws IOException {
+        return new ThingDiskRepositoryRW(directory, 10, dtr);
+    }
+
+    private static Thing thing(String iri, String predicate, String value) {
+        return ImmutableThing.builder().iri(iri).set(predicate, value).build();
+    }
+
+    @Test
+    public void storeGetAndReopen() throws IOException {
+        var directory = tmp.getRoot().toPath();
+        try (var repo = open(directory)) {
+            assertThat(repo.get(IRI)).isNull();
+            repo.store(ThingRepositoriesTest.TEST_THING);
+            assertThrows(
+                    IllegalArgumentException.class,
+                    () -> repo.store(ThingRepositoriesTest.TEST_THING));
+            assertThat(repo.get(IRI)).isEqualTo(ThingRepositoriesTest.TEST_THING);
+        }
+        try (var repo = open(directory)) {
+            assertThat(repo.listIRI()).containsExactly(IRI);
+            assertThat(repo.get(IRI)).isEqualTo(ThingRepositoriesTest.TEST_THING);
+        }
+    }
+
+    @Test
+    public void merge() throws IOException {
+        var directory = tmp.getRoot().toPath();
+        try (var repo = open(directory)) {
+            repo.merge(thing(IRI, "http://example.com/a", "a"));
+            repo.merge(thing(IRI, "http://example.com/b", "b"));
+            assertThat(repo.listIRI()).containsExactly(IRI);
+            assertThat(repo.get(IRI).predicateIRIs())
+                    .containsExactly("http://example.com/a", "http://example.com/b");
+        }
+        try (var repo = open(directory)) {
+            assertThat(repo.get(IRI).predicateIRIs())
+                    .containsExactly("http://example.com/a", "http://example.com/b");
+        }
+    }
+
+    @Test
+    public void clear() throws IOException {
+        var directory = tmp.getRoot().toPath();
+        try (var repo = open(directory)) {
+            repo.merge(thing(IRI, "http://example.com/a", "old"));
+            repo.merge(thing("http://example.com/deleted", "http://example.com/a", "a"));
+        }
+        try (var repo = open(directory)) {
+            repo.clear();
+            assertThat(repo.get(IRI)).isNull();
+            repo.merge(thing(IRI, "http://example.com/a", "new"));
+            assertThat(repo.listIRI()).containsExactly(IRI);
+            assertThat(repo.get(IRI).getString("http://example.com/a")).isEqualTo("new");
+        }
+        try (var repo = open(directory)) {
+            assertThat(repo.listIRI()).containsExactly(IRI);
+            assertThat(repo.get(IRI).getString("http://example.com/a")).isEqualTo("new");
+        }
+    }
+
+    @Test
+    public void concurrentColdReads() throws Exception {
+        var n = 2000;
+        try (var repo = new ThingDiskRepositoryRW(tmp.getRoot().toPath(), 0, dtr)) {
+            for (int i = 0; i < n; i++) repo.store(thing(IRI + "/" + i, IRI + "/p", "v" + i));
+            var executor = Executors.newFixedThreadPool(8);
+            try {
+                var futures = new ArrayList<Future<Boolean>>();
+                for (int i = 0; i < n; i++) {
+                    var iri = IRI + "/" + i;
+                    var value = "v" + i;
+                    futures.add(
+                            executor.submit(
+                                    () -> value.equals(repo.get(iri).getString(IRI + "/p"))));
+                }
+                for (var future : futures) assertThat(future.get()).isTrue();
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void manyThingsWithoutCache() throws IOException {
+        var n = 5000; // more than the initial index capacity, so it has to grow
+        try (var repo = new ThingDiskRepositoryRW(tmp.getRoot().toPath(), 0, dtr)) {
+            for (int i = 0; i < n; i++) repo.store(thing(IRI + "/" + i, IRI + "/p", "v" + i));
+            assertThat(repo.listIRI()).hasSize(n);
+            assertThat(repo.list()).hasSize(n);
+            for (int i = 0; i < n; i++) {
+                assertThat(repo.get(IRI + "/" + i).getString(IRI + "/p")).isEqualTo("v" + i);
+            }
+            assertThat(repo.get(IRI + "/" + n)).isNull();
+        }
+    }
+
+    @Test
+    public void rebuildsIndexAndTruncatesPartialRecord() throws IOException {
+        var directory = tmp.getRoot().toPath();
+        try (var repo = open(directory)) {
+            repo.store(thing(IRI + "/1", IRI + "/p", "1"));
+            repo.merge(thing(IRI + "/1", IRI + "/q", "2"));
+            repo.store(thing(IRI + "/2", IRI + "/p", "3"));
+        }
+        // Simulate a crash during a write: index lost, and a partial record at the end of the log
+        Files.delete(directory.resolve("things.idx"));
+        Files.write(directory.resolve("things.log"), new byte[] {42}, StandardOpenOption.APPEND);
+
+        try (var repo = open(directory)) {
+            assertThat(repo.listIRI()).containsExactly(IRI + "/1", IRI + "/2");
+            assertThat(repo.get(IRI + "/1").getString(IRI + "/q")).isEqualTo("2");
+            repo.store(thing(IRI + "/3", IRI + "/p", "4"));
+        }
+        try (var repo = open(directory)) {
+            assertThat(repo.get(IRI + "/3").getString(IRI + "/p")).isEqualTo("4");
+        }
+    }
+
+    @Test
+    public void truncatesRecordWithCorruptLength() throws IOException {
+        var directory = tmp.getRoot().toPath();
+        try (var repo = open(directory)) {
+            repo.store(thing(IRI + "/1", IRI + "/p", "1"));
+        }
+        // Varint of Integer.MAX_VALUE, as length of a record which is much shorter than that
+        var corrupt = new byte[] {(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07, 42};
+        Files.delete(directory.resolve("things.idx"));
+        Files.write(directory.resolve("things.log"), corrupt, StandardOpenOption.APPEND);
+
+        try (var repo = open(directory)) {
+            assertThat(repo.listIRI()).containsExactly(IRI + "/1");
+            repo.store(thing(IRI + "/2", IRI + "/p", "2"));
+            assertThat(repo.listIRI()).containsExactly(IRI + "/1", IRI + "/2");
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.thing.repo;
+
+import com.google.errorprone.annotations.ThreadSafe;
+
+import dev.enola.thing.KIRI;
+import dev.enola.thing.Thing;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Secondary indexes of {@link Thing}s, for {@link IndexedThingRepository}.
+ *
+ * <p>Merging only ever adds entries; this matches {@link dev.enola.data.Store#merge(Object)}, where
+ * a merged Thing has (at least) all the predicates and objects of the Thing it replaces. Entries
+ * are only removed when the Thing itself is, see {@link #unindex(Thing)}, or when it is replaced by
+ * one which no longer has them, see {@link #reindex(Thing, Thing)}.
+ */
+@ThreadSafe
+final class ThingIndexes {
+
+    private final Map<String, Entries> byType = new ConcurrentHashMap<>();
+    private final Map<String, Entries> byPredicate = new ConcurrentHashMap<>();
+    private final Map<String, Entries> byLink = new ConcurrentHashMap<>();
+
+    /**
+     * The IRIs of one key, and their number; because the size() of a ConcurrentSkipListSet is
+     * O(n), and query planning needs it often.
+     */
+    private record Entries(NavigableSet<String> iris, AtomicInteger size) {
+        Entries() {
+            this(new ConcurrentSkipListSet<>(), new AtomicInteger());
+        }
+    }
+
+    /** The keys under which a Thing is indexed. */
+    private record Keys(Set<String> types, Set<String> predicates, Set<String> links) {
+
+        static Keys of(Thing thing) {
+            var predicates = new HashSet<String>();
+            var links = new HashSet<String>();
+            for (var predicateIRI : thing.predicateIRIs()) {
+                predicates.add(predicateIRI);
+                for (var link : thing.getLinks(predicateIRI)) links.add(link.toString());
+            }
+
+            // Types are indexed separately from links, because an rdf:type could also be a String;
+            // but such a type is still a link, as in dev.enola.thing.query.Values#normalize()
+            var types = new HashSet<String>();
+            var type = thing.get(KIRI.RDF.TYPE);
+            if (type instanceof Iterable<?> iterable) {
+                for (var eachType : iterable) types.add(eachType.toString());
+            } else if (type != null) types.add(type.toString());
+            links.addAll(types);
+
+            return new Keys(types, predicates, links);
+        }
+    }
+
+    void index(Thing thing) {
+        index(thing.iri(), Keys.of(thing));
+    }
+
+    private void index(String iri, Keys keys) {
+        for (var type : keys.types) add(byType, type, iri);
+        for (var predicate : keys.predicates) add(byPredicate, predicate, iri);
+        for (var link : keys.links) add(byLink, link, iri);
+    }
+
+    /** Removes the entries of a Thing which was removed from its repository. */
+    void unindex(Thing thing) {
+        var iri = thing.iri();
+        var keys = Keys.of(thing);
+        for (var type : keys.types) remove(byType, type, iri);
+        for (var predicate : keys.predicates) remove(byPredicate, predicate, iri);
+        for (var link : keys.links) remove(byLink, link, iri);
+    }
+
+    /**
+     * Updates the entries of a Thing which was replaced by another one (with the same IRI). Entries
+     * which both have are never removed, not even temporarily; so concurrent queries still find it.
+     */
+    void reindex(Thing previous, Thing thing) {
+        var iri = thing.iri();
+        var keys = Keys.of(thing);
+        index(iri, keys);
+        var previousKeys = Keys.of(previous);
+        for (var type : previousKeys.types)
+            if (!keys.types.contains(type)) remove(byType, type, iri);
+        for (var predicate : previousKeys.predicates)
+            if (!keys.predicates.contains(predicate)) remove(byPredicate, predicate, iri);
+        for (var link : previousKeys.links)
+            if (!keys.links.contains(link)) remove(byLink, link, iri);
+    }
+
+    private static void add(Map<String, Entries> index, String key, String iri) {
+        var entries = index.computeIfAbsent(key, k -> new Entries());
+        if (entries.iris.add(iri)) entries.size.incrementAndGet();
+    }
+
+    private static void remove(Map<String, Entries> index, String key, String iri) {
+        var entries = index.get(key);
+        if (entries != null && entries.iris.remove(iri)) entries.size.decrementAndGet();
+    }
+
+    // These return NavigableSets, so that callers can e.g. continue after an IRI in O(log n)
+
+    NavigableSet<String> byType(String typeIRI) {
+        return get(byType, typeIRI);
+    }
+
+    NavigableSet<String> byPredicate(String predicateIRI) {
+        return get(byPredicate, predicateIRI);
+    }
+
+    NavigableSet<String> byLink(String iri) {
+        return get(byLink, iri);
+    }
+
+    private static NavigableSet<String> get(Map<String, Entries> index, String key) {
+        var entries = index.get(key);
+        if (entries == null) return Collections.emptyNavigableSet();
+        return Collections.unmodifiableNavigableSet(entries.iris);
+    }
+
+    // These are O(1), unlike the size() of the NavigableSets above
+
+    int countByType(String typeIRI) {
+        return count(byType, typeIRI);
+    }
+
+    int countByPredicate(String predicateIRI) {
+        return count(byPredicate, predicateIRI);
+    }
+
+    int countByLink(String iri) {
+        return count(byLink, iri);
+    }
+
+    private static int count(Map<String, Entries> index, String key) {
+        var entries = index.get(key);
+        return entries != null ? entries.size.get() : 0;
+    }
+}
@@ -17,6 +17,9 @@
  */
 package dev.enola.thing.repo;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+
 import dev.enola.data.Repository;
 import dev.enola.data.RepositoryBuilder;
 import dev.enola.thing.Thing;
@@ -25,6 +28,9 @@ import dev.enola.thing.Thing;
  * Builds a read-only Repository of {@link Thing}s.
  *
  * <p>{@link ThingMemoryRepositoryRW} is one of possibly several other alternatives for this.
+ *
+ * <p>The built repository is an {@link IndexedThingRepository}; its indexes are only built on
+ * first use.
  */
 public class ThingMemoryRepositoryROBuilder
         extends RepositoryBuilder<ThingMemoryRepositoryROBuilder, Thing> {
@@ -40,12 +46,20 @@ public class ThingMemoryRepositoryROBuilder
     }
 
     @Override
-    public ThingRepository build() {
+    public IndexedThingRepository build() {
         return wrap(super.build());
     }
 
-    private ThingRepository wrap(final Repository<Thing> repository) {
-        return new ThingRepository() {
+    private IndexedThingRepository wrap(final Repository<Thing> repository) {
+        final Supplier<ThingIndexes> indexes =
+                Suppliers.memoize(
+                        () -> {
+                            var thingIndexes = new ThingIndexes();
+                            repository.list().forEach(thingIndexes::index);
+                            return thingIndexes;
+                        });
+
+        return new IndexedThingRepository() {
 
             @Override
             public Iterable<String> listIRI() {
@@ -56,6 +70,41 @@ public class ThingMemoryRepositoryROBuilder
             public Thing get(String iri) {
                 return repository.get(iri);
             }
+
+            @Override
+            public Iterable<Thing> list() {
+                return repository.list();
+            }
+
+            @Override
+            public Iterable<String> listIRIByType(String typeIRI) {
+                return indexes.get().byType(typeIRI);
+            }
+
+            @Override
+            public Iterable<String> listIRIByPredicate(String predicateIRI) {
+                return indexes.get().byPredicate(predicateIRI);
+            }
+
+            @Override
+            public Iterable<String> listIRILinkingTo(String iri) {
+                return indexes.get().byLink(iri);
+            }
+
+            @Override
+            public int countIRIByType(String typeIRI) {
+                return indexes.get().countByType(typeIRI);
+            }
+
+            @Override
+            public int countIRIByPredicate(String predicateIRI) {
+                return indexes.get().countByPredicate(predicateIRI);
+            }
+
+            @Override
+            public int countIRILinkingTo(String iri) {
+                return indexes.get().countByLink(iri);
+            }
         };
     }
 }
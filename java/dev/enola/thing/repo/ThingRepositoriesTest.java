@@ -23,15 +23,23 @@ import static org.junit.Assert.assertThrows;
 
 import com.google.common.collect.ImmutableList;
 
+import dev.enola.common.concurrent.Executors;
 import dev.enola.data.Store;
 import dev.enola.thing.*;
 import dev.enola.thing.impl.ImmutableThing;
 import dev.enola.thing.template.TemplateThingRepository;
 
 import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.concurrent.Future;
 
 public class ThingRepositoriesTest {
 
+    private static final Logger LOG = LoggerFactory.getLogger(ThingRepositoriesTest.class);
+
     public static final Thing TEST_THING =
             ImmutableThing.builder()
                     .iri("http://example.com")
@@ -73,4 +81,34 @@ public class ThingRepositoriesTest {
         checkThingRepository(readWriteRepoStore);
         checkThingRepository(new TemplateThingRepository(readWriteRepoStore));
     }
+
+    @Test
+    public void memoryRepositoryRWConcurrentMerge() throws Exception {
+        var store = new ThingMemoryRepositoryRW();
+        var n = 100;
+        try (var executor = Executors.newListeningFixedThreadPool(8, "MergeTest", LOG)) {
+            var futures = new ArrayList<Future<?>>(n);
+            for (int i = 0; i < n; i++) {
+                var thing =
+                        ImmutableThing.builder()
+                                .iri("http://example.com")
+                                .set("http://example.com/p" + i, "v" + i)
+                                .build();
+                futures.add(executor.submit(() -> store.merge(thing)));
+            }
+            for (var future : futures) future.get();
+        }
+        assertThat(store.get("http://example.com").predicateIRIs()).hasSize(n);
+    }
+
+    @Test
+    public void memoryRepositoryRWMergeAll() {
+        var store = new ThingMemoryRepositoryRW();
+        var a = ImmutableThing.builder().iri("http://example.com").set("http://example.com/a", "a");
+        var b = ImmutableThing.builder().iri("http://example.com").set("http://example.com/b", "b");
+        store.mergeAll(ImmutableList.of(a.build(), b.build(), TEST_THING));
+        assertThat(store.get("http://example.com").predicateIRIs())
+                .containsAtLeast("http://example.com/a", "http://example.com/b");
+        assertThat(store.listIRI()).containsExactly("http://example.com");
+    }
 }
@@ -26,16 +26,28 @@ import com.google.common.collect.Iterables;
 import dev.enola.common.collect.MoreIterables;
 import dev.enola.common.io.iri.template.URITemplateMatcherChain;
 import dev.enola.common.io.iri.template.VariableMaps;
+import dev.enola.data.ObservableRepository;
 import dev.enola.thing.*;
 import dev.enola.thing.impl.ImmutableThing;
+import dev.enola.thing.repo.IndexedThingRepository;
 import dev.enola.thing.repo.ThingRepository;
 
 import org.jspecify.annotations.Nullable;
 
 import java.util.*;
 import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.function.Consumer;
 
-public class TemplateThingRepository implements ThingRepository, TemplateService {
+/**
+ * TemplateThingRepository is a {@link ThingRepository} which, in addition to the Things of its
+ * delegate, "generates" Things for IRIs matching the {@link KIRI.E#IRI_TEMPLATE_PROPERTY} of RDFS
+ * Classes of the delegate.
+ *
+ * <p>The templates are only read when this is created; changes of the Things of an {@link
+ * ObservableRepository} delegate are forwarded to listeners, but don't add or remove templates.
+ */
+public class TemplateThingRepository
+        implements ThingRepository, TemplateService, ObservableRepository {
 
     private record Match(String iriTemplate, Function<Map<String, String>, Thing> function) {}
 
@@ -44,9 +56,10 @@ public class TemplateThingRepository implements ThingRepository, TemplateService
 
     public TemplateThingRepository(ThingRepository delegate) {
         this.delegate = delegate;
-        int size = MoreIterables.sizeIfKnown(delegate.list()).orElse(42);
+        var classes = classes(delegate);
+        int size = MoreIterables.sizeIfKnown(classes).orElse(42);
         var iriTemplateChainBuilder = URITemplateMatcherChain.<Match>builderWithExpectedSize(size);
-        for (var thing : delegate.list()) {
+        for (var thing : classes) {
             if (!thing.isIterable(KIRI.RDF.TYPE)
                     && KIRI.RDFS.CLASS.equals(thing.getString(KIRI.RDF.TYPE))) {
                 thing.getOptional(KIRI.E.IRI_TEMPLATE_PROPERTY, String.class)
@@ -59,6 +72,13 @@ public class TemplateThingRepository implements ThingRepository, TemplateService
         this.iriTemplateChain = iriTemplateChainBuilder.build();
     }
 
+    /** Candidates for RDFS Classes; only those of an index, if available, else all Things. */
+    private static Iterable<Thing> classes(ThingRepository repository) {
+        if (repository instanceof IndexedThingRepository indexed)
+            return Iterables.transform(indexed.listIRIByType(KIRI.RDFS.CLASS), indexed::get);
+        else return repository.list();
+    }
+
     private Match gen(String classIRITemplate, Thing rdfClass) {
         Set<SimpleImmutableEntry<String, URITemplate>> set = new HashSet<>();
         for (String predicateIRI : rdfClass.predicateIRIs()) {
@@ -101,6 +121,12 @@ public class TemplateThingRepository implements ThingRepository, TemplateService
         }
     }
 
+    @Override
+    public void addStoredListener(Consumer<String> iriListener) {
+        if (delegate instanceof ObservableRepository observable)
+            observable.addStoredListener(iriListener);
+    }
+
     @Override
     public Iterable<String> listIRI() {
         return Iterables.concat(iriTemplateChain.listTemplates(), delegate.listIRI());
@@ -0,0 +1,122 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.web;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.net.MediaType;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import dev.enola.common.io.resource.ReadableResource;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * {@link WebHandler} which keeps the resources returned by another handler in a size-bounded
+ * (by bytes) memory cache, as {@link ETaggedResource}s.
+ *
+ * <p>Resources are cached per URI and the media type which the handler {@link
+ * WebHandler#negotiate(Map) negotiates} from the <tt>Accept</tt> request header (if it does), and
+ * such responses are tagged to vary on that header. Caching per media type, instead of per raw
+ * header value, avoids keeping a copy for each of the many different headers of clients.
+ *
+ * <p>This is intended for handlers such as {@link RestAPI} and {@link UI}, whose output for a URI
+ * does not change while the server runs (because the Things it renders do not); it must not wrap
+ * handlers of mutable content, unless {@link #invalidateAll()} is called whenever it changes (e.g.
+ * when models are reloaded). Failures are not cached.
+ */
+public class CachingWebHandler implements WebHandler {
+
+    private static final long DEFAULT_MAX_BYTES = 64 * 1024 * 1024;
+
+    private final WebHandler delegate;
+    private final String cacheControl;
+    private final Cache<Key, ETaggedResource> cache;
+
+    public CachingWebHandler(WebHandler delegate) {
+        this(delegate, DEFAULT_MAX_BYTES, Duration.ZERO);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxBytes total size of the content of all cached resources.
+     * @param maxAge for how long clients may use a response without revalidating it; with ZERO
+     *     they revalidate every time, which is cheap due to the ETag.
+     */
+    public CachingWebHandler(WebHandler delegate, long maxBytes, Duration maxAge) {
+        this.delegate = delegate;
+        this.cacheControl = maxAge.isZero() ? "no-cache" : "max-age=" + maxAge.toSeconds();
+        this.cache =
+                CacheBuilder.newBuilder()
+                        .maximumWeight(maxBytes)
+                        .weigher((Key key, ETaggedResource resource) -> resource.size())
+                        .build();
+    }
+
+    @Override
+    public ListenableFuture<ReadableResource> handle(URI uri) {
+        return handle(uri, Map.of());
+    }
+
+    @Override
+    public ListenableFuture<ReadableResource> handle(URI uri, Map<String, String> headers) {
+        var mediaType = delegate.negotiate(headers);
+        var key = new Key(uri, mediaType);
+        var vary = mediaType != null ? "Accept" : null;
+        var cached = cache.getIfPresent(key);
+        if (cached != null) return Futures.immediateFuture(cached);
+
+        return Futures.transform(
+                delegate.handle(uri, headers),
+                resource -> {
+                    try {
+                        var tagged = ETaggedResource.of(resource, cacheControl, vary);
+                        cache.put(key, tagged);
+                        return tagged;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                },
+                directExecutor());
+    }
+
+    @Override
+    public @Nullable MediaType negotiate(Map<String, String> headers) {
+        return delegate.negotiate(headers);
+    }
+
+    /**
+     * Discards all cached resources. Because a change of a single Thing may change the output of
+     * many URIs (e.g. of all the Things linking to it), this does not try to be more selective.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private record Key(URI uri, @Nullable MediaType mediaType) {}
+}
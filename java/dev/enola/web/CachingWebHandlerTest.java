@@ -0,0 +1,147 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.web;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+
+import static dev.enola.common.context.testlib.SingletonRule.$;
+
+import com.google.common.net.MediaType;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import dev.enola.common.context.testlib.SingletonRule;
+import dev.enola.common.io.mediatype.MediaTypeProviders;
+import dev.enola.common.io.resource.ReadableResource;
+import dev.enola.common.io.resource.StringResource;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CachingWebHandlerTest {
+
+    public @Rule SingletonRule r = $(MediaTypeProviders.set(new MediaTypeProviders()));
+
+    @Test
+    public void cachesAndTags() throws Exception {
+        var counter = new AtomicInteger();
+        WebHandler delegate =
+                uri -> immediateFuture(StringResource.of(uri + "#" + counter.incrementAndGet()));
+        var handler = new CachingWebHandler(delegate);
+
+        var uri1 = URI.create("/api/a");
+        var tagged1 = (ETaggedResource) handler.handle(uri1).get();
+        var tagged1Again = (ETaggedResource) handler.handle(uri1).get();
+        assertThat(counter.get()).isEqualTo(1);
+        assertThat(tagged1Again.etag()).isEqualTo(tagged1.etag());
+        assertThat(tagged1Again.charSource().read()).isEqualTo("/api/a#1");
+        assertThat(tagged1.cacheControl()).isEqualTo("no-cache");
+
+        var tagged2 = (ETaggedResource) handler.handle(URI.create("/api/b")).get();
+        assertThat(counter.get()).isEqualTo(2);
+        assertThat(tagged2.etag()).isNotEqualTo(tagged1.etag());
+    }
+
+    @Test
+    public void invalidateAll() throws Exception {
+        var counter = new AtomicInteger();
+        WebHandler delegate =
+                uri -> immediateFuture(StringResource.of("#" + counter.incrementAndGet()));
+        var handler = new CachingWebHandler(delegate);
+
+        var uri = URI.create("/api/a");
+        handler.handle(uri).get();
+        handler.invalidateAll();
+        assertThat(handler.handle(uri).get().charSource().read()).isEqualTo("#2");
+    }
+
+    @Test
+    public void negotiated() throws Exception {
+        var counter = new AtomicInteger();
+        var delegate =
+                new WebHandler() {
+                    @Override
+                    public ListenableFuture<ReadableResource> handle(URI uri) {
+                        return handle(uri, Map.of());
+                    }
+
+                    @Override
+                    public ListenableFuture<ReadableResource> handle(
+                            URI uri, Map<String, String> headers) {
+                        var mediaType = negotiate(headers);
+                        var text = mediaType + "#" + counter.incrementAndGet();
+                        return immediateFuture(StringResource.of(text));
+                    }
+
+                    @Override
+                    public MediaType negotiate(Map<String, String> headers) {
+                        return RestAPI.negotiate(headers.get("accept"));
+                    }
+                };
+        var handler = new CachingWebHandler(delegate);
+
+        var uri = URI.create("/api/a");
+        var json = (ETaggedResource) handler.handle(uri, Map.of()).get();
+        assertThat(json.vary()).isEqualTo("Accept");
+        assertThat(json.charSource().read()).startsWith("application/json");
+
+        // Different Accept headers which negotiate the same media type share the cached resource
+        var jsonAgain = handler.handle(uri, Map.of("accept", "*/*, text/html;q=0.9")).get();
+        assertThat(jsonAgain).isSameInstanceAs(json);
+        assertThat(counter.get()).isEqualTo(1);
+
+        var yaml = handler.handle(uri, Map.of("accept", "text/protobuf+yaml")).get();
+        assertThat(yaml.charSource().read()).startsWith("text/protobuf+yaml");
+        assertThat(counter.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void notNegotiated() throws Exception {
+        var handler = new CachingWebHandler(uri -> immediateFuture(StringResource.of("x")));
+        var tagged = (ETaggedResource) handler.handle(URI.create("/x"), Map.of()).get();
+        assertThat(tagged.vary()).isNull();
+        var other = handler.handle(URI.create("/x"), Map.of("accept", "text/plain")).get();
+        assertThat(other).isSameInstanceAs(tagged);
+    }
+
+    @Test
+    public void matches() throws Exception {
+        var handler = new CachingWebHandler(uri -> immediateFuture(StringResource.of("x")));
+        var tagged = (ETaggedResource) handler.handle(URI.create("/x")).get();
+        var etag = tagged.etag();
+
+        assertThat(tagged.matches(etag)).isTrue();
+        assertThat(tagged.matches("W/" + etag)).isTrue();
+        assertThat(tagged.matches("\"other\", " + etag)).isTrue();
+        assertThat(tagged.matches("*")).isTrue();
+        assertThat(tagged.matches("\"other\"")).isFalse();
+    }
+
+    @Test
+    public void maxAge() throws Exception {
+        WebHandler delegate = uri -> immediateFuture(StringResource.of("x"));
+        var handler = new CachingWebHandler(delegate, 1024, Duration.ofMinutes(1));
+        var tagged = (ETaggedResource) handler.handle(URI.create("/x")).get();
+        assertThat(tagged.cacheControl()).isEqualTo("max-age=60");
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.web;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteSource;
+import com.google.common.net.MediaType;
+
+import dev.enola.common.io.resource.BaseResource;
+import dev.enola.common.io.resource.ByteBufferResource;
+import dev.enola.common.io.resource.ReadableResource;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * {@link ReadableResource} held fully in memory, together with an HTTP entity tag (<tt>ETag</tt>)
+ * computed from its content, and the <tt>Cache-Control</tt> to serve it with.
+ *
+ * <p>The HTTP server emits both as headers, and answers requests with a matching
+ * <tt>If-None-Match</tt> with <tt>304 Not Modified</tt>, instead of the content. If the content
+ * was negotiated, then the header it depends on is emitted as <tt>Vary</tt>, so that shared caches
+ * (e.g. proxies) don't serve e.g. JSON to a client which asked for YAML.
+ *
+ * @see CachingWebHandler
+ */
+public final class ETaggedResource extends BaseResource implements ByteBufferResource {
+
+    public static ETaggedResource of(
+            ReadableResource resource, String cacheControl, @Nullable String vary)
+            throws IOException {
+        if (resource instanceof ETaggedResource tagged
+                && tagged.cacheControl.equals(cacheControl)
+                && Objects.equals(tagged.vary, vary)) return tagged;
+        var bytes = resource.byteSource().read();
+        return new ETaggedResource(resource.uri(), resource.mediaType(), bytes, cacheControl, vary);
+    }
+
+    private final byte[] bytes;
+    private final String etag;
+    private final String cacheControl;
+    private final @Nullable String vary;
+
+    public ETaggedResource(
+            URI uri,
+            MediaType mediaType,
+            byte[] bytes,
+            String cacheControl,
+            @Nullable String vary) {
+        super(uri, mediaType, true);
+        this.bytes = bytes;
+        this.etag = '"' + Hashing.murmur3_128().hashBytes(bytes).toString() + '"';
+        this.cacheControl = cacheControl;
+        this.vary = vary;
+    }
+
+    @Override
+    public ByteSource byteSource() {
+        return ByteSource.wrap(bytes);
+    }
+
+    @Override
+    public ByteBuffer byteBuffer() {
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /** Strong entity tag, including its surrounding double quotes, as in an ETag header. */
+    public String etag() {
+        return etag;
+    }
+
+    /** Value for a Cache-Control header, e.g. "no-cache" or "max-age=60". */
+    public String cacheControl() {
+        return cacheControl;
+    }
+
+    /**
+     * Value for a Vary header, e.g. "Accept" if the content was negotiated from that request
+     * header; or null, if it's the same for all requests of its URI.
+     */
+    public @Nullable String vary() {
+        return vary;
+    }
+
+    /** Whether an <tt>If-None-Match</tt> header value matches (using weak comparison). */
+    public boolean matches(String ifNoneMatch) {
+        for (var tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    int size() {
+        return bytes.length;
+    }
+}
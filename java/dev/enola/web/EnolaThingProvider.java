@@ -17,14 +17,18 @@
  */
 package dev.enola.web;
 
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import com.google.common.collect.Streams;
 import com.google.protobuf.Descriptors.DescriptorValidationException;
 import com.google.protobuf.ExtensionRegistryLite;
-import com.google.protobuf.InvalidProtocolBufferException;
 
 import dev.enola.common.protobuf.TypeRegistryWrapper;
+import dev.enola.core.grpc.GetThingBatcher;
 import dev.enola.core.proto.EnolaServiceGrpc.EnolaServiceBlockingStub;
 import dev.enola.core.proto.GetFileDescriptorSetRequest;
-import dev.enola.core.proto.GetThingRequest;
+import dev.enola.core.proto.StreamThingsRequest;
+import dev.enola.core.proto.StreamThingsResponse;
 import dev.enola.core.thing.ListThingService;
 import dev.enola.core.view.EnolaMessages;
 import dev.enola.data.Repository;
@@ -33,9 +37,14 @@ import dev.enola.thing.message.MessageWithIRI;
 import dev.enola.thing.message.MoreThings;
 import dev.enola.thing.proto.Thing;
 
+import io.grpc.Context;
+
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class EnolaThingProvider implements Repository<Thing> {
 
@@ -45,13 +54,18 @@ public class EnolaThingProvider implements Repository<Thing> {
     // TODO Resolve (some) overlap this class has with abstract class ProtoToThingConnector
     // TODO Resolve (some) overlap this class has with abstract class ThingConnectorsProvider
 
+    /** Deadline of each iteration of {@link #list()}. */
+    private static final long LIST_DEADLINE_MINUTES = 10;
+
     private final MessageToThingConverter m2t = new MessageToThingConverter();
     private final EnolaServiceBlockingStub service;
+    private final GetThingBatcher batcher;
     private final EnolaMessages enolaMessages;
 
     public EnolaThingProvider(EnolaServiceBlockingStub service)
             throws DescriptorValidationException {
         this.service = service;
+        this.batcher = new GetThingBatcher(service);
 
         var gfdsr = GetFileDescriptorSetRequest.newBuilder().build();
         var fds = service.getFileDescriptorSet(gfdsr).getProtos();
@@ -62,8 +76,8 @@ public class EnolaThingProvider implements Repository<Thing> {
 
     @Override
     public Thing get(String iri) {
-        var request = GetThingRequest.newBuilder().setIri(iri).build();
-        var response = service.getThing(request);
+        // Concurrent gets (e.g. from parallel page renders) are coalesced into batches
+        var response = batcher.get(iri);
 
         if (!response.hasThing()) {
             return null;
@@ -84,18 +98,46 @@ public class EnolaThingProvider implements Repository<Thing> {
         }
     }
 
+    /**
+     * Lists all Things. This streams them from the server, so each iteration is a new call; and
+     * only the Things which the caller actually iterates over are transferred and held in memory.
+     *
+     * <p>An Iterable cannot tell when its caller stops iterating, so each call has a deadline (of
+     * {@link #LIST_DEADLINE_MINUTES}), after which an abandoned (or very slow) iteration is
+     * cancelled; prefer {@link #list(String)}, which does not need one.
+     */
     @Override
     public Iterable<Thing> list() {
-        var iri = ListThingService.ENOLA_ROOT_LIST_THINGS;
-        var request = GetThingRequest.newBuilder().setIri(iri).build();
-        var response = service.getThing(request);
-        if (!response.hasThing()) throw new IllegalArgumentException();
-        var any = response.getThing();
+        var listIRI = ListThingService.ENOLA_ROOT_LIST_THINGS;
+        return () ->
+                list(service.withDeadlineAfter(LIST_DEADLINE_MINUTES, MINUTES), listIRI).iterator();
+    }
+
+    /**
+     * Lists the Things of a (filtered and/or paginated) listing IRI, see {@link
+     * ListThingService#listIRI(String, Map)}; streamed, like {@link #list()}.
+     *
+     * <p>The returned Stream must be closed (e.g. with try-with-resources), which cancels the call
+     * if the Stream was not fully consumed; e.g. because only the first few Things were needed.
+     */
+    public Stream<Thing> list(String listIRI) {
+        return list(service, listIRI);
+    }
+
+    private static Stream<Thing> list(EnolaServiceBlockingStub service, String listIRI) {
+        var request = StreamThingsRequest.newBuilder().setIri(listIRI).build();
+        // The call is cancelled with the Context in which it was started
+        var context = Context.current().withCancellation();
+        Iterator<StreamThingsResponse> responses;
+        var previous = context.attach();
         try {
-            return MoreThings.fromAny(any);
-        } catch (InvalidProtocolBufferException e) {
-            throw new UncheckedIOException(e);
+            responses = service.streamThings(request);
+        } finally {
+            context.detach(previous);
         }
+        return Streams.stream(responses)
+                .map(StreamThingsResponse::getThing)
+                .onClose(() -> context.cancel(null));
     }
 
     @Override
@@ -0,0 +1,67 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2023-2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.web;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static dev.enola.common.context.testlib.SingletonRule.$;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import dev.enola.common.context.testlib.SingletonRule;
+import dev.enola.common.io.mediatype.MediaTypeProviders;
+import dev.enola.common.io.resource.ResourceProviders;
+import dev.enola.core.EnolaServiceProvider;
+import dev.enola.core.grpc.EnolaGrpcInProcess;
+import dev.enola.core.proto.StreamThingsRequest;
+import dev.enola.thing.proto.Thing;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+public class EnolaThingProviderTest {
+
+    public @Rule SingletonRule r = $(MediaTypeProviders.set(new MediaTypeProviders()));
+
+    @Test
+    public void closingListCancelsCall() throws Exception {
+        var closed = new CountDownLatch(1);
+        var service =
+                new RestTest.TestService() {
+                    @Override
+                    public Stream<Thing> streamThings(StreamThingsRequest r) {
+                        // Endless, so that the call only ends if the client cancels it
+                        return Stream.iterate(0, i -> i + 1)
+                                .map(i -> Thing.newBuilder().setIri("https://example.org/" + i))
+                                .map(Thing.Builder::build)
+                                .onClose(closed::countDown);
+                    }
+                };
+        var esp = new EnolaServiceProvider(new ResourceProviders());
+        try (var grpc = new EnolaGrpcInProcess(esp, service, false)) {
+            var provider = new EnolaThingProvider(grpc.get());
+            try (var things = provider.list("enola:/inline")) {
+                assertThat(things.limit(3).count()).isEqualTo(3);
+            }
+            assertThat(closed.await(7, SECONDS)).isTrue();
+        }
+    }
+}
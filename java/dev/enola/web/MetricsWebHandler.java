@@ -0,0 +1,47 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.web;
+
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+
+import com.google.common.net.MediaType;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import dev.enola.common.io.resource.ReadableResource;
+import dev.enola.common.io.resource.StringResource;
+import dev.enola.common.metrics.MetricsRegistry;
+import dev.enola.common.metrics.PrometheusText;
+
+import java.net.URI;
+
+/** {@link WebHandler} which serves the metrics of a {@link MetricsRegistry}, for Prometheus. */
+public class MetricsWebHandler implements WebHandler {
+
+    private static final MediaType MEDIA_TYPE = MediaType.parse(PrometheusText.MEDIA_TYPE);
+
+    private final MetricsRegistry registry;
+
+    public MetricsWebHandler(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public ListenableFuture<ReadableResource> handle(URI uri) {
+        return immediateFuture(StringResource.of(PrometheusText.toString(registry), MEDIA_TYPE));
+    }
+}
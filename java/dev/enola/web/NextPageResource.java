@@ -0,0 +1,43 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.web;
+
+import dev.enola.common.io.resource.DelegatingReadableResource;
+import dev.enola.common.io.resource.ReadableResource;
+
+/**
+ * {@link ReadableResource} which is a page of a paginated listing, with the URI of the next page.
+ *
+ * <p>The HTTP server emits that as a <tt>Link: &lt;...&gt;; rel="next"</tt> header (see <a
+ * href="https://www.rfc-editor.org/rfc/rfc8288">RFC 8288</a>), because formats such as GEXF have
+ * no place for it in the content.
+ */
+public final class NextPageResource extends DelegatingReadableResource {
+
+    private final String next;
+
+    public NextPageResource(ReadableResource page, String next) {
+        super(page);
+        this.next = next;
+    }
+
+    /** URI (reference) of the next page, e.g. /timeline?q=enola:/inline&amp;after=... */
+    public String next() {
+        return next;
+    }
+}
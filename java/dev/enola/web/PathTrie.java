@@ -0,0 +1,158 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.web;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Trie of path patterns, which finds the longest pattern which is a prefix of a path.
+ *
+ * <p>Patterns are literal, except for <code>{name}</code> parameters, each of which matches a
+ * (non-empty) path segment, i.e. everything up to the next <code>/</code>.
+ *
+ * <p>Matching walks down the trie once per character of the path, so its cost depends only on the
+ * length of the path, not on how many patterns there are. Only where both a literal and a parameter
+ * continue a path, both are tried (backtracking), and the longer match wins; the literal on a tie.
+ */
+final class PathTrie<T> {
+
+    private static final class Node<T> {
+        private char[] labels = new char[0];
+
+        @SuppressWarnings("unchecked")
+        private Node<T>[] children = new Node[0];
+
+        private @Nullable Node<T> parameter;
+        private @Nullable String parameterName;
+
+        private @Nullable T value;
+        private List<String> parameterNames = List.of();
+
+        @Nullable Node<T> child(char c) {
+            // Linear, because nodes of path tries typically have very few children
+            for (int i = 0; i < labels.length; i++) if (labels[i] == c) return children[i];
+            return null;
+        }
+
+        Node<T> addChild(char c) {
+            var child = child(c);
+            if (child != null) return child;
+            child = new Node<>();
+            labels = Arrays.copyOf(labels, labels.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            labels[labels.length - 1] = c;
+            children[children.length - 1] = child;
+            return child;
+        }
+    }
+
+    /** Result of {@link #match(String)}. */
+    record Match<T>(T value, Map<String, String> parameters) {}
+
+    private final Node<T> root = new Node<>();
+
+    /** Returns the value of the pattern, after first putting a new one, if there was none. */
+    T computeIfAbsent(String pattern, Supplier<T> supplier) {
+        var node = root;
+        var names = new ArrayList<String>();
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c == '{') {
+                int end = pattern.indexOf('}', i);
+                if (end < 0) throw new IllegalArgumentException("Unclosed { in: " + pattern);
+                var name = pattern.substring(i + 1, end);
+                if (name.isEmpty() || name.indexOf('/') >= 0)
+                    throw new IllegalArgumentException("Invalid parameter in: " + pattern);
+                if (node.parameter == null) {
+                    node.parameter = new Node<>();
+                    node.parameterName = name;
+                } else if (!name.equals(node.parameterName))
+                    throw new IllegalArgumentException(
+                            "{" + name + "} conflicts with {" + node.parameterName + "}: "
+                                    + pattern);
+                names.add(name);
+                node = node.parameter;
+                i = end + 1;
+            } else {
+                node = node.addChild(c);
+                i++;
+            }
+        }
+        if (node.value == null) {
+            node.value = supplier.get();
+            node.parameterNames = List.copyOf(names);
+        }
+        return node.value;
+    }
+
+    /** Returns the value of the longest pattern which is a prefix of the path, if any. */
+    @Nullable Match<T> match(String path) {
+        var best = match(root, path, 0, new String[0], null);
+        if (best == null) return null;
+        var node = best.node;
+        if (node.parameterNames.isEmpty()) return new Match<>(node.value, Map.of());
+        var parameters = new HashMap<String, String>(node.parameterNames.size());
+        for (int p = 0; p < node.parameterNames.size(); p++)
+            parameters.put(node.parameterNames.get(p), best.parameterValues[p]);
+        return new Match<>(node.value, parameters);
+    }
+
+    private record Found<T>(Node<T> node, int end, String[] parameterValues) {}
+
+    private @Nullable Found<T> match(
+            Node<T> start, String path, int i, String[] values, @Nullable Found<T> best) {
+        var node = start;
+        while (true) {
+            if (node.value != null && (best == null || i > best.end))
+                best = new Found<>(node, i, values);
+
+            if (node.parameter != null && i < path.length() && path.charAt(i) != '/') {
+                int end = path.indexOf('/', i);
+                if (end < 0) end = path.length();
+                var withParameter = Arrays.copyOf(values, values.length + 1);
+                withParameter[values.length] = path.substring(i, end);
+                var literal = node.child(path.charAt(i));
+                if (literal == null) {
+                    node = node.parameter;
+                    values = withParameter;
+                    i = end;
+                    continue;
+                }
+                var viaLiteral = match(literal, path, i + 1, values, best);
+                var viaParameter = match(node.parameter, path, end, withParameter, best);
+                if (viaParameter == null) return viaLiteral;
+                if (viaLiteral == null || viaParameter.end > viaLiteral.end) return viaParameter;
+                return viaLiteral;
+            }
+
+            if (i >= path.length()) return best;
+            var child = node.child(path.charAt(i));
+            if (child == null) return best;
+            node = child;
+            i++;
+        }
+    }
+}
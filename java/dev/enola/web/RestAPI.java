@@ -17,27 +17,56 @@
  */
 package dev.enola.web;
 
+import static dev.enola.common.io.mediatype.YamlMediaType.YAML_UTF_8;
+import static dev.enola.common.protobuf.ProtobufMediaTypes.PROTOBUF_BINARY;
+import static dev.enola.common.protobuf.ProtobufMediaTypes.PROTOBUF_TEXTPROTO_UTF_8;
+import static dev.enola.common.protobuf.ProtobufMediaTypes.PROTOBUF_YAML_UTF_8;
+import static dev.enola.common.protobuf.ProtobufMediaTypes.setProtoMessageFQN;
+
+import com.google.common.io.ByteSource;
 import com.google.common.net.MediaType;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.protobuf.Any;
 import com.google.protobuf.Descriptors.DescriptorValidationException;
 
+import dev.enola.common.io.resource.BaseResource;
 import dev.enola.common.io.resource.MemoryResource;
 import dev.enola.common.io.resource.ReadableResource;
-import dev.enola.common.io.resource.WritableResource;
 import dev.enola.common.protobuf.ProtoIO;
 import dev.enola.common.protobuf.TypeRegistryWrapper;
 import dev.enola.core.EnolaException;
 import dev.enola.core.proto.EnolaServiceGrpc.EnolaServiceBlockingStub;
 import dev.enola.core.proto.GetFileDescriptorSetRequest;
 import dev.enola.core.proto.GetThingRequest;
+import dev.enola.core.proto.GetThingResponse;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+
+import org.jspecify.annotations.Nullable;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 // TODO Merge this with class UI, to re-use code better
 public class RestAPI implements WebHandler {
 
+    /** Media types which {@link #negotiate(String)} can select; the first is the default. */
+    private static final List<MediaType> SUPPORTED =
+            List.of(
+                    MediaType.JSON_UTF_8,
+                    PROTOBUF_BINARY,
+                    PROTOBUF_TEXTPROTO_UTF_8,
+                    PROTOBUF_YAML_UTF_8,
+                    YAML_UTF_8);
+
+    private static final MediaType ANY_BINARY =
+            setProtoMessageFQN(PROTOBUF_BINARY, Any.getDescriptor().getFullName());
+
     private final EnolaServiceBlockingStub service;
     private final TypeRegistryWrapper typeRegistryWrapper;
     private ProtoIO protoIO;
@@ -51,33 +80,97 @@ public class RestAPI implements WebHandler {
 
     @Override
     public ListenableFuture<ReadableResource> handle(URI uri) {
+        return handle(uri, Map.of());
+    }
+
+    @Override
+    public ListenableFuture<ReadableResource> handle(URI uri, Map<String, String> headers) {
         try {
-            var resource = new MemoryResource(MediaType.JSON_UTF_8);
-            writeJSON(uri, resource);
-            return Futures.immediateFuture(resource);
+            var mediaType = negotiate(headers);
+            return Futures.immediateFuture(write(uri, mediaType));
         } catch (EnolaException | IOException e) {
             return Futures.immediateFailedFuture(e);
         }
     }
 
-    private void writeJSON(URI uri, WritableResource resource) throws EnolaException, IOException {
+    @Override
+    public MediaType negotiate(Map<String, String> headers) {
+        return negotiate(headers.get("accept"));
+    }
+
+    /**
+     * Selects the media type of the response from the value of an HTTP <tt>Accept</tt> header,
+     * honouring its <tt>q</tt> weights; JSON if there is none, or if nothing in it is supported.
+     */
+    static MediaType negotiate(@Nullable String accept) {
+        if (accept == null || accept.isEmpty()) return MediaType.JSON_UTF_8;
+
+        var ranges = new ArrayList<MediaType>();
+        for (var part : accept.split(",")) {
+            try {
+                ranges.add(MediaType.parse(part.trim()));
+            } catch (IllegalArgumentException e) {
+                // Ignore invalid media ranges
+            }
+        }
+        // List.sort() is stable, so equally weighted ranges keep the client's order
+        ranges.sort((range1, range2) -> Double.compare(quality(range2), quality(range1)));
+
+        for (var range : ranges) {
+            if (quality(range) <= 0) break;
+            var rangeWithoutParameters = range.withoutParameters();
+            for (var supported : SUPPORTED) {
+                if (supported.withoutParameters().is(rangeWithoutParameters)) return supported;
+            }
+        }
+        return MediaType.JSON_UTF_8;
+    }
+
+    private static double quality(MediaType range) {
+        var q = range.parameters().get("q");
+        if (q.isEmpty()) return 1;
+        try {
+            return Double.parseDouble(q.get(0));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private ReadableResource write(URI uri, MediaType mediaType)
+            throws EnolaException, IOException {
         var path = uri.getPath();
         if (path.startsWith("/api/")) {
             var iri = path.substring("/api/".length());
-            getThingJSON(iri, resource);
+            // e.g. for paginated listings, like /api/enola:/inline?limit=100
+            if (uri.getRawQuery() != null) iri = iri + "?" + uri.getRawQuery();
+            return getThing(iri, mediaType);
         } else {
             // TODO 404 instead 500 (needs API changes)
             throw new IllegalArgumentException("404 - Unknown URI: " + uri);
         }
     }
 
-    private void getThingJSON(String iri, WritableResource resource)
+    private ReadableResource getThing(String iri, MediaType mediaType)
             throws EnolaException, IOException {
         var request = GetThingRequest.newBuilder().setIri(iri).build();
-        var response = service.getThing(request);
+        GetThingResponse response;
+        try {
+            response = service.getThing(request);
+        } catch (StatusRuntimeException e) {
+            // e.g. an invalid ?limit= of a listing; which is answered with 400 Bad Request
+            if (e.getStatus().getCode() == Status.Code.INVALID_ARGUMENT)
+                throw new IllegalArgumentException(e.getStatus().getDescription(), e);
+            throw e;
+        }
         var thing = response.getThing();
 
+        if (mediaType.equals(PROTOBUF_BINARY)) {
+            // Serialize the Any directly, without ProtoIO's buffering through a ByteSink
+            return new BytesResource(ANY_BINARY, thing.toByteArray());
+        }
+        var resource = new MemoryResource(mediaType);
         getProtoIO().write(thing, resource);
+        return resource;
     }
 
     private ProtoIO getProtoIO() {
@@ -86,4 +179,18 @@ public class RestAPI implements WebHandler {
         }
         return protoIO;
     }
+
+    private static class BytesResource extends BaseResource implements ReadableResource {
+        private final byte[] bytes;
+
+        BytesResource(MediaType mediaType, byte[] bytes) {
+            super(URI.create("memory:" + RestAPI.class.getSimpleName()), mediaType, true);
+            this.bytes = bytes;
+        }
+
+        @Override
+        public ByteSource byteSource() {
+            return ByteSource.wrap(bytes);
+        }
+    }
 }
@@ -31,6 +31,7 @@ import dev.enola.common.io.mediatype.MediaTypeProviders;
 import dev.enola.common.io.resource.ClasspathResource;
 import dev.enola.common.io.resource.OkHttpResource;
 import dev.enola.common.io.resource.ResourceProviders;
+import dev.enola.common.protobuf.ProtobufMediaTypes;
 import dev.enola.core.EnolaException;
 import dev.enola.core.EnolaService;
 import dev.enola.core.EnolaServiceProvider;
@@ -42,6 +43,10 @@ import dev.enola.web.netty.NettyHttpServer;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
 public class RestTest {
 
     public @Rule SingletonRule r = $(MediaTypeProviders.set(new MediaTypeProviders()));
@@ -69,10 +74,38 @@ public class RestTest {
                                 "{\"@type\":\"type.googleapis.com/dev.enola.thing.Thing\","
                                         + "\"iri\":\"http://example.org/test\"");
                 assertThat(response1.mediaType()).isEqualTo(MediaType.JSON_UTF_8);
+
+                // Get, as binary protobuf
+                var client = HttpClient.newHttpClient();
+                var uri2 = create(prefix + "/api/http://example.enola.dev/Picasso");
+                var request2 =
+                        HttpRequest.newBuilder(uri2)
+                                .header("Accept", "application/protobuf, */*;q=0.1")
+                                .build();
+                var response2 = client.send(request2, HttpResponse.BodyHandlers.ofByteArray());
+                assertThat(response2.headers().firstValue("Content-Type").orElseThrow())
+                        .startsWith("application/protobuf");
+                var any = Any.parseFrom(response2.body());
+                assertThat(any.unpack(Thing.class).getIri()).isEqualTo("http://example.org/test");
             }
         }
     }
 
+    @Test
+    public void negotiate() {
+        assertThat(RestAPI.negotiate((String) null)).isEqualTo(MediaType.JSON_UTF_8);
+        assertThat(RestAPI.negotiate("*/*")).isEqualTo(MediaType.JSON_UTF_8);
+        assertThat(RestAPI.negotiate("text/html")).isEqualTo(MediaType.JSON_UTF_8);
+        assertThat(RestAPI.negotiate("application/protobuf"))
+                .isEqualTo(ProtobufMediaTypes.PROTOBUF_BINARY);
+        assertThat(RestAPI.negotiate("text/protobuf;q=0.5, application/protobuf;q=0.9"))
+                .isEqualTo(ProtobufMediaTypes.PROTOBUF_BINARY);
+        assertThat(RestAPI.negotiate("text/protobuf+yaml, application/json;q=0.9"))
+                .isEqualTo(ProtobufMediaTypes.PROTOBUF_YAML_UTF_8);
+        assertThat(RestAPI.negotiate("application/protobuf;q=0, text/*"))
+                .isEqualTo(ProtobufMediaTypes.PROTOBUF_TEXTPROTO_UTF_8);
+    }
+
     // TODO Replace with e.g. picasso.ttl
     static class TestService implements EnolaService {
 
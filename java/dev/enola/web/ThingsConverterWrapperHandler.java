@@ -25,41 +25,109 @@ import dev.enola.common.io.iri.URIs;
 import dev.enola.common.io.resource.MemoryResource;
 import dev.enola.common.io.resource.ReadableResource;
 import dev.enola.core.thing.ListThingService;
+import dev.enola.thing.Thing;
 import dev.enola.thing.gen.ThingsIntoAppendableConverter;
 import dev.enola.thing.repo.ThingRepository;
 
+import org.jspecify.annotations.Nullable;
+
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
+/**
+ * Converts Things into e.g. a timeline or a graph. The Things are either those of {@code
+ * ?q=enola:/inline} (optionally filtered and paginated with the same {@code type}, {@code prefix},
+ * {@code limit} &amp; {@code after} query parameters as {@link ListThingService}), or those of
+ * (repeated) Thing IRIs, like {@code ?q=https://example.org/a&q=https://example.org/b}.
+ *
+ * <p>If a listing has more Things than its limit, then the response is a {@link NextPageResource},
+ * whose next page URI has the {@code after} parameter for the page token.
+ */
 class ThingsConverterWrapperHandler implements WebHandler {
 
+    private static final String QUERY_PARAMETER = "q";
+
+    private static final List<String> LIST_PARAMETERS =
+            List.of(
+                    ListThingService.TYPE_PARAMETER,
+                    ListThingService.PREFIX_PARAMETER,
+                    ListThingService.LIMIT_PARAMETER,
+                    ListThingService.AFTER_PARAMETER);
+
     private final ThingRepository thingRepository;
+    private final Function<String, Stream<Thing>> lister;
     private final ThingsIntoAppendableConverter converter;
 
     ThingsConverterWrapperHandler(
-            ThingRepository thingRepository, ThingsIntoAppendableConverter converter) {
+            ThingRepository thingRepository,
+            Function<String, Stream<Thing>> lister,
+            ThingsIntoAppendableConverter converter) {
         this.thingRepository = thingRepository;
+        this.lister = lister;
         this.converter = converter;
     }
 
     @Override
     public ListenableFuture<ReadableResource> handle(URI uri) {
-        var query = URIs.getQueryMap(uri).get("q");
-        if (query == null) throw new IllegalArgumentException("Missing ?q=");
-        if (!query.equals(ListThingService.ENOLA_ROOT_LIST_THINGS))
-            throw new IllegalArgumentException(
-                    "Currently (TODO) only supports ?q="
-                            + ListThingService.ENOLA_ROOT_LIST_THINGS
-                            + ", not: ?q="
-                            + query);
+        var queries = URIs.getQueryParameters(uri, QUERY_PARAMETER);
+        if (queries.isEmpty()) throw new IllegalArgumentException("Missing ?q=");
+
+        List<Thing> things = new ArrayList<>();
+        String next = null;
+        if (queries.equals(List.of(ListThingService.ENOLA_ROOT_LIST_THINGS))) {
+            Map<String, @Nullable String> parameters = new LinkedHashMap<>();
+            for (var name : LIST_PARAMETERS) parameters.put(name, parameter(uri, name));
+            // This also rejects invalid parameters, such as a limit which is not a number
+            var listIRI = ListThingService.listIRI(queries.get(0), parameters);
+
+            var limit = parameters.get(ListThingService.LIMIT_PARAMETER);
+            var n = limit != null ? Integer.parseInt(limit) : 0;
+            if (n > 0) {
+                // List one more than the limit, to know if there is a next page
+                var plusOne = new LinkedHashMap<>(parameters);
+                plusOne.put(ListThingService.LIMIT_PARAMETER, Integer.toString(n + 1));
+                listIRI = ListThingService.listIRI(queries.get(0), plusOne);
+            }
+            try (var listed = lister.apply(listIRI)) {
+                listed.forEachOrdered(things::add);
+            }
+            if (n > 0 && things.size() > n) {
+                things.remove(n);
+                Map<String, @Nullable String> nextParameters = new LinkedHashMap<>();
+                nextParameters.put(QUERY_PARAMETER, queries.get(0));
+                nextParameters.putAll(parameters);
+                var token = ListThingService.pageToken(things.get(n - 1).iri());
+                nextParameters.put(ListThingService.AFTER_PARAMETER, token);
+                next = ListThingService.listIRI(uri.getRawPath(), nextParameters);
+            }
+        } else {
+            for (var iri : queries) {
+                var thing = thingRepository.get(iri);
+                if (thing == null) throw new IllegalArgumentException("No Thing: " + iri);
+                things.add(thing);
+            }
+        }
 
-        var things = thingRepository.list();
         var resource = new MemoryResource(MediaType.HTML_UTF_8);
         try {
             converter.convertIntoOrThrow(things, resource);
+            if (next != null) return Futures.immediateFuture(new NextPageResource(resource, next));
             return Futures.immediateFuture(resource);
         } catch (IOException e) {
             return Futures.immediateFailedFuture(e);
         }
     }
+
+    /** The value of a query parameter which must not be repeated, or null if there is none. */
+    private static @Nullable String parameter(URI uri, String name) {
+        var values = URIs.getQueryParameters(uri, name);
+        if (values.size() > 1) throw new IllegalArgumentException("Repeated ?" + name + "=");
+        return values.isEmpty() ? null : values.get(0);
+    }
 }
@@ -0,0 +1,124 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.web;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static dev.enola.common.context.testlib.SingletonRule.$;
+
+import static org.junit.Assert.assertThrows;
+
+import dev.enola.common.context.testlib.SingletonRule;
+import dev.enola.common.io.iri.URIs;
+import dev.enola.common.io.mediatype.MediaTypeProviders;
+import dev.enola.core.thing.ListThingService;
+import dev.enola.thing.Thing;
+import dev.enola.thing.gen.ThingsIntoAppendableConverter;
+import dev.enola.thing.impl.ImmutableThing;
+import dev.enola.thing.repo.ThingMemoryRepositoryRW;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ThingsConverterWrapperHandlerTest {
+
+    public @Rule SingletonRule r = $(MediaTypeProviders.set(new MediaTypeProviders()));
+
+    private final List<Thing> things = new ArrayList<>();
+    private final ThingMemoryRepositoryRW repository = new ThingMemoryRepositoryRW();
+    private final List<String> listIRIs = new ArrayList<>();
+
+    private final ThingsIntoAppendableConverter converter =
+            (things, out) -> {
+                for (var thing : things) out.append(thing.iri()).append('\n');
+                return true;
+            };
+
+    private final ThingsConverterWrapperHandler handler =
+            new ThingsConverterWrapperHandler(repository, this::list, converter);
+
+    public ThingsConverterWrapperHandlerTest() {
+        for (int i = 1; i <= 5; i++) {
+            var thing = ImmutableThing.builder().iri("https://example.org/" + i).build();
+            things.add(thing);
+            repository.store(thing);
+        }
+    }
+
+    /** Like ListThingService's streamed listing; but only with a limit and a page token. */
+    private Stream<Thing> list(String listIRI) {
+        listIRIs.add(listIRI);
+        var parameters = URIs.getQueryMap(listIRI);
+        var limit = parameters.get(ListThingService.LIMIT_PARAMETER);
+        var after = parameters.get(ListThingService.AFTER_PARAMETER);
+        return things.stream()
+                .dropWhile(t -> after != null && !ListThingService.pageToken(t.iri()).equals(after))
+                .skip(after != null ? 1 : 0)
+                .limit(limit != null ? Integer.parseInt(limit) : Long.MAX_VALUE);
+    }
+
+    private String get(String uri) throws Exception {
+        return handler.handle(URI.create(uri)).get().charSource().read();
+    }
+
+    @Test
+    public void listingWithNextPage() throws Exception {
+        var resource = handler.handle(URI.create("/gexf?q=enola:/inline&limit=3")).get();
+        assertThat(resource.charSource().read())
+                .isEqualTo("https://example.org/1\nhttps://example.org/2\nhttps://example.org/3\n");
+        assertThat(listIRIs).containsExactly("enola:/inline?limit=4");
+
+        var next = ((NextPageResource) resource).next();
+        var token = ListThingService.pageToken("https://example.org/3");
+        assertThat(next).isEqualTo("/gexf?q=enola%3A%2Finline&limit=3&after=" + token);
+        assertThat(get(next)).isEqualTo("https://example.org/4\nhttps://example.org/5\n");
+    }
+
+    @Test
+    public void lastPage() throws Exception {
+        var resource = handler.handle(URI.create("/gexf?q=enola:/inline&limit=5")).get();
+        assertThat(resource).isNotInstanceOf(NextPageResource.class);
+        assertThat(handler.handle(URI.create("/gexf?q=enola:/inline")).get())
+                .isNotInstanceOf(NextPageResource.class);
+    }
+
+    @Test
+    public void repeatedIRIs() throws Exception {
+        assertThat(get("/timeline?q=https://example.org/2&q=https://example.org/1"))
+                .isEqualTo("https://example.org/2\nhttps://example.org/1\n");
+    }
+
+    @Test
+    public void invalid() {
+        assertThrows(IllegalArgumentException.class, () -> handler.handle(URI.create("/gexf")));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> handler.handle(URI.create("/gexf?q=https://example.org/unknown")));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> handler.handle(URI.create("/gexf?q=enola:/inline&limit=x")));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> handler.handle(URI.create("/gexf?q=enola:/inline&limit=1&limit=2")));
+    }
+}
@@ -40,15 +40,19 @@ import dev.enola.core.proto.EnolaServiceGrpc.EnolaServiceBlockingStub;
 import dev.enola.core.proto.GetFileDescriptorSetRequest;
 import dev.enola.core.proto.GetThingRequest;
 import dev.enola.core.view.EnolaMessages;
+import dev.enola.thing.Thing;
 import dev.enola.thing.gen.LinkTransformer;
 import dev.enola.thing.gen.gexf.GexfGenerator;
 import dev.enola.thing.gen.visjs.VisJsTimelineGenerator;
 import dev.enola.thing.message.ProtoThingMetadataProvider;
+import dev.enola.thing.message.ThingAdapter;
 import dev.enola.thing.metadata.ThingMetadataProvider;
 import dev.enola.thing.repo.ThingRepository;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class UI implements WebHandler {
 
@@ -68,6 +72,7 @@ public class UI implements WebHandler {
     private final ThingUI thingUI;
     private final ThingsConverterWrapperHandler timelineHandler;
     private final ThingsConverterWrapperHandler gexfHandler;
+    private final CachingWebHandler cachingHandler = new CachingWebHandler(this);
     private ProtoIO protoIO;
 
     public UI(EnolaServiceBlockingStub service, ThingMetadataProvider metadataProvider)
@@ -84,24 +89,32 @@ public class UI implements WebHandler {
         thingUI = new ThingUI(protoThingMetadataProvider, linkTransformer);
 
         ThingRepository thingRepository = new ProtoToThingRepository(thingProvider);
+        Function<String, Stream<Thing>> lister =
+                listIRI -> thingProvider.list(listIRI).map(ThingAdapter::new);
         timelineHandler =
                 new ThingsConverterWrapperHandler(
                         thingRepository,
+                        lister,
                         new VisJsTimelineGenerator(metadataProvider, linkTransformer));
         gexfHandler =
                 new ThingsConverterWrapperHandler(
-                        thingRepository, new GexfGenerator(metadataProvider));
+                        thingRepository, lister, new GexfGenerator(metadataProvider));
     }
 
     public void register(WebHandlers handlers) {
         handlers.register("/ui/static/", new StaticWebHandler("/ui/static/", "static"));
-        handlers.register("/ui", this);
+        handlers.register("/ui", cachingHandler);
         handlers.register("/timeline", timelineHandler);
         handlers.register("/gexf", gexfHandler);
         // TODO Create HTML page “frame” from template, with body from another template
         handlers.register("", uri -> immediateFuture(FOUR_O_FOUR));
     }
 
+    /** Discards all cached pages, e.g. after models were reloaded. */
+    public void invalidateCache() {
+        cachingHandler.invalidateAll();
+    }
+
     @Override
     public ListenableFuture<ReadableResource> handle(URI uri) {
         try {
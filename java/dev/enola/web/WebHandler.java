@@ -17,11 +17,15 @@
  */
 package dev.enola.web;
 
+import com.google.common.net.MediaType;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import dev.enola.common.io.resource.ReadableResource;
 
+import org.jspecify.annotations.Nullable;
+
 import java.net.URI;
+import java.util.Map;
 
 /**
  * Handler for Web Request.
@@ -35,4 +39,34 @@ public interface WebHandler {
 
     // TODO Use our own new dev.enola.common.io.iri.IRI instead of URI, when it's available
     ListenableFuture<ReadableResource> handle(URI uri);
+
+    /**
+     * Handles a request with HTTP headers, e.g. to negotiate the media type of the response from
+     * an <tt>Accept</tt> header. This default implementation ignores the headers.
+     *
+     * @param headers request headers, with lower case names; multiple values of the same header
+     *     are joined with ", ".
+     */
+    default ListenableFuture<ReadableResource> handle(URI uri, Map<String, String> headers) {
+        return handle(uri);
+    }
+
+    /**
+     * The media type which {@link #handle(URI, Map)} negotiates from the <tt>Accept</tt> header of
+     * a request, if it does; responses then vary on that header, and are cached per media type.
+     * This default implementation returns null, for handlers whose responses do not depend on it.
+     */
+    default @Nullable MediaType negotiate(Map<String, String> headers) {
+        return null;
+    }
+
+    /**
+     * Handles a request routed by {@link WebHandlers}, with the values of the <code>{name}</code>
+     * parameters of the pattern that the handler was registered for. This default implementation
+     * ignores the parameters.
+     */
+    default ListenableFuture<ReadableResource> handle(
+            URI uri, Map<String, String> headers, Map<String, String> parameters) {
+        return handle(uri, headers);
+    }
 }
@@ -17,36 +17,179 @@
  */
 package dev.enola.web;
 
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 
 import dev.enola.common.io.resource.ReadableResource;
+import dev.enola.common.metrics.MetricsRegistry;
+
+import org.jspecify.annotations.Nullable;
 
 import java.net.URI;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
 
+/**
+ * WebHandlers routes requests to the {@link WebHandler} registered for the longest path pattern
+ * which is a prefix of the request's path; so unlike with a list of prefixes, the order of
+ * registration does not matter. Patterns can have <code>{name}</code> path parameters, see {@link
+ * WebHandler#handle(URI, Map, Map)}. Routing uses a {@link PathTrie}, so its cost does not depend
+ * on the number of registered handlers.
+ */
 public class WebHandlers implements WebHandler {
 
     // TODO Rename WebHandlers to dev.enola.common.net.http.HttpHandlers
 
-    private final List<PrefixHandlerPair> pairs = new ArrayList<>();
+    private static final MetricsRegistry METRICS = MetricsRegistry.GLOBAL;
+
+    private static final String GET = "GET";
+    private static final String HEAD = "HEAD";
+    private static final String OPTIONS = "OPTIONS";
 
-    public WebHandlers register(String prefix, WebHandler handler) {
-        pairs.add(new PrefixHandlerPair(prefix, handler));
+    private final PathTrie<Route> trie = new PathTrie<>();
+
+    /** Registers a handler of GET (and HEAD) requests of paths starting with the pattern. */
+    public WebHandlers register(String pattern, WebHandler handler) {
+        return register(pattern, handler, GET);
+    }
+
+    /**
+     * Registers a handler of requests with any of the given HTTP methods, of paths starting with
+     * the pattern. A handler of GET also handles HEAD requests.
+     *
+     * @throws IllegalArgumentException if a handler was already registered for the same pattern
+     *     and any of the same methods.
+     */
+    public WebHandlers register(String pattern, WebHandler handler, String... methods) {
+        if (methods.length == 0) throw new IllegalArgumentException("No methods: " + pattern);
+        var route = trie.computeIfAbsent(pattern, () -> new Route(pattern));
+        for (var method : methods) route.add(method.toUpperCase(Locale.ROOT), handler);
         return this;
     }
 
+    /** Returns the route for the path, or null if no pattern matches it. */
+    public @Nullable Match match(String path) {
+        var match = trie.match(path);
+        if (match == null) return null;
+        return new Match(match.value(), match.parameters());
+    }
+
     @Override
     public ListenableFuture<ReadableResource> handle(URI uri) {
-        var path = uri.getPath();
-        for (var entry : pairs) {
-            if (path.startsWith(entry.prefix)) return entry.handler.handle(uri);
-        }
-        throw new IllegalStateException(
-                "Missing handler registration, add a last entry with empty prefix as default"
-                        + " handler; for: "
-                        + uri);
+        return handle(uri, Map.of());
+    }
+
+    @Override
+    public ListenableFuture<ReadableResource> handle(URI uri, Map<String, String> headers) {
+        var path = uri.getPath() != null ? uri.getPath() : "";
+        var match = match(path);
+        if (match == null)
+            throw new IllegalStateException(
+                    "Missing handler registration, add one with empty pattern as default handler;"
+                            + " for: "
+                            + uri);
+        return match.handle(GET, uri, headers);
+    }
+
+    /** A pattern, and the handlers registered for it by HTTP method. */
+    private static final class Route {
+        private final String pattern;
+        private final Map<String, WebHandler> handlers = new TreeMap<>();
+
+        Route(String pattern) {
+            this.pattern = pattern;
+        }
+
+        void add(String method, WebHandler handler) {
+            if (handlers.putIfAbsent(method, handler) != null)
+                throw new IllegalArgumentException(
+                        "Already registered a " + method + " handler for: " + pattern);
+        }
     }
 
-    private record PrefixHandlerPair(String prefix, WebHandler handler) {}
+    /** The {@link Route} of a path, with the values of its parameters. */
+    public static final class Match {
+        private final Route route;
+        private final Map<String, String> parameters;
+
+        private Match(Route route, Map<String, String> parameters) {
+            this.route = route;
+            this.parameters = parameters;
+        }
+
+        /** The pattern, as registered. */
+        public String pattern() {
+            return route.pattern;
+        }
+
+        public Map<String, String> parameters() {
+            return parameters;
+        }
+
+        /** Returns whether there is a handler for the method, e.g. for an HTTP 405 if not. */
+        public boolean allows(String method) {
+            return handler(method) != null;
+        }
+
+        /** Returns the value for an HTTP <tt>Allow</tt> header, e.g. "GET, HEAD, OPTIONS". */
+        public String allow() {
+            var methods = ImmutableSet.<String>builder();
+            for (var method : route.handlers.keySet()) {
+                methods.add(method);
+                if (method.equals(GET)) methods.add(HEAD);
+            }
+            methods.add(OPTIONS);
+            return String.join(", ", methods.build());
+        }
+
+        /**
+         * Invokes the handler for the method.
+         *
+         * @throws IllegalStateException if there is none, see {@link #allows(String)}.
+         */
+        public ListenableFuture<ReadableResource> handle(
+                String method, URI uri, Map<String, String> headers) {
+            var handler = handler(method);
+            if (handler == null)
+                throw new IllegalStateException(method + " not allowed (" + allow() + "): " + uri);
+
+            var start = System.nanoTime();
+            var future = handler.handle(uri, headers, parameters);
+            Futures.addCallback(
+                    future,
+                    new FutureCallback<>() {
+                        @Override
+                        public void onSuccess(ReadableResource result) {
+                            METRICS.histogram(
+                                            "enola_http_handler_duration_seconds",
+                                            "Time for a WebHandler to produce a response",
+                                            "handler",
+                                            route.pattern)
+                                    .recordSince(start);
+                        }
+
+                        @Override
+                        public void onFailure(Throwable t) {
+                            METRICS.counter(
+                                            "enola_http_handler_errors_total",
+                                            "WebHandler responses which failed",
+                                            "handler",
+                                            route.pattern)
+                                    .inc();
+                        }
+                    },
+                    MoreExecutors.directExecutor());
+            return future;
+        }
+
+        private @Nullable WebHandler handler(String method) {
+            var handler = route.handlers.get(method);
+            if (handler == null && method.equals(HEAD)) handler = route.handlers.get(GET);
+            return handler;
+        }
+    }
 }
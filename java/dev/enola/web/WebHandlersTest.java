@@ -0,0 +1,121 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2024 The Enola <https://enola.dev> Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.enola.web;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+
+import static dev.enola.common.context.testlib.SingletonRule.$;
+
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import dev.enola.common.context.testlib.SingletonRule;
+import dev.enola.common.io.mediatype.MediaTypeProviders;
+import dev.enola.common.io.resource.ReadableResource;
+import dev.enola.common.io.resource.StringResource;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Map;
+
+public class WebHandlersTest {
+
+    public @Rule SingletonRule r = $(MediaTypeProviders.set(new MediaTypeProviders()));
+
+    private static WebHandler text(String text) {
+        return uri -> immediateFuture(StringResource.of(text));
+    }
+
+    private static String get(WebHandlers handlers, String path) throws Exception {
+        return handlers.handle(URI.create(path)).get().charSource().read();
+    }
+
+    @Test
+    public void longestPrefixIndependentOfOrder() throws Exception {
+        var handlers = new WebHandlers();
+        handlers.register("", text("default"));
+        handlers.register("/ui", text("ui"));
+        handlers.register("/ui/static/", text("static"));
+        handlers.register("/api", text("api"));
+
+        assertThat(get(handlers, "/ui/static/x.css")).isEqualTo("static");
+        assertThat(get(handlers, "/ui/https://example.org")).isEqualTo("ui");
+        assertThat(get(handlers, "/api/x")).isEqualTo("api");
+        assertThat(get(handlers, "/other")).isEqualTo("default");
+        assertThat(get(handlers, "/")).isEqualTo("default");
+    }
+
+    @Test
+    public void parameters() throws Exception {
+        var handlers = new WebHandlers();
+        handlers.register("/things/new", text("new"));
+        handlers.register(
+                "/things/{id}/parts/{part}",
+                new WebHandler() {
+                    @Override
+                    public ListenableFuture<ReadableResource> handle(URI uri) {
+                        throw new AssertionError();
+                    }
+
+                    @Override
+                    public ListenableFuture<ReadableResource> handle(
+                            URI uri, Map<String, String> headers, Map<String, String> parameters) {
+                        var text = parameters.get("id") + "/" + parameters.get("part");
+                        return immediateFuture(StringResource.of(text));
+                    }
+                });
+
+        assertThat(get(handlers, "/things/new")).isEqualTo("new");
+        assertThat(get(handlers, "/things/abc/parts/xyz")).isEqualTo("abc/xyz");
+        assertThat(get(handlers, "/things/newer/parts/1")).isEqualTo("newer/1");
+
+        var match = handlers.match("/things/abc/parts/xyz/more");
+        assertThat(match.pattern()).isEqualTo("/things/{id}/parts/{part}");
+        assertThat(match.parameters()).containsExactly("id", "abc", "part", "xyz");
+
+        assertThat(handlers.match("/things/abc/parts/")).isNull();
+    }
+
+    @Test
+    public void methods() {
+        var handlers = new WebHandlers();
+        handlers.register("/api", text("get"));
+        handlers.register("/api", text("delete"), "DELETE");
+
+        var match = handlers.match("/api/x");
+        assertThat(match.allows("GET")).isTrue();
+        assertThat(match.allows("HEAD")).isTrue();
+        assertThat(match.allows("DELETE")).isTrue();
+        assertThat(match.allows("POST")).isFalse();
+        assertThat(match.allow()).isEqualTo("DELETE, GET, HEAD, OPTIONS");
+
+        assertThrows(
+                IllegalArgumentException.class, () -> handlers.register("/api", text("again")));
+    }
+
+    @Test
+    public void missing() {
+        var handlers = new WebHandlers().register("/api", text("api"));
+        assertThat(handlers.match("/ui")).isNull();
+        assertThrows(IllegalStateException.class, () -> handlers.handle(URI.create("/ui")));
+    }
+}
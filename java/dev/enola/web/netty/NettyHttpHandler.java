@@ -19,89 +19,234 @@ package dev.enola.web.netty;
 
 import static com.google.common.net.MediaType.PLAIN_TEXT_UTF_8;
 
+import static io.netty.handler.codec.http.HttpHeaderNames.ALLOW;
+import static io.netty.handler.codec.http.HttpHeaderNames.CACHE_CONTROL;
 import static io.netty.handler.codec.http.HttpHeaderNames.CONNECTION;
 import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
 import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_TYPE;
+import static io.netty.handler.codec.http.HttpHeaderNames.ETAG;
+import static io.netty.handler.codec.http.HttpHeaderNames.IF_NONE_MATCH;
+import static io.netty.handler.codec.http.HttpHeaderNames.VARY;
 import static io.netty.handler.codec.http.HttpHeaderValues.CLOSE;
 import static io.netty.handler.codec.http.HttpHeaderValues.KEEP_ALIVE;
+import static io.netty.handler.codec.http.HttpResponseStatus.BAD_REQUEST;
+import static io.netty.handler.codec.http.HttpResponseStatus.INTERNAL_SERVER_ERROR;
+import static io.netty.handler.codec.http.HttpResponseStatus.METHOD_NOT_ALLOWED;
+import static io.netty.handler.codec.http.HttpResponseStatus.NOT_FOUND;
+import static io.netty.handler.codec.http.HttpResponseStatus.NOT_MODIFIED;
+import static io.netty.handler.codec.http.HttpResponseStatus.NO_CONTENT;
 import static io.netty.handler.codec.http.HttpResponseStatus.OK;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
-import com.google.common.net.MediaType;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
+import dev.enola.common.io.resource.ByteBufferResource;
+import dev.enola.common.io.resource.ReadableResource;
+import dev.enola.web.ETaggedResource;
+import dev.enola.web.NextPageResource;
 import dev.enola.web.WebHandlers;
 
-import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.*;
+import io.netty.handler.stream.ChunkedStream;
+import io.netty.util.ReferenceCountUtil;
 
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Netty handler which dispatches HTTP requests to {@link WebHandlers}.
+ *
+ * <p>Handlers are invoked, and their resources opened, on an executor, not on the channel's event
+ * loop. The {@link ListenableFuture} returned by a handler is never blocked on; the response is
+ * written from a callback on the channel's event loop, once it completes. Response bodies are
+ * streamed from the {@link ReadableResource#byteSource()} in chunks (by the {@link
+ * io.netty.handler.stream.ChunkedWriteHandler} which must precede this in the pipeline) instead of
+ * being read fully into memory; or, for a {@link ByteBufferResource}, written directly from its
+ * (possibly memory-mapped) buffer.
+ *
+ * <p>For an {@link ETaggedResource}, the <tt>ETag</tt> and <tt>Cache-Control</tt> headers are set,
+ * and a request with a matching <tt>If-None-Match</tt> is answered with <tt>304 Not Modified</tt>.
+ * For a {@link NextPageResource}, a <tt>Link</tt> header with <tt>rel="next"</tt> is set.
+ *
+ * <p>Requests are routed by {@link WebHandlers#match(String)}; a path without any handler is
+ * answered with <tt>404 Not Found</tt>, and a method without one with <tt>405 Method Not
+ * Allowed</tt>. A handler which fails with an {@link IllegalArgumentException} is answered with
+ * <tt>400 Bad Request</tt>, any other failure with <tt>500 Internal Server Error</tt>. Request
+ * bodies are (currently) ignored.
+ *
+ * <p>Because handlers may complete in any order, responses to pipelined requests on a kept-alive
+ * connection are held back until all responses to requests received before them were written.
+ *
+ * <p>One instance of this is created per channel; its state is only ever accessed from that
+ * channel's event loop thread, and therefore needs no synchronization.
+ */
 class NettyHttpHandler extends SimpleChannelInboundHandler<HttpObject> {
 
     private static final Logger LOG = LoggerFactory.getLogger(NettyHttpHandler.class);
 
+    private static final long TIMEOUT_SECONDS = 17;
+    private static final int CHUNK_SIZE = 8192;
+
     private final WebHandlers handlers;
+    private final Executor executor;
 
-    public NettyHttpHandler(WebHandlers handlerMap) {
+    /** Responses not yet written, in the order in which their requests were received. */
+    private final Queue<PendingResponse> pending = new ArrayDeque<>();
+
+    /**
+     * Constructor.
+     *
+     * @param executor on which the {@link WebHandlers} are invoked, and the resources which they
+     *     return are opened; this should not be the channel's own event loop, because that may
+     *     block.
+     */
+    public NettyHttpHandler(WebHandlers handlerMap, Executor executor) {
         this.handlers = handlerMap;
+        this.executor = executor;
     }
 
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, HttpObject msg) throws Exception {
-        if (msg instanceof HttpRequest req) {
+    protected void channelRead0(ChannelHandlerContext ctx, HttpObject msg) {
+        // Any (non-GET) request body HttpContent is ignored (and released by our superclass)
+        if (!(msg instanceof HttpRequest req)) return;
 
-            if (!HttpMethod.GET.equals(req.method())) return;
+        var pendingResponse = new PendingResponse(req);
+        pending.add(pendingResponse);
 
-            var uri = new URI(req.uri());
+        if (req.decoderResult().isFailure()) {
+            pendingResponse.complete(text(req, BAD_REQUEST, req.decoderResult().cause()));
 
-            ByteBuf content;
-            HttpResponseStatus status;
-            MediaType mediaType;
+        } else {
+            URI uri;
             try {
-                var futureResource = handlers.handle(uri);
-                // TODO Futures.addCallback() for futureResource.addListener(); to Async this!
-                // TODO does Netty timeout requests after a while as well?
-                // TODO Make this "streaming", for "big" Resources!
-
-                var resource = futureResource.get(17, TimeUnit.SECONDS);
-                // TODO Charset convert this, if required!
-                content = Unpooled.wrappedBuffer(resource.byteSource().read());
-                mediaType = resource.mediaType();
-                status = OK;
-
-            } catch (Throwable e) {
-                LOG.error("Failed to handle {}", uri, e);
-
-                StringWriter sw = new StringWriter();
-                PrintWriter pw = new PrintWriter(sw);
-                e.printStackTrace(pw);
-                content = Unpooled.wrappedBuffer(sw.getBuffer().toString().getBytes(UTF_8));
-
-                mediaType = PLAIN_TEXT_UTF_8;
-                status = HttpResponseStatus.INTERNAL_SERVER_ERROR;
+                uri = new URI(req.uri());
+            } catch (URISyntaxException e) {
+                pendingResponse.complete(text(req, BAD_REQUEST, e));
+                writeCompleted(ctx);
+                return;
             }
 
-            FullHttpResponse response =
-                    new DefaultFullHttpResponse(req.protocolVersion(), status, content);
-            response.headers()
-                    .set(CONTENT_TYPE, mediaType.toString())
-                    .setInt(CONTENT_LENGTH, response.content().readableBytes());
+            var method = req.method().name();
+            var match = handlers.match(uri.getPath() != null ? uri.getPath() : "");
+            if (match == null) {
+                pendingResponse.complete(text(req, NOT_FOUND, req.uri()));
+
+            } else if (HttpMethod.OPTIONS.equals(req.method())) {
+                var response = new DefaultFullHttpResponse(req.protocolVersion(), NO_CONTENT);
+                response.headers().set(ALLOW, match.allow());
+                pendingResponse.complete(response);
+
+            } else if (!match.allows(method)) {
+                var response = text(req, METHOD_NOT_ALLOWED, method + " " + req.uri());
+                response.headers().set(ALLOW, match.allow());
+                pendingResponse.complete(response);
+
+            } else {
+                handle(ctx, pendingResponse, match, method, uri, headers(req));
+                return;
+            }
+        }
+        writeCompleted(ctx);
+    }
+
+    private void handle(
+            ChannelHandlerContext ctx,
+            PendingResponse pendingResponse,
+            WebHandlers.Match match,
+            String method,
+            URI uri,
+            Map<String, String> headers) {
+        // submitAsync() also turns anything thrown by a WebHandler into a failed future
+        var resource = Futures.submitAsync(() -> match.handle(method, uri, headers), executor);
+        // Opening the body of the resource (e.g. a file) may block, so that's not on the event loop
+        var request = pendingResponse.request;
+        var future = Futures.transform(resource, r -> reply(request, r), executor);
+        // TODO Make this timeout configurable?
+        future = Futures.withTimeout(future, TIMEOUT_SECONDS, TimeUnit.SECONDS, ctx.executor());
+        pendingResponse.future = future;
+
+        Futures.addCallback(
+                future,
+                new FutureCallback<>() {
+                    @Override
+                    public void onSuccess(Reply reply) {
+                        if (pendingResponse.discarded) {
+                            reply.release();
+                            return;
+                        }
+                        pendingResponse.complete(reply);
+                        writeCompleted(ctx);
+                    }
 
-            boolean keepAlive = HttpUtil.isKeepAlive(req);
+                    @Override
+                    public void onFailure(Throwable t) {
+                        if (pendingResponse.discarded) return;
+                        var request = pendingResponse.request;
+                        if (isBadRequest(t)) {
+                            LOG.debug("Bad request {}", uri, t);
+                            pendingResponse.complete(text(request, BAD_REQUEST, t));
+                        } else {
+                            LOG.error("Failed to handle {}", uri, t);
+                            pendingResponse.complete(text(request, t));
+                        }
+                        writeCompleted(ctx);
+                    }
+                },
+                ctx.executor());
+    }
+
+    /**
+     * Whether a WebHandler failed because of an {@link IllegalArgumentException}; which is how
+     * they reject invalid requests, e.g. a missing or invalid query parameter.
+     */
+    private static boolean isBadRequest(Throwable t) {
+        for (var cause : Throwables.getCausalChain(t))
+            if (cause instanceof IllegalArgumentException) return true;
+        return false;
+    }
+
+    /** Request headers, as documented on {@link dev.enola.web.WebHandler#handle(URI, Map)}. */
+    private static Map<String, String> headers(HttpRequest req) {
+        var headers = new HashMap<String, String>();
+        for (var header : req.headers()) {
+            var name = header.getKey().toLowerCase(Locale.ROOT);
+            headers.merge(name, header.getValue(), (value1, value2) -> value1 + ", " + value2);
+        }
+        return headers;
+    }
+
+    /** Writes all completed responses at the head of the queue; stops at the first pending one. */
+    private void writeCompleted(ChannelHandlerContext ctx) {
+        PendingResponse next;
+        while ((next = pending.peek()) != null && next.reply != null) {
+            pending.remove();
+            var response = next.reply.response();
+            boolean keepAlive = HttpUtil.isKeepAlive(next.request);
             if (keepAlive) {
-                if (!req.protocolVersion().isKeepAliveDefault()) {
+                if (!next.request.protocolVersion().isKeepAliveDefault()) {
                     response.headers().set(CONNECTION, KEEP_ALIVE);
                 }
             } else {
@@ -109,11 +254,16 @@ class NettyHttpHandler extends SimpleChannelInboundHandler<HttpObject> {
             }
 
             ChannelFuture f = ctx.write(response);
+            if (next.reply.body() != null) f = ctx.write(next.reply.body());
 
             if (!keepAlive) {
                 ignore(f.addListener(ChannelFutureListener.CLOSE));
+                // The client promised not to send further requests; ignore any that it did
+                discardPending();
+                break;
             }
         }
+        ctx.flush();
     }
 
     @Override
@@ -121,6 +271,12 @@ class NettyHttpHandler extends SimpleChannelInboundHandler<HttpObject> {
         ctx.flush();
     }
 
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        discardPending();
+        super.channelInactive(ctx);
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
         LOG.warn("HTTP handling error", cause);
@@ -128,5 +284,130 @@ class NettyHttpHandler extends SimpleChannelInboundHandler<HttpObject> {
         ignore(ctx.close());
     }
 
+    private void discardPending() {
+        PendingResponse next;
+        while ((next = pending.poll()) != null) next.discard();
+    }
+
+    private static FullHttpResponse text(HttpRequest req, Throwable e) {
+        return text(req, INTERNAL_SERVER_ERROR, e);
+    }
+
+    private static FullHttpResponse text(
+            HttpRequest req, HttpResponseStatus status, @Nullable Throwable e) {
+        StringWriter sw = new StringWriter();
+        if (e != null) e.printStackTrace(new PrintWriter(sw));
+        return text(req, status, sw.toString());
+    }
+
+    private static FullHttpResponse text(HttpRequest req, HttpResponseStatus status, String text) {
+        var content = Unpooled.wrappedBuffer(text.getBytes(UTF_8));
+        var response = new DefaultFullHttpResponse(req.protocolVersion(), status, content);
+        response.headers()
+                .set(CONTENT_TYPE, PLAIN_TEXT_UTF_8.toString())
+                .setInt(CONTENT_LENGTH, content.readableBytes());
+        return response;
+    }
+
     private void ignore(ChannelFuture future) {}
+
+    /**
+     * Builds the response to a request for a resource; this may block, e.g. to open a file, and is
+     * thus invoked on the executor instead of on the event loop. Its body is read (in chunks) by
+     * the ChunkedWriteHandler, which {@link NettyHttpServer} also runs off the event loop.
+     */
+    private static Reply reply(HttpRequest request, ReadableResource resource) {
+        try {
+            if (resource instanceof ETaggedResource tagged) {
+                var ifNoneMatch = request.headers().get(IF_NONE_MATCH);
+                if (ifNoneMatch != null && tagged.matches(ifNoneMatch)) {
+                    var version = request.protocolVersion();
+                    var notModified = new DefaultFullHttpResponse(version, NOT_MODIFIED);
+                    setCacheHeaders(notModified, tagged);
+                    return new Reply(notModified, null);
+                }
+            }
+
+            var response = new DefaultHttpResponse(request.protocolVersion(), OK);
+            if (resource instanceof ETaggedResource tagged) setCacheHeaders(response, tagged);
+            // TODO Charset convert this, if required!
+            response.headers().set(CONTENT_TYPE, resource.mediaType().toString());
+            if (resource instanceof NextPageResource page)
+                response.headers().set("Link", "<" + page.next() + ">; rel=\"next\"");
+            var isHead = HttpMethod.HEAD.equals(request.method());
+
+            var buffer =
+                    resource instanceof ByteBufferResource buffered ? buffered.byteBuffer() : null;
+            if (buffer != null) {
+                // Wraps e.g. a memory-mapped file, so it's written without copying it first
+                HttpUtil.setContentLength(response, buffer.remaining());
+                if (isHead) return new Reply(response, LastHttpContent.EMPTY_LAST_CONTENT);
+                var content = new DefaultLastHttpContent(Unpooled.wrappedBuffer(buffer));
+                return new Reply(response, content);
+            }
+
+            var byteSource = resource.byteSource();
+            var size = byteSource.sizeIfKnown();
+            if (size.isPresent()) HttpUtil.setContentLength(response, size.get());
+            else HttpUtil.setTransferEncodingChunked(response, true);
+
+            if (isHead) return new Reply(response, LastHttpContent.EMPTY_LAST_CONTENT);
+            var stream = new ChunkedStream(byteSource.openBufferedStream(), CHUNK_SIZE);
+            return new Reply(response, new HttpChunkedInput(stream));
+
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Failed to open {}", resource.uri(), e);
+            return new Reply(text(request, e), null);
+        }
+    }
+
+    private static void setCacheHeaders(HttpResponse response, ETaggedResource tagged) {
+        response.headers().set(ETAG, tagged.etag()).set(CACHE_CONTROL, tagged.cacheControl());
+        if (tagged.vary() != null) response.headers().set(VARY, tagged.vary());
+    }
+
+    /**
+     * A response; either a {@link FullHttpResponse} without body, or the headers for the body.
+     */
+    private record Reply(HttpResponse response, @Nullable Object body) {
+
+        void release() {
+            if (response instanceof FullHttpResponse full) full.release();
+            if (body instanceof HttpChunkedInput input) {
+                try {
+                    input.close();
+                } catch (Exception e) {
+                    LOG.warn("Failed to close response body", e);
+                }
+            } else if (body != null) ReferenceCountUtil.release(body);
+        }
+    }
+
+    private static class PendingResponse {
+        private final HttpRequest request;
+        private @Nullable ListenableFuture<Reply> future;
+
+        /** Set when completed. */
+        private @Nullable Reply reply;
+
+        private boolean discarded;
+
+        PendingResponse(HttpRequest request) {
+            this.request = request;
+        }
+
+        void complete(FullHttpResponse response) {
+            this.reply = new Reply(response, null);
+        }
+
+        void complete(Reply reply) {
+            this.reply = reply;
+        }
+
+        void discard() {
+            discarded = true;
+            if (future != null) future.cancel(false);
+            if (reply != null) reply.release();
+        }
+    }
 }
@@ -32,12 +32,18 @@ import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.http.HttpServerExpectContinueHandler;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutorGroup;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.InetSocketAddress;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 /**
  * HTTP {@link WebServer} API implementation based on <a href="https://netty.io">Netty</a>.
@@ -61,12 +67,30 @@ public class NettyHttpServer implements WebServer {
 
     private static final Logger LOG = LoggerFactory.getLogger(NettyHttpServer.class);
 
+    /** How many threads invoke {@link WebHandlers} (unless virtual), and read response bodies. */
+    private static final int WEB_HANDLER_THREADS =
+            Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
     private final WebHandlers handlers;
     private InetSocketAddress inetSocketAddress;
     private final NioEventLoopGroup connectionsGroup;
     private final EventLoopGroup handlerGroup;
+    private final EventExecutorGroup bodyGroup;
+    private final ExecutorService webHandlerExecutor;
 
     public NettyHttpServer(int port, WebHandlers handlers) {
+        this(port, handlers, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param virtualThreads whether {@link WebHandlers} are invoked on a new virtual thread for
+     *     each request, instead of on a fixed pool of worker threads; this is useful if many
+     *     handlers block, e.g. on remote calls. They are never invoked directly on the (few) Netty
+     *     event loop threads, because most handlers (at least sometimes) block, e.g. on I/O.
+     */
+    public NettyHttpServer(int port, WebHandlers handlers, boolean virtualThreads) {
         this.inetSocketAddress = new InetSocketAddress(port);
         this.handlers = handlers;
 
@@ -78,6 +102,18 @@ public class NettyHttpServer implements WebServer {
         // TODO Use newListeningFixedThreadPool() to avoid unbounded growth? But how to choose size?
         var handlerExecutor = Executors.newCachedThreadPool("NettyHttpServer-Handler", LOG);
         handlerGroup = new NioEventLoopGroup(0, handlerExecutor);
+
+        // Reads response bodies, which may block (e.g. on files), off the I/O event loop
+        var bodyThreadFactory = new DefaultThreadFactory("NettyHttpServer-Body");
+        bodyGroup = new DefaultEventExecutorGroup(WEB_HANDLER_THREADS, bodyThreadFactory);
+
+        if (virtualThreads)
+            webHandlerExecutor =
+                    Executors.newVirtualThreadPerTaskExecutor("NettyHttpServer-WebHandler", LOG);
+        else
+            webHandlerExecutor =
+                    Executors.newFixedThreadPool(
+                            WEB_HANDLER_THREADS, "NettyHttpServer-WebHandler", LOG);
     }
 
     @Override
@@ -89,7 +125,7 @@ public class NettyHttpServer implements WebServer {
         b.group(connectionsGroup, handlerGroup)
                 .channel(NioServerSocketChannel.class)
                 .handler(new LoggingHandler(LogLevel.INFO))
-                .childHandler(new OurChannelInitializer(handlers));
+                .childHandler(new OurChannelInitializer(handlers, bodyGroup, webHandlerExecutor));
 
         inetSocketAddress =
                 (InetSocketAddress) b.bind(inetSocketAddress).sync().channel().localAddress();
@@ -105,6 +141,8 @@ public class NettyHttpServer implements WebServer {
         try {
             connectionsGroup.shutdownGracefully().get();
             handlerGroup.shutdownGracefully().get();
+            bodyGroup.shutdownGracefully().get();
+            Executors.shutdownAndAwaitTermination(webHandlerExecutor);
         } catch (InterruptedException | ExecutionException e) {
             LOG.error("Failed to close()", e);
         }
@@ -112,9 +150,14 @@ public class NettyHttpServer implements WebServer {
 
     private static class OurChannelInitializer extends ChannelInitializer<SocketChannel> {
         private final WebHandlers handlers;
+        private final EventExecutorGroup bodyGroup;
+        private final Executor webHandlerExecutor;
 
-        OurChannelInitializer(WebHandlers handlers) {
+        OurChannelInitializer(
+                WebHandlers handlers, EventExecutorGroup bodyGroup, Executor webHandlerExecutor) {
             this.handlers = handlers;
+            this.bodyGroup = bodyGroup;
+            this.webHandlerExecutor = webHandlerExecutor;
         }
 
         @Override
@@ -123,7 +166,9 @@ public class NettyHttpServer implements WebServer {
             p.addLast(new HttpServerCodec());
             p.addLast(new HttpContentCompressor((CompressionOptions[]) null));
             p.addLast(new HttpServerExpectContinueHandler());
-            p.addLast(new NettyHttpHandler(handlers));
+            // The ChunkedWriteHandler reads (streamed) response bodies, so not on the event loop
+            p.addLast(bodyGroup, new ChunkedWriteHandler());
+            p.addLast(new NettyHttpHandler(handlers, webHandlerExecutor));
         }
     }
 }
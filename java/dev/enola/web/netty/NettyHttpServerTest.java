@@ -17,6 +17,19 @@
  */
 package dev.enola.web.netty;
 
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import com.google.common.net.MediaType;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import dev.enola.common.io.resource.ReadableResource;
+import dev.enola.common.io.resource.StringResource;
+import dev.enola.web.CachingWebHandler;
+import dev.enola.web.WebHandler;
 import dev.enola.web.WebHandlers;
 import dev.enola.web.WebServer;
 import dev.enola.web.testlib.WebServerTestAbstract;
@@ -26,6 +39,14 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class NettyHttpServerTest extends WebServerTestAbstract {
 
@@ -39,4 +60,130 @@ public class NettyHttpServerTest extends WebServerTestAbstract {
     public void testServer() throws IOException, InterruptedException { // skipcq: JAVA-W1016
         super.testServer();
     }
+
+    @Test
+    public void methods() throws Exception {
+        var handlers = new WebHandlers();
+        handlers.register("/hello", uri -> immediateFuture(StringResource.of("hello, world")));
+        try (var server = create(handlers)) {
+            var uri = URI.create("http://localhost:" + startAndGetPort(server) + "/hello");
+            var client = HttpClient.newHttpClient();
+
+            var head = HttpRequest.newBuilder(uri).HEAD().build();
+            var headResponse = client.send(head, HttpResponse.BodyHandlers.ofString());
+            assertThat(headResponse.statusCode()).isEqualTo(200);
+            assertThat(headResponse.headers().firstValue("Content-Length")).hasValue("12");
+            assertThat(headResponse.body()).isEmpty();
+
+            var post = HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofString("x"));
+            var postResponse = client.send(post.build(), HttpResponse.BodyHandlers.ofString());
+            assertThat(postResponse.statusCode()).isEqualTo(405);
+            assertThat(postResponse.headers().firstValue("Allow")).hasValue("GET, HEAD, OPTIONS");
+
+            var unknown = HttpRequest.newBuilder(uri.resolve("/unknown")).build();
+            var unknownResponse = client.send(unknown, HttpResponse.BodyHandlers.ofString());
+            assertThat(unknownResponse.statusCode()).isEqualTo(404);
+        }
+    }
+
+    @Test
+    public void notModified() throws Exception {
+        var handlers = new WebHandlers();
+        handlers.register(
+                "/hello",
+                new CachingWebHandler(uri -> immediateFuture(StringResource.of("hello, world"))));
+        try (var server = create(handlers)) {
+            var uri = URI.create("http://localhost:" + startAndGetPort(server) + "/hello");
+            var client = HttpClient.newHttpClient();
+
+            var response1 =
+                    client.send(
+                            HttpRequest.newBuilder(uri).build(),
+                            HttpResponse.BodyHandlers.ofString());
+            assertThat(response1.statusCode()).isEqualTo(200);
+            assertThat(response1.headers().firstValue("Cache-Control")).hasValue("no-cache");
+            assertThat(response1.headers().firstValue("Vary")).isEmpty();
+            var etag = response1.headers().firstValue("ETag").orElseThrow();
+
+            var request2 = HttpRequest.newBuilder(uri).header("If-None-Match", etag).build();
+            var response2 = client.send(request2, HttpResponse.BodyHandlers.ofString());
+            assertThat(response2.statusCode()).isEqualTo(304);
+            assertThat(response2.headers().firstValue("ETag")).hasValue(etag);
+            assertThat(response2.body()).isEmpty();
+
+            var request3 = HttpRequest.newBuilder(uri).header("If-None-Match", "\"x\"").build();
+            var response3 = client.send(request3, HttpResponse.BodyHandlers.ofString());
+            assertThat(response3.statusCode()).isEqualTo(200);
+            assertThat(response3.body()).isEqualTo("hello, world");
+        }
+    }
+
+    @Test
+    public void varyOnNegotiatedResponses() throws Exception {
+        var handlers = new WebHandlers();
+        handlers.register(
+                "/api",
+                new CachingWebHandler(
+                        new WebHandler() {
+                            @Override
+                            public ListenableFuture<ReadableResource> handle(URI uri) {
+                                return immediateFuture(StringResource.of("{}"));
+                            }
+
+                            @Override
+                            public MediaType negotiate(Map<String, String> headers) {
+                                return MediaType.JSON_UTF_8;
+                            }
+                        }));
+        try (var server = create(handlers)) {
+            var uri = URI.create("http://localhost:" + startAndGetPort(server) + "/api");
+            var client = HttpClient.newHttpClient();
+
+            var response1 =
+                    client.send(
+                            HttpRequest.newBuilder(uri).build(),
+                            HttpResponse.BodyHandlers.ofString());
+            assertThat(response1.headers().firstValue("Vary")).hasValue("Accept");
+            var etag = response1.headers().firstValue("ETag").orElseThrow();
+
+            var request2 = HttpRequest.newBuilder(uri).header("If-None-Match", etag).build();
+            var response2 = client.send(request2, HttpResponse.BodyHandlers.ofString());
+            assertThat(response2.statusCode()).isEqualTo(304);
+            assertThat(response2.headers().firstValue("Vary")).hasValue("Accept");
+        }
+    }
+
+    @Test
+    public void pipelinedResponsesKeepRequestOrder() throws Exception {
+        var scheduler =
+                MoreExecutors.listeningDecorator(Executors.newSingleThreadScheduledExecutor());
+        var handlers = new WebHandlers();
+        handlers.register(
+                "/slow",
+                uri ->
+                        scheduler.schedule(
+                                () -> StringResource.of("slow", MediaType.PLAIN_TEXT_UTF_8),
+                                200,
+                                TimeUnit.MILLISECONDS));
+        handlers.register("/fast", uri -> immediateFuture(StringResource.of("fast")));
+        try (var server = create(handlers);
+                var socket = new Socket("localhost", startAndGetPort(server))) {
+            var requests =
+                    "GET /slow HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                            + "GET /fast HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n";
+            socket.getOutputStream().write(requests.getBytes(US_ASCII));
+            socket.getOutputStream().flush();
+
+            var responses = new String(socket.getInputStream().readAllBytes(), US_ASCII);
+            assertThat(responses.indexOf("slow")).isAtLeast(0);
+            assertThat(responses.indexOf("slow")).isLessThan(responses.indexOf("fast"));
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private int startAndGetPort(WebServer server) throws InterruptedException {
+        server.start();
+        return server.getInetAddress().getPort();
+    }
 }
@@ -0,0 +1,36 @@
+#!/usr/bin/env bash
+# SPDX-License-Identifier: Apache-2.0
+#
+# Copyright 2024 The Enola <https://enola.dev> Authors
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#     https://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+
+set -euo pipefail
+
+# Runs the //java/dev/enola/benchmark JMH benchmarks (see BenchmarkRunner), and writes their
+# results as JSON to .cache/benchmarks/$VERSION.json, where $VERSION is the "git describe" of
+# the checkout; e.g. to compare a branch with main:
+#
+#   git checkout main && tools/benchmark/benchmark.bash
+#   git checkout topic && tools/benchmark/benchmark.bash \
+#     --baseline=".cache/benchmarks/$(git describe --tags --always main).json"
+#
+# All other arguments (e.g. -f 1 -wi 5 -i 10 -r 2s RdfBenchmarks) are passed through to JMH.
+
+ROOT="$(realpath "$(dirname "$0")/../..")"
+cd "$ROOT"
+
+VERSION=$(git describe --tags --always --dirty)
+mkdir -p "$ROOT/.cache/benchmarks/"
+bazelisk run //java/dev/enola/benchmark:run -- \
+  -rf json -rff "$ROOT/.cache/benchmarks/$VERSION.json" "$@"